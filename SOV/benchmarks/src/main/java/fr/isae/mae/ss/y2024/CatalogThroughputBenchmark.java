@@ -0,0 +1,198 @@
+package fr.isae.mae.ss.y2024;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.TimeScalesFactory;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * Measures the throughput of a 25,000-object catalog: parsing it in each format, propagating
+ * every object over one period with SGP4/SDP4 in parallel, and one pass of the
+ * {@link Constellation} drawn by the viewer. The catalog is synthetic, a mix of low, medium and
+ * geostationary orbits with scattered epochs, written as TLE, OMM KVN and OMM XML files.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CatalogThroughputBenchmark {
+
+    /** Number of objects of the catalog. */
+    static final int OBJECTS = 25000;
+
+    /** A catalog file in one format. */
+    @State(Scope.Benchmark)
+    public static class CatalogFile {
+
+        @Param({ "tle", "kvn", "xml" })
+        private String format;
+
+        private Path file;
+
+		@Setup
+		public void setup() throws IOException, PatriusException {
+			OrbitalContext.getInstance().warmUp();
+			file = Files.createTempFile("sov-catalog", "." + format);
+			writeCatalog(file, format, OBJECTS);
+		}
+
+		@TearDown
+		public void tearDown() throws IOException {
+			Files.deleteIfExists(file);
+		}
+    }
+
+    /** The parsed catalog, and the constellation of its objects. */
+    @State(Scope.Benchmark)
+    public static class Catalog {
+
+        private final List<CatalogObject> objects = new ArrayList<>();
+        private final Constellation constellation = new Constellation();
+
+        /** Time of the next constellation pass, in seconds. */
+        private double time;
+
+		@Setup
+		public void setup() throws IOException, PatriusException {
+			OrbitalContext.getInstance().warmUp();
+			final Path file = Files.createTempFile("sov-catalog", ".tle");
+			try {
+				writeCatalog(file, "tle", OBJECTS);
+				try (CatalogReader reader = CatalogReader.open(file)) {
+					reader.readAll(objects::add);
+				}
+			} finally {
+				Files.delete(file);
+			}
+			for (CatalogObject object : objects) {
+				constellation.add(object);
+			}
+		}
+    }
+
+	@Benchmark
+	public int parse(CatalogFile catalog) throws IOException {
+		try (CatalogReader reader = CatalogReader.open(catalog.file)) {
+			return reader.readAll(object -> { });
+		}
+	}
+
+	/**
+	 * Propagates every object over one period, in parallel on the common pool, and returns the
+	 * number of samples.
+	 */
+	@Benchmark
+	public long propagateSgp4(Catalog catalog) {
+		final Sgp4TrajectoryEngine engine = new Sgp4TrajectoryEngine();
+		return catalog.objects.parallelStream().mapToLong(object -> {
+			final TrajectoryBuffer trajectory = new TrajectoryBuffer();
+			try {
+				engine.propagate(object.getTle(), Sgp4TrajectoryEngine.getPeriod(object.getTle()),
+						CustomOrbit.DEFAULT_SAMPLING_POLICY, trajectory);
+			} catch (PatriusException ex) {
+				throw new IllegalStateException(object.toString(), ex);
+			}
+			return trajectory.size();
+		}).sum();
+	}
+
+	/**
+	 * One pass of the constellation, a minute later than the previous one, as run by the
+	 * {@code ConstellationAnimator} while the clock plays.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@Warmup(iterations = 5, time = 1)
+	@Measurement(iterations = 5, time = 1)
+	public Constellation.Snapshot constellationPass(Catalog catalog) {
+		catalog.time += 60;
+		return catalog.constellation.propagateTo(catalog.time);
+	}
+
+	/**
+	 * Writes the synthetic catalog in one format: {@code tle}, {@code kvn} or {@code xml}.
+	 */
+	static void writeCatalog(Path file, String format, int count) throws IOException, PatriusException {
+		final AbsoluteDate epoch = new AbsoluteDate("2024-01-01T00:00:00", TimeScalesFactory.getUTC());
+		try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			if (format.equals("xml")) {
+				out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<ndm>\n");
+			}
+			for (int k = 0; k < count; k++) {
+				final double revPerDay = k % 10 == 0 ? 1.0027 : k % 10 == 1 ? 2.0056 : 14 + (k % 200) / 100.;
+				final double e = 0.0001 + (k % 7) * 0.001;
+				final double i = k % 98;
+				final double raan = (7 * k) % 360;
+				final double pa = (11 * k) % 360;
+				final double m = (13 * k) % 360;
+				final String name = "OBJECT " + k;
+				final int number = 10000 + k;
+
+				final TLE elements = new TLE(number, 'U', 2000 + k % 24, 1 + k % 300, "A", 0, 999,
+						epoch.shiftedBy(60 * (k % 1440)), revPerDay * 2 * Math.PI / 86400, 0, 0, e,
+						Math.toRadians(i), Math.toRadians(pa), Math.toRadians(raan), Math.toRadians(m), 0, 1e-4);
+				if (format.equals("tle")) {
+					out.write(name + "\n" + elements.getLine1() + "\n" + elements.getLine2() + "\n");
+					continue;
+				}
+
+				final String date = elements.getDate().toString(TimeScalesFactory.getUTC());
+				final String objectId = String.format(Locale.ROOT, "%04d-%03dA", 2000 + k % 24, 1 + k % 300);
+				final String[][] fields = { { "OBJECT_NAME", name }, { "OBJECT_ID", objectId }, { "EPOCH", date },
+						{ "MEAN_MOTION", Double.toString(revPerDay) }, { "ECCENTRICITY", Double.toString(e) },
+						{ "INCLINATION", Double.toString(i) }, { "RA_OF_ASC_NODE", Double.toString(raan) },
+						{ "ARG_OF_PERICENTER", Double.toString(pa) }, { "MEAN_ANOMALY", Double.toString(m) },
+						{ "NORAD_CAT_ID", Integer.toString(number) }, { "BSTAR", "1e-4" } };
+				if (format.equals("kvn")) {
+					writeKvn(out, fields);
+				} else {
+					writeXml(out, fields);
+				}
+			}
+			if (format.equals("xml")) {
+				out.write("</ndm>\n");
+			}
+		}
+	}
+
+	private static void writeKvn(Writer out, String[][] fields) throws IOException {
+		out.write("CCSDS_OMM_VERS = 2.0\n");
+		for (String[] field : fields) {
+			out.write(field[0] + " = " + field[1] + "\n");
+		}
+		out.write("\n");
+	}
+
+	private static void writeXml(Writer out, String[][] fields) throws IOException {
+		out.write("<omm id=\"CCSDS_OMM_VERS\" version=\"2.0\"><body><segment><data>\n");
+		for (String[] field : fields) {
+			out.write("<" + field[0] + ">" + field[1] + "</" + field[0] + ">\n");
+		}
+		out.write("</data></segment></body></omm>\n");
+	}
+}
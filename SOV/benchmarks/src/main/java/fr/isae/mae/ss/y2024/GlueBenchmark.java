@@ -0,0 +1,62 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * Measures the hand-over of a computed trajectory to WorldWind: the copy into the rendered
+ * buffer alone, and the whole application of the trajectory to the path and the satellite.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class GlueBenchmark {
+
+    @Param({ "64", "512", "4096", "32768" })
+    private int points;
+
+    private CustomOrbit orbit;
+    private OrbitalElements elements;
+    private TrajectoryBuffer computed;
+
+	@Setup
+	public void setup() throws PatriusException {
+		orbit = OrbitPreset.LEO.createOrbit(75);
+		elements = orbit.getElements();
+		computed = new TrajectoryBuffer();
+		new KeplerianTrajectoryEngine().propagate(elements.toOrbit(), elements.toOrbit().getKeplerianPeriod(),
+				SamplingPolicy.fixedCount(points), computed);
+		// A read-only trajectory is not recycled by the orbit, so it can be applied again
+		computed.markReadOnly();
+		// The renderables are created once, like after the first update of the application
+		orbit.applyTrajectory(elements, computed);
+	}
+
+	@Benchmark
+	public CustomOrbit glueBetweenPatriusAndWorldwind() {
+		orbit.glueBetweenPatriusAndWorldwind(computed);
+		return orbit;
+	}
+
+	@Benchmark
+	public CustomOrbit applyTrajectory() {
+		orbit.applyTrajectory(elements, computed);
+		return orbit;
+	}
+}
@@ -0,0 +1,51 @@
+package fr.isae.mae.ss.y2024;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+
+/**
+ * The orbits the benchmarks are run on: a low orbit, a geostationary orbit and a highly
+ * elliptical Molniya orbit, whose perigee pass is the hardest part to sample.
+ */
+enum OrbitPreset {
+
+    LEO(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500e3, 0.001, 51.6, 0),
+    GEO(42164e3, 0.0002, 0.05, 0),
+    HEO(26600e3, 0.74, 63.4, 270);
+
+    private final double a;
+    private final double e;
+    private final double inclination;
+    private final double perigeeArgument;
+
+	OrbitPreset(double a, double e, double inclination, double perigeeArgument) {
+		this.a = a;
+		this.e = e;
+		this.inclination = inclination;
+		this.perigeeArgument = perigeeArgument;
+	}
+
+	/**
+	 * @param raan The right ascension of the ascending node, in degrees.
+	 * @return The elements of the preset at J2000, in GCRF.
+	 */
+	OrbitalElements elements(double raan) {
+		return new OrbitalElements(a, e, Math.toRadians(inclination), Math.toRadians(perigeeArgument),
+				Math.toRadians(raan), 0, PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(),
+				Constants.WGS84_EARTH_MU);
+	}
+
+	/**
+	 * Creates an orbit of the preset, its trajectory not computed yet.
+	 *
+	 * @param raan The right ascension of the ascending node, in degrees.
+	 * @return The orbit.
+	 */
+	CustomOrbit createOrbit(double raan) {
+		return new CustomOrbit(a, e, Math.toRadians(inclination), Math.toRadians(perigeeArgument),
+				Math.toRadians(raan), 0, PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(),
+				Constants.WGS84_EARTH_MU, name());
+	}
+}
@@ -0,0 +1,66 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * Measures how the wall time of a batch of numerical propagations scales with the number of
+ * worker threads of an {@link OrbitSetPropagator}. The batch mixes the three presets at various
+ * orientations; with linear scaling, the time is divided by the number of threads up to the
+ * number of cores.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OrbitSetPropagatorBenchmark {
+
+    @Param({ "1", "2", "4", "8" })
+    private int threads;
+
+    @Param({ "64" })
+    private int orbits;
+
+    private final List<OrbitalElements> batch = new ArrayList<>();
+    private final SamplingPolicy sampling = SamplingPolicy.fixedStep(60.);
+    private OrbitSetPropagator propagator;
+
+	@Setup
+	public void setup() throws PatriusException {
+		final OrbitPreset[] presets = OrbitPreset.values();
+		for (int k = 0; k < orbits; k++) {
+			batch.add(presets[k % presets.length].elements(7 * k % 360));
+		}
+		OrbitalContext.getInstance().warmUp();
+		propagator = new OrbitSetPropagator(threads, () -> NumericalTrajectoryEngine.adaptive(Collections.emptyList()));
+	}
+
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		propagator.shutdown(1000);
+	}
+
+	@Benchmark
+	public List<TrajectoryBuffer> propagateBatch() throws PatriusException, InterruptedException {
+		return propagator.propagate(batch, sampling);
+	}
+}
@@ -0,0 +1,98 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec4;
+import gov.nasa.worldwind.globes.Earth;
+import gov.nasa.worldwind.globes.EllipsoidalGlobe;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.render.Path;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+
+/**
+ * Measures the search of the position of a path under the cursor, run by the
+ * {@code ContextMenuController} on every click on an orbit and every mouse move over it. The pick
+ * ray comes from far above a sample of the path and goes through it, like a click on the path
+ * seen from space. The {@link PathPickingService} is measured with its index already built and
+ * with an index rebuilt on each pick, against a linear scan of the positions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PathPickingBenchmark {
+
+    @Param({ "64", "512", "4096", "32768" })
+    private int points;
+
+    /** Globe without elevation data, so that nothing is loaded or retrieved. */
+    private final Globe globe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS,
+            Earth.WGS84_ES, new ZeroElevationModel());
+
+    private TrajectoryPositionView positions;
+    private Path path;
+    private Line pickRay;
+
+    private final PathPickingService pickingService = new PathPickingService();
+
+	@Setup
+	public void setup() throws PatriusException {
+		final OrbitalElements elements = OrbitPreset.LEO.elements(75);
+		final TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		new KeplerianTrajectoryEngine().propagate(elements.toOrbit(), elements.toOrbit().getKeplerianPeriod(),
+				SamplingPolicy.fixedCount(points), trajectory);
+		positions = new TrajectoryPositionView(trajectory);
+		path = new Path(positions);
+
+		final Vec4 target = globe.computePointFromPosition(positions.get(points / 3));
+		final Vec4 eye = target.multiply3(4);
+		pickRay = new Line(eye, target.subtract3(eye).normalize3());
+	}
+
+	@Benchmark
+	public Position pick() {
+		return pickingService.pick(path, pickRay, globe);
+	}
+
+	@Benchmark
+	public Position pickWithRebuild() {
+		pickingService.invalidate(path);
+		return pickingService.pick(path, pickRay, globe);
+	}
+
+	/**
+	 * Projects every position and keeps the one closest to the pick ray, as done before the
+	 * picking service.
+	 */
+	@Benchmark
+	public Position linearScan() {
+		Position closestPosition = null;
+		double closestDistance = Double.MAX_VALUE;
+		for (Position position : positions) {
+			Vec4 pathPoint = globe.computePointFromPosition(position);
+			double distance = pathPoint.distanceTo3(pickRay.nearestPointTo(pathPoint));
+			if (distance < closestDistance) {
+				closestDistance = distance;
+				closestPosition = position;
+			}
+		}
+		return closestDistance < PathPickingService.DEFAULT_PICK_TOLERANCE ? closestPosition : null;
+	}
+}
@@ -0,0 +1,70 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * Measures the propagation of one orbit over one revolution, as done by every orbit update,
+ * without the trajectory cache: the full tier with the closed-form engine or the adaptive
+ * numerical integrator, and the preview tier. The closed-form engine of the full tier keeps no
+ * perifocal samples, so that Kepler's equation is solved at every call; the preview tier uses
+ * the shared engine, like a slider drag changing the orientation of the orbit only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PropagationBenchmark {
+
+    /** The available engines of the full tier. */
+    public enum Engine {
+        KEPLERIAN, NUMERICAL
+    }
+
+    @Param({ "LEO", "GEO", "HEO" })
+    private OrbitPreset preset;
+
+    @Param({ "KEPLERIAN", "NUMERICAL" })
+    private Engine engine;
+
+    private final OrbitPropagation propagation = new OrbitPropagation();
+    private final TrajectoryBuffer trajectory = new TrajectoryBuffer();
+    private KeplerianOrbit orbit;
+
+	@Setup
+	public void setup() {
+		orbit = preset.elements(75).toOrbit();
+		propagation.setTrajectoryEngine(engine == Engine.NUMERICAL
+				? NumericalTrajectoryEngine.adaptive(Collections.emptyList())
+				: new KeplerianTrajectoryEngine(0));
+	}
+
+	@Benchmark
+	public TrajectoryBuffer propagateFull() throws PatriusException {
+		propagation.propagate(orbit, false, PropagationWindow.ONE_REVOLUTION, trajectory);
+		return trajectory;
+	}
+
+	@Benchmark
+	public TrajectoryBuffer propagatePreview() throws PatriusException {
+		propagation.propagate(orbit, true, PropagationWindow.ONE_REVOLUTION, trajectory);
+		return trajectory;
+	}
+}
@@ -0,0 +1,86 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link CustomOrbit#updateOrbit} end to end, as run for every slider change: cache
+ * lookup, propagation on a miss, copy into the rendered buffer and update of the renderables.
+ * Each call changes either the semi-major axis, whose misses solve Kepler's equation for every
+ * sample, or the inclination, whose misses only rotate the perifocal samples kept by the
+ * Keplerian engine. On a miss every value is new, on a hit the orbit alternates between two
+ * values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class UpdateOrbitBenchmark {
+
+    /** Whether the updates find their trajectory in the cache. */
+    public enum Cache {
+        HIT, MISS
+    }
+
+    /** The element changed by the updates. */
+    public enum Change {
+        /** The semi-major axis, which changes the shape of the ellipse. */
+        SHAPE,
+        /** The inclination, which only changes the orientation of the ellipse. */
+        ORIENTATION
+    }
+
+    /** Semi-major axis change between two updates, in meters. */
+    private static final double SEMI_MAJOR_AXIS_STEP = 1e-2;
+
+    /** Inclination change between two updates, in radians. */
+    private static final double INCLINATION_STEP = 1e-6;
+
+    /** Number of distinct values of the misses, far more than the cache holds. */
+    private static final long MISS_CYCLE = 1_000_000;
+
+    @Param({ "LEO", "GEO", "HEO" })
+    private OrbitPreset preset;
+
+    @Param({ "MISS", "HIT" })
+    private Cache cache;
+
+    @Param({ "SHAPE", "ORIENTATION" })
+    private Change change;
+
+    private CustomOrbit orbit;
+    private OrbitalElements elements;
+    private long updates;
+
+	@Setup
+	public void setup() {
+		orbit = preset.createOrbit(75);
+		orbit.setTrajectoryCache(new TrajectoryCache(4));
+		elements = orbit.getElements();
+		orbit.getPath();
+	}
+
+	@Benchmark
+	public CustomOrbit updateOrbit() {
+		final long step = cache == Cache.HIT ? updates & 1 : updates % MISS_CYCLE;
+		updates++;
+		final double a = change == Change.SHAPE ? elements.getA() + step * SEMI_MAJOR_AXIS_STEP : elements.getA();
+		final double i = change == Change.ORIENTATION ? elements.getI() + step * INCLINATION_STEP : elements.getI();
+		orbit.updateOrbit(a, elements.getE(), i, elements.getPa(), elements.getRaan(), elements.getAnomaly(),
+				elements.getType(), elements.getFrame(), elements.getDate(), elements.getMu(), "Benchmark");
+		return orbit;
+	}
+}
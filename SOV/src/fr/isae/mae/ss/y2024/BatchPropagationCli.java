@@ -0,0 +1,390 @@
+package fr.isae.mae.ss.y2024;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The BatchPropagationCli propagates every object of a satellite catalog without the WorldWind
+ * viewer, so that ephemerides can be generated on headless machines:
+ * <pre>
+ *   java fr.isae.mae.ss.y2024.BatchPropagationCli [options] catalog
+ * </pre>
+ * The catalog is a TLE/3LE or OMM file read by {@link CatalogReader}, or {@code -} for element
+ * sets on the standard input. The options are:
+ * <ul>
+ * <li>{@code --engine sgp4|kepler}: propagate the mean elements with SGP4/SDP4 (default), or
+ * their osculating elements in two-body motion;</li>
+ * <li>{@code --revolutions n} or {@code --duration s}: the propagation window, one revolution by
+ * default;</li>
+ * <li>{@code --step s}, {@code --count n} or {@code --chord m}: the sampling, at most 250 m of
+ * chord error by default;</li>
+ * <li>{@code --format csv|binary}: one CSV row per sample (default), or one
+ * {@link EphemerisFile} per object;</li>
+ * <li>{@code --output path}: the output file, {@code -} for the standard output (default), or a
+ * directory receiving one {@code <catalog number>.sove} file per object in binary format;
+ * binary ephemerides written to a file or to the standard output follow each other;</li>
+ * <li>{@code --threads n}: the number of worker threads, every processor by default.</li>
+ * </ul>
+ * Objects are read, propagated on the workers of an {@link OrbitSetPropagator} and written as a
+ * stream: only a few trajectories per worker are in flight at any time, so memory does not grow
+ * with the catalog, and they are written in catalog order. Malformed catalog records are
+ * skipped. The throughput is reported on the standard error once done.
+ */
+public final class BatchPropagationCli {
+
+    /** The available engines. */
+    public enum Engine {
+        SGP4, KEPLER
+    }
+
+    /** The available output formats. */
+    public enum Format {
+        CSV, BINARY
+    }
+
+    /** Exit status of a successful run. */
+    public static final int EXIT_SUCCESS = 0;
+
+    /**
+     * Exit status when a catalog record was malformed, an object could not be propagated or the
+     * output could not be written.
+     */
+    public static final int EXIT_FAILURE = 1;
+
+    /** Exit status when the arguments are invalid. */
+    public static final int EXIT_USAGE = 2;
+
+    /** Number of trajectories in flight per worker thread. */
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+
+    /** Extension of the binary ephemeris files written to a directory. */
+    private static final String BINARY_EXTENSION = ".sove";
+
+    private static final String CSV_HEADER =
+            "catalog_number,name,time_s,latitude_deg,longitude_deg,altitude_m,x_m,y_m,z_m";
+
+    private static final String USAGE = "Usage: BatchPropagationCli [--engine sgp4|kepler]"
+            + " [--revolutions n | --duration s] [--step s | --count n | --chord m] [--format csv|binary]"
+            + " [--output path|-] [--threads n] catalog|-";
+
+    private Path catalog;
+    private Engine engine = Engine.SGP4;
+    private PropagationWindow window = PropagationWindow.ONE_REVOLUTION;
+    private SamplingPolicy sampling = OrbitPropagation.DEFAULT_SAMPLING_POLICY;
+    private Format format = Format.CSV;
+    private Path output;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The outcome of the propagation of one object. The trajectory buffer is given back to the
+     * pool once written.
+     */
+    private static final class Result {
+        private final CatalogObject object;
+        private final OrbitalElements elements;
+        private final TrajectoryBuffer trajectory;
+        private final Exception failure;
+
+        private Result(CatalogObject object, OrbitalElements elements, TrajectoryBuffer trajectory,
+                Exception failure) {
+            this.object = object;
+            this.elements = elements;
+            this.trajectory = trajectory;
+            this.failure = failure;
+        }
+    }
+
+	private BatchPropagationCli() {
+	}
+
+	/**
+	 * Runs the propagation and exits with its status.
+	 *
+	 * @param args The command line arguments.
+	 */
+	public static void main(String[] args) {
+		System.exit(run(args, System.out, System.err));
+	}
+
+	/**
+	 * Runs the propagation.
+	 *
+	 * @param args   The command line arguments.
+	 * @param stdout The standard output, receiving the ephemerides when no output file is given.
+	 * @param stderr The standard error, receiving the errors and the throughput.
+	 * @return The exit status.
+	 */
+	public static int run(String[] args, OutputStream stdout, PrintStream stderr) {
+		final BatchPropagationCli cli = new BatchPropagationCli();
+		try {
+			cli.parse(args);
+		} catch (IllegalArgumentException ex) {
+			stderr.println(ex.getMessage());
+			stderr.println(USAGE);
+			return EXIT_USAGE;
+		}
+		try {
+			return cli.propagate(stdout, stderr);
+		} catch (IOException | PatriusException ex) {
+			stderr.println("Batch propagation failed: " + ex.getMessage());
+			return EXIT_FAILURE;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			stderr.println("Batch propagation interrupted");
+			return EXIT_FAILURE;
+		}
+	}
+
+	/**
+	 * Reads the options and the catalog argument.
+	 *
+	 * @throws IllegalArgumentException If an argument is invalid.
+	 */
+	private void parse(String[] args) {
+		for (int k = 0; k < args.length; k++) {
+			final String arg = args[k];
+			if (!arg.startsWith("--")) {
+				if (catalog != null || k != args.length - 1) {
+					throw new IllegalArgumentException("Unexpected argument: " + arg);
+				}
+				catalog = Paths.get(arg);
+				continue;
+			}
+			if (k + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value of " + arg);
+			}
+			final String value = args[++k];
+			try {
+				switch (arg) {
+				case "--engine":
+					engine = Engine.valueOf(value.toUpperCase(Locale.ROOT));
+					break;
+				case "--revolutions":
+					window = PropagationWindow.revolutions(Double.parseDouble(value));
+					break;
+				case "--duration":
+					window = PropagationWindow.duration(Double.parseDouble(value));
+					break;
+				case "--step":
+					sampling = SamplingPolicy.fixedStep(Double.parseDouble(value));
+					break;
+				case "--count":
+					sampling = SamplingPolicy.fixedCount(Integer.parseInt(value));
+					break;
+				case "--chord":
+					sampling = SamplingPolicy.maxChordError(Double.parseDouble(value));
+					break;
+				case "--format":
+					format = Format.valueOf(value.toUpperCase(Locale.ROOT));
+					break;
+				case "--output":
+					output = "-".equals(value) ? null : Paths.get(value);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(value);
+					if (threads < 1) {
+						throw new IllegalArgumentException("Invalid number of threads: " + value);
+					}
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + arg);
+				}
+			} catch (NumberFormatException ex) {
+				throw new IllegalArgumentException("Invalid value of " + arg + ": " + value);
+			}
+		}
+		if (catalog == null) {
+			throw new IllegalArgumentException("Missing catalog");
+		}
+		if (format == Format.CSV && output != null && Files.isDirectory(output)) {
+			throw new IllegalArgumentException("Only binary ephemerides can be written to a directory");
+		}
+	}
+
+	/**
+	 * Streams the catalog through the worker threads and writes the trajectories in catalog order.
+	 *
+	 * @return The exit status.
+	 */
+	private int propagate(OutputStream stdout, PrintStream stderr)
+			throws IOException, PatriusException, InterruptedException {
+		final boolean toDirectory = output != null && Files.isDirectory(output);
+
+		// Every object of a catalog is different: the closed-form engines keep no perifocal samples
+		final OrbitSetPropagator workers = new OrbitSetPropagator(threads, () -> new KeplerianTrajectoryEngine(0));
+		final Sgp4TrajectoryEngine sgp4 = new Sgp4TrajectoryEngine();
+		final String engineKind = engine == Engine.SGP4 ? Sgp4TrajectoryEngine.KIND : KeplerianTrajectoryEngine.KIND;
+		final Queue<TrajectoryBuffer> pool = new ConcurrentLinkedQueue<>();
+		final ArrayDeque<CompletableFuture<Result>> inFlight = new ArrayDeque<>();
+		final int maxInFlight = IN_FLIGHT_PER_THREAD * threads;
+
+		long objects = 0;
+		long samples = 0;
+		int failures = 0;
+		int skipped = 0;
+		final long startTime = System.nanoTime();
+		try (CatalogReader reader = openCatalog();
+				OutputStream out = openOutput(stdout, toDirectory)) {
+			final Writer csv = format == Format.CSV
+					? new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)) : null;
+			final WritableByteChannel binary = format == Format.BINARY && out != null ? Channels.newChannel(out)
+					: null;
+			final StringBuilder line = new StringBuilder(128);
+			if (csv != null) {
+				csv.write(CSV_HEADER);
+				csv.write('\n');
+			}
+
+			for (CatalogObject object = reader.nextValid(); object != null || !inFlight.isEmpty();) {
+				if (object != null && inFlight.size() < maxInFlight) {
+					final CatalogObject submitted = object;
+					inFlight.addLast(workers.submit(kepler -> compute(submitted, kepler, sgp4, pool)));
+					object = reader.nextValid();
+					continue;
+				}
+
+				final Result result = OrbitSetPropagator.await(inFlight.pollFirst());
+				if (result.failure != null) {
+					failures++;
+					stderr.println("Cannot propagate " + result.object + ": " + result.failure.getMessage());
+					continue;
+				}
+				if (csv != null) {
+					writeCsv(csv, line, result);
+				} else if (binary != null) {
+					EphemerisFile.write(binary, result.elements, engineKind, "", sampling, window, result.trajectory);
+				} else {
+					EphemerisFile.write(output.resolve(result.object.getCatalogNumber() + BINARY_EXTENSION),
+							result.elements, engineKind, "", sampling, window, result.trajectory);
+				}
+				objects++;
+				samples += result.trajectory.size();
+				pool.offer(result.trajectory);
+			}
+			if (csv != null) {
+				csv.flush();
+			}
+			skipped = reader.getSkippedCount();
+		} finally {
+			workers.shutdown(0);
+		}
+
+		final double seconds = (System.nanoTime() - startTime) * 1e-9;
+		stderr.println(String.format(Locale.ROOT,
+				"Propagated %d objects (%d samples) in %.3f s: %.1f objects/s, %.1f samples/s", objects, samples,
+				seconds, objects / seconds, samples / seconds));
+		if (skipped > 0) {
+			stderr.println(skipped + " malformed catalog records were skipped");
+		}
+		if (failures > 0) {
+			stderr.println(failures + " objects could not be propagated");
+		}
+		return failures > 0 || skipped > 0 ? EXIT_FAILURE : EXIT_SUCCESS;
+	}
+
+	/**
+	 * Propagates one object on a worker thread into a pooled buffer. Propagation failures are
+	 * returned so that the other objects are still written.
+	 */
+	private Result compute(CatalogObject object, TrajectoryEngine kepler, Sgp4TrajectoryEngine sgp4,
+			Queue<TrajectoryBuffer> pool) {
+		TrajectoryBuffer trajectory = pool.poll();
+		if (trajectory == null) {
+			trajectory = new TrajectoryBuffer();
+		}
+		try {
+			final OrbitalElements elements = object.toElements();
+			if (engine == Engine.SGP4) {
+				sgp4.propagate(object.getTle(), window, sampling, trajectory);
+			} else {
+				final KeplerianOrbit orbit = elements.toOrbit();
+				kepler.propagate(orbit, window.getDuration(orbit), sampling, trajectory);
+			}
+			return new Result(object, elements, trajectory, null);
+		} catch (PatriusException | RuntimeException ex) {
+			pool.offer(trajectory);
+			return new Result(object, null, null, ex);
+		}
+	}
+
+	private CatalogReader openCatalog() throws IOException {
+		if ("-".equals(catalog.toString())) {
+			return new TleCatalogReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+		}
+		return CatalogReader.open(catalog);
+	}
+
+	/**
+	 * Opens the output stream, which does not close the standard output. Files written to a
+	 * directory are opened separately, so there is no stream then.
+	 *
+	 * @return The output stream, or null when writing to a directory.
+	 */
+	private OutputStream openOutput(OutputStream stdout, boolean toDirectory) throws IOException {
+		if (toDirectory) {
+			return null;
+		}
+		if (output == null) {
+			return new BufferedOutputStream(stdout) {
+				@Override
+				public void close() throws IOException {
+					flush();
+				}
+			};
+		}
+		return new BufferedOutputStream(Files.newOutputStream(output));
+	}
+
+	/**
+	 * Writes one CSV row per sample, the angles in degrees.
+	 */
+	private static void writeCsv(Writer csv, StringBuilder line, Result result) throws IOException {
+		final TrajectoryBuffer trajectory = result.trajectory;
+		final String prefix = result.object.getCatalogNumber() + "," + quote(result.object.getName()) + ",";
+		for (int k = 0; k < trajectory.size(); k++) {
+			line.setLength(0);
+			line.append(prefix).append(trajectory.getTime(k)).append(',')
+					.append(Math.toDegrees(trajectory.getLatitude(k))).append(',')
+					.append(Math.toDegrees(trajectory.getLongitude(k))).append(',')
+					.append(trajectory.getAltitude(k));
+			if (trajectory.hasCartesian()) {
+				line.append(',').append(trajectory.getX(k)).append(',').append(trajectory.getY(k)).append(',')
+						.append(trajectory.getZ(k));
+			} else {
+				line.append(",,,");
+			}
+			line.append('\n');
+			csv.append(line);
+		}
+	}
+
+	/**
+	 * Quotes a CSV field when it holds a separator or a quote.
+	 */
+	static String quote(String field) {
+		if (field.indexOf(',') < 0 && field.indexOf('"') < 0) {
+			return field;
+		}
+		return '"' + field.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,218 @@
+package fr.isae.mae.ss.y2024;
+
+/**
+ * The BoundingSphereHierarchy finds the vertex of a polyline closest to a ray in logarithmic
+ * time. It is a binary tree over contiguous runs of vertices: since consecutive vertices of a
+ * path are close to each other, each run is tightly bounded by a sphere, and a query only
+ * descends into the runs whose sphere can hold a vertex closer than the best one found so far.
+ * <p>
+ * The hierarchy reads the coordinate arrays it is built on without copying them; they must not
+ * change while it is used. A hierarchy is immutable once built and can be queried from any thread.
+ */
+public final class BoundingSphereHierarchy {
+
+    /** Largest number of vertices of a leaf. */
+    private static final int LEAF_SIZE = 8;
+
+    /** Depth of the query stack, enough for any array a Java program can hold. */
+    private static final int MAX_DEPTH = 64;
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+    private final int count;
+
+    /** The bounding spheres of the nodes, the root first. */
+    private final double[] centerX;
+    private final double[] centerY;
+    private final double[] centerZ;
+    private final double[] radius;
+
+    /** The vertex range [from, to) of each node. */
+    private final int[] from;
+    private final int[] to;
+
+    /** The index of the first child of each node, the second one following it, or -1 for a leaf. */
+    private final int[] firstChild;
+
+    /** Number of nodes built so far. */
+    private int nodeCount;
+
+	/**
+	 * Builds the hierarchy of a polyline.
+	 *
+	 * @param x     The X coordinates of the vertices.
+	 * @param y     The Y coordinates of the vertices.
+	 * @param z     The Z coordinates of the vertices.
+	 * @param count The number of vertices, the first ones of the arrays.
+	 */
+	public BoundingSphereHierarchy(double[] x, double[] y, double[] z, int count) {
+		if (count < 0 || count > x.length || count > y.length || count > z.length) {
+			throw new IllegalArgumentException("Invalid vertex count: " + count);
+		}
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.count = count;
+
+		// Ranges are only split above LEAF_SIZE vertices, so every leaf but a lone root holds at
+		// least LEAF_SIZE / 2 of them, and a binary tree has fewer than twice as many nodes as leaves
+		final int minLeafSize = LEAF_SIZE / 2;
+		final int capacity = Math.max(1, 2 * ((count + minLeafSize - 1) / minLeafSize));
+		this.centerX = new double[capacity];
+		this.centerY = new double[capacity];
+		this.centerZ = new double[capacity];
+		this.radius = new double[capacity];
+		this.from = new int[capacity];
+		this.to = new int[capacity];
+		this.firstChild = new int[capacity];
+		if (count > 0) {
+			build(newNode(0, count));
+		}
+	}
+
+	private int newNode(int start, int end) {
+		final int node = nodeCount++;
+		from[node] = start;
+		to[node] = end;
+		firstChild[node] = -1;
+		return node;
+	}
+
+	/**
+	 * Bounds the vertices of a node and splits it in two halves if it is not a leaf.
+	 */
+	private void build(int node) {
+		final int start = from[node];
+		final int end = to[node];
+
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double minZ = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		double maxZ = Double.NEGATIVE_INFINITY;
+		for (int k = start; k < end; k++) {
+			minX = Math.min(minX, x[k]);
+			minY = Math.min(minY, y[k]);
+			minZ = Math.min(minZ, z[k]);
+			maxX = Math.max(maxX, x[k]);
+			maxY = Math.max(maxY, y[k]);
+			maxZ = Math.max(maxZ, z[k]);
+		}
+		final double cx = 0.5 * (minX + maxX);
+		final double cy = 0.5 * (minY + maxY);
+		final double cz = 0.5 * (minZ + maxZ);
+		double r2 = 0;
+		for (int k = start; k < end; k++) {
+			final double dx = x[k] - cx;
+			final double dy = y[k] - cy;
+			final double dz = z[k] - cz;
+			r2 = Math.max(r2, dx * dx + dy * dy + dz * dz);
+		}
+		centerX[node] = cx;
+		centerY[node] = cy;
+		centerZ[node] = cz;
+		radius[node] = Math.sqrt(r2);
+
+		if (end - start > LEAF_SIZE) {
+			final int middle = (start + end) >>> 1;
+			final int left = newNode(start, middle);
+			newNode(middle, end);
+			firstChild[node] = left;
+			build(left);
+			build(left + 1);
+		}
+	}
+
+	/**
+	 * Finds the vertex closest to a ray.
+	 *
+	 * @param ox          The X coordinate of the ray origin.
+	 * @param oy          The Y coordinate of the ray origin.
+	 * @param oz          The Z coordinate of the ray origin.
+	 * @param dx          The X coordinate of the ray direction.
+	 * @param dy          The Y coordinate of the ray direction.
+	 * @param dz          The Z coordinate of the ray direction.
+	 * @param maxDistance The largest distance between the ray and the vertex.
+	 * @return The index of the closest vertex, or -1 if no vertex is within the distance.
+	 */
+	public int findNearest(double ox, double oy, double oz, double dx, double dy, double dz, double maxDistance) {
+		final double norm = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		if (count == 0 || !(norm > 0)) {
+			return -1;
+		}
+		final double ux = dx / norm;
+		final double uy = dy / norm;
+		final double uz = dz / norm;
+
+		int best = -1;
+		double bestDistance = maxDistance;
+		final int[] stack = new int[MAX_DEPTH];
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			final int node = stack[--top];
+			if (distanceToRay(centerX[node], centerY[node], centerZ[node], ox, oy, oz, ux, uy, uz)
+					- radius[node] >= bestDistance) {
+				continue;
+			}
+			final int left = firstChild[node];
+			if (left < 0) {
+				for (int k = from[node]; k < to[node]; k++) {
+					final double distance = distanceToRay(x[k], y[k], z[k], ox, oy, oz, ux, uy, uz);
+					if (distance < bestDistance) {
+						bestDistance = distance;
+						best = k;
+					}
+				}
+				continue;
+			}
+			// Descend first into the child closer to the ray, so that the other one is more
+			// likely to be pruned
+			final int right = left + 1;
+			final double leftBound = distanceToRay(centerX[left], centerY[left], centerZ[left], ox, oy, oz, ux, uy,
+					uz) - radius[left];
+			final double rightBound = distanceToRay(centerX[right], centerY[right], centerZ[right], ox, oy, oz, ux,
+					uy, uz) - radius[right];
+			if (leftBound < rightBound) {
+				stack[top++] = right;
+				stack[top++] = left;
+			} else {
+				stack[top++] = left;
+				stack[top++] = right;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Computes the distance between a point and a ray of unit direction. Points behind the
+	 * origin are at their distance from the origin.
+	 */
+	private static double distanceToRay(double px, double py, double pz, double ox, double oy, double oz,
+			double ux, double uy, double uz) {
+		final double wx = px - ox;
+		final double wy = py - oy;
+		final double wz = pz - oz;
+		final double t = Math.max(0, wx * ux + wy * uy + wz * uz);
+		final double ex = wx - t * ux;
+		final double ey = wy - t * uy;
+		final double ez = wz - t * uz;
+		return Math.sqrt(ex * ex + ey * ey + ez * ez);
+	}
+
+	/**
+	 * @return The number of vertices.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @return The number of nodes of the tree.
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+}
@@ -0,0 +1,73 @@
+package fr.isae.mae.ss.y2024;
+
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLEPropagator;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The CatalogObject class is one entry of a satellite catalog: a name and the mean elements of
+ * its two-line element set, whichever format (TLE or OMM) it was read from.
+ */
+public final class CatalogObject {
+
+    /** The object name, e.g. "ISS (ZARYA)". */
+    private final String name;
+
+    /** The mean elements of the object. */
+    private final TLE tle;
+
+	/**
+	 * Constructs a catalog entry.
+	 *
+	 * @param name The object name.
+	 * @param tle  The mean elements of the object.
+	 */
+	public CatalogObject(String name, TLE tle) {
+		this.name = name;
+		this.tle = tle;
+	}
+
+	/**
+	 * Converts the mean elements to the osculating Keplerian elements at the element set epoch,
+	 * in the TEME frame the SGP4 theory works in. The result can be drawn as a
+	 * {@link CustomOrbit}; a {@link Constellation} propagates the element set itself.
+	 *
+	 * @return The osculating elements at the element set epoch.
+	 * @throws PatriusException If the SGP4/SDP4 initialization fails.
+	 */
+	public OrbitalElements toElements() throws PatriusException {
+		final KeplerianOrbit orbit = new KeplerianOrbit(
+				TLEPropagator.selectExtrapolator(tle).getInitialState().getOrbit());
+		return new OrbitalElements(orbit.getA(), orbit.getE(), orbit.getI(), orbit.getPerigeeArgument(),
+				orbit.getRightAscensionOfAscendingNode(), orbit.getMeanAnomaly(), PositionAngle.MEAN,
+				orbit.getFrame(), orbit.getDate(), orbit.getMu());
+	}
+
+	/**
+	 * @return The object name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The NORAD catalog number.
+	 */
+	public int getCatalogNumber() {
+		return tle.getSatelliteNumber();
+	}
+
+	/**
+	 * @return The mean elements of the object.
+	 */
+	public TLE getTle() {
+		return tle;
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + getCatalogNumber() + ")";
+	}
+}
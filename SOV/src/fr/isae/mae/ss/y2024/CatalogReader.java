@@ -0,0 +1,212 @@
+package fr.isae.mae.ss.y2024;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.TimeScalesFactory;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * A CatalogReader streams the objects of a satellite catalog file one at a time, so that
+ * catalogs of tens of thousands of objects are read without holding the file, or the parsed
+ * catalog, in memory. Three formats are supported:
+ * <ul>
+ * <li>two- and three-line element sets ({@link TleCatalogReader});</li>
+ * <li>CCSDS Orbit Mean-elements Messages in key = value notation ({@link OmmKvnCatalogReader});</li>
+ * <li>CCSDS Orbit Mean-elements Messages in XML ({@link OmmXmlCatalogReader}).</li>
+ * </ul>
+ * A malformed record is reported as a {@link MalformedRecordException} once the reader has moved
+ * past it, so that one bad element set does not lose the rest of the catalog.
+ */
+public abstract class CatalogReader implements Closeable {
+
+    /** Radians per second in one revolution per day. */
+    private static final double REV_PER_DAY = 2 * Math.PI / 86400;
+
+    private static final Logger LOGGER = Logger.getLogger(CatalogReader.class.getName());
+
+    /**
+     * The MalformedRecordException reports a record that cannot be parsed. The reader is
+     * positioned after it, so reading can go on with the next record.
+     */
+    public static class MalformedRecordException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param message The description of the problem.
+         */
+        public MalformedRecordException(String message) {
+            super(message);
+        }
+
+        /**
+         * @param message The description of the problem.
+         * @param cause   The parse error.
+         */
+        public MalformedRecordException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /** Number of records skipped by {@link #nextValid()}. */
+    private int skipped;
+
+	/**
+	 * Opens a catalog file, choosing the reader from the file extension: {@code .xml} for OMM
+	 * XML, {@code .kvn} or {@code .omm} for OMM KVN and two-line element sets otherwise.
+	 *
+	 * @param file The catalog file.
+	 * @return A reader positioned before the first object.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public static CatalogReader open(Path file) throws IOException {
+		final String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		if (name.endsWith(".xml")) {
+			return new OmmXmlCatalogReader(Files.newInputStream(file));
+		}
+		if (name.endsWith(".kvn") || name.endsWith(".omm")) {
+			return new OmmKvnCatalogReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+		}
+		return new TleCatalogReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Reads the next object. After a {@link MalformedRecordException} or a
+	 * {@link PatriusException}, the reader is positioned on the next record.
+	 *
+	 * @return The next object, or null at the end of the catalog.
+	 * @throws MalformedRecordException If the record cannot be parsed.
+	 * @throws IOException If the file cannot be read, or is too malformed to go on.
+	 * @throws PatriusException If the elements of an object are invalid.
+	 */
+	public abstract CatalogObject next() throws IOException, PatriusException;
+
+	/**
+	 * Reads the next valid object, logging and skipping the malformed records and the invalid
+	 * element sets on the way.
+	 *
+	 * @return The next valid object, or null at the end of the catalog.
+	 * @throws IOException If the file cannot be read, or is too malformed to go on.
+	 */
+	public CatalogObject nextValid() throws IOException {
+		while (true) {
+			try {
+				return next();
+			} catch (MalformedRecordException | PatriusException ex) {
+				skipped++;
+				LOGGER.warning("Skipping catalog record: " + ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Reads every remaining valid object, handing each one over as soon as it is parsed.
+	 * Malformed records and invalid element sets are logged and skipped.
+	 *
+	 * @param consumer The consumer of the objects.
+	 * @return The number of objects read.
+	 * @throws IOException If the file cannot be read, or is too malformed to go on.
+	 */
+	public int readAll(Consumer<CatalogObject> consumer) throws IOException {
+		int count = 0;
+		for (CatalogObject object = nextValid(); object != null; object = nextValid()) {
+			consumer.accept(object);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * @return The number of records skipped so far by {@link #nextValid()} and
+	 *         {@link #readAll(Consumer)}.
+	 */
+	public int getSkippedCount() {
+		return skipped;
+	}
+
+	/**
+	 * Builds a catalog object from the fields of an OMM, keyed by their CCSDS keyword. Only the
+	 * SGP4 mean elements are supported; the optional TLE parameters default to those of a
+	 * freshly published element set.
+	 *
+	 * @param fields The OMM fields; values may carry a trailing unit in brackets.
+	 * @return The catalog object.
+	 * @throws MalformedRecordException If a mandatory field is missing or malformed.
+	 * @throws PatriusException If the epoch cannot be converted or the elements are invalid.
+	 */
+	static CatalogObject fromOmm(Map<String, String> fields) throws MalformedRecordException, PatriusException {
+		try {
+			final String name = field(fields, "OBJECT_NAME", "UNKNOWN");
+			final String objectId = field(fields, "OBJECT_ID", "");
+			final AbsoluteDate epoch = new AbsoluteDate(requiredField(fields, "EPOCH"), TimeScalesFactory.getUTC());
+
+			// International designator: launch year, launch number of the year and piece
+			int launchYear = 0;
+			int launchNumber = 0;
+			String launchPiece = "";
+			if (objectId.length() > 8 && objectId.charAt(4) == '-') {
+				launchYear = Integer.parseInt(objectId.substring(0, 4));
+				launchNumber = Integer.parseInt(objectId.substring(5, 8));
+				launchPiece = objectId.substring(8);
+			}
+
+			final TLE tle = new TLE(
+					Integer.parseInt(requiredField(fields, "NORAD_CAT_ID")),
+					field(fields, "CLASSIFICATION_TYPE", "U").charAt(0),
+					launchYear,
+					launchNumber,
+					launchPiece,
+					Integer.parseInt(field(fields, "EPHEMERIS_TYPE", "0")),
+					Integer.parseInt(field(fields, "ELEMENT_SET_NO", "999")),
+					epoch,
+					Double.parseDouble(requiredField(fields, "MEAN_MOTION")) * REV_PER_DAY,
+					// Same scaling as the first and second derivative fields of a TLE
+					Double.parseDouble(field(fields, "MEAN_MOTION_DOT", "0")) * Math.PI / 1.86624e9,
+					Double.parseDouble(field(fields, "MEAN_MOTION_DDOT", "0")) * Math.PI / 5.3747712e13,
+					Double.parseDouble(requiredField(fields, "ECCENTRICITY")),
+					Math.toRadians(Double.parseDouble(requiredField(fields, "INCLINATION"))),
+					Math.toRadians(Double.parseDouble(requiredField(fields, "ARG_OF_PERICENTER"))),
+					Math.toRadians(Double.parseDouble(requiredField(fields, "RA_OF_ASC_NODE"))),
+					Math.toRadians(Double.parseDouble(requiredField(fields, "MEAN_ANOMALY"))),
+					Integer.parseInt(field(fields, "REV_AT_EPOCH", "0")),
+					Double.parseDouble(field(fields, "BSTAR", "0")));
+			return new CatalogObject(name, tle);
+		} catch (NumberFormatException ex) {
+			throw new MalformedRecordException("Malformed OMM field: " + ex.getMessage(), ex);
+		}
+	}
+
+	private static String requiredField(Map<String, String> fields, String key) throws MalformedRecordException {
+		final String value = field(fields, key, null);
+		if (value == null) {
+			throw new MalformedRecordException("Missing OMM field " + key);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns a field value without its unit, or a default value if absent.
+	 */
+	private static String field(Map<String, String> fields, String key, String defaultValue) {
+		String value = fields.get(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		final int unit = value.indexOf('[');
+		if (unit >= 0) {
+			value = value.substring(0, unit);
+		}
+		value = value.trim();
+		return value.isEmpty() ? defaultValue : value;
+	}
+}
@@ -0,0 +1,318 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLEPropagator;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The Constellation class holds thousands of orbits in primitive arrays, one array per
+ * quantity, instead of one {@link CustomOrbit} per object. Positions are propagated in batched
+ * parallel passes and published as an immutable {@link Snapshot}, which the renderer reads
+ * without locking while the next pass is computed. Objects added from orbital elements follow
+ * the closed-form Keplerian solution; catalog objects follow SGP4/SDP4 from their element set,
+ * as their mean elements are only meaningful with that theory.
+ * <p>
+ * A position that cannot be computed, e.g. once an object has decayed, is published as NaN.
+ */
+public class Constellation {
+
+    /** Number of objects propagated by one parallel task. */
+    static final int BATCH_SIZE = 1024;
+
+    /** Initial capacity of the arrays. */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The Snapshot class holds the positions of every object at one epoch. It is never modified
+     * once published.
+     */
+    public static final class Snapshot {
+        private final double time;
+        private final int size;
+        private final double[] latitude;
+        private final double[] longitude;
+        private final double[] altitude;
+
+        private Snapshot(double time, int size) {
+            this.time = time;
+            this.size = size;
+            this.latitude = new double[size];
+            this.longitude = new double[size];
+            this.altitude = new double[size];
+        }
+
+        /** @return The time offset from the constellation epoch, in seconds. */
+        public double getTime() {
+            return time;
+        }
+
+        /** @return The number of objects. */
+        public int size() {
+            return size;
+        }
+
+        /** @return The geodetic latitude of an object, in radians. */
+        public double getLatitude(int k) {
+            return latitude[k];
+        }
+
+        /** @return The geodetic longitude of an object, in radians. */
+        public double getLongitude(int k) {
+            return longitude[k];
+        }
+
+        /** @return The altitude of an object, in meters. */
+        public double getAltitude(int k) {
+            return altitude[k];
+        }
+    }
+
+    /** The epoch the time offsets are counted from, null until known. */
+    private AbsoluteDate epoch;
+
+    private int size;
+    private String[] names = new String[INITIAL_CAPACITY];
+    private OrbitalElements[] elements = new OrbitalElements[INITIAL_CAPACITY];
+
+    /** Shape of each ellipse: semi-major axis, eccentricity, semi-minor axis and mean motion. */
+    private double[] a = new double[INITIAL_CAPACITY];
+    private double[] e = new double[INITIAL_CAPACITY];
+    private double[] b = new double[INITIAL_CAPACITY];
+    private double[] meanMotion = new double[INITIAL_CAPACITY];
+
+    /** Mean anomaly of each object at the constellation epoch. */
+    private double[] meanAnomaly = new double[INITIAL_CAPACITY];
+
+    /** Perifocal axes of each object in the inertial frame: P towards perigee, then Q. */
+    private double[] px = new double[INITIAL_CAPACITY];
+    private double[] py = new double[INITIAL_CAPACITY];
+    private double[] pz = new double[INITIAL_CAPACITY];
+    private double[] qx = new double[INITIAL_CAPACITY];
+    private double[] qy = new double[INITIAL_CAPACITY];
+    private double[] qz = new double[INITIAL_CAPACITY];
+
+    /** SGP4/SDP4 propagator of each catalog object, null for the Keplerian objects. */
+    private TLEPropagator[] sgp4 = new TLEPropagator[INITIAL_CAPACITY];
+
+    /** Element set of each catalog object, null for the Keplerian objects. */
+    private TLE[] tles = new TLE[INITIAL_CAPACITY];
+
+    /** The latest published positions. */
+    private volatile Snapshot snapshot = new Snapshot(0, 0);
+
+	/**
+	 * Constructs a constellation whose epoch is the date of the first object added.
+	 */
+	public Constellation() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a constellation.
+	 *
+	 * @param epoch The epoch the time offsets of {@link #propagateTo(double)} are counted from.
+	 */
+	public Constellation(AbsoluteDate epoch) {
+		this.epoch = epoch;
+	}
+
+	/**
+	 * Adds an object. Its mean anomaly is moved from the date of its elements to the
+	 * constellation epoch, so objects from a catalog with scattered epochs are all propagated
+	 * to the same instant.
+	 *
+	 * @param name     The object name.
+	 * @param elements The orbital elements of the object.
+	 * @return The index of the object.
+	 */
+	public synchronized int add(String name, OrbitalElements elements) {
+		if (size == a.length) {
+			grow();
+		}
+		final KeplerianOrbit orbit = elements.toOrbit();
+		if (epoch == null) {
+			epoch = elements.getDate();
+		}
+		final int k = size++;
+		this.names[k] = name;
+		this.elements[k] = elements;
+		this.a[k] = orbit.getA();
+		this.e[k] = orbit.getE();
+		this.b[k] = orbit.getA() * Math.sqrt(1 - orbit.getE() * orbit.getE());
+		this.meanMotion[k] = orbit.getKeplerianMeanMotion();
+		this.meanAnomaly[k] = orbit.getMeanAnomaly()
+				+ orbit.getKeplerianMeanMotion() * epoch.durationFrom(elements.getDate());
+
+		final double cosRaan = Math.cos(orbit.getRightAscensionOfAscendingNode());
+		final double sinRaan = Math.sin(orbit.getRightAscensionOfAscendingNode());
+		final double cosPa = Math.cos(orbit.getPerigeeArgument());
+		final double sinPa = Math.sin(orbit.getPerigeeArgument());
+		final double cosI = Math.cos(orbit.getI());
+		final double sinI = Math.sin(orbit.getI());
+		this.px[k] = cosRaan * cosPa - sinRaan * sinPa * cosI;
+		this.py[k] = sinRaan * cosPa + cosRaan * sinPa * cosI;
+		this.pz[k] = sinPa * sinI;
+		this.qx[k] = -cosRaan * sinPa - sinRaan * cosPa * cosI;
+		this.qy[k] = -sinRaan * sinPa + cosRaan * cosPa * cosI;
+		this.qz[k] = cosPa * sinI;
+		return k;
+	}
+
+	/**
+	 * Adds a catalog object, propagated with SGP4/SDP4 from its element set. Its osculating
+	 * elements at the element set epoch are kept for {@link #getElements(int)}.
+	 *
+	 * @param object The catalog object.
+	 * @return The index of the object.
+	 * @throws PatriusException If the SGP4/SDP4 initialization fails.
+	 */
+	public int add(CatalogObject object) throws PatriusException {
+		final TLE tle = object.getTle();
+		final TLEPropagator propagator = TLEPropagator.selectExtrapolator(tle);
+		final OrbitalElements elements = object.toElements();
+		synchronized (this) {
+			final int k = add(object.getName(), elements);
+			this.sgp4[k] = propagator;
+			this.tles[k] = tle;
+			return k;
+		}
+	}
+
+	private void grow() {
+		final int capacity = a.length * 2;
+		names = Arrays.copyOf(names, capacity);
+		elements = Arrays.copyOf(elements, capacity);
+		a = Arrays.copyOf(a, capacity);
+		e = Arrays.copyOf(e, capacity);
+		b = Arrays.copyOf(b, capacity);
+		meanMotion = Arrays.copyOf(meanMotion, capacity);
+		meanAnomaly = Arrays.copyOf(meanAnomaly, capacity);
+		px = Arrays.copyOf(px, capacity);
+		py = Arrays.copyOf(py, capacity);
+		pz = Arrays.copyOf(pz, capacity);
+		qx = Arrays.copyOf(qx, capacity);
+		qy = Arrays.copyOf(qy, capacity);
+		qz = Arrays.copyOf(qz, capacity);
+		sgp4 = Arrays.copyOf(sgp4, capacity);
+		tles = Arrays.copyOf(tles, capacity);
+	}
+
+	/**
+	 * Computes the position of every object and publishes them as the new snapshot. The objects
+	 * are split in batches of {@value #BATCH_SIZE} propagated in parallel; each batch owns the
+	 * SGP4/SDP4 propagators of its objects for the duration of the pass.
+	 *
+	 * @param time The time offset from the constellation epoch, in seconds.
+	 * @return The published snapshot.
+	 */
+	public synchronized Snapshot propagateTo(double time) {
+		final Snapshot next = new Snapshot(time, size);
+		final int batches = (size + BATCH_SIZE - 1) / BATCH_SIZE;
+		IntStream.range(0, batches).parallel()
+				.forEach(batch -> propagateBatch(batch * BATCH_SIZE, Math.min(size, (batch + 1) * BATCH_SIZE), next));
+		snapshot = next;
+		return next;
+	}
+
+	/**
+	 * Propagates the objects of indices [from, to) into a snapshot.
+	 */
+	private void propagateBatch(int from, int to, Snapshot target) {
+		final GeodeticConverter converter = GeodeticConverter.getWgs84();
+		final double[] lla = new double[3];
+		for (int k = from; k < to; k++) {
+			if (sgp4[k] != null) {
+				propagateSgp4(k, converter, lla, target);
+				continue;
+			}
+			final double bigE = KeplerianTrajectoryEngine.solveKepler(meanAnomaly[k] + meanMotion[k] * target.time,
+					e[k]);
+			final double x = a[k] * (Math.cos(bigE) - e[k]);
+			final double y = b[k] * Math.sin(bigE);
+			// Inertial coordinates are laid on the globe as they are, like the trajectory engines do
+			converter.toGeodetic(x * px[k] + y * qx[k], x * py[k] + y * qy[k], x * pz[k] + y * qz[k], lla);
+			target.latitude[k] = lla[0];
+			target.longitude[k] = lla[1];
+			target.altitude[k] = lla[2];
+		}
+	}
+
+	/**
+	 * Propagates a catalog object into a snapshot with its SGP4/SDP4 propagator.
+	 */
+	private void propagateSgp4(int k, GeodeticConverter converter, double[] lla, Snapshot target) {
+		try {
+			final Vector3D position = sgp4[k].getPVCoordinates(epoch.shiftedBy(target.time)).getPosition();
+			// TEME positions are laid on the globe as they are, like the Sgp4TrajectoryEngine does
+			converter.toGeodetic(position.getX(), position.getY(), position.getZ(), lla);
+			target.latitude[k] = lla[0];
+			target.longitude[k] = lla[1];
+			target.altitude[k] = lla[2];
+		} catch (PatriusException ex) {
+			target.latitude[k] = Double.NaN;
+			target.longitude[k] = Double.NaN;
+			target.altitude[k] = Double.NaN;
+		}
+	}
+
+	/**
+	 * @return The latest published positions.
+	 */
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * @return The epoch the time offsets are counted from, null if not known yet.
+	 */
+	public synchronized AbsoluteDate getEpoch() {
+		return epoch;
+	}
+
+	/**
+	 * @return The number of objects.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @param k The object index.
+	 * @return The object name.
+	 */
+	public synchronized String getName(int k) {
+		checkIndex(k);
+		return names[k];
+	}
+
+	/**
+	 * @param k The object index.
+	 * @return The orbital elements of the object.
+	 */
+	public synchronized OrbitalElements getElements(int k) {
+		checkIndex(k);
+		return elements[k];
+	}
+
+	/**
+	 * @param k The object index.
+	 * @return The element set of a catalog object, or null if the object was added from orbital
+	 *         elements.
+	 */
+	public synchronized TLE getTle(int k) {
+		checkIndex(k);
+		return tles[k];
+	}
+
+	private void checkIndex(int k) {
+		if (k < 0 || k >= size) {
+			throw new IndexOutOfBoundsException("Object " + k + " out of " + size);
+		}
+	}
+}
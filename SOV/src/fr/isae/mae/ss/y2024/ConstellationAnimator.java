@@ -0,0 +1,126 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwindx.applications.worldwindow.util.Util;
+
+/**
+ * The ConstellationAnimator keeps the positions of a {@link Constellation} at the time of a
+ * {@link SimulationClock}. The constellation is shown at its epoch when the clock is at 0.
+ * <p>
+ * Catalog objects are not interpolated like the animated orbits: each update is a batched
+ * parallel pass over every object. Passes are therefore throttled by a Swing timer, run on a
+ * background thread, one at a time, and skipped when neither the clock time nor the number of
+ * objects changed. The globe is redrawn once a pass has published its snapshot.
+ */
+public class ConstellationAnimator {
+
+    /** Default interval between two passes, in milliseconds. */
+    public static final int DEFAULT_PASS_INTERVAL = 200;
+
+    private final Constellation constellation;
+    private final SimulationClock clock;
+    private final WorldWindow wwd;
+    private final Timer timer;
+
+    /** The thread running the passes, which spread over the common fork-join pool. */
+    private final ExecutorService executor;
+
+    /** Whether a pass is queued or running. */
+    private final AtomicBoolean computing = new AtomicBoolean();
+
+    /** Clock time and number of objects of the last pass requested. Only touched on the EDT. */
+    private double requestedTime = Double.NaN;
+    private int requestedSize = -1;
+
+	/**
+	 * Constructs an animator running a pass at most every {@value #DEFAULT_PASS_INTERVAL} ms. It
+	 * does not run until {@link #start()} is called.
+	 *
+	 * @param constellation The animated constellation.
+	 * @param clock         The clock giving the simulated time.
+	 * @param wwd           The {@link WorldWindow} redrawn when a snapshot is published.
+	 */
+	public ConstellationAnimator(Constellation constellation, SimulationClock clock, WorldWindow wwd) {
+		this(constellation, clock, wwd, DEFAULT_PASS_INTERVAL);
+	}
+
+	/**
+	 * Constructs an animator. It does not run until {@link #start()} is called.
+	 *
+	 * @param constellation      The animated constellation.
+	 * @param clock              The clock giving the simulated time.
+	 * @param wwd                The {@link WorldWindow} redrawn when a snapshot is published.
+	 * @param passIntervalMillis The shortest interval between two passes, in milliseconds.
+	 */
+	public ConstellationAnimator(Constellation constellation, SimulationClock clock, WorldWindow wwd,
+			int passIntervalMillis) {
+		this.constellation = constellation;
+		this.clock = clock;
+		this.wwd = wwd;
+		this.timer = new Timer(passIntervalMillis, event -> tick());
+		this.timer.setCoalesce(true);
+		this.executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "constellation-propagation");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Starts the timer.
+	 */
+	public void start() {
+		timer.start();
+	}
+
+	/**
+	 * Stops the timer.
+	 */
+	public void stop() {
+		timer.stop();
+	}
+
+	/**
+	 * Requests a pass at the current clock time, unless one is running or nothing changed since
+	 * the last one. Called by the timer on the EDT.
+	 */
+	void tick() {
+		final double time = clock.getTime();
+		final int size = constellation.size();
+		if (size == 0 || (time == requestedTime && size == requestedSize) || !computing.compareAndSet(false, true)) {
+			return;
+		}
+		requestedTime = time;
+		requestedSize = size;
+		executor.execute(() -> {
+			try {
+				constellation.propagateTo(time);
+				SwingUtilities.invokeLater(wwd::redraw);
+			} catch (RuntimeException ex) {
+				Util.getLogger().warning(ex.getMessage() != null ? ex.getMessage() : ex.toString());
+			} finally {
+				computing.set(false);
+			}
+		});
+	}
+
+	/**
+	 * Stops the timer and the background thread.
+	 *
+	 * @param timeoutMillis The maximum time to wait for a running pass, in milliseconds.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public void shutdown(long timeoutMillis) throws InterruptedException {
+		timer.stop();
+		executor.shutdownNow();
+		executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+}
@@ -0,0 +1,346 @@
+package fr.isae.mae.ss.y2024;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jogamp.opengl.GL2;
+
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.Angle;
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Vec4;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.globes.GlobeStateKey;
+import gov.nasa.worldwind.layers.AbstractLayer;
+import gov.nasa.worldwind.render.BasicShapeAttributes;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.render.Material;
+import gov.nasa.worldwind.render.Path;
+import gov.nasa.worldwind.render.ShapeAttributes;
+import gov.nasa.worldwind.util.OGLStackHandler;
+
+/**
+ * The ConstellationLayer draws every object of a {@link Constellation} as one batch of OpenGL
+ * points: a single vertex array and a single draw call per frame, instead of one shape per
+ * satellite. The vertex array is only rebuilt when a new snapshot has been published or the
+ * globe changed. Objects without a position are not drawn. Orbit paths are only built for the
+ * selected objects; {@link #pick(Line, Globe)} finds the object under the cursor to select.
+ * <p>
+ * The points are not drawn in picking mode, which would cost one pick color per object: objects
+ * are picked geometrically instead. The selected paths are pickable like any other path.
+ */
+public class ConstellationLayer extends AbstractLayer {
+
+    /** The drawn constellation. */
+    private final Constellation constellation;
+
+    /** Engines building the paths of the selected objects. */
+    private final KeplerianTrajectoryEngine engine = new KeplerianTrajectoryEngine();
+    private final Sgp4TrajectoryEngine sgp4Engine = new Sgp4TrajectoryEngine();
+
+    /** Paths of the selected objects, by object index. */
+    private final Map<Integer, Path> selection = new LinkedHashMap<>();
+
+    /** Attributes shared by the selected paths. */
+    private final ShapeAttributes pathAttrs = new BasicShapeAttributes();
+
+    /** Vertices relative to {@link #referenceCenter}, in single precision. */
+    private FloatBuffer vertices;
+
+    /** Number of vertices in {@link #vertices}. */
+    private int vertexCount;
+
+    /** Center the vertices are relative to, so that floats keep meter accuracy. */
+    private Vec4 referenceCenter = Vec4.ZERO;
+
+    /** Snapshot and globe state the vertices were computed for. */
+    private Constellation.Snapshot verticesSnapshot;
+    private Object verticesGlobeState;
+
+    /** Largest distance between the pick ray and a picked object, in meters. */
+    private double pickTolerance = PathPickingService.DEFAULT_PICK_TOLERANCE;
+
+    private final OGLStackHandler stack = new OGLStackHandler();
+
+    private Color pointColor = Color.YELLOW;
+    private float pointSize = 3f;
+
+	/**
+	 * Constructs a layer drawing a constellation.
+	 *
+	 * @param constellation The constellation to draw.
+	 */
+	public ConstellationLayer(Constellation constellation) {
+		this.constellation = constellation;
+		this.pathAttrs.setOutlineMaterial(Material.YELLOW);
+		this.pathAttrs.setOutlineWidth(2.0);
+		this.pathAttrs.setEnableAntialiasing(true);
+		this.setName("Constellation");
+	}
+
+	@Override
+	protected void doPick(DrawContext dc, Point point) {
+		renderSelection(dc);
+	}
+
+	@Override
+	protected void doRender(DrawContext dc) {
+		final Constellation.Snapshot snapshot = constellation.getSnapshot();
+		if (snapshot.size() > 0) {
+			final Globe globe = dc.getGlobe();
+			final GlobeStateKey globeState = globe.getGlobeStateKey();
+			if (snapshot != verticesSnapshot || !globeState.equals(verticesGlobeState)) {
+				updateVertices(globe, snapshot);
+				verticesSnapshot = snapshot;
+				verticesGlobeState = globeState;
+			}
+			drawPoints(dc);
+		}
+		renderSelection(dc);
+	}
+
+	/**
+	 * Renders the paths of the selected objects.
+	 */
+	private void renderSelection(DrawContext dc) {
+		synchronized (selection) {
+			for (Path path : selection.values()) {
+				path.render(dc);
+			}
+		}
+	}
+
+	/**
+	 * Converts the snapshot positions to model coordinates relative to their centroid.
+	 */
+	private void updateVertices(Globe globe, Constellation.Snapshot snapshot) {
+		if (vertices == null || vertices.capacity() < 3 * snapshot.size()) {
+			vertices = ByteBuffer.allocateDirect(4 * 3 * snapshot.size()).order(ByteOrder.nativeOrder())
+					.asFloatBuffer();
+		}
+
+		final double[] points = new double[3 * snapshot.size()];
+		int count = 0;
+		double cx = 0, cy = 0, cz = 0;
+		for (int k = 0; k < snapshot.size(); k++) {
+			if (Double.isNaN(snapshot.getLatitude(k))) {
+				continue;
+			}
+			final Vec4 point = globe.computePointFromPosition(Angle.fromRadians(snapshot.getLatitude(k)),
+					Angle.fromRadians(snapshot.getLongitude(k)), snapshot.getAltitude(k));
+			points[3 * count] = point.x;
+			points[3 * count + 1] = point.y;
+			points[3 * count + 2] = point.z;
+			count++;
+			cx += point.x;
+			cy += point.y;
+			cz += point.z;
+		}
+		referenceCenter = count == 0 ? Vec4.ZERO : new Vec4(cx / count, cy / count, cz / count);
+
+		vertices.clear();
+		for (int k = 0; k < count; k++) {
+			vertices.put((float) (points[3 * k] - referenceCenter.x));
+			vertices.put((float) (points[3 * k + 1] - referenceCenter.y));
+			vertices.put((float) (points[3 * k + 2] - referenceCenter.z));
+		}
+		vertices.flip();
+		vertexCount = count;
+	}
+
+	/**
+	 * Draws every vertex with one call.
+	 */
+	private void drawPoints(DrawContext dc) {
+		final GL2 gl = dc.getGL().getGL2();
+		stack.pushAttrib(gl, GL2.GL_CURRENT_BIT | GL2.GL_POINT_BIT | GL2.GL_ENABLE_BIT);
+		stack.pushClientAttrib(gl, GL2.GL_CLIENT_VERTEX_ARRAY_BIT);
+		dc.getView().pushReferenceCenter(dc, referenceCenter);
+		try {
+			gl.glDisable(GL2.GL_LIGHTING);
+			gl.glEnable(GL2.GL_POINT_SMOOTH);
+			gl.glPointSize(pointSize);
+			gl.glColor3ub((byte) pointColor.getRed(), (byte) pointColor.getGreen(), (byte) pointColor.getBlue());
+			gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+			gl.glVertexPointer(3, GL2.GL_FLOAT, 0, vertices);
+			gl.glDrawArrays(GL2.GL_POINTS, 0, vertexCount);
+		} finally {
+			dc.getView().popReferenceCenter(dc);
+			stack.pop(gl);
+		}
+	}
+
+	/**
+	 * Finds the object of the current snapshot closest to a pick ray. Objects behind the globe, as
+	 * seen from the ray origin, cannot be picked.
+	 *
+	 * @param pickRay The ray through the picked screen point.
+	 * @param globe   The globe the objects orbit.
+	 * @return The index of the closest object, or -1 if none is within the pick tolerance.
+	 */
+	public int pick(Line pickRay, Globe globe) {
+		final Constellation.Snapshot snapshot = constellation.getSnapshot();
+		final Vec4 origin = pickRay.getOrigin();
+		final Vec4 direction = pickRay.getDirection().normalize3();
+
+		// Distance along the ray where it enters the globe, approximated by its polar sphere
+		final double b = origin.dot3(direction);
+		final double c = origin.dot3(origin) - globe.getPolarRadius() * globe.getPolarRadius();
+		final double discriminant = b * b - c;
+		final double horizon = discriminant > 0 ? -b - Math.sqrt(discriminant) : Double.POSITIVE_INFINITY;
+
+		int nearest = -1;
+		double nearestDistance = pickTolerance;
+		for (int k = 0; k < snapshot.size(); k++) {
+			if (Double.isNaN(snapshot.getLatitude(k))) {
+				continue;
+			}
+			final Vec4 point = globe.computePointFromPosition(Angle.fromRadians(snapshot.getLatitude(k)),
+					Angle.fromRadians(snapshot.getLongitude(k)), snapshot.getAltitude(k));
+			final Vec4 offset = point.subtract3(origin);
+			final double along = offset.dot3(direction);
+			if (along < 0 || (horizon > 0 && along > horizon)) {
+				continue;
+			}
+			final double distance = Math.sqrt(Math.max(0, offset.dot3(offset) - along * along));
+			if (distance <= nearestDistance) {
+				nearest = k;
+				nearestDistance = distance;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Selects an object that is not selected, and deselects it otherwise.
+	 *
+	 * @param k The object index.
+	 * @return Whether the object is selected afterwards.
+	 * @throws PatriusException If the propagation of its path fails.
+	 */
+	public boolean toggleSelection(int k) throws PatriusException {
+		synchronized (selection) {
+			if (selection.remove(k) != null) {
+				return false;
+			}
+		}
+		select(k);
+		return true;
+	}
+
+	/**
+	 * Shows the orbit path of an object over one period, with SGP4/SDP4 for a catalog object and
+	 * the Keplerian engine otherwise.
+	 *
+	 * @param k The object index.
+	 * @throws PatriusException If the propagation fails.
+	 */
+	public void select(int k) throws PatriusException {
+		synchronized (selection) {
+			if (selection.containsKey(k)) {
+				return;
+			}
+		}
+		final TLE tle = constellation.getTle(k);
+		final TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		if (tle != null) {
+			sgp4Engine.propagate(tle, Sgp4TrajectoryEngine.getPeriod(tle), CustomOrbit.DEFAULT_SAMPLING_POLICY,
+					trajectory);
+		} else {
+			final KeplerianOrbit orbit = constellation.getElements(k).toOrbit();
+			engine.propagate(orbit, orbit.getKeplerianPeriod(), CustomOrbit.DEFAULT_SAMPLING_POLICY, trajectory);
+		}
+
+		final Path path = new Path(new TrajectoryPositionView(trajectory));
+		path.setAttributes(pathAttrs);
+		path.setVisible(true);
+		path.setAltitudeMode(WorldWind.RELATIVE_TO_GROUND);
+		path.setPathType(AVKey.GREAT_CIRCLE);
+		path.setValue(AVKey.DISPLAY_NAME, constellation.getName(k));
+		synchronized (selection) {
+			selection.put(k, path);
+		}
+	}
+
+	/**
+	 * Hides the orbit path of an object.
+	 *
+	 * @param k The object index.
+	 */
+	public void deselect(int k) {
+		synchronized (selection) {
+			selection.remove(k);
+		}
+	}
+
+	/**
+	 * Hides every orbit path.
+	 */
+	public void clearSelection() {
+		synchronized (selection) {
+			selection.clear();
+		}
+	}
+
+	/**
+	 * @return The indices of the selected objects, in selection order.
+	 */
+	public List<Integer> getSelection() {
+		synchronized (selection) {
+			return new ArrayList<>(selection.keySet());
+		}
+	}
+
+	/**
+	 * @param k The object index.
+	 * @return The path shown for the object, or null if it is not selected.
+	 */
+	Path getSelectedPath(int k) {
+		synchronized (selection) {
+			return selection.get(k);
+		}
+	}
+
+	/**
+	 * @param pickTolerance The largest distance between the pick ray and a picked object, in
+	 *                      meters.
+	 */
+	public void setPickTolerance(double pickTolerance) {
+		if (!(pickTolerance > 0)) {
+			throw new IllegalArgumentException("Pick tolerance must be positive: " + pickTolerance);
+		}
+		this.pickTolerance = pickTolerance;
+	}
+
+	/**
+	 * @return The drawn constellation.
+	 */
+	public Constellation getConstellation() {
+		return constellation;
+	}
+
+	/**
+	 * @param pointColor The color of the points.
+	 */
+	public void setPointColor(Color pointColor) {
+		this.pointColor = pointColor;
+	}
+
+	/**
+	 * @param pointSize The size of the points, in pixels.
+	 */
+	public void setPointSize(float pointSize) {
+		this.pointSize = pointSize;
+	}
+}
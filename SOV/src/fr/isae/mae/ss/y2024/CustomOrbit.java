@@ -1,18 +1,14 @@
 package fr.isae.mae.ss.y2024;
 
 import java.awt.Color;
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 import java.util.Random;
 
-import fr.cnes.sirius.patrius.bodies.BodyShape;
 import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
-import fr.cnes.sirius.patrius.bodies.OneAxisEllipsoid;
-import fr.cnes.sirius.patrius.frames.FactoryManagedFrame;
+import fr.cnes.sirius.patrius.forces.ForceModel;
 import fr.cnes.sirius.patrius.frames.Frame;
 import fr.cnes.sirius.patrius.frames.FramesFactory;
-import fr.cnes.sirius.patrius.math.ode.FirstOrderIntegrator;
-import fr.cnes.sirius.patrius.math.ode.nonstiff.ClassicalRungeKuttaIntegrator;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.WorldWindow;
 import gov.nasa.worldwind.avlist.AVKey;
@@ -22,35 +18,61 @@ import gov.nasa.worldwind.render.BasicShapeAttributes;
 import gov.nasa.worldwind.render.Box;
 import gov.nasa.worldwind.render.Material;
 import gov.nasa.worldwind.render.Path;
+import gov.nasa.worldwind.render.Renderable;
 import gov.nasa.worldwind.render.ShapeAttributes;
 import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
-import fr.cnes.sirius.patrius.orbits.Orbit;
-import fr.cnes.sirius.patrius.orbits.OrbitType;
 import fr.cnes.sirius.patrius.orbits.PositionAngle;
-import fr.cnes.sirius.patrius.propagation.SpacecraftState;
-import fr.cnes.sirius.patrius.propagation.numerical.NumericalPropagator;
-import fr.cnes.sirius.patrius.propagation.sampling.PatriusFixedStepHandler;
 import fr.cnes.sirius.patrius.time.AbsoluteDate;
 import fr.cnes.sirius.patrius.utils.Constants;
 import fr.cnes.sirius.patrius.utils.exception.PatriusException;
-import fr.cnes.sirius.patrius.utils.exception.PropagationException;
 
 
 /**
  * The CustomOrbit class represents an orbital object that can be visualized using the WorldWind and Patrius libraries.
  * It provides methods for creating, propagating, and rendering an orbit, including paths and satellite representations.
+ * The propagation itself is delegated to an {@link OrbitPropagation}, which does not depend on WorldWind.
  */
 public class CustomOrbit {
 
-    /** List of geodetic points representing the orbit trajectory. */
-    private List<GeodeticPoint> points;
+    /**
+     * Default sampling of full trajectories: at most 250 m between the orbit and the rendered
+     * segments, which gives a few hundred vertices from low orbits to geostationary ones.
+     */
+    public static final SamplingPolicy DEFAULT_SAMPLING_POLICY = OrbitPropagation.DEFAULT_SAMPLING_POLICY;
+
+    /** Default number of samples of a preview trajectory drawn while a slider is dragged. */
+    public static final int DEFAULT_PREVIEW_POINT_BUDGET = OrbitPropagation.DEFAULT_PREVIEW_POINT_BUDGET;
+
+    /** The single epoch evaluated to move the satellite along an unchanged path. */
+    private static final double[] MARKER_EPOCH = { 0. };
 
-    /** List of WorldWind positions used for rendering the orbit path. */
-    private List<Position> positions;
+    /** Name of the property fired by WorldWind layers when they are enabled or disabled. */
+    private static final String LAYER_ENABLED_PROPERTY = "Enabled";
+
+    /** The rendered trajectory, refilled in place on every update. */
+    private final TrajectoryBuffer trajectory = new TrajectoryBuffer();
+
+    /** WorldWind view of the rendered trajectory used as the path positions. */
+    private final TrajectoryPositionView positions = new TrajectoryPositionView(trajectory);
+
+    /** The propagation settings and the computation of the trajectories. */
+    private final OrbitPropagation propagation = new OrbitPropagation();
 
     /** The Keplerian orbit representing the orbital parameters of the object. */
     private KeplerianOrbit orbit;
 
+    /** The latest orbital elements; the trajectory matches them unless it is stale. */
+    private OrbitalElements elements;
+
+    /** Whether the trajectory no longer matches the elements and has to be recomputed. */
+    private volatile boolean stale;
+
+    /** Whether the rendered trajectory is a coarse preview. */
+    private boolean previewRendered;
+
+    /** Buffer receiving the single sample used to move the satellite. */
+    private final TrajectoryBuffer markerSample = new TrajectoryBuffer();
+
     /** The graphical path representing the orbit trajectory in the WorldWind environment. */
     private Path path;
 
@@ -102,88 +124,23 @@ public class CustomOrbit {
 		
 		this.displayName = displayName;
 		
-		updateOrbit(a, e, i, pa, raan, anomaly, type, frame, date, mu, displayName);
+		// Nothing is propagated until the orbit is shown or its trajectory is requested
+		invalidate(new OrbitalElements(a, e, i, pa, raan, anomaly, type, frame, date, mu));
 
 
 	}
 
 	/**
-	 * Propagates the orbit and returns a list of geodetic points representing the trajectory.
+	 * Copies a computed trajectory into the rendered buffer, which the WorldWind path reads
+	 * through {@link #positions} without any intermediate list of positions.
 	 *
-	 * @param iniOrbit The initial orbit to be propagated.
-	 * @return A list of geodetic points representing the propagated orbit's trajectory.
-	 * @throws PatriusException If an error occurs during the orbit propagation or coordinate transformation.
+	 * @param computed The computed trajectory.
 	 */
-	private static List<GeodeticPoint> propagateOrbit(Orbit iniOrbit) throws PatriusException {
-
-		// We create a spacecratftstate
-		final SpacecraftState iniState = new SpacecraftState(iniOrbit);
-
-		// Initialization of the Runge Kutta integrator with a 2 s step
-		final double pasRk = 0.05;
-		final FirstOrderIntegrator integrator = new ClassicalRungeKuttaIntegrator(pasRk);
-
-		// Initialization of the propagator
-		final NumericalPropagator propagator = new NumericalPropagator(integrator);
-		propagator.resetInitialState(iniState);
-
-		// Forcing integration using cartesian equations
-		propagator.setOrbitType(OrbitType.CARTESIAN);
-
-		final FactoryManagedFrame ITRF = FramesFactory.getITRF();
-
-		final BodyShape EARTH = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
-				Constants.WGS84_EARTH_FLATTENING, ITRF);
-		// SPECIFIC
-		// Creation of a fixed step handler
-		final ArrayList<GeodeticPoint> listOfStates = new ArrayList<>();
-		PatriusFixedStepHandler myStepHandler = new PatriusFixedStepHandler() {
-			private static final long serialVersionUID = 1L;
-
-			public void init(SpacecraftState s0, AbsoluteDate t) {
-				// Nothing to do ...
-			}
-
-			/** The step handler used to store every point */
-			public void handleStep(SpacecraftState currentState, boolean isLast) throws PropagationException {
-
-				GeodeticPoint geodeticPoint;
-				try {
-					geodeticPoint = EARTH.transform(currentState.getPVCoordinates().getPosition(), ITRF,
-							currentState.getDate());
-				} catch (PatriusException e) {
-					throw new PropagationException(e);
-				}
-				// Adding S/C to the list
-				listOfStates.add(geodeticPoint);
-			}
-		};
-		// The handler frequency is set to 10S
-		propagator.setMasterMode(10., myStepHandler);
-		// SPECIFIC
-
-		// Propagating 100s
-		final double dt = iniOrbit.getKeplerianPeriod();
-		final AbsoluteDate finalDate = iniOrbit.getDate().shiftedBy(dt);
-		final SpacecraftState finalState = propagator.propagate(finalDate);
-
-		return listOfStates;
-
-	}
-
-	/**
-	 * Converts a list of geodetic points from the Patrius library into WorldWind Position objects.
-	 *
-	 * @param points The list of geodetic points representing the satellite's trajectory.
-	 * @return A list of WorldWind Position objects corresponding to the provided geodetic points.
-	 */
-	private static List<Position> glueBetweenPatriusAndWorldwind(List<GeodeticPoint> points) {
-		List<Position> positions = new ArrayList<Position>(points.size());
-		for (GeodeticPoint point : points) {
-			positions.add(Position.fromRadians(point.getLatitude(), point.getLongitude(), point.getAltitude()));
-		}
-		return positions;
-
+	void glueBetweenPatriusAndWorldwind(TrajectoryBuffer computed) {
+		final OrbitPipelineMetrics.Measurement measurement = OrbitPipelineMetrics.getShared()
+				.start(OrbitPipelineMetrics.Stage.GLUE, propagation.getId(), previewRendered);
+		this.trajectory.copyFrom(computed);
+		measurement.stop(trajectory.size(), 0);
 	}
 
 	/**
@@ -204,28 +161,207 @@ public class CustomOrbit {
 	public void updateOrbit(final double a, final double e, final double i, final double pa, final double raan,
 			final double anomaly, final PositionAngle type, final Frame frame, final AbsoluteDate date,
 			final double mu, String displayName) {
-		this.orbit = new KeplerianOrbit(a, e, i, pa, raan, anomaly, type, frame, date, mu);
+		this.displayName = displayName;
+		final OrbitPipelineMetrics.Measurement measurement = OrbitPipelineMetrics.getShared()
+				.start(OrbitPipelineMetrics.Stage.UPDATE, propagation.getId(), false);
+		try {
+			OrbitalElements newElements = new OrbitalElements(a, e, i, pa, raan, anomaly, type, frame, date, mu);
+			if (moveAlongPath(newElements)) {
+				return;
+			}
 
-		// Propagate and update path
+			// Propagate and update path
+			TrajectoryBuffer newTrajectory;
+			try {
+				newTrajectory = computeTrajectory(newElements);
+			} catch (Exception ex) {
+				ex.printStackTrace();
+				return;
+			}
+
+			applyTrajectory(newElements, newTrajectory);
+		} finally {
+			measurement.stop(trajectory.size(), 0);
+		}
+	}
+
+	/**
+	 * Handles a change of the anomaly alone. In two-body motion the path does not depend on the
+	 * anomaly, so the satellite is moved to the position evaluated at the orbit epoch and the
+	 * path is left untouched. Must be called on the thread applying updates.
+	 *
+	 * @param newElements The new orbital elements.
+	 * @return true if the change was handled, false if the trajectory has to be recomputed.
+	 */
+	public boolean moveAlongPath(OrbitalElements newElements) {
+		if (stale || previewRendered || satellite == null || !newElements.hasSamePath(elements)
+				|| !(getEffectiveEngine() instanceof KeplerianTrajectoryEngine)) {
+			return false;
+		}
 		try {
-			this.points = propagateOrbit(this.orbit);
+			OrbitPropagation.KEPLERIAN_ENGINE.propagate(newElements.toOrbit(), MARKER_EPOCH, markerSample);
+		} catch (PatriusException ex) {
+			return false;
+		}
+		this.elements = newElements;
+		this.orbit = newElements.toOrbit();
+		this.satellite.moveTo(Position.fromRadians(markerSample.getLatitude(0), markerSample.getLongitude(0),
+				markerSample.getAltitude(0)));
+		this.satellite.setValue(AVKey.DISPLAY_NAME, displayName);
+		return true;
+	}
+
+	/**
+	 * Records new orbital elements without propagating them. The trajectory is recomputed the
+	 * next time it is needed: when the orbit is attached to a layer or one of its renderables or
+	 * samples is requested.
+	 *
+	 * @param newElements The new orbital elements.
+	 */
+	public void invalidate(OrbitalElements newElements) {
+		this.elements = newElements;
+		this.stale = true;
+	}
+
+	/**
+	 * @return Whether the rendered trajectory is a coarse preview, shown while a slider is dragged.
+	 */
+	public boolean isPreviewRendered() {
+		return previewRendered;
+	}
+
+	/**
+	 * @return Whether the trajectory has to be recomputed before it can be shown.
+	 */
+	public boolean isStale() {
+		return stale;
+	}
+
+	/**
+	 * Computes the trajectory if it is stale. On failure the previous trajectory is kept.
+	 */
+	private void ensureComputed() {
+		if (!stale) {
+			return;
+		}
+		final OrbitalElements requested = elements;
+		TrajectoryBuffer newTrajectory;
+		try {
+			newTrajectory = computeTrajectory(requested);
 		} catch (Exception ex) {
 			ex.printStackTrace();
+			return;
 		}
+		applyTrajectory(requested, newTrajectory);
+	}
+
+	/**
+	 * Computes the trajectory matching a set of orbital elements without touching the rendered
+	 * objects. This is the expensive part of an update; it is safe to call from a background thread.
+	 *
+	 * @param newElements The orbital elements to propagate.
+	 * @return The computed trajectory, to be handed to {@link #applyTrajectory}.
+	 * @throws PatriusException If an error occurs during the orbit propagation or coordinate transformation.
+	 */
+	public TrajectoryBuffer computeTrajectory(OrbitalElements newElements) throws PatriusException {
+		return computeTrajectory(newElements, false);
+	}
 
-		this.positions = glueBetweenPatriusAndWorldwind(points);
+	/**
+	 * Computes either a full trajectory or a coarse preview matching a set of orbital elements.
+	 * Safe to call from a background thread. The result is either a read-only cached buffer or a
+	 * recycled buffer that {@link #applyTrajectory} gives back to the pool.
+	 *
+	 * @param newElements The orbital elements to propagate.
+	 * @param preview     Whether a coarse preview trajectory is enough.
+	 * @return The computed trajectory, to be handed to {@link #applyTrajectory}.
+	 * @throws PatriusException If an error occurs during the orbit propagation or coordinate transformation.
+	 */
+	public TrajectoryBuffer computeTrajectory(OrbitalElements newElements, boolean preview)
+			throws PatriusException {
+		return propagation.computeTrajectory(newElements, preview);
+	}
 
-		this.path = new Path(this.positions);
-		this.path.setAttributes(pathAttrs);
-		this.path.setVisible(true);
-		this.path.setAltitudeMode(WorldWind.RELATIVE_TO_GROUND);
-		this.path.setPathType(AVKey.GREAT_CIRCLE);
+	/**
+	 * Replaces the rendered path and satellite with a previously computed trajectory.
+	 * Must be called on the thread that owns the WorldWind renderables (the EDT in the application).
+	 *
+	 * @param newElements   The orbital elements the trajectory was computed from.
+	 * @param newTrajectory The computed trajectory.
+	 */
+	public void applyTrajectory(OrbitalElements newElements, TrajectoryBuffer newTrajectory) {
+		applyTrajectory(newElements, newTrajectory, false);
+	}
 
-		this.satellite = new Box(positions.get(0), 300000, 300000, 300000);
-		this.satellite.setAltitudeMode(WorldWind.RELATIVE_TO_GROUND);
-		this.satellite.setAttributes(boxAttrs);
-		this.satellite.setVisible(true);
+	/**
+	 * Replaces the rendered path and satellite with a previously computed trajectory.
+	 * Must be called on the thread that owns the WorldWind renderables (the EDT in the application).
+	 *
+	 * @param newElements   The orbital elements the trajectory was computed from.
+	 * @param newTrajectory The computed trajectory.
+	 * @param preview       Whether the trajectory is a coarse preview.
+	 */
+	public void applyTrajectory(OrbitalElements newElements, TrajectoryBuffer newTrajectory, boolean preview) {
+		final OrbitPipelineMetrics.Measurement measurement = OrbitPipelineMetrics.getShared()
+				.start(OrbitPipelineMetrics.Stage.LAYER_UPDATE, propagation.getId(), preview);
+		this.previewRendered = preview;
+		this.elements = newElements;
+		this.stale = false;
+		this.orbit = newElements.toOrbit();
+
+		glueBetweenPatriusAndWorldwind(newTrajectory);
+		propagation.recycle(newTrajectory);
+
+		// The path and the satellite live as long as the orbit: only their geometry is updated,
+		// so WorldWind keeps its shape caches and the layers are left untouched.
+		if (this.path == null) {
+			this.path = new Path(this.positions);
+			this.path.setAttributes(pathAttrs);
+			this.path.setVisible(true);
+			this.path.setAltitudeMode(WorldWind.RELATIVE_TO_GROUND);
+			this.path.setPathType(AVKey.GREAT_CIRCLE);
+
+			this.satellite = new Box(positions.get(0), 300000, 300000, 300000);
+			this.satellite.setAltitudeMode(WorldWind.RELATIVE_TO_GROUND);
+			this.satellite.setAttributes(boxAttrs);
+			this.satellite.setVisible(true);
+		} else {
+			this.path.setPositions(this.positions);
+			this.satellite.moveTo(positions.get(0));
+		}
 		this.satellite.setValue(AVKey.DISPLAY_NAME, displayName);
+		measurement.stop(trajectory.size(), 0);
+	}
+
+	/**
+	 * Adds the path and the satellite of this orbit to a layer, unless they are already in it.
+	 * Since both renderables are reused across updates, this is only needed when the orbit is
+	 * first shown in a layer. A stale trajectory is computed first.
+	 *
+	 * @param layer The {@link RenderableLayer} displaying the orbit.
+	 */
+	public void attachTo(RenderableLayer layer) {
+		ensureComputed();
+		for (Renderable renderable : layer.getRenderables()) {
+			if (renderable == path) {
+				return;
+			}
+		}
+		layer.addRenderable(path);
+		layer.addRenderable(satellite);
+	}
+
+	/**
+	 * Removes the path and the satellite of this orbit from a layer.
+	 *
+	 * @param layer The {@link RenderableLayer} displaying the orbit.
+	 */
+	public void detachFrom(RenderableLayer layer) {
+		if (path == null) {
+			return;
+		}
+		layer.removeRenderable(path);
+		layer.removeRenderable(satellite);
 	}
 	
 	/**
@@ -257,14 +393,54 @@ public class CustomOrbit {
 	            displayName
 	        );
 
-	        // Update the layer and redraw the canvas
-	        layer.removeAllRenderables();
-	        layer.addRenderable(getPath());
-	        layer.addRenderable(getSatellite());
+	        // The renderables are updated in place, the layer only needs them once
+	        attachTo(layer);
 	        wwd.redraw();
 	    };
 	}
 
+	/**
+	 * Creates a runnable task that hands the current values of the provided slider group over to
+	 * an {@link OrbitUpdateScheduler}. The slider values are captured on the calling thread, the
+	 * propagation runs in the background and only the latest request is published to the layer,
+	 * so the task is cheap enough to run from a slider listener on every change.
+	 * While a slider thumb is being dragged only a coarse preview is requested; the full
+	 * trajectory is computed once the thumb is released.
+	 * When only the anomaly changes the satellite is moved right away on the calling thread.
+	 * While the layer is disabled nothing is propagated: the latest elements are recorded and
+	 * propagated once the layer is enabled again.
+	 *
+	 * @param sliderGroup  The {@link SliderGroup} containing the orbital parameter sliders.
+	 * @param layer        The {@link RenderableLayer} where the orbit visualization will be updated.
+	 * @param wwd          The {@link WorldWindow} instance responsible for rendering the graphical representation.
+	 * @param scheduler    The {@link OrbitUpdateScheduler} running the propagation.
+	 * @return A {@link Runnable} task that schedules an orbit update when executed.
+	 */
+	public Runnable createScheduledUpdateRunnable(SliderGroup sliderGroup, RenderableLayer layer, WorldWindow wwd,
+			OrbitUpdateScheduler scheduler) {
+		layer.addPropertyChangeListener(LAYER_ENABLED_PROPERTY, event -> {
+			if (layer.isEnabled() && stale) {
+				scheduler.submit(this, elements, false, layer, wwd);
+			}
+		});
+		return () -> {
+			OrbitalElements requested = OrbitalElements.fromSliderGroup(sliderGroup, FramesFactory.getGCRF(),
+					new AbsoluteDate());
+			if (!layer.isEnabled()) {
+				scheduler.cancel(this);
+				invalidate(requested);
+				return;
+			}
+			if (moveAlongPath(requested)) {
+				// Only the anomaly changed: any pending propagation is obsolete
+				scheduler.cancel(this);
+				wwd.redraw();
+				return;
+			}
+			scheduler.submit(this, requested, sliderGroup.isAdjusting(), layer, wwd);
+		};
+	}
+
 	/**
 	 * Generates a random color for the orbit path.
 	 * The color is generated using random RGB values.
@@ -281,6 +457,7 @@ public class CustomOrbit {
      * @return the path object.
      */
 	public Path getPath() {
+		ensureComputed();
 		return path;
 	}
 
@@ -289,10 +466,255 @@ public class CustomOrbit {
      * @return the satellite box object.
      */
 	public Box getSatellite() {
+		ensureComputed();
 		return satellite;
 	}
 
+	/**
+	 * Returns the rendered trajectory as geodetic points. This is a live adapter over
+	 * {@link #getTrajectory()}, kept for callers that predate the primitive buffer.
+	 *
+	 * @return the geodetic points of the trajectory.
+	 */
 	public List<GeodeticPoint> getPoints() {
-		return points;
+		ensureComputed();
+		return trajectory.asGeodeticPoints();
+	}
+
+	/**
+	 * Returns the rendered trajectory. The buffer is refilled in place on every update and must
+	 * only be read from the thread applying updates (the EDT in the application).
+	 *
+	 * @return the trajectory buffer.
+	 */
+	public TrajectoryBuffer getTrajectory() {
+		ensureComputed();
+		return trajectory;
+	}
+
+	/**
+	 * Returns the number of vertices of the rendered path, without computing a stale trajectory.
+	 *
+	 * @return the number of rendered samples, 0 before the first computation.
+	 */
+	public int getRenderedPointCount() {
+		return trajectory.size();
+	}
+
+	/**
+	 * @return the display name of the orbit.
+	 */
+	public String getDisplayName() {
+		return displayName;
+	}
+
+	/**
+	 * Forces the engine used to compute the trajectory. Passing null restores the automatic
+	 * selection: closed-form Keplerian motion when no perturbation is configured, numerical
+	 * integration otherwise. The new engine is used from the next update on.
+	 *
+	 * @param engine The trajectory engine to use, or null for automatic selection.
+	 */
+	public void setTrajectoryEngine(TrajectoryEngine engine) {
+		propagation.setTrajectoryEngine(engine);
+	}
+
+	/**
+	 * Adds a perturbing force model. Perturbed orbits are propagated numerically unless an
+	 * engine has been forced with {@link #setTrajectoryEngine(TrajectoryEngine)}.
+	 *
+	 * @param forceModel The force model to add.
+	 */
+	public void addPerturbation(ForceModel forceModel) {
+		propagation.addPerturbation(forceModel);
+	}
+
+	/**
+	 * Returns the engine that will be used at the next update.
+	 *
+	 * @return the forced engine if any, otherwise the engine matching the configured perturbations.
+	 */
+	public TrajectoryEngine getEffectiveEngine() {
+		return propagation.getEffectiveEngine();
+	}
+
+	/**
+	 * Selects how perturbed orbits are integrated: with the adaptive Dormand-Prince integrator
+	 * (the default) or with the fixed step Runge-Kutta integrator.
+	 *
+	 * @param integrationMode The integration mode.
+	 */
+	public void setIntegrationMode(NumericalTrajectoryEngine.Mode integrationMode) {
+		propagation.setIntegrationMode(integrationMode);
+	}
+
+	/**
+	 * @return The integration mode of perturbed orbits.
+	 */
+	public NumericalTrajectoryEngine.Mode getIntegrationMode() {
+		return propagation.getIntegrationMode();
+	}
+
+	/**
+	 * Returns the cost of the last propagation of the effective engine.
+	 *
+	 * @return The statistics, or null if the engine does not measure them or has not run yet.
+	 */
+	public PropagationStatistics getLastPropagationStatistics() {
+		return getEffectiveEngine().getLastStatistics();
+	}
+
+	/**
+	 * Sets the cache consulted before propagating. By default every orbit uses
+	 * {@link TrajectoryCache#getShared()}.
+	 *
+	 * @param trajectoryCache The trajectory cache to use.
+	 */
+	public void setTrajectoryCache(TrajectoryCache trajectoryCache) {
+		propagation.setTrajectoryCache(trajectoryCache);
+	}
+
+	/**
+	 * @return The cache consulted before propagating.
+	 */
+	public TrajectoryCache getTrajectoryCache() {
+		return propagation.getTrajectoryCache();
+	}
+
+	/**
+	 * @return The propagation settings of this orbit, shared with the methods delegating to them.
+	 */
+	public OrbitPropagation getPropagation() {
+		return propagation;
+	}
+
+	/**
+	 * Returns the latest orbital elements. Their trajectory may not be computed yet, see
+	 * {@link #isStale()}.
+	 *
+	 * @return the orbital elements.
+	 */
+	public OrbitalElements getElements() {
+		return elements;
+	}
+
+	/**
+	 * Sets the number of samples of both update tiers.
+	 *
+	 * @param previewPointBudget The number of samples of a preview trajectory (at least 2).
+	 * @param fullPointBudget    The number of samples of a full trajectory (at least 2), or 0 to
+	 *                           use the {@link #DEFAULT_SAMPLING_POLICY default sampling policy}.
+	 */
+	public void setPointBudgets(int previewPointBudget, int fullPointBudget) {
+		propagation.setPointBudgets(previewPointBudget, fullPointBudget);
+	}
+
+	/**
+	 * Sets how full trajectories are sampled. The new policy is used from the next update on.
+	 *
+	 * @param samplingPolicy The sampling policy of full trajectories.
+	 */
+	public void setSamplingPolicy(SamplingPolicy samplingPolicy) {
+		propagation.setSamplingPolicy(samplingPolicy);
+	}
+
+	/**
+	 * @return The sampling policy of full trajectories.
+	 */
+	public SamplingPolicy getSamplingPolicy() {
+		return propagation.getSamplingPolicy();
+	}
+
+	/**
+	 * Sets how far after the orbit epoch the trajectory is propagated, in revolutions or as a
+	 * duration. The new window is used from the next update on.
+	 *
+	 * @param propagationWindow The propagation window.
+	 */
+	public void setPropagationWindow(PropagationWindow propagationWindow) {
+		propagation.setPropagationWindow(propagationWindow);
+	}
+
+	/**
+	 * @return The propagation window, one revolution by default.
+	 */
+	public PropagationWindow getPropagationWindow() {
+		return propagation.getPropagationWindow();
+	}
+
+	/**
+	 * Saves the full trajectory of the latest elements to a binary ephemeris file, with the
+	 * sampling policy and the propagation window it is computed with. The trajectory comes from
+	 * the cache when it has already been computed.
+	 *
+	 * @param file The file to write.
+	 * @throws IOException      If the file cannot be written.
+	 * @throws PatriusException If the trajectory has to be computed and its propagation fails.
+	 */
+	public void saveEphemeris(java.nio.file.Path file) throws IOException, PatriusException {
+		propagation.saveEphemeris(file, elements);
+	}
+
+	/**
+	 * Takes the elements, the sampling policy and the propagation window of an ephemeris file,
+	 * and stores its trajectory in the trajectory cache as the one of the effective engine when
+	 * the file was computed by an engine of the same kind with the same perturbations.
+	 * Like {@link #invalidate}, this does not touch the rendered objects: the loaded trajectory
+	 * is shown the next time it is needed, without propagating.
+	 *
+	 * @param file The opened ephemeris file.
+	 * @return Whether the trajectory of the file was loaded; if not, it is propagated again.
+	 */
+	public boolean loadEphemeris(EphemerisFile file) {
+		final boolean loaded = propagation.loadEphemeris(file);
+		invalidate(file.getElements());
+		return loaded;
+	}
+
+	/**
+	 * Creates an orbit from a binary ephemeris file. The trajectory of a file computed with
+	 * two-body motion is shown without propagating; the force models of a perturbed one are not
+	 * known, so the orbit is then propagated as an unperturbed one.
+	 *
+	 * @param file        The ephemeris file.
+	 * @param displayName A display name for the orbit, used for visualization.
+	 * @return The orbit.
+	 * @throws IOException If the file cannot be read or is not a valid ephemeris file.
+	 */
+	public static CustomOrbit fromEphemeris(java.nio.file.Path file, String displayName) throws IOException {
+		final EphemerisFile ephemeris = EphemerisFile.open(file);
+		final OrbitalElements loaded = ephemeris.getElements();
+		final CustomOrbit orbit = new CustomOrbit(loaded.getA(), loaded.getE(), loaded.getI(), loaded.getPa(),
+				loaded.getRaan(), loaded.getAnomaly(), loaded.getType(), loaded.getFrame(), loaded.getDate(),
+				loaded.getMu(), displayName);
+		orbit.loadEphemeris(ephemeris);
+		return orbit;
+	}
+
+	/**
+	 * Creates an ephemeris following a moving time over the propagation window of this orbit,
+	 * extended incrementally with the effective engine and the sampling policy of full
+	 * trajectories. Safe to call from any thread.
+	 *
+	 * @param newElements The orbital elements to propagate.
+	 * @return An empty ephemeris window starting at the epoch of the elements.
+	 */
+	public EphemerisWindow createEphemerisWindow(OrbitalElements newElements) {
+		return propagation.createEphemerisWindow(newElements);
+	}
+
+	/**
+	 * @return The number of samples of a preview trajectory.
+	 */
+	public int getPreviewPointBudget() {
+		return propagation.getPreviewPointBudget();
+	}
+
+	/**
+	 * @return The number of samples of a full trajectory, or 0 when it is not sampled with a
+	 *         fixed count.
+	 */
+	public int getFullPointBudget() {
+		return propagation.getFullPointBudget();
 	}
 }
@@ -97,6 +97,15 @@ public class CustomSlider extends JPanel {
         return slider.getValue() / scale;
     }
 
+    /**
+     * Tells whether the user is currently dragging the slider thumb. Listeners are notified
+     * while dragging with this flag set, then once more with it cleared when the thumb is released.
+     * @return true while the slider value is being adjusted.
+     */
+    public boolean isAdjusting() {
+        return slider.getValueIsAdjusting();
+    }
+
     /**
      * Adds a listener that triggers when the slider value changes.
      * @param listener the listener to be triggered on value change.
@@ -0,0 +1,468 @@
+package fr.isae.mae.ss.y2024;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntToDoubleFunction;
+
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The EphemerisFile reads and writes a computed trajectory in a compact binary format, so that
+ * it can be reloaded instead of propagated again. A file is a header followed by one column of
+ * little-endian doubles per coordinate:
+ * <pre>
+ *   0  "SOVE", version (int), data offset (int), flags (int), sample count (int), reserved (int)
+ *  24  a, e, i, pa, raan, anomaly, mu, epoch (seconds from J2000), sampling value, window value
+ * 104  anomaly type, frame name, sampling mode, window mode, engine kind, perturbations (UTF-8,
+ *      each prefixed by its length as a short), padded to a multiple of 8 bytes
+ * data offset: time, latitude, longitude, altitude[, x, y, z] columns of sample count doubles
+ * </pre>
+ * Bit 0 of the flags tells whether the Cartesian columns are present. The engine kind and the
+ * perturbations are the ones of the {@link TrajectoryEngine} that computed the samples; version
+ * 1 files lack them. Readers skip the header up to the data offset, so later versions may
+ * append fields to it.
+ * <p>
+ * Files are written through a {@link FileChannel} and read by mapping them in memory: opening a
+ * file only parses its header, and the samples are read from the mapped columns without being
+ * copied until a {@link TrajectoryBuffer} is requested. Since a mapping is limited to 2 GiB,
+ * larger files are rejected.
+ */
+public final class EphemerisFile {
+
+    /** The bytes starting every ephemeris file. */
+    private static final byte[] MAGIC = { 'S', 'O', 'V', 'E' };
+
+    /** The version written by this class, and the latest one it reads. */
+    public static final int VERSION = 2;
+
+    /** Flag set when the Cartesian columns are present. */
+    private static final int CARTESIAN_FLAG = 1;
+
+    /** Size of the fixed part of the header, in bytes. */
+    private static final int FIXED_HEADER_SIZE = 104;
+
+    /** Size of the buffer used to write the columns, in bytes. */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final OrbitalElements elements;
+    private final SamplingPolicy samplingPolicy;
+    private final PropagationWindow propagationWindow;
+    private final int size;
+
+    /** The kind and the perturbations of the engine, null in version 1 files. */
+    private final String engineKind;
+    private final String perturbations;
+
+    /** The mapped columns; the Cartesian ones are null when absent. */
+    private final DoubleBuffer time;
+    private final DoubleBuffer latitude;
+    private final DoubleBuffer longitude;
+    private final DoubleBuffer altitude;
+    private final DoubleBuffer x;
+    private final DoubleBuffer y;
+    private final DoubleBuffer z;
+
+	private EphemerisFile(OrbitalElements elements, String engineKind, String perturbations,
+			SamplingPolicy samplingPolicy, PropagationWindow propagationWindow, int size, DoubleBuffer[] columns) {
+		this.elements = elements;
+		this.engineKind = engineKind;
+		this.perturbations = perturbations;
+		this.samplingPolicy = samplingPolicy;
+		this.propagationWindow = propagationWindow;
+		this.size = size;
+		this.time = columns[0];
+		this.latitude = columns[1];
+		this.longitude = columns[2];
+		this.altitude = columns[3];
+		this.x = columns.length > 4 ? columns[4] : null;
+		this.y = columns.length > 4 ? columns[5] : null;
+		this.z = columns.length > 4 ? columns[6] : null;
+	}
+
+	/**
+	 * Writes a trajectory and the parameters it was computed from.
+	 *
+	 * @param file              The file to write, replaced if it exists.
+	 * @param elements          The orbital elements the trajectory was computed from.
+	 * @param engineKind        The {@link TrajectoryEngine#getKind() kind} of the engine.
+	 * @param perturbations     The {@link TrajectoryEngine#getPerturbations() perturbations} of
+	 *                          the engine.
+	 * @param samplingPolicy    The sampling policy of the trajectory.
+	 * @param propagationWindow The propagation window of the trajectory.
+	 * @param trajectory        The trajectory.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void write(Path file, OrbitalElements elements, String engineKind, String perturbations,
+			SamplingPolicy samplingPolicy, PropagationWindow propagationWindow, TrajectoryBuffer trajectory)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(channel, elements, engineKind, perturbations, samplingPolicy, propagationWindow, trajectory);
+		}
+	}
+
+	/**
+	 * Writes a trajectory and the parameters it was computed from at the current position of a
+	 * channel, which is left open. Several ephemerides written back to back to a stream can be
+	 * told apart since each one starts with its header.
+	 *
+	 * @param channel           The channel to write to.
+	 * @param elements          The orbital elements the trajectory was computed from.
+	 * @param engineKind        The {@link TrajectoryEngine#getKind() kind} of the engine.
+	 * @param perturbations     The {@link TrajectoryEngine#getPerturbations() perturbations} of
+	 *                          the engine.
+	 * @param samplingPolicy    The sampling policy of the trajectory.
+	 * @param propagationWindow The propagation window of the trajectory.
+	 * @param trajectory        The trajectory.
+	 * @throws IOException If the channel cannot be written.
+	 */
+	public static void write(WritableByteChannel channel, OrbitalElements elements, String engineKind,
+			String perturbations, SamplingPolicy samplingPolicy, PropagationWindow propagationWindow,
+			TrajectoryBuffer trajectory) throws IOException {
+		final int count = trajectory.size();
+		final byte[][] names = { utf8(elements.getType().name()), utf8(elements.getFrame().getName()),
+				utf8(samplingPolicy.getMode().name()), utf8(propagationWindow.getMode().name()), utf8(engineKind),
+				utf8(perturbations) };
+		for (byte[] name : names) {
+			if (name.length > 0xFFFF) {
+				throw new IOException("Ephemeris header field too long: " + name.length + " bytes");
+			}
+		}
+		int headerSize = FIXED_HEADER_SIZE;
+		for (byte[] name : names) {
+			headerSize += 2 + name.length;
+		}
+		final int dataOffset = (headerSize + 7) & ~7;
+
+		final ByteBuffer header = ByteBuffer.allocate(dataOffset).order(ByteOrder.LITTLE_ENDIAN);
+		header.put(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(dataOffset);
+		header.putInt(trajectory.hasCartesian() ? CARTESIAN_FLAG : 0);
+		header.putInt(count);
+		header.putInt(0);
+		header.putDouble(elements.getA());
+		header.putDouble(elements.getE());
+		header.putDouble(elements.getI());
+		header.putDouble(elements.getPa());
+		header.putDouble(elements.getRaan());
+		header.putDouble(elements.getAnomaly());
+		header.putDouble(elements.getMu());
+		header.putDouble(elements.getDate().durationFrom(AbsoluteDate.J2000_EPOCH));
+		header.putDouble(samplingPolicy.getValue());
+		header.putDouble(propagationWindow.getValue());
+		for (byte[] name : names) {
+			header.putShort((short) name.length);
+			header.put(name);
+		}
+		header.clear();
+
+		writeFully(channel, header);
+		// Short trajectories do not need a full chunk
+		final int chunkSize = (int) Math.max(Double.BYTES, Math.min(CHUNK_SIZE, (long) count * Double.BYTES));
+		final ByteBuffer chunk = ByteBuffer.allocateDirect(chunkSize).order(ByteOrder.LITTLE_ENDIAN);
+		writeColumn(channel, chunk, count, trajectory::getTime);
+		writeColumn(channel, chunk, count, trajectory::getLatitude);
+		writeColumn(channel, chunk, count, trajectory::getLongitude);
+		writeColumn(channel, chunk, count, trajectory::getAltitude);
+		if (trajectory.hasCartesian()) {
+			writeColumn(channel, chunk, count, trajectory::getX);
+			writeColumn(channel, chunk, count, trajectory::getY);
+			writeColumn(channel, chunk, count, trajectory::getZ);
+		}
+	}
+
+	private static void writeColumn(WritableByteChannel channel, ByteBuffer chunk, int count, IntToDoubleFunction column)
+			throws IOException {
+		chunk.clear();
+		for (int k = 0; k < count; k++) {
+			if (chunk.remaining() < Double.BYTES) {
+				chunk.flip();
+				writeFully(channel, chunk);
+				chunk.clear();
+			}
+			chunk.putDouble(column.applyAsDouble(k));
+		}
+		chunk.flip();
+		writeFully(channel, chunk);
+	}
+
+	private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Opens an ephemeris file by mapping it in memory. Only the header is parsed.
+	 *
+	 * @param file The file to open.
+	 * @return The opened file.
+	 * @throws IOException If the file cannot be read, is not an ephemeris file, has an
+	 *                     unsupported version or is too large to be mapped.
+	 */
+	public static EphemerisFile open(Path file) throws IOException {
+		final MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Ephemeris file too large to be mapped: " + file);
+			}
+			// The mapping stays valid once the channel is closed
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		mapped.order(ByteOrder.LITTLE_ENDIAN);
+		try {
+			final byte[] magic = new byte[MAGIC.length];
+			mapped.get(magic);
+			for (int k = 0; k < MAGIC.length; k++) {
+				if (magic[k] != MAGIC[k]) {
+					throw new IOException("Not an ephemeris file: " + file);
+				}
+			}
+			final int version = mapped.getInt();
+			if (version < 1 || version > VERSION) {
+				throw new IOException("Unsupported ephemeris file version " + version + ": " + file);
+			}
+			final int dataOffset = mapped.getInt();
+			final int flags = mapped.getInt();
+			final int count = mapped.getInt();
+			mapped.getInt();
+			final double a = mapped.getDouble();
+			final double e = mapped.getDouble();
+			final double i = mapped.getDouble();
+			final double pa = mapped.getDouble();
+			final double raan = mapped.getDouble();
+			final double anomaly = mapped.getDouble();
+			final double mu = mapped.getDouble();
+			final double epoch = mapped.getDouble();
+			final double samplingValue = mapped.getDouble();
+			final double windowValue = mapped.getDouble();
+			final PositionAngle type = PositionAngle.valueOf(readName(mapped));
+			final Frame frame = frame(readName(mapped));
+			final SamplingPolicy sampling = samplingPolicy(SamplingPolicy.Mode.valueOf(readName(mapped)),
+					samplingValue);
+			final PropagationWindow.Mode windowMode = PropagationWindow.Mode.valueOf(readName(mapped));
+			final PropagationWindow window = windowMode == PropagationWindow.Mode.REVOLUTIONS
+					? PropagationWindow.revolutions(windowValue)
+					: PropagationWindow.duration(windowValue);
+			final String engineKind = version >= 2 ? readName(mapped) : null;
+			final String perturbations = version >= 2 ? readName(mapped) : null;
+
+			final int columnCount = (flags & CARTESIAN_FLAG) != 0 ? 7 : 4;
+			final long columnSize = (long) count * Double.BYTES;
+			if (count < 0 || dataOffset < mapped.position()
+					|| dataOffset + columnCount * columnSize > mapped.capacity()) {
+				throw new IOException("Truncated ephemeris file: " + file);
+			}
+			// Every column ends within the mapping, whose capacity is an int
+			final DoubleBuffer[] columns = new DoubleBuffer[columnCount];
+			for (int c = 0; c < columnCount; c++) {
+				final long start = dataOffset + c * columnSize;
+				final ByteBuffer column = mapped.duplicate();
+				column.limit((int) (start + columnSize));
+				column.position((int) start);
+				columns[c] = column.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+			}
+
+			final OrbitalElements elements = new OrbitalElements(a, e, i, pa, raan, anomaly, type, frame,
+					new AbsoluteDate(AbsoluteDate.J2000_EPOCH, epoch), mu);
+			return new EphemerisFile(elements, engineKind, perturbations, sampling, window, count, columns);
+		} catch (BufferUnderflowException | IllegalArgumentException ex) {
+			throw new IOException("Invalid ephemeris file header: " + file, ex);
+		}
+	}
+
+	private static byte[] utf8(String name) {
+		return name.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String readName(ByteBuffer buffer) {
+		final byte[] name = new byte[buffer.getShort() & 0xFFFF];
+		buffer.get(name);
+		return new String(name, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the frame of a given name, among the inertial frames orbits are defined in.
+	 */
+	private static Frame frame(String name) throws IOException {
+		try {
+			switch (name) {
+			case "GCRF":
+				return FramesFactory.getGCRF();
+			case "EME2000":
+				return FramesFactory.getEME2000();
+			case "TEME":
+				return FramesFactory.getTEME();
+			default:
+				throw new IOException("Unsupported ephemeris frame: " + name);
+			}
+		} catch (PatriusException ex) {
+			throw new IOException(ex.getMessage(), ex);
+		}
+	}
+
+	private static SamplingPolicy samplingPolicy(SamplingPolicy.Mode mode, double value) {
+		switch (mode) {
+		case FIXED_STEP:
+			return SamplingPolicy.fixedStep(value);
+		case FIXED_COUNT:
+			return SamplingPolicy.fixedCount((int) value);
+		case FIXED_ANGLE:
+			return SamplingPolicy.fixedAngle(value);
+		default:
+			return SamplingPolicy.maxChordError(value);
+		}
+	}
+
+	/**
+	 * Copies the samples into a new buffer, with one bulk copy per column. A
+	 * {@link TrajectoryBuffer} holds its columns in arrays, which the renderers, the interpolator
+	 * and the cache read directly, so it cannot be backed by the mapping; callers only reading a
+	 * few samples should use the getters of this class, which do not copy.
+	 *
+	 * @return A writable trajectory buffer holding the samples of the file.
+	 */
+	public TrajectoryBuffer toTrajectoryBuffer() {
+		return new TrajectoryBuffer(column(time), column(latitude), column(longitude), column(altitude),
+				x == null ? null : column(x), y == null ? null : column(y), z == null ? null : column(z));
+	}
+
+	private static double[] column(DoubleBuffer mapped) {
+		final double[] values = new double[mapped.capacity()];
+		// The duplicate keeps concurrent copies from sharing a position
+		mapped.duplicate().get(values);
+		return values;
+	}
+
+	/**
+	 * @return The orbital elements the trajectory was computed from.
+	 */
+	public OrbitalElements getElements() {
+		return elements;
+	}
+
+	/**
+	 * @return The kind of the engine that computed the trajectory, or null for a version 1 file.
+	 */
+	public String getEngineKind() {
+		return engineKind;
+	}
+
+	/**
+	 * @return The perturbations modelled by the engine that computed the trajectory, empty for
+	 *         two-body motion, or null for a version 1 file.
+	 */
+	public String getPerturbations() {
+		return perturbations;
+	}
+
+	/**
+	 * Tells whether the trajectory was computed by an engine of the same kind, modelling the same
+	 * perturbations, as a given engine. Version 1 files, which do not record their engine, never
+	 * match.
+	 *
+	 * @param engine The engine.
+	 * @return true if the trajectory stands for the one the engine would compute.
+	 */
+	public boolean isComputedBy(TrajectoryEngine engine) {
+		return engine.getKind().equals(engineKind) && engine.getPerturbations().equals(perturbations);
+	}
+
+	/**
+	 * @return The sampling policy of the trajectory.
+	 */
+	public SamplingPolicy getSamplingPolicy() {
+		return samplingPolicy;
+	}
+
+	/**
+	 * @return The propagation window of the trajectory.
+	 */
+	public PropagationWindow getPropagationWindow() {
+		return propagationWindow;
+	}
+
+	/**
+	 * @return The number of samples.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if the samples carry their Cartesian position.
+	 */
+	public boolean hasCartesian() {
+		return x != null;
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The time offset from the orbit epoch, in seconds.
+	 */
+	public double getTime(int k) {
+		return time.get(k);
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The geodetic latitude, in radians.
+	 */
+	public double getLatitude(int k) {
+		return latitude.get(k);
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The geodetic longitude, in radians.
+	 */
+	public double getLongitude(int k) {
+		return longitude.get(k);
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The altitude, in meters.
+	 */
+	public double getAltitude(int k) {
+		return altitude.get(k);
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The X coordinate in the propagation frame, in meters, or NaN if unknown.
+	 */
+	public double getX(int k) {
+		return x == null ? Double.NaN : x.get(k);
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The Y coordinate in the propagation frame, in meters, or NaN if unknown.
+	 */
+	public double getY(int k) {
+		return y == null ? Double.NaN : y.get(k);
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The Z coordinate in the propagation frame, in meters, or NaN if unknown.
+	 */
+	public double getZ(int k) {
+		return z == null ? Double.NaN : z.get(k);
+	}
+}
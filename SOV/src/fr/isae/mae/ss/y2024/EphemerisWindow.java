@@ -0,0 +1,230 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.ArrayDeque;
+
+import fr.cnes.sirius.patrius.orbits.Orbit;
+import fr.cnes.sirius.patrius.propagation.SpacecraftState;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The EphemerisWindow keeps the ephemeris of an orbit around a moving time as a bounded ring of
+ * segments of at most one revolution. Each extension resumes the propagation from the
+ * {@link SpacecraftState} stored at the end of the last segment, so that it costs one segment
+ * however far the window is from the orbit epoch, and the oldest segment is dropped once the
+ * ring is full, its buffer being reused for the new one. A long session thus propagates and
+ * keeps a bounded amount of ephemeris whatever its duration.
+ * <p>
+ * The window covers the {@link PropagationWindow} of the orbit after the current time, plus the
+ * segment containing that time. Time offsets are counted from the epoch of the orbit the window
+ * was created from. A window can be {@link #seed(TrajectoryBuffer) seeded} with a trajectory
+ * already computed from that epoch, the state at its end being propagated only when the window
+ * is extended. A window is not thread-safe.
+ */
+public class EphemerisWindow {
+
+    /** Tolerance on the end of the window, absorbing the rounding of the dates, in seconds. */
+    private static final double TIME_TOLERANCE = 1e-6;
+
+    /** The date of time offset 0. */
+    private final AbsoluteDate epoch;
+
+    private final TrajectoryEngine engine;
+    private final SamplingPolicy sampling;
+
+    /** Duration to keep propagated after the current time, in seconds. */
+    private final double duration;
+
+    /** Duration of a segment, in seconds. */
+    private final double segmentDuration;
+
+    /** Largest number of segments kept. */
+    private final int capacity;
+
+    /** The segments in time order, their samples offset from the epoch. */
+    private final ArrayDeque<TrajectoryBuffer> segments;
+
+    /** Buffer receiving the samples of the propagation running. */
+    private final TrajectoryBuffer scratch = new TrajectoryBuffer();
+
+    /**
+     * The state from which the next segment is propagated: at the end of the last segment, or
+     * behind it after a seed.
+     */
+    private SpacecraftState lastState;
+
+    /** Time offset of {@link #lastState}, in seconds. */
+    private double stateTime;
+
+    /** Time offset of the end of the last segment, in seconds. */
+    private double end;
+
+	/**
+	 * Constructs an empty window starting at the orbit epoch.
+	 *
+	 * @param orbit    The initial orbit.
+	 * @param engine   The engine propagating the segments.
+	 * @param sampling The sampling policy of the segments.
+	 * @param window   The span to keep propagated after the current time.
+	 */
+	public EphemerisWindow(Orbit orbit, TrajectoryEngine engine, SamplingPolicy sampling, PropagationWindow window) {
+		this.epoch = orbit.getDate();
+		this.engine = engine;
+		this.sampling = sampling;
+		this.duration = window.getDuration(orbit);
+		this.segmentDuration = Math.min(duration, orbit.getKeplerianPeriod());
+		// The segments covering the window, plus the one being played
+		this.capacity = (int) Math.ceil(duration / segmentDuration - 1e-9) + 1;
+		this.segments = new ArrayDeque<>(capacity);
+		this.lastState = new SpacecraftState(orbit);
+	}
+
+	/**
+	 * Starts an empty window with a trajectory computed from the orbit epoch with the same engine
+	 * and sampling policy, e.g. the one an orbit just displayed, instead of propagating its first
+	 * segment again. The trajectory is kept as a single segment.
+	 *
+	 * @param trajectory The trajectory, its samples offset from the orbit epoch.
+	 * @throws IllegalStateException If the window is not empty at the orbit epoch.
+	 */
+	public void seed(TrajectoryBuffer trajectory) {
+		if (!segments.isEmpty() || end != 0) {
+			throw new IllegalStateException("Only an empty window at the orbit epoch can be seeded");
+		}
+		if (trajectory.size() < 2 || trajectory.getTime(0) != 0) {
+			return;
+		}
+		final TrajectoryBuffer segment = new TrajectoryBuffer(trajectory.size());
+		segment.addAll(trajectory, 0, trajectory.size(), 0);
+		segments.addLast(segment);
+		end = trajectory.getTime(trajectory.size() - 1);
+	}
+
+	/**
+	 * Makes the window cover a time and its duration after it. Segments are appended from the
+	 * last stored state; if the time is before the window, or so far after it that the segments
+	 * in between would be dropped anyway, the segments are discarded and the propagation jumps
+	 * to the start of the segment containing the time.
+	 *
+	 * @param time The time offset from the orbit epoch, in seconds.
+	 * @return The number of segments propagated.
+	 * @throws PatriusException If an error occurs during the propagation.
+	 */
+	public int advanceTo(double time) throws PatriusException {
+		if (time < getStart() || time > end + duration) {
+			moveTo(Math.floor(time / segmentDuration) * segmentDuration);
+		}
+		int count = 0;
+		while (end < time + duration - TIME_TOLERANCE) {
+			extend();
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Propagates one more segment from the last stored state, dropping the oldest segment if the
+	 * ring is full.
+	 *
+	 * @throws PatriusException If an error occurs during the propagation.
+	 */
+	public void extend() throws PatriusException {
+		if (stateTime != end) {
+			// Seeded window: the state at its end has not been propagated yet
+			lastState = engine.propagateFrom(lastState, new double[] { end - stateTime }, scratch);
+			stateTime = end;
+		}
+		final double[] times = sampling.sampleTimes(lastState.getOrbit(), segmentDuration);
+		final SpacecraftState state = engine.propagateFrom(lastState, times, scratch);
+
+		final TrajectoryBuffer segment = segments.size() == capacity ? segments.pollFirst()
+				: new TrajectoryBuffer(scratch.size());
+		segment.clear();
+		segment.addAll(scratch, 0, scratch.size(), end);
+		segments.addLast(segment);
+
+		lastState = state;
+		end = state.getDate().durationFrom(epoch);
+		stateTime = end;
+	}
+
+	/**
+	 * Discards the segments and propagates the last state to a time without sampling.
+	 */
+	private void moveTo(double time) throws PatriusException {
+		segments.clear();
+		if (time != stateTime) {
+			lastState = engine.propagateFrom(lastState, new double[] { time - stateTime }, scratch);
+			stateTime = time;
+		}
+		end = time;
+	}
+
+	/**
+	 * Copies the samples of every segment into a buffer, the first sample of each segment after
+	 * the first one being the last sample of the previous one.
+	 *
+	 * @param trajectory The buffer receiving the samples; it is cleared first.
+	 */
+	public void copyTo(TrajectoryBuffer trajectory) {
+		trajectory.clear();
+		int size = 0;
+		for (TrajectoryBuffer segment : segments) {
+			size += segment.size();
+		}
+		trajectory.ensureCapacity(size);
+		for (TrajectoryBuffer segment : segments) {
+			trajectory.addAll(segment, trajectory.size() == 0 ? 0 : 1, segment.size(), 0);
+		}
+	}
+
+	/**
+	 * @return The time offset of the first sample, in seconds; the end of the window when it is empty.
+	 */
+	public double getStart() {
+		return segments.isEmpty() ? end : segments.peekFirst().getTime(0);
+	}
+
+	/**
+	 * @return The time offset of the last sample, in seconds.
+	 */
+	public double getEnd() {
+		return end;
+	}
+
+	/**
+	 * @return The duration kept propagated after the current time, in seconds.
+	 */
+	public double getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @return The duration of a segment, in seconds.
+	 */
+	public double getSegmentDuration() {
+		return segmentDuration;
+	}
+
+	/**
+	 * @return The number of segments kept.
+	 */
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * @return The largest number of segments kept.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return The state from which the window is extended: at its end, or at the orbit epoch
+	 *         while a seeded window has not been extended yet.
+	 */
+	public SpacecraftState getLastState() {
+		return lastState;
+	}
+}
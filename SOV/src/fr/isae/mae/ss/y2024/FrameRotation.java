@@ -0,0 +1,29 @@
+package fr.isae.mae.ss.y2024;
+
+/**
+ * A FrameRotation gives the rotation between two frames as a function of time. It is used by
+ * the {@link GeodeticConverter} to bring whole trajectories into the body frame in one pass.
+ */
+public interface FrameRotation {
+
+	/** The rotation of a frame with itself: coordinates are used as they are. */
+	FrameRotation IDENTITY = (t, matrix) -> {
+		matrix[0] = 1;
+		matrix[1] = 0;
+		matrix[2] = 0;
+		matrix[3] = 0;
+		matrix[4] = 1;
+		matrix[5] = 0;
+		matrix[6] = 0;
+		matrix[7] = 0;
+		matrix[8] = 1;
+	};
+
+	/**
+	 * Computes the rotation matrix mapping source frame coordinates to target frame coordinates.
+	 *
+	 * @param t      The time offset from the trajectory epoch, in seconds.
+	 * @param matrix The 9-element array receiving the matrix in row-major order.
+	 */
+	void getMatrix(double t, double[] matrix);
+}
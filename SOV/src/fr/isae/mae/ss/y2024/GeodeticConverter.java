@@ -0,0 +1,109 @@
+package fr.isae.mae.ss.y2024;
+
+import fr.cnes.sirius.patrius.utils.Constants;
+
+/**
+ * The GeodeticConverter turns Cartesian positions into geodetic coordinates on an ellipsoid.
+ * It uses Bowring's formula refined once, which is accurate to the numerical noise from the
+ * ground up to far beyond geostationary altitude, and converts whole trajectories in one
+ * pass instead of going through a frame transform and an iterative solver per sample.
+ */
+public final class GeodeticConverter {
+
+    /** Converter for the WGS84 ellipsoid. */
+    private static final GeodeticConverter WGS84 = new GeodeticConverter(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+            Constants.WGS84_EARTH_FLATTENING);
+
+    /** Equatorial radius, in meters. */
+    private final double a;
+
+    /** Polar radius, in meters. */
+    private final double b;
+
+    /** Flattening. */
+    private final double f;
+
+    /** First eccentricity squared. */
+    private final double e2;
+
+    /** Second eccentricity squared. */
+    private final double ep2;
+
+	/**
+	 * Constructs a converter for an ellipsoid of revolution.
+	 *
+	 * @param equatorialRadius The equatorial radius, in meters.
+	 * @param flattening       The flattening.
+	 */
+	public GeodeticConverter(double equatorialRadius, double flattening) {
+		this.a = equatorialRadius;
+		this.f = flattening;
+		this.b = equatorialRadius * (1 - flattening);
+		this.e2 = flattening * (2 - flattening);
+		this.ep2 = e2 / (1 - e2);
+	}
+
+	/**
+	 * @return The converter for the WGS84 ellipsoid.
+	 */
+	public static GeodeticConverter getWgs84() {
+		return WGS84;
+	}
+
+	/**
+	 * Converts a Cartesian position expressed in the body frame to geodetic coordinates.
+	 *
+	 * @param x   The X coordinate, in meters.
+	 * @param y   The Y coordinate, in meters.
+	 * @param z   The Z coordinate, in meters.
+	 * @param lla The 3-element array receiving latitude (rad), longitude (rad) and altitude (m).
+	 */
+	public void toGeodetic(double x, double y, double z, double[] lla) {
+		final double p = Math.sqrt(x * x + y * y);
+		double beta = Math.atan2(z * a, p * b);
+		double lat = 0;
+		for (int k = 0; k < 2; k++) {
+			final double sinBeta = Math.sin(beta);
+			final double cosBeta = Math.cos(beta);
+			lat = Math.atan2(z + ep2 * b * sinBeta * sinBeta * sinBeta, p - e2 * a * cosBeta * cosBeta * cosBeta);
+			beta = Math.atan2((1 - f) * Math.sin(lat), Math.cos(lat));
+		}
+		final double sinLat = Math.sin(lat);
+		final double cosLat = Math.cos(lat);
+		lla[0] = lat;
+		lla[1] = Math.atan2(y, x);
+		lla[2] = p * cosLat + z * sinLat - a * Math.sqrt(1 - e2 * sinLat * sinLat);
+	}
+
+	/**
+	 * Fills the geodetic columns of a trajectory from its Cartesian columns. Each position is
+	 * first rotated into the body frame with the rotation evaluated at its time offset.
+	 *
+	 * @param trajectory The trajectory, whose samples must carry Cartesian positions.
+	 * @param rotation   The rotation from the trajectory frame to the body frame.
+	 */
+	public void convert(TrajectoryBuffer trajectory, FrameRotation rotation) {
+		final OrbitPipelineMetrics.Measurement measurement = OrbitPipelineMetrics.getShared()
+				.startNested(OrbitPipelineMetrics.Stage.GEODETIC_TRANSFORM);
+		final double[] m = new double[9];
+		final double[] lla = new double[3];
+		final boolean identity = rotation == FrameRotation.IDENTITY;
+		for (int k = 0; k < trajectory.size(); k++) {
+			double x = trajectory.getX(k);
+			double y = trajectory.getY(k);
+			double z = trajectory.getZ(k);
+			if (!identity) {
+				rotation.getMatrix(trajectory.getTime(k), m);
+				final double bx = m[0] * x + m[1] * y + m[2] * z;
+				final double by = m[3] * x + m[4] * y + m[5] * z;
+				final double bz = m[6] * x + m[7] * y + m[8] * z;
+				x = bx;
+				y = by;
+				z = bz;
+			}
+			toGeodetic(x, y, z, lla);
+			trajectory.setGeodetic(k, lla[0], lla[1], lla[2]);
+		}
+		measurement.stop(trajectory.size(), 0);
+	}
+}
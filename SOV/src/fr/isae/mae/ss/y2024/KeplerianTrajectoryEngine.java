@@ -0,0 +1,207 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.Orbit;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The KeplerianTrajectoryEngine samples pure two-body motion analytically.
+ * At each sample epoch the mean anomaly is advanced, Kepler's equation is solved for the
+ * eccentric anomaly and the position is rotated from the perifocal frame to the orbit frame.
+ * No integration is involved, so the cost only depends on the number of output samples.
+ * <p>
+ * The perifocal samples only depend on the shape of the ellipse (a, e, mu), the initial mean
+ * anomaly and the sample epochs, not on its orientation. They are kept in a small cache, so
+ * that changing the inclination, the right ascension of the ascending node or the argument of
+ * perigee only costs one 3x3 rotation and one geodetic conversion per sample.
+ */
+public class KeplerianTrajectoryEngine implements TrajectoryEngine {
+
+	/** Convergence threshold on the eccentric anomaly, in radians. */
+	private static final double KEPLER_TOLERANCE = 1e-14;
+
+	/** Maximum number of Newton iterations when solving Kepler's equation. */
+	private static final int KEPLER_MAX_ITERATIONS = 50;
+
+	/** The kind of the engine recorded in ephemeris files. */
+	public static final String KIND = "KEPLERIAN";
+
+	/** Default number of perifocal sample sets kept. */
+	public static final int DEFAULT_SHAPE_CACHE_CAPACITY = 16;
+
+	/**
+	 * The PerifocalSamples class holds the positions of a set of samples in the perifocal frame
+	 * (X towards perigee, Y along the velocity at perigee).
+	 */
+	private static final class PerifocalSamples {
+		private final double a;
+		private final double e;
+		private final double mu;
+		private final double meanAnomaly;
+		private final double[] times;
+		private final double[] x;
+		private final double[] y;
+		private final int hash;
+
+		PerifocalSamples(double a, double e, double mu, double meanAnomaly, double[] times) {
+			this.a = a;
+			this.e = e;
+			this.mu = mu;
+			this.meanAnomaly = meanAnomaly;
+			this.times = times;
+			this.x = new double[times.length];
+			this.y = new double[times.length];
+			this.hash = 31 * Objects.hash(a, e, mu, meanAnomaly) + Arrays.hashCode(times);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PerifocalSamples)) {
+				return false;
+			}
+			PerifocalSamples other = (PerifocalSamples) obj;
+			return a == other.a && e == other.e && mu == other.mu && meanAnomaly == other.meanAnomaly
+					&& Arrays.equals(times, other.times);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/** Perifocal sample sets in access order, the eldest being evicted first. */
+	private final Map<PerifocalSamples, PerifocalSamples> shapes;
+
+	/** Number of propagations that reused a cached perifocal sample set. */
+	private final AtomicLong shapeHits = new AtomicLong();
+
+	/**
+	 * Constructs an engine with the default perifocal cache capacity.
+	 */
+	public KeplerianTrajectoryEngine() {
+		this(DEFAULT_SHAPE_CACHE_CAPACITY);
+	}
+
+	/**
+	 * Constructs an engine.
+	 *
+	 * @param shapeCacheCapacity The number of perifocal sample sets kept, 0 to disable the cache.
+	 */
+	public KeplerianTrajectoryEngine(final int shapeCacheCapacity) {
+		this.shapes = new LinkedHashMap<PerifocalSamples, PerifocalSamples>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<PerifocalSamples, PerifocalSamples> eldest) {
+				return size() > shapeCacheCapacity;
+			}
+		};
+	}
+
+	@Override
+	public void propagate(Orbit iniOrbit, double[] sampleTimes, TrajectoryBuffer trajectory) throws PatriusException {
+		final KeplerianOrbit kepOrbit = new KeplerianOrbit(iniOrbit);
+		final PerifocalSamples samples = perifocalSamples(kepOrbit.getA(), kepOrbit.getE(), kepOrbit.getMu(),
+				kepOrbit.getMeanAnomaly(), sampleTimes);
+
+		// Perifocal to orbit frame rotation: columns P (towards perigee) and Q
+		final double cosRaan = Math.cos(kepOrbit.getRightAscensionOfAscendingNode());
+		final double sinRaan = Math.sin(kepOrbit.getRightAscensionOfAscendingNode());
+		final double cosPa = Math.cos(kepOrbit.getPerigeeArgument());
+		final double sinPa = Math.sin(kepOrbit.getPerigeeArgument());
+		final double cosI = Math.cos(kepOrbit.getI());
+		final double sinI = Math.sin(kepOrbit.getI());
+
+		final double px = cosRaan * cosPa - sinRaan * sinPa * cosI;
+		final double py = sinRaan * cosPa + cosRaan * sinPa * cosI;
+		final double pz = sinPa * sinI;
+		final double qx = -cosRaan * sinPa - sinRaan * cosPa * cosI;
+		final double qy = -sinRaan * sinPa + cosRaan * cosPa * cosI;
+		final double qz = cosPa * sinI;
+
+		trajectory.clear();
+		trajectory.ensureCapacity(sampleTimes.length);
+
+		final double[] xs = samples.x;
+		final double[] ys = samples.y;
+		for (int k = 0; k < sampleTimes.length; k++) {
+			final double x = xs[k];
+			final double y = ys[k];
+			trajectory.addCartesian(sampleTimes[k], x * px + y * qx, x * py + y * qy, x * pz + y * qz);
+		}
+
+		// The positions are laid on the globe as they are, like the numerical engine does
+		GeodeticConverter.getWgs84().convert(trajectory, FrameRotation.IDENTITY);
+	}
+
+	@Override
+	public String getKind() {
+		return KIND;
+	}
+
+	/**
+	 * Returns the perifocal positions of the samples, from the cache when possible.
+	 */
+	private PerifocalSamples perifocalSamples(double a, double e, double mu, double m0, double[] sampleTimes) {
+		final PerifocalSamples requested = new PerifocalSamples(a, e, mu, m0, sampleTimes.clone());
+		synchronized (shapes) {
+			final PerifocalSamples cached = shapes.get(requested);
+			if (cached != null) {
+				shapeHits.incrementAndGet();
+				return cached;
+			}
+		}
+
+		final double n = Math.sqrt(mu / (a * a * a));
+		final double b = a * Math.sqrt(1 - e * e);
+		for (int k = 0; k < sampleTimes.length; k++) {
+			final double bigE = solveKepler(m0 + n * sampleTimes[k], e);
+			requested.x[k] = a * (Math.cos(bigE) - e);
+			requested.y[k] = b * Math.sin(bigE);
+		}
+
+		// Single epochs, used to move a satellite, are not worth keeping
+		if (sampleTimes.length > 1) {
+			synchronized (shapes) {
+				shapes.put(requested, requested);
+			}
+		}
+		return requested;
+	}
+
+	/**
+	 * @return The number of propagations that reused cached perifocal samples.
+	 */
+	public long getShapeCacheHits() {
+		return shapeHits.get();
+	}
+
+	/**
+	 * Solves Kepler's equation {@code M = E - e sin(E)} for the eccentric anomaly.
+	 *
+	 * @param meanAnomaly The mean anomaly, in radians.
+	 * @param e           The eccentricity (elliptic orbits only).
+	 * @return The eccentric anomaly, in radians.
+	 */
+	static double solveKepler(final double meanAnomaly, final double e) {
+		// Reduce M to [-PI, PI] so the starting guess is close to the root
+		final double m = meanAnomaly - 2 * Math.PI * Math.floor((meanAnomaly + Math.PI) / (2 * Math.PI));
+		double bigE = e < 0.8 ? m + e * Math.sin(m) : Math.PI * Math.signum(m);
+		for (int k = 0; k < KEPLER_MAX_ITERATIONS; k++) {
+			final double f = bigE - e * Math.sin(bigE) - m;
+			final double delta = f / (1 - e * Math.cos(bigE));
+			bigE -= delta;
+			if (Math.abs(delta) < KEPLER_TOLERANCE) {
+				break;
+			}
+		}
+		return bigE;
+	}
+}
@@ -0,0 +1,198 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The LatencyHistogram summarizes the durations of a recurring operation over a rolling time
+ * window, in constant memory. The window is cut into slices that are recycled as time goes by,
+ * so a summary covers the last window (plus the current slice) and older durations are forgotten.
+ * <p>
+ * Durations are counted in logarithmic bins, four per power of two, so that quantiles are
+ * known within 25% from nanoseconds to hours while recording stays a handful of operations.
+ * The histogram is thread-safe.
+ */
+public final class LatencyHistogram {
+
+    /** Default span of the rolling window, in nanoseconds. */
+    public static final long DEFAULT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    /** Default number of slices of the rolling window. */
+    public static final int DEFAULT_SLICES = 6;
+
+    /** Number of bins per power of two. */
+    private static final int SUB_BINS = 4;
+
+    /** Number of bins, enough for any positive long. */
+    private static final int BINS = SUB_BINS * 62;
+
+    /** Duration of a slice, in nanoseconds. */
+    private final long sliceNanos;
+
+    /** Bin counts of each slice. */
+    private final long[][] counts;
+
+    /** Index of the time slice each slice currently holds, or -1 if it was never used. */
+    private final long[] sliceIds;
+
+    private final long[] sliceTotals;
+    private final long[] sliceSums;
+    private final long[] sliceMaxima;
+
+    /** The last recorded duration, in nanoseconds. */
+    private long last = -1;
+
+	/**
+	 * Constructs a histogram over the last minute.
+	 */
+	public LatencyHistogram() {
+		this(DEFAULT_WINDOW_NANOS, DEFAULT_SLICES);
+	}
+
+	/**
+	 * Constructs a histogram over a rolling window.
+	 *
+	 * @param windowNanos The span of the window, in nanoseconds.
+	 * @param slices      The number of slices the window is recycled by.
+	 */
+	public LatencyHistogram(long windowNanos, int slices) {
+		if (slices < 1 || windowNanos < slices) {
+			throw new IllegalArgumentException("Invalid window: " + windowNanos + " ns in " + slices + " slices");
+		}
+		this.sliceNanos = windowNanos / slices;
+		// One more slice than the window, being filled while the others cover the whole window
+		this.counts = new long[slices + 1][BINS];
+		this.sliceIds = new long[slices + 1];
+		this.sliceTotals = new long[slices + 1];
+		this.sliceSums = new long[slices + 1];
+		this.sliceMaxima = new long[slices + 1];
+		Arrays.fill(sliceIds, -1);
+	}
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param durationNanos The duration, in nanoseconds.
+	 */
+	public void record(long durationNanos) {
+		record(durationNanos, System.nanoTime());
+	}
+
+	/**
+	 * Records a duration at a given time.
+	 *
+	 * @param durationNanos The duration, in nanoseconds.
+	 * @param nowNanos      The current {@link System#nanoTime()}.
+	 */
+	synchronized void record(long durationNanos, long nowNanos) {
+		final long duration = Math.max(0, durationNanos);
+		final int slice = slice(nowNanos);
+		counts[slice][bin(duration)]++;
+		sliceTotals[slice]++;
+		sliceSums[slice] += duration;
+		sliceMaxima[slice] = Math.max(sliceMaxima[slice], duration);
+		last = duration;
+	}
+
+	/**
+	 * Returns the slice holding a time, recycling it if it held an older one.
+	 */
+	private int slice(long nowNanos) {
+		final long id = Math.floorDiv(nowNanos, sliceNanos);
+		final int slice = (int) Math.floorMod(id, (long) sliceIds.length);
+		if (sliceIds[slice] != id) {
+			sliceIds[slice] = id;
+			Arrays.fill(counts[slice], 0);
+			sliceTotals[slice] = 0;
+			sliceSums[slice] = 0;
+			sliceMaxima[slice] = 0;
+		}
+		return slice;
+	}
+
+	/**
+	 * Summarizes the durations of the rolling window.
+	 *
+	 * @return The summary.
+	 */
+	public LatencySnapshot snapshot() {
+		return snapshot(System.nanoTime());
+	}
+
+	/**
+	 * Summarizes the durations of the rolling window ending at a given time.
+	 *
+	 * @param nowNanos The current {@link System#nanoTime()}.
+	 * @return The summary.
+	 */
+	synchronized LatencySnapshot snapshot(long nowNanos) {
+		final long currentId = Math.floorDiv(nowNanos, sliceNanos);
+		final long[] merged = new long[BINS];
+		long total = 0;
+		long sum = 0;
+		long max = 0;
+		for (int slice = 0; slice < sliceIds.length; slice++) {
+			if (sliceIds[slice] < 0 || currentId - sliceIds[slice] >= sliceIds.length) {
+				continue;
+			}
+			for (int bin = 0; bin < BINS; bin++) {
+				merged[bin] += counts[slice][bin];
+			}
+			total += sliceTotals[slice];
+			sum += sliceSums[slice];
+			max = Math.max(max, sliceMaxima[slice]);
+		}
+		if (total == 0) {
+			return new LatencySnapshot(0, last, 0, 0, 0, 0, 0);
+		}
+		return new LatencySnapshot(total, last, (double) sum / total, quantile(merged, total, max, 0.50),
+				quantile(merged, total, max, 0.95), quantile(merged, total, max, 0.99), max);
+	}
+
+	/**
+	 * Returns the upper bound of the bin holding a quantile, capped by the largest duration.
+	 */
+	private static long quantile(long[] merged, long total, long max, double q) {
+		final long rank = (long) Math.ceil(q * total);
+		long cumulated = 0;
+		for (int bin = 0; bin < BINS; bin++) {
+			cumulated += merged[bin];
+			if (cumulated >= rank) {
+				return Math.min(upperBound(bin), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the bin of a duration: exact below 4 ns, then four bins per power of two.
+	 */
+	static int bin(long duration) {
+		if (duration < SUB_BINS) {
+			return (int) duration;
+		}
+		final int exponent = 63 - Long.numberOfLeadingZeros(duration);
+		final int sub = (int) (duration >>> (exponent - 2)) & (SUB_BINS - 1);
+		return SUB_BINS * (exponent - 1) + sub;
+	}
+
+	/**
+	 * Returns the largest duration of a bin.
+	 */
+	static long upperBound(int bin) {
+		if (bin < SUB_BINS) {
+			return bin;
+		}
+		final int exponent = bin / SUB_BINS + 1;
+		final int sub = bin % SUB_BINS;
+		return ((long) (SUB_BINS + sub + 1) << (exponent - 2)) - 1;
+	}
+
+	/**
+	 * Forgets every recorded duration.
+	 */
+	public synchronized void reset() {
+		Arrays.fill(sliceIds, -1);
+		last = -1;
+	}
+}
@@ -0,0 +1,102 @@
+package fr.isae.mae.ss.y2024;
+
+/**
+ * The LatencySnapshot summarizes the durations recorded by a {@link LatencyHistogram} over its
+ * rolling window. Quantiles are upper bounds of histogram bins, within 25% of the exact value.
+ * Durations are exposed in milliseconds, which is how they are shown through JMX.
+ */
+public final class LatencySnapshot {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /** Number of durations in the window. */
+    private final long count;
+
+    /** The last recorded duration, in nanoseconds, or -1 if none was ever recorded. */
+    private final long lastNanos;
+
+    private final double meanNanos;
+    private final long p50Nanos;
+    private final long p95Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+	/**
+	 * Constructs a summary.
+	 *
+	 * @param count     The number of durations in the window.
+	 * @param lastNanos The last recorded duration, or -1 if none was ever recorded.
+	 * @param meanNanos The mean duration.
+	 * @param p50Nanos  The median duration.
+	 * @param p95Nanos  The 95th percentile.
+	 * @param p99Nanos  The 99th percentile.
+	 * @param maxNanos  The largest duration.
+	 */
+	public LatencySnapshot(long count, long lastNanos, double meanNanos, long p50Nanos, long p95Nanos, long p99Nanos,
+			long maxNanos) {
+		this.count = count;
+		this.lastNanos = lastNanos;
+		this.meanNanos = meanNanos;
+		this.p50Nanos = p50Nanos;
+		this.p95Nanos = p95Nanos;
+		this.p99Nanos = p99Nanos;
+		this.maxNanos = maxNanos;
+	}
+
+	/**
+	 * @return The number of durations in the window.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return The last recorded duration in milliseconds, even if it left the window, or -1 if
+	 *         none was ever recorded.
+	 */
+	public double getLastMillis() {
+		return lastNanos < 0 ? -1 : lastNanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return The mean duration, in milliseconds.
+	 */
+	public double getMeanMillis() {
+		return meanNanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return The median duration, in milliseconds.
+	 */
+	public double getP50Millis() {
+		return p50Nanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return The 95th percentile of the durations, in milliseconds.
+	 */
+	public double getP95Millis() {
+		return p95Nanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return The 99th percentile of the durations, in milliseconds.
+	 */
+	public double getP99Millis() {
+		return p99Nanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return The largest duration, in milliseconds.
+	 */
+	public double getMaxMillis() {
+		return maxNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d in window, last %.3f ms, mean %.3f ms, p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms",
+				count, getLastMillis(), getMeanMillis(), getP50Millis(), getP95Millis(), getP99Millis(),
+				getMaxMillis());
+	}
+}
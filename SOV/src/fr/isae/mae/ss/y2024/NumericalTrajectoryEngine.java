@@ -0,0 +1,248 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import fr.cnes.sirius.patrius.forces.ForceModel;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.ode.FirstOrderIntegrator;
+import fr.cnes.sirius.patrius.orbits.Orbit;
+import fr.cnes.sirius.patrius.orbits.OrbitType;
+import fr.cnes.sirius.patrius.propagation.SpacecraftState;
+import fr.cnes.sirius.patrius.propagation.numerical.NumericalPropagator;
+import fr.cnes.sirius.patrius.propagation.sampling.PatriusStepHandler;
+import fr.cnes.sirius.patrius.propagation.sampling.PatriusStepInterpolator;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import fr.cnes.sirius.patrius.utils.exception.PropagationException;
+
+/**
+ * The NumericalTrajectoryEngine propagates an orbit by numerical integration, either with a
+ * fixed step Runge-Kutta integrator or with an adaptive Dormand-Prince 8(5,3) integrator
+ * controlled by absolute and relative tolerances. In both cases the samples are read from the
+ * dense output of the integrator, so the output sampling never dictates the integration step.
+ * It is the engine to use whenever perturbations (force models) have to be taken into account.
+ */
+public class NumericalTrajectoryEngine implements TrajectoryEngine {
+
+	/** The integration modes. */
+	public enum Mode {
+		FIXED_STEP, ADAPTIVE
+	}
+
+	/** The kind of the engine recorded in ephemeris files. */
+	public static final String KIND = "NUMERICAL";
+
+	/** Default Runge-Kutta integration step, in seconds. */
+	public static final double DEFAULT_INTEGRATION_STEP = 0.05;
+
+	/** Default smallest step of the adaptive integrator, in seconds. */
+	public static final double DEFAULT_MIN_STEP = 1e-3;
+
+	/** Default largest step of the adaptive integrator, in seconds. */
+	public static final double DEFAULT_MAX_STEP = 3600.;
+
+	/** Default absolute tolerance of the adaptive integrator, on positions (m) and velocities (m/s). */
+	public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-3;
+
+	/** Default relative tolerance of the adaptive integrator. */
+	public static final double DEFAULT_RELATIVE_TOLERANCE = 1e-10;
+
+	/** The integration mode. */
+	private final Mode mode;
+
+	/** The Runge-Kutta integration step, or the smallest adaptive step, in seconds. */
+	private final double integrationStep;
+
+	/** The largest adaptive step, in seconds. */
+	private final double maxStep;
+
+	/** The absolute tolerance of the adaptive integrator. */
+	private final double absoluteTolerance;
+
+	/** The relative tolerance of the adaptive integrator. */
+	private final double relativeTolerance;
+
+	/** The force models added to the propagator on top of the central attraction. */
+	private final List<ForceModel> forceModels;
+
+	/** Statistics of the last propagation, or null before the first one. */
+	private volatile PropagationStatistics lastStatistics;
+
+	/**
+	 * Constructs a numerical engine with the default integration step and no perturbation.
+	 */
+	public NumericalTrajectoryEngine() {
+		this(DEFAULT_INTEGRATION_STEP, new ArrayList<>());
+	}
+
+	/**
+	 * Constructs a fixed step numerical engine.
+	 *
+	 * @param integrationStep The Runge-Kutta integration step, in seconds.
+	 * @param forceModels     The force models to add to the propagator.
+	 */
+	public NumericalTrajectoryEngine(final double integrationStep, final List<ForceModel> forceModels) {
+		this(Mode.FIXED_STEP, integrationStep, Double.NaN, Double.NaN, Double.NaN, forceModels);
+	}
+
+	private NumericalTrajectoryEngine(final Mode mode, final double integrationStep, final double maxStep,
+			final double absoluteTolerance, final double relativeTolerance, final List<ForceModel> forceModels) {
+		this.mode = mode;
+		this.integrationStep = integrationStep;
+		this.maxStep = maxStep;
+		this.absoluteTolerance = absoluteTolerance;
+		this.relativeTolerance = relativeTolerance;
+		this.forceModels = new ArrayList<>(forceModels);
+	}
+
+	/**
+	 * Constructs an adaptive numerical engine with the default step bounds and tolerances.
+	 *
+	 * @param forceModels The force models to add to the propagator.
+	 * @return The engine.
+	 */
+	public static NumericalTrajectoryEngine adaptive(final List<ForceModel> forceModels) {
+		return adaptive(DEFAULT_MIN_STEP, DEFAULT_MAX_STEP, DEFAULT_ABSOLUTE_TOLERANCE, DEFAULT_RELATIVE_TOLERANCE,
+				forceModels);
+	}
+
+	/**
+	 * Constructs an adaptive numerical engine.
+	 *
+	 * @param minStep           The smallest integration step, in seconds.
+	 * @param maxStep           The largest integration step, in seconds.
+	 * @param absoluteTolerance The absolute tolerance, on positions (m) and velocities (m/s).
+	 * @param relativeTolerance The relative tolerance.
+	 * @param forceModels       The force models to add to the propagator.
+	 * @return The engine.
+	 */
+	public static NumericalTrajectoryEngine adaptive(final double minStep, final double maxStep,
+			final double absoluteTolerance, final double relativeTolerance, final List<ForceModel> forceModels) {
+		return new NumericalTrajectoryEngine(Mode.ADAPTIVE, minStep, maxStep, absoluteTolerance, relativeTolerance,
+				forceModels);
+	}
+
+	/**
+	 * Builds a propagator starting from the given state, with the configured force models.
+	 */
+	private NumericalPropagator createPropagator(SpacecraftState iniState, FirstOrderIntegrator integrator)
+			throws PatriusException {
+		// Initialization of the propagator
+		final NumericalPropagator propagator = new NumericalPropagator(integrator);
+		propagator.resetInitialState(iniState);
+		for (ForceModel forceModel : forceModels) {
+			propagator.addForceModel(forceModel);
+		}
+
+		// Forcing integration using cartesian equations
+		propagator.setOrbitType(OrbitType.CARTESIAN);
+		return propagator;
+	}
+
+	@Override
+	public void propagate(Orbit iniOrbit, double[] sampleTimes, TrajectoryBuffer trajectory) throws PatriusException {
+		propagateFrom(new SpacecraftState(iniOrbit), sampleTimes, trajectory);
+	}
+
+	@Override
+	public SpacecraftState propagateFrom(SpacecraftState initialState, double[] sampleTimes,
+			TrajectoryBuffer trajectory) throws PatriusException {
+		final long start = System.nanoTime();
+		final OrbitalContext context = OrbitalContext.getInstance();
+		final FirstOrderIntegrator integrator = mode == Mode.ADAPTIVE
+				? context.createAdaptiveIntegrator(integrationStep, maxStep, absoluteTolerance, relativeTolerance)
+				: context.createFixedStepIntegrator(integrationStep);
+		final NumericalPropagator propagator = createPropagator(initialState, integrator);
+
+		final AbsoluteDate epoch = initialState.getDate();
+		trajectory.clear();
+		trajectory.ensureCapacity(sampleTimes.length);
+		final DenseOutputSampler sampler = new DenseOutputSampler(epoch, sampleTimes, trajectory);
+		propagator.setMasterMode(sampler);
+		final SpacecraftState finalState = propagator.propagate(epoch.shiftedBy(sampleTimes[sampleTimes.length - 1]));
+
+		// The inertial positions are laid on the globe as they are, as the viewer always did
+		GeodeticConverter.getWgs84().convert(trajectory, FrameRotation.IDENTITY);
+
+		lastStatistics = new PropagationStatistics(sampler.steps, integrator.getEvaluations(), trajectory.size(),
+				System.nanoTime() - start);
+		return finalState;
+	}
+
+	@Override
+	public PropagationStatistics getLastStatistics() {
+		return lastStatistics;
+	}
+
+	@Override
+	public String getKind() {
+		return KIND;
+	}
+
+	/**
+	 * Returns the class names of the force models, in the order they are added. Their
+	 * parameters are not part of it.
+	 */
+	@Override
+	public String getPerturbations() {
+		final StringJoiner names = new StringJoiner(",");
+		for (ForceModel forceModel : forceModels) {
+			names.add(forceModel.getClass().getName());
+		}
+		return names.toString();
+	}
+
+	/**
+	 * @return The integration mode.
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * The DenseOutputSampler reads the requested samples from the interpolator of each
+	 * integration step, whatever the size of the step.
+	 */
+	private static final class DenseOutputSampler implements PatriusStepHandler {
+		private static final long serialVersionUID = 1L;
+
+		private final AbsoluteDate epoch;
+		private final double[] sampleTimes;
+		private final transient TrajectoryBuffer trajectory;
+
+		/** Index of the next sample to take. */
+		private int next;
+
+		/** Number of integration steps handled. */
+		private int steps;
+
+		DenseOutputSampler(AbsoluteDate epoch, double[] sampleTimes, TrajectoryBuffer trajectory) {
+			this.epoch = epoch;
+			this.sampleTimes = sampleTimes;
+			this.trajectory = trajectory;
+		}
+
+		@Override
+		public void init(SpacecraftState s0, AbsoluteDate t) {
+			// Nothing to do ...
+		}
+
+		@Override
+		public void handleStep(PatriusStepInterpolator interpolator, boolean isLast) throws PropagationException {
+			steps++;
+			final double stepEnd = interpolator.getCurrentDate().durationFrom(epoch);
+			try {
+				while (next < sampleTimes.length && (sampleTimes[next] <= stepEnd || isLast)) {
+					interpolator.setInterpolatedDate(epoch.shiftedBy(sampleTimes[next]));
+					final Vector3D position = interpolator.getInterpolatedState().getPVCoordinates().getPosition();
+					trajectory.addCartesian(sampleTimes[next], position.getX(), position.getY(), position.getZ());
+					next++;
+				}
+			} catch (PatriusException e) {
+				throw new PropagationException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package fr.isae.mae.ss.y2024;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The OmmKvnCatalogReader streams a file of concatenated CCSDS Orbit Mean-elements Messages in
+ * key = value notation. Each message starts with its {@code CCSDS_OMM_VERS} line; comments and
+ * the structural keywords are ignored. A malformed message is reported once the next header has
+ * been reached, so reading goes on from there.
+ */
+public class OmmKvnCatalogReader extends CatalogReader {
+
+    /** The keyword starting every message. */
+    private static final String HEADER_KEY = "CCSDS_OMM_VERS";
+
+    private final BufferedReader reader;
+
+    /** Fields of the message being read. */
+    private final Map<String, String> fields = new HashMap<>();
+
+	/**
+	 * Constructs a reader over a stream of messages.
+	 *
+	 * @param reader The messages.
+	 */
+	public OmmKvnCatalogReader(Reader reader) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	@Override
+	public CatalogObject next() throws IOException, PatriusException {
+		String line;
+		while ((line = reader.readLine()) != null) {
+			final int equals = line.indexOf('=');
+			if (equals < 0 || line.trim().startsWith("COMMENT")) {
+				// Blank lines, comments and structural keywords such as META_START
+				continue;
+			}
+			final String key = line.substring(0, equals).trim();
+			final String value = line.substring(equals + 1).trim();
+			if (HEADER_KEY.equals(key) && !fields.isEmpty()) {
+				// The previous message is complete: it is returned and this header starts the next one
+				try {
+					return completeMessage();
+				} finally {
+					fields.put(key, value);
+				}
+			}
+			fields.put(key, value);
+		}
+		return fields.isEmpty() ? null : completeMessage();
+	}
+
+	/**
+	 * Builds the object of the message read, which is forgotten even if it is malformed.
+	 */
+	private CatalogObject completeMessage() throws IOException, PatriusException {
+		try {
+			return fromOmm(fields);
+		} finally {
+			fields.clear();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
@@ -0,0 +1,103 @@
+package fr.isae.mae.ss.y2024;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The OmmXmlCatalogReader streams the {@code <omm>} elements of a CCSDS NDM/XML file with a
+ * StAX pull parser, so only the message being read is held in memory. Within a message, the
+ * text of every leaf element is kept under its tag name, which is the CCSDS keyword.
+ */
+public class OmmXmlCatalogReader extends CatalogReader {
+
+    /** The element enclosing one message. */
+    private static final String MESSAGE_ELEMENT = "omm";
+
+    private final InputStream input;
+
+    private final XMLStreamReader reader;
+
+    /** Fields of the message being read. */
+    private final Map<String, String> fields = new HashMap<>();
+
+	/**
+	 * Constructs a reader over an XML stream.
+	 *
+	 * @param input The XML document.
+	 * @throws IOException If the XML parser cannot be created.
+	 */
+	public OmmXmlCatalogReader(InputStream input) throws IOException {
+		this.input = input;
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		// Catalogs come from outside: never resolve DTDs or external entities
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		try {
+			this.reader = factory.createXMLStreamReader(input);
+		} catch (XMLStreamException ex) {
+			throw new IOException(ex.getMessage(), ex);
+		}
+	}
+
+	@Override
+	public CatalogObject next() throws IOException, PatriusException {
+		try {
+			boolean inMessage = false;
+			String element = null;
+			final StringBuilder text = new StringBuilder();
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					element = reader.getLocalName();
+					text.setLength(0);
+					if (MESSAGE_ELEMENT.equals(element)) {
+						inMessage = true;
+						fields.clear();
+					}
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+					if (inMessage && element != null) {
+						text.append(reader.getText());
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (MESSAGE_ELEMENT.equals(reader.getLocalName())) {
+						return fromOmm(fields);
+					}
+					// Only leaves have text between their start and end tags
+					if (inMessage && element != null) {
+						fields.put(element, text.toString().trim());
+					}
+					element = null;
+					break;
+				default:
+					break;
+				}
+			}
+			return null;
+		} catch (XMLStreamException ex) {
+			throw new IOException(ex.getMessage(), ex);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			reader.close();
+		} catch (XMLStreamException ex) {
+			throw new IOException(ex.getMessage(), ex);
+		} finally {
+			input.close();
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package fr.isae.mae.ss.y2024;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The OrbitPipelineMetrics instruments the stages of an orbit update, to tell where the time
+ * of a laggy update goes without attaching a profiler. Every measured stage
+ * <ul>
+ * <li>emits an {@link OrbitUpdateEvent} to the JDK Flight Recorder, carrying the orbit, the
+ * number of points and integration steps;</li>
+ * <li>is recorded in a rolling {@link LatencyHistogram} per stage, exposed through JMX as
+ * {@value #OBJECT_NAME} by the shared instance.</li>
+ * </ul>
+ * A measurement costs two clock reads and a histogram update, negligible next to the stages
+ * it measures. The metrics are thread-safe.
+ */
+public final class OrbitPipelineMetrics implements OrbitPipelineMetricsMXBean {
+
+    /** The measured stages of an orbit update. */
+    public enum Stage {
+        /** From an update request to the orbit being shown. */
+        UPDATE,
+        /** The propagation of a trajectory, geodetic transform included. */
+        PROPAGATION,
+        /** The transform of a trajectory to geodetic coordinates. */
+        GEODETIC_TRANSFORM,
+        /** The copy of a trajectory into the rendered buffer. */
+        GLUE,
+        /** The update of the WorldWind renderables with a trajectory, glue included. */
+        LAYER_UPDATE,
+        /** A WorldWind frame, from the start of the rendering to the buffer swap. */
+        REDRAW
+    }
+
+    /** Name of the shared metrics on the platform MBean server. */
+    public static final String OBJECT_NAME = "fr.isae.mae.ss.y2024:type=OrbitPipelineMetrics";
+
+    private static final Logger LOGGER = Logger.getLogger(OrbitPipelineMetrics.class.getName());
+
+    /** The propagation running on each thread, which the nested stages are attributed to. */
+    private static final ThreadLocal<Measurement> PROPAGATING = new ThreadLocal<>();
+
+    /** The metrics of the application, registered on the platform MBean server. */
+    private static final OrbitPipelineMetrics SHARED = new OrbitPipelineMetrics();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(SHARED, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            LOGGER.log(Level.WARNING, "Orbit pipeline metrics not registered with JMX", e);
+        }
+    }
+
+    /** The durations of each stage. */
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+
+    /** Span of the rolling window of the histograms, in nanoseconds. */
+    private final long windowNanos;
+
+	/**
+	 * Constructs metrics over the default rolling window.
+	 */
+	public OrbitPipelineMetrics() {
+		this(LatencyHistogram.DEFAULT_WINDOW_NANOS);
+	}
+
+	/**
+	 * Constructs metrics over a rolling window.
+	 *
+	 * @param windowNanos The span of the rolling window, in nanoseconds.
+	 */
+	public OrbitPipelineMetrics(long windowNanos) {
+		this.windowNanos = windowNanos;
+		for (Stage stage : Stage.values()) {
+			histograms.put(stage, new LatencyHistogram(windowNanos, LatencyHistogram.DEFAULT_SLICES));
+		}
+	}
+
+	/**
+	 * @return The metrics of the application.
+	 */
+	public static OrbitPipelineMetrics getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Starts measuring a stage of an orbit update.
+	 *
+	 * @param stage   The measured stage.
+	 * @param orbitId The identifier of the orbit, or 0 if the stage does not belong to one orbit.
+	 * @param preview Whether a coarse preview trajectory was requested.
+	 * @return The measurement, to be stopped at the end of the stage.
+	 */
+	public Measurement start(Stage stage, long orbitId, boolean preview) {
+		return new Measurement(this, stage, orbitId, preview);
+	}
+
+	/**
+	 * Starts measuring a stage nested in the propagation running on the current thread, if any,
+	 * and attributed to its orbit.
+	 *
+	 * @param stage The measured stage.
+	 * @return The measurement, to be stopped at the end of the stage.
+	 */
+	public Measurement startNested(Stage stage) {
+		final Measurement propagation = PROPAGATING.get();
+		return propagation == null ? start(stage, 0, false)
+				: start(stage, propagation.orbitId, propagation.preview);
+	}
+
+	/**
+	 * Returns the histogram of a stage.
+	 *
+	 * @param stage The stage.
+	 * @return The durations of the stage over the rolling window.
+	 */
+	public LatencyHistogram getHistogram(Stage stage) {
+		return histograms.get(stage);
+	}
+
+	@Override
+	public LatencySnapshot getUpdateLatency() {
+		return histograms.get(Stage.UPDATE).snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getPropagationLatency() {
+		return histograms.get(Stage.PROPAGATION).snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getGeodeticTransformLatency() {
+		return histograms.get(Stage.GEODETIC_TRANSFORM).snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getGlueLatency() {
+		return histograms.get(Stage.GLUE).snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getLayerUpdateLatency() {
+		return histograms.get(Stage.LAYER_UPDATE).snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getRedrawLatency() {
+		return histograms.get(Stage.REDRAW).snapshot();
+	}
+
+	@Override
+	public long getWindowSeconds() {
+		return TimeUnit.NANOSECONDS.toSeconds(windowNanos);
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : histograms.values()) {
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * A running measurement of a stage. A propagation measurement also makes its orbit the one
+	 * the stages nested on the same thread are attributed to, until it is stopped.
+	 */
+	public static final class Measurement {
+		private final OrbitPipelineMetrics metrics;
+		private final Stage stage;
+		private final long orbitId;
+		private final boolean preview;
+		private final OrbitUpdateEvent event = new OrbitUpdateEvent();
+		private final long startNanos;
+
+		/** The enclosing propagation of the thread, restored when a propagation is stopped. */
+		private final Measurement enclosing;
+
+		private Measurement(OrbitPipelineMetrics metrics, Stage stage, long orbitId, boolean preview) {
+			this.metrics = metrics;
+			this.stage = stage;
+			this.orbitId = orbitId;
+			this.preview = preview;
+			if (stage == Stage.PROPAGATION) {
+				this.enclosing = PROPAGATING.get();
+				PROPAGATING.set(this);
+			} else {
+				this.enclosing = null;
+			}
+			event.begin();
+			this.startNanos = System.nanoTime();
+		}
+
+		/**
+		 * Ends the stage: records its duration and emits its event.
+		 *
+		 * @param points The number of trajectory samples.
+		 * @param steps  The number of accepted integration steps of a numerical propagation, 0
+		 *               otherwise.
+		 * @return The duration of the stage, in nanoseconds.
+		 */
+		public long stop(int points, int steps) {
+			final long duration = System.nanoTime() - startNanos;
+			event.end();
+			leave();
+			metrics.histograms.get(stage).record(duration);
+			if (event.shouldCommit()) {
+				event.stage = stage.name();
+				event.orbitId = orbitId;
+				event.points = points;
+				event.steps = steps;
+				event.preview = preview;
+				event.commit();
+			}
+			return duration;
+		}
+		/**
+		 * Ends a stage whose work was abandoned, e.g. an update superseded by a newer one: its
+		 * duration is not recorded and no event is emitted.
+		 */
+		public void discard() {
+			leave();
+		}
+
+		/**
+		 * Restores the enclosing propagation of the thread when a propagation ends.
+		 */
+		private void leave() {
+			if (stage == Stage.PROPAGATION && PROPAGATING.get() == this) {
+				if (enclosing == null) {
+					PROPAGATING.remove();
+				} else {
+					PROPAGATING.set(enclosing);
+				}
+			}
+		}
+
+	}
+}
@@ -0,0 +1,49 @@
+package fr.isae.mae.ss.y2024;
+
+/**
+ * Management interface of the {@link OrbitPipelineMetrics}, registered on the platform MBean
+ * server as {@value OrbitPipelineMetrics#OBJECT_NAME}. Each attribute summarizes the durations
+ * of one stage of the orbit updates over the rolling window of the histograms.
+ */
+public interface OrbitPipelineMetricsMXBean {
+
+	/**
+	 * @return The latency from an update request to the orbit being shown.
+	 */
+	LatencySnapshot getUpdateLatency();
+
+	/**
+	 * @return The latency of the propagations, geodetic transform included.
+	 */
+	LatencySnapshot getPropagationLatency();
+
+	/**
+	 * @return The latency of the transforms of trajectories to geodetic coordinates.
+	 */
+	LatencySnapshot getGeodeticTransformLatency();
+
+	/**
+	 * @return The latency of the copies of trajectories into the rendered buffers.
+	 */
+	LatencySnapshot getGlueLatency();
+
+	/**
+	 * @return The latency of the updates of the WorldWind renderables.
+	 */
+	LatencySnapshot getLayerUpdateLatency();
+
+	/**
+	 * @return The latency of the WorldWind frames.
+	 */
+	LatencySnapshot getRedrawLatency();
+
+	/**
+	 * @return The span of the rolling window of the histograms, in seconds.
+	 */
+	long getWindowSeconds();
+
+	/**
+	 * Forgets every recorded duration.
+	 */
+	void reset();
+}
@@ -0,0 +1,395 @@
+package fr.isae.mae.ss.y2024;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.cnes.sirius.patrius.forces.ForceModel;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.Orbit;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The OrbitPropagation holds how an orbit is propagated (engine, perturbations, sampling,
+ * propagation window, cache) and computes its trajectories. It is the headless core of a
+ * {@link CustomOrbit}: it depends on Patrius only, not on WorldWind, JOGL or a display, so it
+ * can also run in batch jobs such as {@link BatchPropagationCli}.
+ * <p>
+ * The settings can be changed from any thread and are used from the next computation on.
+ * Like the engines, an instance should not compute two trajectories at the same time.
+ */
+public class OrbitPropagation {
+
+    /**
+     * Default sampling of full trajectories: at most 250 m between the orbit and the rendered
+     * segments, which gives a few hundred vertices from low orbits to geostationary ones.
+     */
+    public static final SamplingPolicy DEFAULT_SAMPLING_POLICY = SamplingPolicy.maxChordError(250.);
+
+    /** Default number of samples of a preview trajectory drawn while a slider is dragged. */
+    public static final int DEFAULT_PREVIEW_POINT_BUDGET = 64;
+
+    /** Shared closed-form engine used for unperturbed orbits. */
+    static final TrajectoryEngine KEPLERIAN_ENGINE = new KeplerianTrajectoryEngine();
+
+    /** Largest number of spare trajectory buffers kept for reuse. */
+    private static final int MAX_SPARE_BUFFERS = 2;
+
+    /** Source of the identifiers of the propagations. */
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    /** Identifier of this propagation in the pipeline metrics. */
+    private final long id = NEXT_ID.incrementAndGet();
+
+    /** Durations of the propagations of this orbit. */
+    private final LatencyHistogram propagationLatency = new LatencyHistogram();
+
+    /** Spare buffers recycled between propagations. */
+    private final Queue<TrajectoryBuffer> spareBuffers = new ConcurrentLinkedQueue<>();
+
+    /** Perturbing force models; when empty the orbit is pure two-body motion. */
+    private final List<ForceModel> perturbations = new CopyOnWriteArrayList<>();
+
+    /** Number of samples of a preview trajectory. */
+    private volatile int previewPointBudget = DEFAULT_PREVIEW_POINT_BUDGET;
+
+    /** Sampling of full trajectories. */
+    private volatile SamplingPolicy samplingPolicy = DEFAULT_SAMPLING_POLICY;
+
+    /** Span of the computed trajectories after the orbit epoch. */
+    private volatile PropagationWindow propagationWindow = PropagationWindow.ONE_REVOLUTION;
+
+    /** Engine forced by the user, or null to select one from the configured perturbations. */
+    private volatile TrajectoryEngine engine;
+
+    /** Numerical engine built from the configured perturbations, created on first use. */
+    private volatile TrajectoryEngine perturbedEngine;
+
+    /** Integration mode of the numerical engine used for perturbed orbits. */
+    private volatile NumericalTrajectoryEngine.Mode integrationMode = NumericalTrajectoryEngine.Mode.ADAPTIVE;
+
+    /** Cache consulted before propagating. */
+    private volatile TrajectoryCache trajectoryCache = TrajectoryCache.getShared();
+
+	/**
+	 * Propagates the full trajectory of a set of orbital elements over the propagation window,
+	 * with the effective engine and the sampling policy, without consulting the cache.
+	 *
+	 * @param elements   The orbital elements to propagate.
+	 * @param trajectory The buffer receiving the trajectory; it is cleared first.
+	 * @throws PatriusException If an error occurs during the orbit propagation or coordinate transformation.
+	 */
+	public void propagate(OrbitalElements elements, TrajectoryBuffer trajectory) throws PatriusException {
+		propagate(elements.toOrbit(), false, propagationWindow, trajectory);
+	}
+
+	/**
+	 * Propagates an orbit over a window at the requested fidelity.
+	 * A preview is sampled with {@link #getPreviewPointBudget()} points per revolution using the
+	 * closed-form engine, since it only has to follow the slider while it is dragged; a full
+	 * propagation uses the effective engine and the {@link #getSamplingPolicy() sampling policy}.
+	 *
+	 * @param iniOrbit   The initial orbit to be propagated.
+	 * @param preview    Whether a coarse preview trajectory is enough.
+	 * @param window     The span to propagate.
+	 * @param trajectory The buffer receiving the propagated orbit's trajectory.
+	 * @throws PatriusException If an error occurs during the orbit propagation or coordinate transformation.
+	 */
+	void propagate(Orbit iniOrbit, boolean preview, PropagationWindow window, TrajectoryBuffer trajectory)
+			throws PatriusException {
+		final TrajectoryEngine selected = selectEngine(preview);
+		final OrbitPipelineMetrics.Measurement measurement = OrbitPipelineMetrics.getShared()
+				.start(OrbitPipelineMetrics.Stage.PROPAGATION, id, preview);
+		int steps = 0;
+		try {
+			selected.propagate(iniOrbit, window.getDuration(iniOrbit), selectSampling(preview, iniOrbit, window),
+					trajectory);
+			final PropagationStatistics statistics = selected.getLastStatistics();
+			steps = statistics == null ? 0 : statistics.getSteps();
+		} finally {
+			propagationLatency.record(measurement.stop(trajectory.size(), steps));
+		}
+	}
+
+	/**
+	 * Returns the engine used for the requested fidelity.
+	 */
+	private TrajectoryEngine selectEngine(boolean preview) {
+		return preview ? KEPLERIAN_ENGINE : getEffectiveEngine();
+	}
+
+	/**
+	 * Returns the sampling policy used for the requested fidelity. Previews of windows longer
+	 * than a revolution get proportionally more samples.
+	 */
+	private SamplingPolicy selectSampling(boolean preview, Orbit iniOrbit, PropagationWindow window) {
+		if (!preview) {
+			return samplingPolicy;
+		}
+		final double revolutions = window.getDuration(iniOrbit) / iniOrbit.getKeplerianPeriod();
+		return SamplingPolicy.fixedCount(
+				(int) Math.max(previewPointBudget, Math.ceil(previewPointBudget * revolutions)));
+	}
+
+	/**
+	 * Computes either a full trajectory or a coarse preview matching a set of orbital elements,
+	 * from the cache when it holds it. The result is either a read-only cached buffer or a
+	 * recycled buffer that can be given back with {@link #recycle(TrajectoryBuffer)}.
+	 *
+	 * @param elements The orbital elements to propagate.
+	 * @param preview  Whether a coarse preview trajectory is enough.
+	 * @return The computed trajectory.
+	 * @throws PatriusException If an error occurs during the orbit propagation or coordinate transformation.
+	 */
+	public TrajectoryBuffer computeTrajectory(OrbitalElements elements, boolean preview) throws PatriusException {
+		final KeplerianOrbit orbit = elements.toOrbit();
+		final PropagationWindow window = propagationWindow;
+		final TrajectoryCache.Key key = TrajectoryCache.key(elements, selectEngine(preview),
+				selectSampling(preview, orbit, window), window);
+
+		final TrajectoryCache cache = trajectoryCache;
+		final TrajectoryBuffer cached = cache.get(key);
+		if (cached != null) {
+			return cached;
+		}
+
+		TrajectoryBuffer computed = spareBuffers.poll();
+		if (computed == null) {
+			computed = new TrajectoryBuffer();
+		}
+		propagate(orbit, preview, window, computed);
+		cache.put(key, computed);
+		return computed;
+	}
+
+	/**
+	 * Gives back a trajectory returned by {@link #computeTrajectory} once it has been copied,
+	 * so that its buffer is reused by a later computation. Cached buffers are ignored.
+	 *
+	 * @param trajectory The trajectory no longer used.
+	 */
+	public void recycle(TrajectoryBuffer trajectory) {
+		if (!trajectory.isReadOnly() && spareBuffers.size() < MAX_SPARE_BUFFERS) {
+			spareBuffers.offer(trajectory);
+		}
+	}
+
+	/**
+	 * Writes the full trajectory of a set of orbital elements to a binary ephemeris file, with
+	 * the sampling policy and the propagation window it is computed with.
+	 *
+	 * @param file     The file to write.
+	 * @param elements The orbital elements to propagate.
+	 * @throws IOException      If the file cannot be written.
+	 * @throws PatriusException If the trajectory has to be computed and its propagation fails.
+	 */
+	public void saveEphemeris(Path file, OrbitalElements elements) throws IOException, PatriusException {
+		final SamplingPolicy sampling = samplingPolicy;
+		final PropagationWindow window = propagationWindow;
+		final TrajectoryBuffer computed = computeTrajectory(elements, false);
+		final TrajectoryEngine effective = getEffectiveEngine();
+		EphemerisFile.write(file, elements, effective.getKind(), effective.getPerturbations(), sampling, window,
+				computed);
+	}
+
+	/**
+	 * Takes the sampling policy and the propagation window of an ephemeris file, and stores its
+	 * trajectory in the cache as the one of the effective engine, provided it was computed by an
+	 * engine of the same kind with the same perturbations. Otherwise the trajectory will be
+	 * propagated again.
+	 *
+	 * @param file The opened ephemeris file.
+	 * @return Whether the trajectory of the file was stored in the cache.
+	 */
+	public boolean loadEphemeris(EphemerisFile file) {
+		this.samplingPolicy = file.getSamplingPolicy();
+		this.propagationWindow = file.getPropagationWindow();
+		return trajectoryCache.load(file, getEffectiveEngine()) != null;
+	}
+
+	/**
+	 * Creates an ephemeris following a moving time over the propagation window, extended
+	 * incrementally with the effective engine and the sampling policy of full trajectories.
+	 * When the cache holds the full trajectory of the elements, e.g. the one just displayed, the
+	 * window is seeded with it rather than propagated again.
+	 *
+	 * @param elements The orbital elements to propagate.
+	 * @return An ephemeris window starting at the epoch of the elements, seeded or empty.
+	 */
+	public EphemerisWindow createEphemerisWindow(OrbitalElements elements) {
+		final TrajectoryEngine effective = getEffectiveEngine();
+		final SamplingPolicy sampling = samplingPolicy;
+		final PropagationWindow window = propagationWindow;
+		final EphemerisWindow ephemeris = new EphemerisWindow(elements.toOrbit(), effective, sampling, window);
+		final TrajectoryBuffer computed = trajectoryCache.get(TrajectoryCache.key(elements, effective, sampling,
+				window));
+		if (computed != null) {
+			ephemeris.seed(computed);
+		}
+		return ephemeris;
+	}
+
+	/**
+	 * @return The identifier of this propagation in the {@link OrbitPipelineMetrics}.
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the durations of the propagations of this orbit, cache hits excluded.
+	 *
+	 * @return The rolling histogram of the propagation latency.
+	 */
+	public LatencyHistogram getPropagationLatency() {
+		return propagationLatency;
+	}
+
+	/**
+	 * Forces the engine used to compute the trajectory. Passing null restores the automatic
+	 * selection: closed-form Keplerian motion when no perturbation is configured, numerical
+	 * integration otherwise.
+	 *
+	 * @param engine The trajectory engine to use, or null for automatic selection.
+	 */
+	public void setTrajectoryEngine(TrajectoryEngine engine) {
+		this.engine = engine;
+	}
+
+	/**
+	 * Adds a perturbing force model. Perturbed orbits are propagated numerically unless an
+	 * engine has been forced with {@link #setTrajectoryEngine(TrajectoryEngine)}.
+	 *
+	 * @param forceModel The force model to add.
+	 */
+	public void addPerturbation(ForceModel forceModel) {
+		perturbations.add(Objects.requireNonNull(forceModel));
+		perturbedEngine = null;
+	}
+
+	/**
+	 * Returns the engine used by the next computation.
+	 *
+	 * @return the forced engine if any, otherwise the engine matching the configured perturbations.
+	 */
+	public TrajectoryEngine getEffectiveEngine() {
+		if (engine != null) {
+			return engine;
+		}
+		if (perturbations.isEmpty()) {
+			return KEPLERIAN_ENGINE;
+		}
+		TrajectoryEngine numerical = perturbedEngine;
+		if (numerical == null) {
+			numerical = integrationMode == NumericalTrajectoryEngine.Mode.ADAPTIVE
+					? NumericalTrajectoryEngine.adaptive(perturbations)
+					: new NumericalTrajectoryEngine(NumericalTrajectoryEngine.DEFAULT_INTEGRATION_STEP, perturbations);
+			perturbedEngine = numerical;
+		}
+		return numerical;
+	}
+
+	/**
+	 * Selects how perturbed orbits are integrated: with the adaptive Dormand-Prince integrator
+	 * (the default) or with the fixed step Runge-Kutta integrator.
+	 *
+	 * @param integrationMode The integration mode.
+	 */
+	public void setIntegrationMode(NumericalTrajectoryEngine.Mode integrationMode) {
+		this.integrationMode = Objects.requireNonNull(integrationMode);
+		perturbedEngine = null;
+	}
+
+	/**
+	 * @return The integration mode of perturbed orbits.
+	 */
+	public NumericalTrajectoryEngine.Mode getIntegrationMode() {
+		return integrationMode;
+	}
+
+	/**
+	 * Sets the cache consulted before propagating, {@link TrajectoryCache#getShared()} by default.
+	 *
+	 * @param trajectoryCache The trajectory cache to use.
+	 */
+	public void setTrajectoryCache(TrajectoryCache trajectoryCache) {
+		this.trajectoryCache = trajectoryCache;
+	}
+
+	/**
+	 * @return The cache consulted before propagating.
+	 */
+	public TrajectoryCache getTrajectoryCache() {
+		return trajectoryCache;
+	}
+
+	/**
+	 * Sets the number of samples of both update tiers.
+	 *
+	 * @param previewPointBudget The number of samples of a preview trajectory (at least 2).
+	 * @param fullPointBudget    The number of samples of a full trajectory (at least 2), or 0 to
+	 *                           use the {@link #DEFAULT_SAMPLING_POLICY default sampling policy}.
+	 */
+	public void setPointBudgets(int previewPointBudget, int fullPointBudget) {
+		if (previewPointBudget < 2 || fullPointBudget == 1 || fullPointBudget < 0) {
+			throw new IllegalArgumentException("Invalid point budgets: " + previewPointBudget + ", " + fullPointBudget);
+		}
+		this.previewPointBudget = previewPointBudget;
+		this.samplingPolicy = fullPointBudget > 0 ? SamplingPolicy.fixedCount(fullPointBudget)
+				: DEFAULT_SAMPLING_POLICY;
+	}
+
+	/**
+	 * @return The number of samples of a preview trajectory.
+	 */
+	public int getPreviewPointBudget() {
+		return previewPointBudget;
+	}
+
+	/**
+	 * @return The number of samples of a full trajectory, or 0 when it is not sampled with a
+	 *         fixed count.
+	 */
+	public int getFullPointBudget() {
+		final SamplingPolicy policy = samplingPolicy;
+		return policy.getMode() == SamplingPolicy.Mode.FIXED_COUNT ? (int) policy.getValue() : 0;
+	}
+
+	/**
+	 * Sets how full trajectories are sampled.
+	 *
+	 * @param samplingPolicy The sampling policy of full trajectories.
+	 */
+	public void setSamplingPolicy(SamplingPolicy samplingPolicy) {
+		this.samplingPolicy = Objects.requireNonNull(samplingPolicy);
+	}
+
+	/**
+	 * @return The sampling policy of full trajectories.
+	 */
+	public SamplingPolicy getSamplingPolicy() {
+		return samplingPolicy;
+	}
+
+	/**
+	 * Sets how far after the orbit epoch the trajectory is propagated, in revolutions or as a
+	 * duration.
+	 *
+	 * @param propagationWindow The propagation window.
+	 */
+	public void setPropagationWindow(PropagationWindow propagationWindow) {
+		this.propagationWindow = Objects.requireNonNull(propagationWindow);
+	}
+
+	/**
+	 * @return The propagation window, one revolution by default.
+	 */
+	public PropagationWindow getPropagationWindow() {
+		return propagationWindow;
+	}
+}
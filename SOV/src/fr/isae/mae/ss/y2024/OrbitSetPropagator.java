@@ -0,0 +1,179 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The OrbitSetPropagator propagates a batch of orbits in parallel on a bounded pool of worker
+ * threads. Operations touching every orbit at once then use all cores instead of one:
+ * {@link BatchPropagationCli} streams a whole catalog through it.
+ * Patrius propagators, integrators and orbits are not thread-safe: every task builds its own,
+ * and each worker thread gets its own {@link TrajectoryEngine} from the supplied factory, so no
+ * mutable Patrius object is ever shared between two tasks.
+ */
+public class OrbitSetPropagator {
+
+    /**
+     * A Task is a unit of work run on a worker thread.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+
+        /**
+         * Runs the task.
+         *
+         * @param engine The engine of the worker thread, which no other task uses meanwhile.
+         * @return The result of the task.
+         * @throws PatriusException If a propagation fails.
+         */
+        T run(TrajectoryEngine engine) throws PatriusException;
+    }
+
+    /** The worker threads. */
+    private final ExecutorService executor;
+
+    /** Number of worker threads. */
+    private final int parallelism;
+
+    /** One engine per worker thread. */
+    private final ThreadLocal<TrajectoryEngine> engines;
+
+	/**
+	 * Constructs a propagator using every available processor and the closed-form Keplerian engine.
+	 */
+	public OrbitSetPropagator() {
+		this(Runtime.getRuntime().availableProcessors(), KeplerianTrajectoryEngine::new);
+	}
+
+	/**
+	 * Constructs a propagator.
+	 *
+	 * @param parallelism   The number of worker threads.
+	 * @param engineFactory The factory creating the engine of each worker thread.
+	 */
+	public OrbitSetPropagator(int parallelism, Supplier<TrajectoryEngine> engineFactory) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+		}
+		this.parallelism = parallelism;
+		this.engines = ThreadLocal.withInitial(engineFactory);
+		AtomicInteger threadId = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "orbit-set-" + threadId.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Propagates each set of elements over one Keplerian period.
+	 *
+	 * @param batch    The orbital elements to propagate.
+	 * @param sampling The sampling policy of every trajectory.
+	 * @return The trajectories, in the order of the batch.
+	 * @throws PatriusException If a propagation fails.
+	 * @throws InterruptedException If interrupted while waiting for the workers.
+	 */
+	public List<TrajectoryBuffer> propagate(List<OrbitalElements> batch, SamplingPolicy sampling)
+			throws PatriusException, InterruptedException {
+		List<CompletableFuture<TrajectoryBuffer>> futures = new ArrayList<>(batch.size());
+		for (OrbitalElements elements : batch) {
+			futures.add(submit(engine -> {
+				final KeplerianOrbit orbit = elements.toOrbit();
+				TrajectoryBuffer trajectory = new TrajectoryBuffer();
+				engine.propagate(orbit, orbit.getKeplerianPeriod(), sampling, trajectory);
+				return trajectory;
+			}));
+		}
+		return gather(futures);
+	}
+
+	/**
+	 * Queues a task on the workers. Tasks run in submission order as workers become free, so a
+	 * caller streaming many objects can bound the number of tasks in flight itself.
+	 *
+	 * @param <T>  The type of the result.
+	 * @param task The task to run.
+	 * @return The future result, completed exceptionally if the task fails.
+	 */
+	public <T> CompletableFuture<T> submit(Task<T> task) {
+		final CompletableFuture<T> result = new CompletableFuture<>();
+		executor.execute(() -> {
+			try {
+				result.complete(task.run(engines.get()));
+			} catch (Throwable ex) {
+				result.completeExceptionally(ex);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Waits for the result of a task, rethrowing its failure.
+	 *
+	 * @param <T>    The type of the result.
+	 * @param future A future returned by {@link #submit(Task)}.
+	 * @return The result of the task.
+	 * @throws PatriusException If the propagation of the task failed.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public static <T> T await(CompletableFuture<T> future) throws PatriusException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof PatriusException) {
+				throw (PatriusException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Waits for every task and gathers their results in order, rethrowing the first failure.
+	 */
+	private static List<TrajectoryBuffer> gather(List<CompletableFuture<TrajectoryBuffer>> futures)
+			throws PatriusException, InterruptedException {
+		List<TrajectoryBuffer> results = new ArrayList<>(futures.size());
+		for (CompletableFuture<TrajectoryBuffer> future : futures) {
+			results.add(await(future));
+		}
+		return results;
+	}
+
+	/**
+	 * @return The number of worker threads.
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Stops the worker threads, waiting briefly for running propagations.
+	 *
+	 * @param timeoutMillis The maximum time to wait, in milliseconds.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public void shutdown(long timeoutMillis) throws InterruptedException {
+		executor.shutdownNow();
+		executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+}
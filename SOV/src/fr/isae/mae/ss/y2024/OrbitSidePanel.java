@@ -28,6 +28,7 @@ public class OrbitSidePanel extends JPanel {
     private final JPanel groupContainer;
     private final JToggleButton nilesatButton;
     private final JToggleButton issButton;
+    private final JToggleButton hudButton;
     private final JButton addGroupButton;
     private int groupId = 0;
 
@@ -57,6 +58,11 @@ public class OrbitSidePanel extends JPanel {
         quickAddPanel.add(Box.createVerticalStrut(10));
         quickAddPanel.add(issButton);
 
+        // Performance overlay toggle, after the orbits
+        hudButton = createStyledButton("PERF HUD");
+        quickAddPanel.add(Box.createVerticalStrut(10));
+        quickAddPanel.add(hudButton);
+
         this.add(quickAddPanel);
         this.add(Box.createVerticalStrut(20));
 
@@ -150,6 +156,21 @@ public class OrbitSidePanel extends JPanel {
         });
     }
     
+    /**
+     * Sets the listener for the performance HUD button, specifying actions for toggle on and off.
+     * @param toggleAction The action to perform when the button is toggled on.
+     * @param untoggleAction The action to perform when the button is toggled off.
+     */
+    public void setHudButtonListener(Runnable toggleAction, Runnable untoggleAction) {
+        hudButton.addActionListener(e -> {
+            if (hudButton.isSelected()) {
+                toggleAction.run();
+            } else {
+                untoggleAction.run();
+            }
+        });
+    }
+
     private JToggleButton createStyledButton(String text) {
         JToggleButton button = new JToggleButton(text);
         button.setBackground(new Color(255, 255, 255, 150)); // Semi-transparent dark gray
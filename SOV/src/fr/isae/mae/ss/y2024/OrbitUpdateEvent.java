@@ -0,0 +1,44 @@
+package fr.isae.mae.ss.y2024;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The OrbitUpdateEvent is the JDK Flight Recorder event of one stage of an orbit update, emitted
+ * by {@link OrbitPipelineMetrics}. Its duration is the time spent in the stage; stages nest, e.g.
+ * a propagation contains its geodetic transform. The events are enabled by default when a
+ * recording is started, e.g. with {@code -XX:StartFlightRecording}.
+ */
+@Name(OrbitUpdateEvent.NAME)
+@Label("Orbit Update Stage")
+@Category({ "SOV", "Orbit Update" })
+@Description("A stage of an orbit update, from the propagation to the WorldWind layer")
+@StackTrace(false)
+public class OrbitUpdateEvent extends Event {
+
+    /** Name of the event type in recordings. */
+    public static final String NAME = "fr.isae.mae.ss.y2024.OrbitUpdate";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Orbit Id")
+    @Description("Identifier of the orbit propagation, 0 when the stage does not belong to one orbit")
+    long orbitId;
+
+    @Label("Points")
+    @Description("Number of trajectory samples")
+    int points;
+
+    @Label("Steps")
+    @Description("Number of accepted integration steps of a numerical propagation, 0 otherwise")
+    int steps;
+
+    @Label("Preview")
+    @Description("Whether a coarse preview trajectory was requested")
+    boolean preview;
+}
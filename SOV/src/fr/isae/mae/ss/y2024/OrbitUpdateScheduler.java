@@ -0,0 +1,279 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.layers.RenderableLayer;
+import gov.nasa.worldwindx.applications.worldwindow.util.Util;
+
+/**
+ * The OrbitUpdateScheduler moves orbit propagation off the Swing event dispatch thread.
+ * Requests are coalesced per orbit with a latest-wins policy: while an orbit is being computed,
+ * newer requests replace the pending one, and results that became stale before being published
+ * are dropped. Finished trajectories are applied to the orbit renderables in a single EDT task so
+ * the renderer never sees a half-updated orbit.
+ */
+public class OrbitUpdateScheduler {
+
+    /** Per-orbit scheduling state. */
+    private static final class Slot {
+
+        /** The most recent request not yet picked up by a worker. */
+        private final AtomicReference<UpdateRequest> pending = new AtomicReference<>();
+
+        /** Whether a worker task is queued or running for this orbit. */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /** Sequence number of the latest request submitted for this orbit. */
+        private final AtomicLong latestSequence = new AtomicLong();
+
+        /** Whether the orbit was removed, the slot being dropped once its drain is idle. */
+        private volatile boolean removed;
+    }
+
+    /** An update request: the elements to propagate and where to publish the result. */
+    private static final class UpdateRequest {
+        private final long sequence;
+        private final OrbitalElements elements;
+        private final boolean preview;
+        private final RenderableLayer layer;
+        private final WorldWindow wwd;
+
+        /** Measures the latency from the request to its publication. */
+        private final OrbitPipelineMetrics.Measurement measurement;
+
+        private UpdateRequest(long sequence, OrbitalElements elements, boolean preview, RenderableLayer layer,
+                WorldWindow wwd, OrbitPipelineMetrics.Measurement measurement) {
+            this.sequence = sequence;
+            this.elements = elements;
+            this.preview = preview;
+            this.layer = layer;
+            this.wwd = wwd;
+            this.measurement = measurement;
+        }
+    }
+
+    /** The background executor running the propagations. */
+    private final ExecutorService executor;
+
+    /** Scheduling state of every orbit that has been submitted. */
+    private final Map<CustomOrbit, Slot> slots = new ConcurrentHashMap<>();
+
+    /** Number of requests waiting for a worker. */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    /** Number of requests replaced or discarded before being published. */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /** Number of trajectories published to their layer. */
+    private final AtomicLong publishedCount = new AtomicLong();
+
+	/**
+	 * Constructs a scheduler backed by a pool of daemon worker threads, one less than the
+	 * number of available processors so the EDT and the renderer keep a core.
+	 */
+	public OrbitUpdateScheduler() {
+		this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+	}
+
+	/**
+	 * Constructs a scheduler backed by a pool of daemon worker threads.
+	 *
+	 * @param threads The number of worker threads.
+	 */
+	public OrbitUpdateScheduler(int threads) {
+		AtomicInteger threadId = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "orbit-update-" + threadId.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Requests a new full-fidelity trajectory for an orbit. Any request still pending for the same
+	 * orbit is replaced, and a result computed for an older request will not be published.
+	 *
+	 * @param orbit    The orbit to update.
+	 * @param elements The new orbital elements.
+	 * @param layer    The {@link RenderableLayer} where the orbit renderables are published.
+	 * @param wwd      The {@link WorldWindow} to redraw once the layer is updated.
+	 */
+	public void submit(CustomOrbit orbit, OrbitalElements elements, RenderableLayer layer, WorldWindow wwd) {
+		submit(orbit, elements, false, layer, wwd);
+	}
+
+	/**
+	 * Requests a new trajectory for an orbit, either a coarse preview or a full-fidelity one.
+	 * Any request still pending for the same orbit is replaced, and a result computed for an
+	 * older request will not be published.
+	 *
+	 * @param orbit    The orbit to update.
+	 * @param elements The new orbital elements.
+	 * @param preview  Whether a coarse preview trajectory is enough.
+	 * @param layer    The {@link RenderableLayer} where the orbit renderables are published.
+	 * @param wwd      The {@link WorldWindow} to redraw once the layer is updated.
+	 */
+	public void submit(CustomOrbit orbit, OrbitalElements elements, boolean preview, RenderableLayer layer,
+			WorldWindow wwd) {
+		Slot slot = slots.computeIfAbsent(orbit, o -> new Slot());
+		slot.removed = false;
+		UpdateRequest request = new UpdateRequest(slot.latestSequence.incrementAndGet(), elements, preview, layer,
+				wwd, OrbitPipelineMetrics.getShared().start(OrbitPipelineMetrics.Stage.UPDATE,
+						orbit.getPropagation().getId(), preview));
+
+		UpdateRequest replaced = slot.pending.getAndSet(request);
+		if (replaced != null) {
+			drop(replaced);
+		} else {
+			pendingCount.incrementAndGet();
+		}
+
+		if (slot.scheduled.compareAndSet(false, true)) {
+			executor.execute(() -> drain(orbit, slot));
+		}
+	}
+
+	/**
+	 * Cancels every pending or in-flight update of an orbit: none of them will be published.
+	 * A propagation already running is not interrupted, and the next update submitted for the
+	 * orbit waits for it, so that the propagations of an orbit never overlap.
+	 *
+	 * @param orbit The orbit whose updates are cancelled.
+	 */
+	public void cancel(CustomOrbit orbit) {
+		Slot slot = slots.get(orbit);
+		if (slot != null) {
+			slot.latestSequence.incrementAndGet();
+			UpdateRequest pending = slot.pending.getAndSet(null);
+			if (pending != null) {
+				pendingCount.decrementAndGet();
+				drop(pending);
+			}
+		}
+	}
+
+	/**
+	 * Cancels the updates of an orbit that is deleted, and forgets it once its running
+	 * propagation, if any, is over.
+	 *
+	 * @param orbit The deleted orbit.
+	 */
+	public void remove(CustomOrbit orbit) {
+		Slot slot = slots.get(orbit);
+		if (slot != null) {
+			cancel(orbit);
+			slot.removed = true;
+			if (!slot.scheduled.get()) {
+				slots.remove(orbit, slot);
+			}
+		}
+	}
+
+	/**
+	 * Processes the requests of one orbit until none is left. Only one drain runs per orbit at a
+	 * time, so the propagations of a given orbit never overlap.
+	 */
+	private void drain(CustomOrbit orbit, Slot slot) {
+		while (true) {
+			UpdateRequest request = slot.pending.getAndSet(null);
+			if (request == null) {
+				slot.scheduled.set(false);
+				// A request may have slipped in between the read and the flag reset
+				if (slot.pending.get() != null && slot.scheduled.compareAndSet(false, true)) {
+					continue;
+				}
+				if (slot.removed) {
+					slots.remove(orbit, slot);
+				}
+				return;
+			}
+			pendingCount.decrementAndGet();
+
+			TrajectoryBuffer trajectory;
+			try {
+				trajectory = orbit.computeTrajectory(request.elements, request.preview);
+			} catch (Exception ex) {
+				Util.getLogger().warning(ex.getMessage() != null ? ex.getMessage() : ex.toString());
+				request.measurement.discard();
+				continue;
+			}
+
+			if (request.sequence != slot.latestSequence.get()) {
+				drop(request);
+				continue;
+			}
+
+			SwingUtilities.invokeLater(() -> publish(orbit, slot, request, trajectory));
+		}
+	}
+
+	/**
+	 * Applies a computed trajectory to the orbit renderables in one EDT task.
+	 */
+	private void publish(CustomOrbit orbit, Slot slot, UpdateRequest request, TrajectoryBuffer trajectory) {
+		if (request.sequence != slot.latestSequence.get()) {
+			drop(request);
+			return;
+		}
+		// The trajectory may be recycled once applied
+		final int points = trajectory.size();
+		orbit.applyTrajectory(request.elements, trajectory, request.preview);
+
+		// Path and satellite are updated in place; the layer is only touched the first time
+		orbit.attachTo(request.layer);
+		request.wwd.redraw();
+		publishedCount.incrementAndGet();
+		request.measurement.stop(points, 0);
+	}
+
+	/**
+	 * Counts a request that will not be published and ends its measurement.
+	 */
+	private void drop(UpdateRequest request) {
+		droppedCount.incrementAndGet();
+		request.measurement.discard();
+	}
+
+	/**
+	 * Stops the worker threads, waiting briefly for running propagations.
+	 *
+	 * @param timeoutMillis The maximum time to wait, in milliseconds.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public void shutdown(long timeoutMillis) throws InterruptedException {
+		executor.shutdownNow();
+		executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+    /**
+     * @return The number of update requests waiting for a worker.
+     */
+	public int getPendingCount() {
+		return pendingCount.get();
+	}
+
+    /**
+     * @return The number of requests superseded or discarded before being published.
+     */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+    /**
+     * @return The number of trajectories published to their layer.
+     */
+	public long getPublishedCount() {
+		return publishedCount.get();
+	}
+}
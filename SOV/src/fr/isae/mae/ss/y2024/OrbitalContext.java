@@ -0,0 +1,122 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.math.ode.FirstOrderIntegrator;
+import fr.cnes.sirius.patrius.math.ode.nonstiff.ClassicalRungeKuttaIntegrator;
+import fr.cnes.sirius.patrius.math.ode.nonstiff.DormandPrince853Integrator;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The OrbitalContext owns the Patrius objects shared by every orbit: the reference frame of
+ * the orbits and the integrator factories. The first access to the frames loads the Patrius
+ * data, so the context can be initialized and warmed up on a background thread
+ * with {@link #startWarmUp()} while the WorldWind window is being built.
+ */
+public final class OrbitalContext {
+
+    private static final Logger LOGGER = Logger.getLogger(OrbitalContext.class.getName());
+
+    /** Duration of the dummy propagations run during the warm-up, in seconds. */
+    private static final double WARM_UP_DURATION = 600.;
+
+    /** The shared instance, created on first access. */
+    private static OrbitalContext instance;
+
+    /** Geocentric celestial reference frame, in which the orbits are defined. */
+    private final Frame gcrf;
+
+	private OrbitalContext() throws PatriusException {
+		this.gcrf = FramesFactory.getGCRF();
+	}
+
+	/**
+	 * Returns the shared context, creating it if needed. When a warm-up is in progress this only
+	 * waits for the frames to be loaded, not for the warm-up propagations.
+	 *
+	 * @return The shared context.
+	 * @throws PatriusException If the Patrius frames cannot be loaded.
+	 */
+	public static synchronized OrbitalContext getInstance() throws PatriusException {
+		if (instance == null) {
+			instance = new OrbitalContext();
+		}
+		return instance;
+	}
+
+	/**
+	 * Starts a daemon thread that creates the shared context and runs a short propagation with
+	 * each engine, so that the Patrius data and the propagation code are ready when the first
+	 * orbit is built.
+	 *
+	 * @return The started warm-up thread.
+	 */
+	public static Thread startWarmUp() {
+		Thread thread = new Thread(() -> {
+			try {
+				getInstance().warmUp();
+			} catch (PatriusException | RuntimeException e) {
+				LOGGER.log(Level.WARNING, "Orbital context warm-up failed", e);
+			}
+		}, "orbital-context-warm-up");
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Propagates a dummy LEO orbit with the analytical and both numerical engines.
+	 *
+	 * @throws PatriusException If a propagation fails.
+	 */
+	void warmUp() throws PatriusException {
+		KeplerianOrbit orbit = new KeplerianOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500e3, 0.001,
+				Math.toRadians(45), 0, 0, 0, PositionAngle.MEAN, gcrf, new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		new KeplerianTrajectoryEngine().propagate(orbit, WARM_UP_DURATION, 10., trajectory);
+		new NumericalTrajectoryEngine(1., Collections.emptyList()).propagate(orbit, WARM_UP_DURATION, 10.,
+				trajectory);
+		NumericalTrajectoryEngine.adaptive(Collections.emptyList()).propagate(orbit, WARM_UP_DURATION, 10.,
+				trajectory);
+	}
+
+	/**
+	 * Creates a fixed step Runge-Kutta integrator. Integrators hold state, so each propagation
+	 * needs its own.
+	 *
+	 * @param step The integration step, in seconds.
+	 * @return A new integrator.
+	 */
+	public FirstOrderIntegrator createFixedStepIntegrator(double step) {
+		return new ClassicalRungeKuttaIntegrator(step);
+	}
+
+	/**
+	 * Creates an adaptive Dormand-Prince 8(5,3) integrator.
+	 *
+	 * @param minStep           The smallest integration step, in seconds.
+	 * @param maxStep           The largest integration step, in seconds.
+	 * @param absoluteTolerance The absolute tolerance on each state component.
+	 * @param relativeTolerance The relative tolerance on each state component.
+	 * @return A new integrator.
+	 */
+	public FirstOrderIntegrator createAdaptiveIntegrator(double minStep, double maxStep, double absoluteTolerance,
+			double relativeTolerance) {
+		return new DormandPrince853Integrator(minStep, maxStep, absoluteTolerance, relativeTolerance);
+	}
+
+	/**
+	 * @return The geocentric celestial reference frame.
+	 */
+	public Frame getGcrf() {
+		return gcrf;
+	}
+}
@@ -0,0 +1,167 @@
+package fr.isae.mae.ss.y2024;
+
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+
+/**
+ * The OrbitalElements class is an immutable snapshot of the Keplerian elements describing an orbit.
+ * It can be captured on the Swing thread and handed over to a background propagation safely.
+ */
+public final class OrbitalElements {
+
+    /** Semi-major axis, in meters. */
+    private final double a;
+
+    /** Eccentricity. */
+    private final double e;
+
+    /** Inclination, in radians. */
+    private final double i;
+
+    /** Argument of perigee, in radians. */
+    private final double pa;
+
+    /** Right ascension of ascending node, in radians. */
+    private final double raan;
+
+    /** Anomaly, in radians, interpreted according to {@link #type}. */
+    private final double anomaly;
+
+    /** The type of the anomaly (mean, eccentric or true). */
+    private final PositionAngle type;
+
+    /** The reference frame of the elements. */
+    private final Frame frame;
+
+    /** The epoch of the elements. */
+    private final AbsoluteDate date;
+
+    /** Standard gravitational parameter of the central body, in m^3/s^2. */
+    private final double mu;
+
+	/**
+	 * Constructs an immutable set of orbital elements.
+	 *
+	 * @param a       The semi-major axis of the orbit, in meters.
+	 * @param e       The eccentricity of the orbit.
+	 * @param i       The inclination of the orbit, in radians.
+	 * @param pa      The argument of perigee, in radians.
+	 * @param raan    The right ascension of ascending node, in radians.
+	 * @param anomaly The anomaly of the orbit, in radians.
+	 * @param type    The type of position angle (e.g., true, mean, eccentric).
+	 * @param frame   The reference frame for the orbit.
+	 * @param date    The epoch date for the orbital elements.
+	 * @param mu      The standard gravitational parameter for the central body, in m^3/s^2.
+	 */
+	public OrbitalElements(final double a, final double e, final double i, final double pa, final double raan,
+			final double anomaly, final PositionAngle type, final Frame frame, final AbsoluteDate date,
+			final double mu) {
+		this.a = a;
+		this.e = e;
+		this.i = i;
+		this.pa = pa;
+		this.raan = raan;
+		this.anomaly = anomaly;
+		this.type = type;
+		this.frame = frame;
+		this.date = date;
+		this.mu = mu;
+	}
+
+	/**
+	 * Captures the current values of a slider group. The semi-major axis slider is expressed in
+	 * Earth radii and the angular sliders in degrees, the anomaly being a mean anomaly.
+	 *
+	 * @param sliderGroup The {@link SliderGroup} holding the orbital parameter sliders.
+	 * @param frame       The reference frame for the orbit.
+	 * @param date        The epoch date for the orbital elements.
+	 * @return The orbital elements matching the slider values.
+	 */
+	public static OrbitalElements fromSliderGroup(SliderGroup sliderGroup, Frame frame, AbsoluteDate date) {
+		return new OrbitalElements(
+				Constants.WGS84_EARTH_EQUATORIAL_RADIUS * sliderGroup.getSliderAValue(),
+				sliderGroup.getSliderEValue(),
+				Math.toRadians(sliderGroup.getSliderIValue()),
+				Math.toRadians(sliderGroup.getSliderOmegaValue()),
+				Math.toRadians(sliderGroup.getSliderUpperOmegaValue()),
+				Math.toRadians(sliderGroup.getSliderVValue()),
+				PositionAngle.MEAN,
+				frame,
+				date,
+				Constants.WGS84_EARTH_MU);
+	}
+
+	/**
+	 * Builds the Patrius orbit described by these elements.
+	 *
+	 * @return A new {@link KeplerianOrbit}.
+	 */
+	public KeplerianOrbit toOrbit() {
+		return new KeplerianOrbit(a, e, i, pa, raan, anomaly, type, frame, date, mu);
+	}
+
+    /** @return The semi-major axis, in meters. */
+	public double getA() {
+		return a;
+	}
+
+    /** @return The eccentricity. */
+	public double getE() {
+		return e;
+	}
+
+    /** @return The inclination, in radians. */
+	public double getI() {
+		return i;
+	}
+
+    /** @return The argument of perigee, in radians. */
+	public double getPa() {
+		return pa;
+	}
+
+    /** @return The right ascension of ascending node, in radians. */
+	public double getRaan() {
+		return raan;
+	}
+
+    /** @return The anomaly, in radians. */
+	public double getAnomaly() {
+		return anomaly;
+	}
+
+    /** @return The type of the anomaly. */
+	public PositionAngle getType() {
+		return type;
+	}
+
+    /** @return The reference frame of the elements. */
+	public Frame getFrame() {
+		return frame;
+	}
+
+    /** @return The epoch of the elements. */
+	public AbsoluteDate getDate() {
+		return date;
+	}
+
+    /** @return The standard gravitational parameter, in m^3/s^2. */
+	public double getMu() {
+		return mu;
+	}
+
+	/**
+	 * Tells whether two sets of elements describe the same orbit path, the position on it aside:
+	 * everything but the anomaly and its type is equal.
+	 *
+	 * @param other The elements to compare with.
+	 * @return true if only the anomaly may differ.
+	 */
+	public boolean hasSamePath(OrbitalElements other) {
+		return other != null && a == other.a && e == other.e && i == other.i && pa == other.pa
+				&& raan == other.raan && mu == other.mu && frame == other.frame && date.equals(other.date);
+	}
+}
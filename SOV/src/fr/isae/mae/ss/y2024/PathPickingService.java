@@ -0,0 +1,151 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec4;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.render.Path;
+
+/**
+ * The PathPickingService finds the position of a {@link Path} under the cursor. It keeps, for
+ * each path, the Cartesian coordinates of its positions and a {@link BoundingSphereHierarchy}
+ * over them, so that a pick costs a logarithmic number of distance computations instead of
+ * projecting every position of an orbit on each click or mouse move.
+ * <p>
+ * An index is rebuilt when the path is given new positions, when the {@link TrajectoryBuffer}
+ * behind a {@link TrajectoryPositionView} is refilled, or when the globe changes. Other position
+ * iterables are assumed not to change in place; call {@link #invalidate(Path)} if they do.
+ * Paths are held weakly, so removed orbits do not keep their index alive.
+ */
+public class PathPickingService {
+
+    /** Default largest distance between the pick ray and a picked position, in meters. */
+    public static final double DEFAULT_PICK_TOLERANCE = 1e5;
+
+    /** The index of each path picked so far. */
+    private final Map<Path, PathIndex> indices = new WeakHashMap<>();
+
+    /** Largest distance between the pick ray and a picked position, in meters. */
+    private final double pickTolerance;
+
+	/**
+	 * Constructs a picking service with the default tolerance.
+	 */
+	public PathPickingService() {
+		this(DEFAULT_PICK_TOLERANCE);
+	}
+
+	/**
+	 * Constructs a picking service.
+	 *
+	 * @param pickTolerance The largest distance between the pick ray and a picked position, in
+	 *                      meters.
+	 */
+	public PathPickingService(double pickTolerance) {
+		if (!(pickTolerance > 0)) {
+			throw new IllegalArgumentException("Pick tolerance must be positive: " + pickTolerance);
+		}
+		this.pickTolerance = pickTolerance;
+	}
+
+	/**
+	 * Finds the position of a path closest to a pick ray.
+	 *
+	 * @param path    The picked path.
+	 * @param pickRay The ray through the picked screen point.
+	 * @param globe   The globe the path lies on.
+	 * @return The closest position, or null if none is within the pick tolerance.
+	 */
+	public Position pick(Path path, Line pickRay, Globe globe) {
+		PathIndex index = getIndex(path, globe);
+		Vec4 origin = pickRay.getOrigin();
+		Vec4 direction = pickRay.getDirection();
+		int k = index.hierarchy.findNearest(origin.getX(), origin.getY(), origin.getZ(), direction.getX(),
+				direction.getY(), direction.getZ(), pickTolerance);
+		return k < 0 ? null : index.copy[k];
+	}
+
+	/**
+	 * Drops the index of a path, forcing it to be rebuilt on the next pick.
+	 *
+	 * @param path The path whose positions changed.
+	 */
+	public synchronized void invalidate(Path path) {
+		indices.remove(path);
+	}
+
+	/**
+	 * @return The largest distance between the pick ray and a picked position, in meters.
+	 */
+	public double getPickTolerance() {
+		return pickTolerance;
+	}
+
+	/**
+	 * Returns the up-to-date index of a path, rebuilding it if needed. The returned index is never
+	 * modified afterwards, so it can be queried outside of the lock.
+	 */
+	private synchronized PathIndex getIndex(Path path, Globe globe) {
+		Iterable<? extends Position> positions = path.getPositions();
+		int modificationCount = positions instanceof TrajectoryPositionView
+				? ((TrajectoryPositionView) positions).getModificationCount()
+				: -1;
+		Object globeState = globe.getGlobeStateKey();
+
+		PathIndex index = indices.get(path);
+		if (index == null || !index.isValid(positions, modificationCount, globeState)) {
+			index = new PathIndex(positions, modificationCount, globeState, globe);
+			indices.put(path, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Picking index of the positions of one path.
+	 */
+	private static final class PathIndex {
+		private final Iterable<? extends Position> positions;
+		private final int modificationCount;
+		private final Object globeState;
+
+		/** The indexed positions, copied so that a pick never sees a half-refilled buffer. */
+		private final Position[] copy;
+
+		private final BoundingSphereHierarchy hierarchy;
+
+		PathIndex(Iterable<? extends Position> positions, int modificationCount, Object globeState, Globe globe) {
+			this.positions = positions;
+			this.modificationCount = modificationCount;
+			this.globeState = globeState;
+
+			ArrayList<Position> list = new ArrayList<>();
+			if (positions != null) {
+				for (Position position : positions) {
+					list.add(position);
+				}
+			}
+			this.copy = list.toArray(new Position[0]);
+
+			int count = copy.length;
+			double[] x = new double[count];
+			double[] y = new double[count];
+			double[] z = new double[count];
+			for (int k = 0; k < count; k++) {
+				Vec4 point = globe.computePointFromPosition(copy[k]);
+				x[k] = point.getX();
+				y[k] = point.getY();
+				z[k] = point.getZ();
+			}
+			this.hierarchy = new BoundingSphereHierarchy(x, y, z, count);
+		}
+
+		boolean isValid(Iterable<? extends Position> positions, int modificationCount, Object globeState) {
+			return this.positions == positions && this.modificationCount == modificationCount
+					&& this.globeState.equals(globeState);
+		}
+	}
+}
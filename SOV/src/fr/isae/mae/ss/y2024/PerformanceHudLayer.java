@@ -0,0 +1,181 @@
+package fr.isae.mae.ss.y2024;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Insets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.layers.RenderableLayer;
+import gov.nasa.worldwind.render.AnnotationAttributes;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.render.ScreenRelativeAnnotation;
+
+/**
+ * The PerformanceHudLayer shows live performance figures in a corner of the globe: frame rate,
+ * frame time, last and 95th percentile propagation latency of every animated orbit, number of
+ * queued orbit updates, number of rendered vertices and heap usage.
+ * <p>
+ * Frames are only counted while rendering; the figures are gathered and the text rebuilt at
+ * most once per refresh interval, so the overlay costs a clock read per frame in between.
+ */
+public class PerformanceHudLayer extends RenderableLayer {
+
+    /** Default time between two refreshes of the figures, in milliseconds. */
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 500;
+
+    /** Number of refresh intervals without frames after which the frame count restarts. */
+    private static final int MAX_IDLE_INTERVALS = 4;
+
+    /** Longest orbit name shown, so that the columns stay aligned. */
+    private static final int NAME_WIDTH = 12;
+
+    private static final double BYTES_PER_MEGABYTE = 1024. * 1024.;
+
+    /** The orbits whose propagation latency and vertices are shown. */
+    private final SatelliteAnimator animator;
+
+    /** The scheduler whose queued updates are counted. */
+    private final OrbitUpdateScheduler scheduler;
+
+    /** The constellation drawn as one vertex per object. */
+    private final Constellation constellation;
+
+    /** The shown text. */
+    private final ScreenRelativeAnnotation annotation;
+
+    /** Time between two refreshes, in nanoseconds. */
+    private final long refreshNanos;
+
+    /** Time of the last refresh, or -1 before the first frame. */
+    private long lastRefresh = -1;
+
+    /** Frames rendered since the last refresh. */
+    private int frames;
+
+	/**
+	 * Constructs a performance overlay refreshed every {@value #DEFAULT_REFRESH_INTERVAL_MILLIS} ms.
+	 *
+	 * @param animator      The animator of the shown orbits.
+	 * @param scheduler     The scheduler running the orbit updates.
+	 * @param constellation The constellation drawn with the orbits.
+	 */
+	public PerformanceHudLayer(SatelliteAnimator animator, OrbitUpdateScheduler scheduler,
+			Constellation constellation) {
+		this(animator, scheduler, constellation, DEFAULT_REFRESH_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Constructs a performance overlay.
+	 *
+	 * @param animator              The animator of the shown orbits.
+	 * @param scheduler             The scheduler running the orbit updates.
+	 * @param constellation         The constellation drawn with the orbits.
+	 * @param refreshIntervalMillis The time between two refreshes of the figures, in milliseconds.
+	 */
+	public PerformanceHudLayer(SatelliteAnimator animator, OrbitUpdateScheduler scheduler,
+			Constellation constellation, long refreshIntervalMillis) {
+		this.animator = animator;
+		this.scheduler = scheduler;
+		this.constellation = constellation;
+		this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+
+		AnnotationAttributes attributes = new AnnotationAttributes();
+		attributes.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+		attributes.setTextColor(Color.WHITE);
+		attributes.setBackgroundColor(new Color(50, 50, 50, 200));
+		attributes.setBorderColor(Color.WHITE);
+		attributes.setCornerRadius(10);
+		attributes.setInsets(new Insets(8, 8, 8, 8));
+		attributes.setFrameShape(AVKey.SHAPE_RECTANGLE);
+		attributes.setLeader(AVKey.SHAPE_NONE);
+		attributes.setAdjustWidthToText(AVKey.SIZE_FIT_TEXT);
+		attributes.setTextAlign(AVKey.LEFT);
+
+		// Right edge, below the compass
+		this.annotation = new ScreenRelativeAnnotation("Measuring...", 0.99, 0.75);
+		this.annotation.setKeepFullyVisible(true);
+		this.annotation.setAttributes(attributes);
+		this.addRenderable(annotation);
+
+		this.setName("Performance HUD");
+		this.setPickEnabled(false);
+	}
+
+	@Override
+	protected void doRender(DrawContext dc) {
+		onFrame(System.nanoTime());
+		super.doRender(dc);
+	}
+
+	/**
+	 * Counts a frame, and refreshes the figures if the refresh interval elapsed.
+	 *
+	 * @param nowNanos The current {@link System#nanoTime()}.
+	 */
+	void onFrame(long nowNanos) {
+		final long elapsed = nowNanos - lastRefresh;
+		if (lastRefresh < 0 || elapsed > MAX_IDLE_INTERVALS * refreshNanos) {
+			// First frame, or first one after the layer was hidden or nothing was drawn
+			lastRefresh = nowNanos;
+			frames = 0;
+			return;
+		}
+		frames++;
+		if (elapsed >= refreshNanos) {
+			annotation.setText(formatFigures(frames * 1e9 / elapsed));
+			frames = 0;
+			lastRefresh = nowNanos;
+		}
+	}
+
+	/**
+	 * Gathers the figures and lays them out.
+	 *
+	 * @param framesPerSecond The frame rate over the last refresh interval.
+	 * @return The text of the overlay.
+	 */
+	String formatFigures(double framesPerSecond) {
+		final List<CustomOrbit> orbits = animator.getTrackedOrbits();
+		long vertices = constellation.getSnapshot().size();
+		for (CustomOrbit orbit : orbits) {
+			vertices += orbit.getRenderedPointCount();
+		}
+		final Runtime runtime = Runtime.getRuntime();
+		final long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+
+		final StringBuilder text = new StringBuilder();
+		text.append(String.format("FPS      %8.1f\n", framesPerSecond));
+		text.append(String.format("Frame p95%8.1f ms\n",
+				OrbitPipelineMetrics.getShared().getRedrawLatency().getP95Millis()));
+		text.append(String.format("Queued   %8d\n", scheduler.getPendingCount()));
+		text.append(String.format("Vertices %8d\n", vertices));
+		text.append(String.format("Heap     %8.0f / %.0f MB", usedHeap / BYTES_PER_MEGABYTE,
+				runtime.maxMemory() / BYTES_PER_MEGABYTE));
+		if (!orbits.isEmpty()) {
+			text.append(String.format("\n\nPropagation  %8s %8s", "last ms", "p95 ms"));
+			for (CustomOrbit orbit : orbits) {
+				final LatencySnapshot latency = orbit.getPropagation().getPropagationLatency().snapshot();
+				text.append(String.format("\n%-" + NAME_WIDTH + "s %8s %8s", truncate(orbit.getDisplayName()),
+						latency.getLastMillis() < 0 ? "-" : String.format("%.1f", latency.getLastMillis()),
+						latency.getCount() == 0 ? "-" : String.format("%.1f", latency.getP95Millis())));
+			}
+		}
+		return text.toString();
+	}
+
+	private static String truncate(String name) {
+		if (name == null) {
+			return "";
+		}
+		return name.length() <= NAME_WIDTH ? name : name.substring(0, NAME_WIDTH);
+	}
+
+	/**
+	 * @return The text currently shown.
+	 */
+	public String getText() {
+		return annotation.getText();
+	}
+}
@@ -0,0 +1,70 @@
+package fr.isae.mae.ss.y2024;
+
+/**
+ * The PropagationStatistics class reports the cost of a single propagation: the number of
+ * integration steps and force model evaluations, the number of output samples and the wall
+ * time spent.
+ */
+public final class PropagationStatistics {
+
+    /** Number of accepted integration steps. */
+    private final int steps;
+
+    /** Number of evaluations of the equations of motion. */
+    private final int evaluations;
+
+    /** Number of output samples. */
+    private final int samples;
+
+    /** Wall time of the propagation, in nanoseconds. */
+    private final long wallTimeNanos;
+
+	/**
+	 * Constructs the statistics of a propagation.
+	 *
+	 * @param steps         The number of accepted integration steps.
+	 * @param evaluations   The number of evaluations of the equations of motion.
+	 * @param samples       The number of output samples.
+	 * @param wallTimeNanos The wall time of the propagation, in nanoseconds.
+	 */
+	public PropagationStatistics(int steps, int evaluations, int samples, long wallTimeNanos) {
+		this.steps = steps;
+		this.evaluations = evaluations;
+		this.samples = samples;
+		this.wallTimeNanos = wallTimeNanos;
+	}
+
+	/**
+	 * @return The number of accepted integration steps.
+	 */
+	public int getSteps() {
+		return steps;
+	}
+
+	/**
+	 * @return The number of evaluations of the equations of motion.
+	 */
+	public int getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * @return The number of output samples.
+	 */
+	public int getSamples() {
+		return samples;
+	}
+
+	/**
+	 * @return The wall time of the propagation, in nanoseconds.
+	 */
+	public long getWallTimeNanos() {
+		return wallTimeNanos;
+	}
+
+	@Override
+	public String toString() {
+		return steps + " steps, " + evaluations + " evaluations, " + samples + " samples in "
+				+ (wallTimeNanos / 1e6) + " ms";
+	}
+}
@@ -0,0 +1,101 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.Objects;
+
+import fr.cnes.sirius.patrius.orbits.Orbit;
+
+/**
+ * A PropagationWindow sets how far ahead of its epoch an orbit is propagated, either as a
+ * number of Keplerian revolutions or as a duration. A window of several revolutions shows the
+ * drift of a perturbed orbit; a duration shows the same time span for every orbit whatever its
+ * period. Windows are immutable and comparable, so that they can be part of a
+ * {@link TrajectoryCache} key.
+ */
+public final class PropagationWindow {
+
+    /** The available window modes. */
+    public enum Mode {
+        REVOLUTIONS, DURATION
+    }
+
+    /** The window of one revolution, used by default. */
+    public static final PropagationWindow ONE_REVOLUTION = revolutions(1);
+
+    private final Mode mode;
+
+    /** Number of revolutions or duration in seconds, depending on the mode. */
+    private final double value;
+
+	private PropagationWindow(Mode mode, double value) {
+		this.mode = mode;
+		this.value = value;
+	}
+
+	/**
+	 * @param count The number of Keplerian revolutions, possibly fractional.
+	 * @return A window spanning a number of revolutions.
+	 */
+	public static PropagationWindow revolutions(double count) {
+		if (!(count > 0) || Double.isInfinite(count)) {
+			throw new IllegalArgumentException("Invalid number of revolutions: " + count);
+		}
+		return new PropagationWindow(Mode.REVOLUTIONS, count);
+	}
+
+	/**
+	 * @param duration The duration, in seconds.
+	 * @return A window spanning a fixed duration.
+	 */
+	public static PropagationWindow duration(double duration) {
+		if (!(duration > 0) || Double.isInfinite(duration)) {
+			throw new IllegalArgumentException("Invalid window duration: " + duration);
+		}
+		return new PropagationWindow(Mode.DURATION, duration);
+	}
+
+	/**
+	 * Computes the duration of the window for an orbit.
+	 *
+	 * @param orbit The orbit to propagate.
+	 * @return The duration of the window, in seconds.
+	 */
+	public double getDuration(Orbit orbit) {
+		return mode == Mode.REVOLUTIONS ? value * orbit.getKeplerianPeriod() : value;
+	}
+
+	/**
+	 * @return The window mode.
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * @return The number of revolutions or the duration in seconds, depending on the mode.
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PropagationWindow)) {
+			return false;
+		}
+		PropagationWindow other = (PropagationWindow) obj;
+		return mode == other.mode && Double.doubleToLongBits(value) == Double.doubleToLongBits(other.value);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(mode, value);
+	}
+
+	@Override
+	public String toString() {
+		return mode + "(" + value + ")";
+	}
+}
@@ -0,0 +1,243 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.Orbit;
+
+/**
+ * A SamplingPolicy decides at which epochs a trajectory is sampled. Sampling every few seconds
+ * gives a geostationary orbit fifteen times more vertices than a low orbit while starving the
+ * perigee of eccentric ones; the policies below instead bound the number of vertices or adapt
+ * it to the shape of the orbit:
+ * <ul>
+ * <li>{@link #fixedStep(double)}: one sample every given number of seconds;</li>
+ * <li>{@link #fixedCount(int)}: a given number of samples evenly spread in time;</li>
+ * <li>{@link #fixedAngle(double)}: one sample every given true anomaly step;</li>
+ * <li>{@link #maxChordError(double)}: true anomaly steps sized so that the straight segment
+ * between two samples never deviates from the orbit by more than a given distance.</li>
+ * </ul>
+ * Every policy samples the orbit epoch and the end of the span; the angular ones only sample
+ * elliptic orbits. Policies are immutable and comparable, so that they can be part of a
+ * {@link TrajectoryCache} key.
+ */
+public final class SamplingPolicy {
+
+    /** The available sampling modes. */
+    public enum Mode {
+        FIXED_STEP, FIXED_COUNT, FIXED_ANGLE, MAX_CHORD_ERROR
+    }
+
+    /** Largest true anomaly step of the chord error mode, in radians. */
+    static final double MAX_ANGLE_STEP = Math.toRadians(10);
+
+    /** Smallest true anomaly step of the angular modes, in radians (4096 samples per revolution). */
+    static final double MIN_ANGLE_STEP = 2 * Math.PI / 4096;
+
+    private final Mode mode;
+
+    /** Step in seconds, sample count, angle in radians or chord error in meters, depending on the mode. */
+    private final double value;
+
+	private SamplingPolicy(Mode mode, double value) {
+		this.mode = mode;
+		this.value = value;
+	}
+
+	/**
+	 * @param step The spacing between two samples, in seconds.
+	 * @return A policy sampling at a fixed time step.
+	 */
+	public static SamplingPolicy fixedStep(double step) {
+		if (!(step > 0)) {
+			throw new IllegalArgumentException("Invalid sampling step: " + step);
+		}
+		return new SamplingPolicy(Mode.FIXED_STEP, step);
+	}
+
+	/**
+	 * @param count The number of samples (at least 2).
+	 * @return A policy spreading a fixed number of samples evenly in time.
+	 */
+	public static SamplingPolicy fixedCount(int count) {
+		if (count < 2) {
+			throw new IllegalArgumentException("Invalid sample count: " + count);
+		}
+		return new SamplingPolicy(Mode.FIXED_COUNT, count);
+	}
+
+	/**
+	 * @param angleStep The true anomaly step between two samples, in radians.
+	 * @return A policy sampling at a fixed true anomaly step.
+	 */
+	public static SamplingPolicy fixedAngle(double angleStep) {
+		if (!(angleStep >= MIN_ANGLE_STEP) || angleStep >= Math.PI) {
+			throw new IllegalArgumentException("Invalid sampling angle: " + angleStep);
+		}
+		return new SamplingPolicy(Mode.FIXED_ANGLE, angleStep);
+	}
+
+	/**
+	 * @param chordError The largest distance between the orbit and a segment joining two
+	 *                   consecutive samples, in meters.
+	 * @return A policy adapting the true anomaly step to the local curvature of the orbit.
+	 */
+	public static SamplingPolicy maxChordError(double chordError) {
+		if (!(chordError > 0)) {
+			throw new IllegalArgumentException("Invalid chord error: " + chordError);
+		}
+		return new SamplingPolicy(Mode.MAX_CHORD_ERROR, chordError);
+	}
+
+	/**
+	 * Computes the sample epochs of an orbit.
+	 *
+	 * @param orbit    The orbit to sample.
+	 * @param duration The sampled span, in seconds.
+	 * @return The increasing time offsets from the orbit epoch, starting at 0 and ending at duration.
+	 * @throws IllegalArgumentException If an angular policy is given an orbit that is not elliptic.
+	 */
+	public double[] sampleTimes(Orbit orbit, double duration) {
+		if (mode == Mode.FIXED_STEP || mode == Mode.FIXED_COUNT) {
+			return sampleTimes(Double.NaN, Double.NaN, Double.NaN, Double.NaN, duration);
+		}
+		final KeplerianOrbit kepOrbit = new KeplerianOrbit(orbit);
+		return sampleTimes(kepOrbit.getA(), kepOrbit.getE(), kepOrbit.getMu(), kepOrbit.getMeanAnomaly(), duration);
+	}
+
+	/**
+	 * Computes the sample epochs of an elliptic orbit given by its shape and initial mean anomaly.
+	 */
+	double[] sampleTimes(double a, double e, double mu, double meanAnomaly, double duration) {
+		switch (mode) {
+		case FIXED_STEP:
+			return fixedStepTimes(value, duration);
+		case FIXED_COUNT:
+			final int count = (int) value;
+			final double[] times = new double[count];
+			for (int k = 0; k < count; k++) {
+				times[k] = duration * k / (count - 1);
+			}
+			times[count - 1] = duration;
+			return times;
+		default:
+			return angularTimes(a, e, mu, meanAnomaly, duration);
+		}
+	}
+
+	private static double[] fixedStepTimes(double step, double duration) {
+		final double[] times = new double[(int) (duration / step) + 2];
+		int size = 0;
+		for (int k = 0;; k++) {
+			// Snap to the end of the span so that rounding cannot add a spurious last sample
+			final double t = duration - k * step < 1e-9 * step ? duration : k * step;
+			times[size++] = t;
+			if (t >= duration) {
+				break;
+			}
+		}
+		return Arrays.copyOf(times, size);
+	}
+
+	/**
+	 * Steps the true anomaly and converts every step back to a time offset through Kepler's
+	 * equation. Only elliptic orbits can be sampled this way: at e = 1 the semi-latus rectum is
+	 * 0 and the steps would be NaN, so the loop would never reach the end of the span.
+	 */
+	private double[] angularTimes(double a, double e, double mu, double meanAnomaly, double duration) {
+		if (!(e >= 0 && e < 1)) {
+			throw new IllegalArgumentException("Angular sampling needs an elliptic orbit: e = " + e);
+		}
+		final double n = Math.sqrt(mu / (a * a * a));
+		final double sqrt1me2 = Math.sqrt(1 - e * e);
+		final double p = a * (1 - e * e);
+		final double h = Math.sqrt(mu * p);
+
+		final double bigE0 = KeplerianTrajectoryEngine.solveKepler(meanAnomaly, e);
+		double nu = Math.atan2(sqrt1me2 * Math.sin(bigE0), Math.cos(bigE0) - e);
+		// Mean anomaly of the current sample, unwrapped so that it only grows
+		double previousM = bigE0 - e * Math.sin(bigE0);
+		double elapsedM = 0;
+
+		double[] times = new double[64];
+		int size = 0;
+		times[size++] = 0;
+		while (true) {
+			final double step;
+			if (mode == Mode.FIXED_ANGLE) {
+				step = value;
+			} else {
+				// Sagitta of an arc with radius of curvature rho: d = rho * dTheta^2 / 8, with the
+				// curvature mu * h / (r v)^3 and the arc length r^2 v / h per unit of true anomaly
+				final double r = p / (1 + e * Math.cos(nu));
+				final double v = Math.sqrt(mu * (2 / r - 1 / a));
+				final double chordStep = Math.sqrt(8 * value * h / mu * v / r);
+				step = Math.max(MIN_ANGLE_STEP, Math.min(MAX_ANGLE_STEP, chordStep));
+			}
+			if (Double.isNaN(step)) {
+				throw new IllegalArgumentException("Cannot sample the orbit: a = " + a + ", e = " + e);
+			}
+			nu += step;
+			final double bigE = Math.atan2(sqrt1me2 * Math.sin(nu), e + Math.cos(nu));
+			final double m = bigE - e * Math.sin(bigE);
+			double dm = m - previousM;
+			while (dm <= 0) {
+				dm += 2 * Math.PI;
+			}
+			previousM = m;
+			elapsedM += dm;
+
+			final double t = elapsedM / n;
+			if (t >= duration * (1 - 1e-12)) {
+				break;
+			}
+			if (size == times.length) {
+				times = Arrays.copyOf(times, size * 2);
+			}
+			times[size++] = t;
+		}
+		if (size == times.length) {
+			times = Arrays.copyOf(times, size + 1);
+		}
+		times[size++] = duration;
+		return Arrays.copyOf(times, size);
+	}
+
+	/**
+	 * @return The sampling mode.
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * @return The step in seconds, the sample count, the angle in radians or the chord error in
+	 *         meters, depending on the mode.
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SamplingPolicy)) {
+			return false;
+		}
+		SamplingPolicy other = (SamplingPolicy) obj;
+		return mode == other.mode && Double.doubleToLongBits(value) == Double.doubleToLongBits(other.value);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(mode, value);
+	}
+
+	@Override
+	public String toString() {
+		return mode + "(" + value + ")";
+	}
+}
@@ -0,0 +1,392 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwindx.applications.worldwindow.util.Util;
+
+/**
+ * The SatelliteAnimator moves the satellites of a set of orbits to the time of a
+ * {@link SimulationClock}. A Swing timer ticks on the EDT; each tick only interpolates the
+ * ephemeris already computed for every orbit, so animating many satellites never runs a
+ * propagator per frame.
+ * <p>
+ * The ephemeris of an orbit is an {@link EphemerisWindow} covering the propagation window of the
+ * orbit after the clock time. When the clock has played three quarters of a segment, the window
+ * is extended on a background thread by resuming from its last state, and its oldest segment is
+ * dropped. After a jump outside the ephemeris, the window restarts at the segment containing the
+ * new time.
+ * <p>
+ * A new window starts from the trajectory the orbit has just computed when the trajectory cache
+ * holds it. When only the anomaly of a two-body orbit changes, the satellite moves along the
+ * same path: the window is kept and only the time offset changes. Otherwise no window is created
+ * for the coarse previews shown while a slider is dragged, only for the full trajectory that
+ * follows. A window whose propagation failed is not propagated again until the elements of its
+ * orbit change.
+ * <p>
+ * The windows are propagated on a pool of worker threads, so that a jump of the clock, which
+ * moves every orbit out of its ephemeris at once, re-propagates them in parallel. A window is only
+ * handed to one worker at a time. It propagates with the engine of its orbit, which the
+ * {@link OrbitUpdateScheduler} may be using at the same time: engines build a new propagator and
+ * integrator for every call, so they can run concurrently.
+ */
+public class SatelliteAnimator {
+
+    /** Default interval between two frames, in milliseconds (about 30 frames per second). */
+    public static final int DEFAULT_FRAME_INTERVAL = 33;
+
+    /** Fraction of a segment left unplayed when the extension of the ephemeris is triggered. */
+    static final double EXTENSION_MARGIN = 0.25;
+
+    /** Animation state of one orbit. Only touched on the EDT. */
+    private static final class Track {
+
+        /** The elements the ephemeris was computed from. */
+        private OrbitalElements elements;
+
+        /** The propagated window, only touched by the background thread once created. */
+        private EphemerisWindow window;
+
+        /** Copy of the samples of the window, or null until the first segment is available. */
+        private TrajectoryBuffer ephemeris;
+
+        /** Clock time minus orbit time, in seconds. */
+        private double offset;
+
+        /** Duration kept propagated after the clock time, in seconds. */
+        private double lookahead;
+
+        /** Duration of a segment of the window, in seconds. */
+        private double segmentDuration;
+
+        /** Whether a segment is being computed. */
+        private boolean computing;
+
+        /** Whether the propagation of the window failed, in which case it is not retried. */
+        private boolean failed;
+
+        /** Clock time the satellite was last moved to, NaN to force a move. */
+        private double shownTime = Double.NaN;
+
+        private final TrajectoryInterpolator interpolator = new TrajectoryInterpolator();
+        private final double[] lla = new double[3];
+    }
+
+    private final SimulationClock clock;
+    private final WorldWindow wwd;
+    private final Timer timer;
+
+    /** The workers propagating the ephemeris segments. */
+    private final ExecutorService workers;
+
+    /** Whether the workers were created by the animator, which then stops them on shutdown. */
+    private final boolean ownsWorkers;
+
+    /** Animated orbits. Only touched on the EDT. */
+    private final Map<CustomOrbit, Track> tracks = new LinkedHashMap<>();
+
+    /** Number of ephemeris segments computed. */
+    private final AtomicLong segmentCount = new AtomicLong();
+
+	/**
+	 * Constructs an animator ticking at {@value #DEFAULT_FRAME_INTERVAL} ms, propagating on its own
+	 * workers, one per processor. It does not run until {@link #start()} is called.
+	 *
+	 * @param clock The clock giving the simulated time.
+	 * @param wwd   The {@link WorldWindow} redrawn when a satellite moved.
+	 */
+	public SatelliteAnimator(SimulationClock clock, WorldWindow wwd) {
+		this(clock, wwd, createWorkers(Runtime.getRuntime().availableProcessors()), true);
+	}
+
+	/**
+	 * Constructs an animator ticking at {@value #DEFAULT_FRAME_INTERVAL} ms. It does not run until
+	 * {@link #start()} is called.
+	 *
+	 * @param clock   The clock giving the simulated time.
+	 * @param wwd     The {@link WorldWindow} redrawn when a satellite moved.
+	 * @param workers The workers propagating the ephemerides, shared with the caller who stops them.
+	 */
+	public SatelliteAnimator(SimulationClock clock, WorldWindow wwd, ExecutorService workers) {
+		this(clock, wwd, workers, false);
+	}
+
+	private SatelliteAnimator(SimulationClock clock, WorldWindow wwd, ExecutorService workers,
+			boolean ownsWorkers) {
+		this.clock = clock;
+		this.wwd = wwd;
+		this.timer = new Timer(DEFAULT_FRAME_INTERVAL, event -> tick());
+		this.timer.setCoalesce(true);
+		this.workers = workers;
+		this.ownsWorkers = ownsWorkers;
+	}
+
+	/**
+	 * Creates a pool of daemon worker threads.
+	 */
+	private static ExecutorService createWorkers(int parallelism) {
+		final AtomicInteger threadId = new AtomicInteger();
+		return Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "ephemeris-" + threadId.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Starts animating the satellite of an orbit. Must be called on the EDT.
+	 *
+	 * @param orbit The orbit to animate.
+	 */
+	public void track(CustomOrbit orbit) {
+		tracks.putIfAbsent(orbit, new Track());
+	}
+
+	/**
+	 * Stops animating the satellite of an orbit. Must be called on the EDT.
+	 *
+	 * @param orbit The orbit to stop animating.
+	 */
+	public void untrack(CustomOrbit orbit) {
+		tracks.remove(orbit);
+	}
+
+	/**
+	 * Starts the frame timer.
+	 */
+	public void start() {
+		timer.start();
+	}
+
+	/**
+	 * Stops the frame timer.
+	 */
+	public void stop() {
+		timer.stop();
+	}
+
+	/**
+	 * Moves every satellite to the current clock time. Called by the frame timer on the EDT.
+	 */
+	void tick() {
+		final double time = clock.getTime();
+		boolean moved = false;
+		for (Map.Entry<CustomOrbit, Track> entry : tracks.entrySet()) {
+			moved |= animate(entry.getKey(), entry.getValue(), time);
+		}
+		if (moved) {
+			wwd.redraw();
+		}
+	}
+
+	/**
+	 * Jumps the clock to a time and moves every satellite there at once, without waiting for the
+	 * next frame. Within {@link #getSpan()}, this only interpolates the ephemerides, so it can
+	 * follow the mouse while the timeline is dragged. Must be called on the EDT.
+	 *
+	 * @param time The simulated time, in seconds from the clock epoch.
+	 */
+	public void scrub(double time) {
+		clock.setTime(time);
+		tick();
+	}
+
+	/**
+	 * Returns the clock times covered by the ephemerides of all the animated orbits, to which the
+	 * satellites can be moved without propagating. Orbits whose first segment is still being
+	 * computed are ignored. Must be called on the EDT.
+	 *
+	 * @return The first and the last covered clock times, in seconds, or null if no ephemeris is
+	 *         available or they do not overlap.
+	 */
+	public double[] getSpan() {
+		double start = Double.NEGATIVE_INFINITY;
+		double end = Double.POSITIVE_INFINITY;
+		for (Map.Entry<CustomOrbit, Track> entry : tracks.entrySet()) {
+			final TrajectoryBuffer ephemeris = entry.getValue().ephemeris;
+			if (ephemeris == null || entry.getKey().isStale()) {
+				continue;
+			}
+			final double offset = entry.getValue().offset;
+			start = Math.max(start, ephemeris.getTime(0) - offset);
+			end = Math.min(end, ephemeris.getTime(ephemeris.size() - 1) - offset);
+		}
+		if (start > end || Double.isInfinite(start)) {
+			return null;
+		}
+		return new double[] { start, end };
+	}
+
+	/**
+	 * Moves the satellite of one orbit, requesting a new segment if needed.
+	 *
+	 * @return Whether the satellite moved.
+	 */
+	private boolean animate(CustomOrbit orbit, Track track, double time) {
+		if (orbit.isStale()) {
+			// Hidden orbit: its trajectory is not computed, there is nothing to move
+			return false;
+		}
+		final OrbitalElements elements = orbit.getElements();
+		if (elements != track.elements) {
+			if (track.window != null && elements.hasSamePath(track.elements)
+					&& orbit.getEffectiveEngine() instanceof KeplerianTrajectoryEngine) {
+				track.offset += anomalyShift(track.elements, elements);
+			} else if (orbit.isPreviewRendered()) {
+				// A slider is being dragged: wait for the full trajectory rather than propagating
+				// a window for every preview
+				return false;
+			} else {
+				createWindow(orbit, track, elements);
+			}
+			track.elements = elements;
+			track.failed = false;
+			track.shownTime = Double.NaN;
+		}
+
+		final double orbitTime = time + track.offset;
+		final TrajectoryBuffer ephemeris = track.ephemeris;
+		if (ephemeris == null) {
+			requestUpdate(track, orbitTime);
+			return false;
+		}
+
+		final double first = ephemeris.getTime(0);
+		final double last = ephemeris.getTime(ephemeris.size() - 1);
+		if (orbitTime < first || orbitTime > last
+				|| last - orbitTime < track.lookahead - (1 - EXTENSION_MARGIN) * track.segmentDuration) {
+			requestUpdate(track, orbitTime);
+		}
+
+		if (time == track.shownTime) {
+			return false;
+		}
+		track.interpolator.interpolate(ephemeris, orbitTime, track.lla);
+		orbit.getSatellite().moveTo(Position.fromRadians(track.lla[0], track.lla[1], track.lla[2]));
+		track.shownTime = time;
+		return true;
+	}
+
+	/**
+	 * Creates the window of new elements. A window seeded with the trajectory already computed
+	 * for them is shown right away.
+	 */
+	private void createWindow(CustomOrbit orbit, Track track, OrbitalElements elements) {
+		track.window = orbit.createEphemerisWindow(elements);
+		track.offset = clock.getEpoch().durationFrom(elements.getDate());
+		track.lookahead = track.window.getDuration();
+		track.segmentDuration = track.window.getSegmentDuration();
+		track.ephemeris = null;
+		if (track.window.getSegmentCount() > 0) {
+			// Not handed to a worker yet: it can still be read on the EDT
+			track.ephemeris = new TrajectoryBuffer();
+			track.window.copyTo(track.ephemeris);
+		}
+	}
+
+	/**
+	 * Returns the time from one position to another on the same two-body orbit, within half a
+	 * period, so that the ephemeris of the first elements can be played for the second ones.
+	 *
+	 * @return The time to add to the orbit time of the second elements, in seconds.
+	 */
+	private static double anomalyShift(OrbitalElements from, OrbitalElements to) {
+		final KeplerianOrbit fromOrbit = from.toOrbit();
+		final double delta = to.toOrbit().getMeanAnomaly() - fromOrbit.getMeanAnomaly();
+		return Math.IEEEremainder(delta, 2 * Math.PI) / fromOrbit.getKeplerianMeanMotion();
+	}
+
+	/**
+	 * Advances the window of an orbit to a given orbit time on a worker, then installs a copy of
+	 * its samples on the EDT.
+	 */
+	private void requestUpdate(Track track, double orbitTime) {
+		if (track.computing || track.failed) {
+			return;
+		}
+		track.computing = true;
+		final EphemerisWindow window = track.window;
+		workers.execute(() -> {
+			TrajectoryBuffer samples = null;
+			try {
+				segmentCount.addAndGet(window.advanceTo(orbitTime));
+				samples = new TrajectoryBuffer();
+				window.copyTo(samples);
+			} catch (PatriusException | RuntimeException ex) {
+				Util.getLogger().warning(ex.getMessage() != null ? ex.getMessage() : ex.toString());
+				samples = null;
+			}
+			final TrajectoryBuffer installed = samples;
+			SwingUtilities.invokeLater(() -> install(track, window, installed));
+		});
+	}
+
+	/**
+	 * Installs the samples of a window on the EDT, unless the elements changed in the meantime.
+	 * Null samples mark the window as failed.
+	 */
+	private void install(Track track, EphemerisWindow window, TrajectoryBuffer samples) {
+		track.computing = false;
+		if (track.window != window) {
+			return;
+		}
+		if (samples == null) {
+			track.failed = true;
+			return;
+		}
+		if (samples.size() == 0) {
+			return;
+		}
+		track.ephemeris = samples;
+		track.shownTime = Double.NaN;
+	}
+
+	/**
+	 * @return The orbits being animated.
+	 */
+	public List<CustomOrbit> getTrackedOrbits() {
+		return new ArrayList<>(tracks.keySet());
+	}
+
+	/**
+	 * @return The number of ephemeris segments propagated since the animator was created.
+	 */
+	public long getSegmentCount() {
+		return segmentCount.get();
+	}
+
+	/**
+	 * @return The clock giving the simulated time.
+	 */
+	public SimulationClock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Stops the frame timer, and the workers if they were created by the animator.
+	 *
+	 * @param timeoutMillis The maximum time to wait for a running propagation, in milliseconds.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public void shutdown(long timeoutMillis) throws InterruptedException {
+		timer.stop();
+		if (ownsWorkers) {
+			workers.shutdownNow();
+			workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+}
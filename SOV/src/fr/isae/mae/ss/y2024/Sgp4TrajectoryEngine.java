@@ -0,0 +1,91 @@
+package fr.isae.mae.ss.y2024;
+
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.orbits.Orbit;
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLEPropagator;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The Sgp4TrajectoryEngine samples the trajectory of a catalog object from its two-line
+ * element set with the Patrius SGP4 theory, or SDP4 for deep-space objects (periods over 225
+ * minutes). Mean elements only make sense with the theory they were fitted with, so unlike the
+ * {@link TrajectoryEngine}s it starts from a {@link TLE} rather than from an osculating orbit;
+ * the samples are written to the same {@link TrajectoryBuffer} as the other engines and follow
+ * the same display conventions.
+ * A propagator is built for each call, so one engine can be shared between threads.
+ */
+public class Sgp4TrajectoryEngine {
+
+    /** The kind of the engine recorded in ephemeris files. */
+    public static final String KIND = "SGP4";
+
+	/**
+	 * Propagates an element set and samples it at the given epochs.
+	 *
+	 * @param tle         The element set to propagate.
+	 * @param sampleTimes The increasing time offsets from the element set epoch, in seconds.
+	 * @param trajectory  The buffer receiving the samples; it is cleared first.
+	 * @throws PatriusException If the SGP4/SDP4 propagation fails.
+	 */
+	public void propagate(TLE tle, double[] sampleTimes, TrajectoryBuffer trajectory) throws PatriusException {
+		propagate(TLEPropagator.selectExtrapolator(tle), tle.getDate(), sampleTimes, trajectory);
+	}
+
+	/**
+	 * Propagates an element set over the given duration, sampled according to a policy. The
+	 * angular policies use the osculating orbit at the element set epoch.
+	 *
+	 * @param tle        The element set to propagate.
+	 * @param duration   The propagation duration, in seconds.
+	 * @param policy     The sampling policy.
+	 * @param trajectory The buffer receiving the samples; it is cleared first.
+	 * @throws PatriusException If the SGP4/SDP4 propagation fails.
+	 */
+	public void propagate(TLE tle, double duration, SamplingPolicy policy, TrajectoryBuffer trajectory)
+			throws PatriusException {
+		final TLEPropagator propagator = TLEPropagator.selectExtrapolator(tle);
+		final Orbit initialOrbit = propagator.getInitialState().getOrbit();
+		propagate(propagator, tle.getDate(), policy.sampleTimes(initialOrbit, duration), trajectory);
+	}
+
+	/**
+	 * Propagates an element set over a propagation window, sampled according to a policy. A
+	 * window in revolutions and the angular policies use the osculating orbit at the element set
+	 * epoch.
+	 *
+	 * @param tle        The element set to propagate.
+	 * @param window     The span to propagate after the element set epoch.
+	 * @param policy     The sampling policy.
+	 * @param trajectory The buffer receiving the samples; it is cleared first.
+	 * @throws PatriusException If the SGP4/SDP4 propagation fails.
+	 */
+	public void propagate(TLE tle, PropagationWindow window, SamplingPolicy policy, TrajectoryBuffer trajectory)
+			throws PatriusException {
+		final TLEPropagator propagator = TLEPropagator.selectExtrapolator(tle);
+		final Orbit initialOrbit = propagator.getInitialState().getOrbit();
+		propagate(propagator, tle.getDate(), policy.sampleTimes(initialOrbit, window.getDuration(initialOrbit)),
+				trajectory);
+	}
+
+	private void propagate(TLEPropagator propagator, AbsoluteDate epoch, double[] sampleTimes,
+			TrajectoryBuffer trajectory) throws PatriusException {
+		trajectory.clear();
+		trajectory.ensureCapacity(sampleTimes.length);
+		for (double t : sampleTimes) {
+			final Vector3D position = propagator.getPVCoordinates(epoch.shiftedBy(t)).getPosition();
+			trajectory.addCartesian(t, position.getX(), position.getY(), position.getZ());
+		}
+		// TEME positions are laid on the globe as they are, like the other engines do
+		GeodeticConverter.getWgs84().convert(trajectory, FrameRotation.IDENTITY);
+	}
+
+	/**
+	 * @param tle An element set.
+	 * @return The period matching its mean motion, in seconds.
+	 */
+	public static double getPeriod(TLE tle) {
+		return 2 * Math.PI / tle.getMeanMotion();
+	}
+}
@@ -0,0 +1,139 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.function.LongSupplier;
+
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+
+/**
+ * The SimulationClock gives the simulated time shown by the viewer. It is counted in seconds
+ * from a fixed epoch and runs at a speed multiplier of the wall clock while it is playing.
+ * The time is not advanced by ticks: it is derived from the wall clock whenever it is read, so
+ * a late or skipped frame never makes the simulation drift.
+ */
+public class SimulationClock {
+
+    /** Source of the wall clock, in nanoseconds. */
+    private final LongSupplier nanoTime;
+
+    /** The date of time offset 0. */
+    private final AbsoluteDate epoch;
+
+    /** Simulated time at {@link #baseNanos}, in seconds from the epoch. */
+    private double baseTime;
+
+    /** Wall clock reading at the last change of state. */
+    private long baseNanos;
+
+    /** Simulated seconds per wall clock second. */
+    private double speed = 1;
+
+    /** Whether the clock is playing. */
+    private boolean playing;
+
+	/**
+	 * Constructs a paused clock at the epoch.
+	 *
+	 * @param epoch The date of time offset 0.
+	 */
+	public SimulationClock(AbsoluteDate epoch) {
+		this(epoch, System::nanoTime);
+	}
+
+	/**
+	 * Constructs a paused clock reading a given wall clock.
+	 */
+	SimulationClock(AbsoluteDate epoch, LongSupplier nanoTime) {
+		this.epoch = epoch;
+		this.nanoTime = nanoTime;
+		this.baseNanos = nanoTime.getAsLong();
+	}
+
+	/**
+	 * @return The simulated time, in seconds from the epoch.
+	 */
+	public synchronized double getTime() {
+		if (!playing) {
+			return baseTime;
+		}
+		return baseTime + (nanoTime.getAsLong() - baseNanos) * 1e-9 * speed;
+	}
+
+	/**
+	 * @return The simulated date.
+	 */
+	public AbsoluteDate getDate() {
+		return epoch.shiftedBy(getTime());
+	}
+
+	/**
+	 * Jumps to a simulated time, keeping the clock playing or paused.
+	 *
+	 * @param time The simulated time, in seconds from the epoch.
+	 */
+	public synchronized void setTime(double time) {
+		baseTime = time;
+		baseNanos = nanoTime.getAsLong();
+	}
+
+	/**
+	 * Starts or resumes the clock.
+	 */
+	public synchronized void play() {
+		if (!playing) {
+			baseNanos = nanoTime.getAsLong();
+			playing = true;
+		}
+	}
+
+	/**
+	 * Stops the clock at the current simulated time.
+	 */
+	public synchronized void pause() {
+		if (playing) {
+			rebase();
+			playing = false;
+		}
+	}
+
+	/**
+	 * @return Whether the clock is playing.
+	 */
+	public synchronized boolean isPlaying() {
+		return playing;
+	}
+
+	/**
+	 * Sets the speed multiplier. The simulated time is continuous across the change.
+	 *
+	 * @param speed The simulated seconds per wall clock second; negative values play backwards.
+	 */
+	public synchronized void setSpeed(double speed) {
+		if (Double.isNaN(speed) || Double.isInfinite(speed)) {
+			throw new IllegalArgumentException("Invalid clock speed: " + speed);
+		}
+		rebase();
+		this.speed = speed;
+	}
+
+	/**
+	 * @return The simulated seconds per wall clock second.
+	 */
+	public synchronized double getSpeed() {
+		return speed;
+	}
+
+	/**
+	 * @return The date of time offset 0.
+	 */
+	public AbsoluteDate getEpoch() {
+		return epoch;
+	}
+
+	/**
+	 * Moves the base of the time computation to now.
+	 */
+	private void rebase() {
+		baseTime = getTime();
+		baseNanos = nanoTime.getAsLong();
+	}
+}
@@ -15,6 +15,10 @@ import javax.swing.JPanel;
  * It provides controls for six orbital parameters and allows the user to modify them using sliders and a delete button.
  */
 public class SliderGroup extends JPanel {
+
+    /** Largest eccentricity of the slider: the trajectories are sampled as ellipses, so e < 1. */
+    public static final double MAX_ECCENTRICITY = 0.99;
+
     private final CustomSlider sliderA;
     private final CustomSlider sliderE;
     private final CustomSlider sliderI;
@@ -41,7 +45,7 @@ public class SliderGroup extends JPanel {
 
         // Initialize sliders
         sliderA = new CustomSlider(1.0, 6.0, defaultA, 10, "a");
-        sliderE = new CustomSlider(0.0, 1.0, defaultE, 100, "e");
+        sliderE = new CustomSlider(0.0, MAX_ECCENTRICITY, defaultE, 100, "e");
         sliderI = new CustomSlider(0.0, 180.0, defaultI, 1, "i");
         sliderOmega = new CustomSlider(0.0, 360.0, defaultOmega, 1, "ω");
         sliderUpperOmega = new CustomSlider(0.0, 360.0, defaultUpperOmega, 1, "Ω");
@@ -115,6 +119,14 @@ public class SliderGroup extends JPanel {
         return sliderV.getValue();
     }
 
+    /**
+     * @return true while the thumb of any slider of the group is being dragged.
+     */
+    public boolean isAdjusting() {
+        return sliderA.isAdjusting() || sliderE.isAdjusting() || sliderI.isAdjusting()
+                || sliderOmega.isAdjusting() || sliderUpperOmega.isAdjusting() || sliderV.isAdjusting();
+    }
+
     /**
      * Adds a listener for the semi-major axis slider.
      * @param listener The listener to be added.
@@ -0,0 +1,190 @@
+package fr.isae.mae.ss.y2024;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.util.Locale;
+
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSlider;
+import javax.swing.JToggleButton;
+import javax.swing.Timer;
+
+/**
+ * The TimelinePanel controls the {@link SimulationClock} of the viewer: a play/pause button, a
+ * speed selector and a slider spanning the ephemerides already propagated by the
+ * {@link SatelliteAnimator}. Dragging the slider scrubs every visible satellite to the selected
+ * time by interpolating these ephemerides, without running any propagator.
+ */
+public class TimelinePanel extends JPanel {
+
+    /** Number of slider steps over the propagated span. */
+    static final int SLIDER_STEPS = 1000;
+
+    /** Clock speeds offered, in simulated seconds per wall clock second. */
+    static final double[] SPEEDS = { 1, 10, 60, 300, 1200, 3600 };
+
+    /** Interval between two refreshes of the controls, in milliseconds. */
+    private static final int REFRESH_INTERVAL = 100;
+
+    private final SatelliteAnimator animator;
+    private final SimulationClock clock;
+    private final JToggleButton playButton;
+    private final JComboBox<String> speedBox;
+    private final JSlider slider;
+    private final JLabel timeLabel;
+    private final Timer refreshTimer;
+
+    /** Clock times at the ends of the slider, in seconds. */
+    private double spanStart;
+    private double spanEnd;
+
+    /** Whether the controls are being updated from the clock rather than by the user. */
+    private boolean refreshing;
+
+	/**
+	 * Constructs a timeline panel. Its controls follow the clock while the panel is displayed.
+	 *
+	 * @param animator The animator moving the satellites, whose clock is controlled.
+	 */
+	public TimelinePanel(SatelliteAnimator animator) {
+		this.animator = animator;
+		this.clock = animator.getClock();
+
+		this.setLayout(new BoxLayout(this, BoxLayout.X_AXIS));
+		this.setBackground(new Color(50, 50, 50));
+		this.setBorder(BorderFactory.createEmptyBorder(5, 15, 5, 15));
+
+		playButton = new JToggleButton("Play");
+		playButton.addActionListener(event -> {
+			if (playButton.isSelected()) {
+				clock.play();
+			} else {
+				clock.pause();
+			}
+			refresh();
+		});
+
+		String[] speedNames = new String[SPEEDS.length];
+		for (int i = 0; i < SPEEDS.length; i++) {
+			speedNames[i] = String.format(Locale.ROOT, "x%.0f", SPEEDS[i]);
+		}
+		speedBox = new JComboBox<>(speedNames);
+		speedBox.setMaximumSize(speedBox.getPreferredSize());
+		speedBox.addActionListener(event -> clock.setSpeed(SPEEDS[speedBox.getSelectedIndex()]));
+
+		timeLabel = new JLabel(formatTime(0));
+		timeLabel.setForeground(Color.WHITE);
+		timeLabel.setPreferredSize(new Dimension(110, timeLabel.getPreferredSize().height));
+
+		slider = new JSlider(0, SLIDER_STEPS, 0);
+		slider.setOpaque(false);
+		slider.addChangeListener(event -> {
+			if (!refreshing && slider.isEnabled()) {
+				animator.scrub(toTime(slider.getValue()));
+				timeLabel.setText(formatTime(clock.getTime()));
+			}
+		});
+
+		JPanel controls = new JPanel(new BorderLayout());
+		controls.setOpaque(false);
+		controls.add(playButton, BorderLayout.WEST);
+		controls.add(speedBox, BorderLayout.EAST);
+
+		this.add(controls);
+		this.add(Box.createHorizontalStrut(10));
+		this.add(slider);
+		this.add(Box.createHorizontalStrut(10));
+		this.add(timeLabel);
+
+		refreshTimer = new Timer(REFRESH_INTERVAL, event -> refresh());
+		selectSpeed(clock.getSpeed());
+		refresh();
+	}
+
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		refreshTimer.start();
+	}
+
+	@Override
+	public void removeNotify() {
+		refreshTimer.stop();
+		super.removeNotify();
+	}
+
+	/**
+	 * Updates the controls from the clock and the span of the ephemerides. The span is kept
+	 * while the slider is dragged, so that it does not move under the mouse.
+	 */
+	void refresh() {
+		final double time = clock.getTime();
+		refreshing = true;
+		playButton.setSelected(clock.isPlaying());
+		playButton.setText(clock.isPlaying() ? "Pause" : "Play");
+		if (!slider.getValueIsAdjusting()) {
+			final double[] span = animator.getSpan();
+			if (span != null) {
+				spanStart = span[0];
+				spanEnd = span[1];
+			}
+			slider.setEnabled(span != null && spanEnd > spanStart);
+			slider.setValue(toSliderValue(time));
+		}
+		timeLabel.setText(formatTime(time));
+		refreshing = false;
+	}
+
+	/**
+	 * Selects the offered speed closest to a clock speed.
+	 */
+	private void selectSpeed(double speed) {
+		int closest = 0;
+		for (int i = 1; i < SPEEDS.length; i++) {
+			if (Math.abs(SPEEDS[i] - speed) < Math.abs(SPEEDS[closest] - speed)) {
+				closest = i;
+			}
+		}
+		speedBox.setSelectedIndex(closest);
+	}
+
+	/**
+	 * Converts a slider value to a clock time within the span.
+	 */
+	double toTime(int value) {
+		return spanStart + (spanEnd - spanStart) * value / SLIDER_STEPS;
+	}
+
+	/**
+	 * Converts a clock time to the closest slider value, clamped to the span.
+	 */
+	int toSliderValue(double time) {
+		if (!(spanEnd > spanStart)) {
+			return 0;
+		}
+		final double ratio = (time - spanStart) / (spanEnd - spanStart);
+		return (int) Math.round(Math.max(0, Math.min(1, ratio)) * SLIDER_STEPS);
+	}
+
+	/**
+	 * Formats a clock time as a signed offset from the clock epoch, in days, hours, minutes and seconds.
+	 */
+	static String formatTime(double time) {
+		final long seconds = Math.round(Math.abs(time));
+		return String.format(Locale.ROOT, "T%s%dd %02d:%02d:%02d", time < 0 && seconds > 0 ? "-" : "+",
+				seconds / 86400, seconds / 3600 % 24, seconds / 60 % 60, seconds % 60);
+	}
+
+	/**
+	 * @return The slider scrubbing the propagated span.
+	 */
+	public JSlider getSlider() {
+		return slider;
+	}
+}
@@ -0,0 +1,101 @@
+package fr.isae.mae.ss.y2024;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * The TleCatalogReader streams a file of two-line element sets, optionally preceded by a name
+ * line (three-line format, with or without the leading "0 " of Space-Track files). Objects
+ * without a name line are named after their catalog number. After a truncated element set, the
+ * line that did not fit is read again as the start of the next one.
+ */
+public class TleCatalogReader extends CatalogReader {
+
+    private final BufferedReader reader;
+
+    /** Number of lines read, for error messages. */
+    private int lineNumber;
+
+    /** A line read but not consumed by the previous element set, or null. */
+    private String pushedBack;
+
+	/**
+	 * Constructs a reader over a stream of element sets.
+	 *
+	 * @param reader The element sets.
+	 */
+	public TleCatalogReader(Reader reader) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	@Override
+	public CatalogObject next() throws IOException, PatriusException {
+		String line = nextLine();
+		if (line == null) {
+			return null;
+		}
+
+		String name = null;
+		if (!line.startsWith("1 ")) {
+			name = line.startsWith("0 ") ? line.substring(2).trim() : line.trim();
+			line = nextLine();
+		}
+		if (line == null || !line.startsWith("1 ")) {
+			// A name line without elements: the line may start the next element set
+			pushedBack = line;
+			throw new MalformedRecordException("Truncated element set " + name + " before line " + lineNumber);
+		}
+		final String line1 = line;
+		final String line2 = nextLine();
+		if (line2 == null || !line2.startsWith("2 ")) {
+			pushedBack = line2;
+			throw new MalformedRecordException("Truncated element set before line " + lineNumber);
+		}
+
+		final TLE tle;
+		try {
+			tle = new TLE(line1, line2);
+		} catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+			throw new MalformedRecordException("Malformed element set before line " + lineNumber, ex);
+		}
+		return new CatalogObject(name != null ? name : Integer.toString(tle.getSatelliteNumber()), tle);
+	}
+
+	/**
+	 * Returns the next non-blank line, without its trailing spaces, or null at the end.
+	 */
+	private String nextLine() throws IOException {
+		if (pushedBack != null) {
+			final String line = pushedBack;
+			pushedBack = null;
+			return line;
+		}
+		String line;
+		do {
+			line = reader.readLine();
+			if (line == null) {
+				return null;
+			}
+			lineNumber++;
+			line = stripTrailing(line);
+		} while (line.isEmpty());
+		return line;
+	}
+
+	private static String stripTrailing(String line) {
+		int end = line.length();
+		while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+			end--;
+		}
+		return line.substring(0, end);
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
@@ -0,0 +1,446 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+
+/**
+ * The TrajectoryBuffer stores a sampled trajectory as a structure of primitive arrays: the
+ * time offset from the orbit epoch, the geodetic coordinates and, optionally, the Cartesian
+ * position in the propagation frame. It grows on demand and can be cleared and refilled
+ * between updates, so steady-state updates do not allocate per sample.
+ *
+ * A buffer can be frozen with {@link #markReadOnly()} once it is shared (for instance by the
+ * {@link TrajectoryCache}); any further modification then fails.
+ */
+public final class TrajectoryBuffer {
+
+    /** Default initial capacity, in samples. */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /** Time offsets from the orbit epoch, in seconds. */
+    private double[] time;
+
+    /** Geodetic latitudes, in radians. */
+    private double[] latitude;
+
+    /** Geodetic longitudes, in radians. */
+    private double[] longitude;
+
+    /** Altitudes above the ellipsoid, in meters. */
+    private double[] altitude;
+
+    /** Cartesian coordinates in the propagation frame, in meters; null until first used. */
+    private double[] x;
+    private double[] y;
+    private double[] z;
+
+    /** Number of stored samples. */
+    private int size;
+
+    /** Number of modifications, letting derived data tell whether the samples changed. */
+    private int modificationCount;
+
+    /** Whether the buffer has been frozen. */
+    private boolean readOnly;
+
+	/**
+	 * Constructs an empty buffer with a default capacity.
+	 */
+	public TrajectoryBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs an empty buffer.
+	 *
+	 * @param capacity The initial capacity, in samples.
+	 */
+	public TrajectoryBuffer(int capacity) {
+		int initial = Math.max(1, capacity);
+		this.time = new double[initial];
+		this.latitude = new double[initial];
+		this.longitude = new double[initial];
+		this.altitude = new double[initial];
+	}
+
+	/**
+	 * Constructs a full buffer adopting the given columns, without copying them.
+	 *
+	 * @param time      The time offsets from the orbit epoch, in seconds.
+	 * @param latitude  The geodetic latitudes, in radians.
+	 * @param longitude The geodetic longitudes, in radians.
+	 * @param altitude  The altitudes, in meters.
+	 * @param x         The X coordinates, in meters, or null if unknown.
+	 * @param y         The Y coordinates, in meters, or null if unknown.
+	 * @param z         The Z coordinates, in meters, or null if unknown.
+	 */
+	TrajectoryBuffer(double[] time, double[] latitude, double[] longitude, double[] altitude, double[] x,
+			double[] y, double[] z) {
+		this.time = time;
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.altitude = altitude;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.size = time.length;
+	}
+
+	/**
+	 * Appends a sample without Cartesian coordinates.
+	 *
+	 * @param t   The time offset from the orbit epoch, in seconds.
+	 * @param lat The geodetic latitude, in radians.
+	 * @param lon The geodetic longitude, in radians.
+	 * @param alt The altitude, in meters.
+	 */
+	public void add(double t, double lat, double lon, double alt) {
+		checkWritable();
+		ensureCapacity(size + 1);
+		time[size] = t;
+		latitude[size] = lat;
+		longitude[size] = lon;
+		altitude[size] = alt;
+		if (x != null) {
+			x[size] = Double.NaN;
+			y[size] = Double.NaN;
+			z[size] = Double.NaN;
+		}
+		size++;
+	}
+
+	/**
+	 * Appends a sample with its Cartesian position.
+	 *
+	 * @param t   The time offset from the orbit epoch, in seconds.
+	 * @param lat The geodetic latitude, in radians.
+	 * @param lon The geodetic longitude, in radians.
+	 * @param alt The altitude, in meters.
+	 * @param px  The X coordinate in the propagation frame, in meters.
+	 * @param py  The Y coordinate in the propagation frame, in meters.
+	 * @param pz  The Z coordinate in the propagation frame, in meters.
+	 */
+	public void add(double t, double lat, double lon, double alt, double px, double py, double pz) {
+		checkWritable();
+		ensureCapacity(size + 1);
+		if (x == null) {
+			x = new double[time.length];
+			y = new double[time.length];
+			z = new double[time.length];
+			Arrays.fill(x, 0, size, Double.NaN);
+			Arrays.fill(y, 0, size, Double.NaN);
+			Arrays.fill(z, 0, size, Double.NaN);
+		}
+		time[size] = t;
+		latitude[size] = lat;
+		longitude[size] = lon;
+		altitude[size] = alt;
+		x[size] = px;
+		y[size] = py;
+		z[size] = pz;
+		size++;
+	}
+
+	/**
+	 * Appends a sample whose geodetic coordinates are not known yet; they are filled later,
+	 * typically by {@link GeodeticConverter#convert}.
+	 *
+	 * @param t  The time offset from the orbit epoch, in seconds.
+	 * @param px The X coordinate in the propagation frame, in meters.
+	 * @param py The Y coordinate in the propagation frame, in meters.
+	 * @param pz The Z coordinate in the propagation frame, in meters.
+	 */
+	public void addCartesian(double t, double px, double py, double pz) {
+		add(t, Double.NaN, Double.NaN, Double.NaN, px, py, pz);
+	}
+
+	/**
+	 * Sets the geodetic coordinates of an existing sample.
+	 *
+	 * @param k   The sample index.
+	 * @param lat The geodetic latitude, in radians.
+	 * @param lon The geodetic longitude, in radians.
+	 * @param alt The altitude, in meters.
+	 */
+	public void setGeodetic(int k, double lat, double lon, double alt) {
+		checkWritable();
+		checkIndex(k);
+		latitude[k] = lat;
+		longitude[k] = lon;
+		altitude[k] = alt;
+	}
+
+	/**
+	 * Removes every sample while keeping the allocated arrays.
+	 */
+	public void clear() {
+		checkWritable();
+		size = 0;
+	}
+
+	/**
+	 * Makes sure the buffer can hold the given number of samples without growing.
+	 *
+	 * @param capacity The required capacity, in samples.
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity <= time.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, time.length + (time.length >> 1));
+		time = Arrays.copyOf(time, newCapacity);
+		latitude = Arrays.copyOf(latitude, newCapacity);
+		longitude = Arrays.copyOf(longitude, newCapacity);
+		altitude = Arrays.copyOf(altitude, newCapacity);
+		if (x != null) {
+			x = Arrays.copyOf(x, newCapacity);
+			y = Arrays.copyOf(y, newCapacity);
+			z = Arrays.copyOf(z, newCapacity);
+		}
+	}
+
+	/**
+	 * Replaces the content of this buffer with the samples of another one, reusing the arrays
+	 * of this buffer when they are large enough.
+	 *
+	 * @param other The buffer to copy.
+	 */
+	public void copyFrom(TrajectoryBuffer other) {
+		checkWritable();
+		size = 0;
+		ensureCapacity(other.size);
+		System.arraycopy(other.time, 0, time, 0, other.size);
+		System.arraycopy(other.latitude, 0, latitude, 0, other.size);
+		System.arraycopy(other.longitude, 0, longitude, 0, other.size);
+		System.arraycopy(other.altitude, 0, altitude, 0, other.size);
+		if (other.x != null) {
+			if (x == null || x.length < time.length) {
+				x = new double[time.length];
+				y = new double[time.length];
+				z = new double[time.length];
+			}
+			System.arraycopy(other.x, 0, x, 0, other.size);
+			System.arraycopy(other.y, 0, y, 0, other.size);
+			System.arraycopy(other.z, 0, z, 0, other.size);
+		} else {
+			x = null;
+			y = null;
+			z = null;
+		}
+		size = other.size;
+	}
+
+	/**
+	 * Appends a range of samples of another buffer, shifting their time offsets. This is how a
+	 * segment propagated from a later epoch is joined to an ephemeris.
+	 *
+	 * @param other     The buffer to copy the samples from.
+	 * @param from      The index of the first sample to copy, inclusive.
+	 * @param to        The index of the last sample to copy, exclusive.
+	 * @param timeShift The offset added to the copied time offsets, in seconds.
+	 */
+	public void addAll(TrajectoryBuffer other, int from, int to, double timeShift) {
+		checkWritable();
+		if (from < 0 || to > other.size || from > to) {
+			throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), size: " + other.size);
+		}
+		final int count = to - from;
+		ensureCapacity(size + count);
+		if (other.x != null && x == null) {
+			x = new double[time.length];
+			y = new double[time.length];
+			z = new double[time.length];
+			Arrays.fill(x, 0, size, Double.NaN);
+			Arrays.fill(y, 0, size, Double.NaN);
+			Arrays.fill(z, 0, size, Double.NaN);
+		}
+		for (int k = 0; k < count; k++) {
+			time[size + k] = other.time[from + k] + timeShift;
+		}
+		System.arraycopy(other.latitude, from, latitude, size, count);
+		System.arraycopy(other.longitude, from, longitude, size, count);
+		System.arraycopy(other.altitude, from, altitude, size, count);
+		if (x != null) {
+			if (other.x != null) {
+				System.arraycopy(other.x, from, x, size, count);
+				System.arraycopy(other.y, from, y, size, count);
+				System.arraycopy(other.z, from, z, size, count);
+			} else {
+				Arrays.fill(x, size, size + count, Double.NaN);
+				Arrays.fill(y, size, size + count, Double.NaN);
+				Arrays.fill(z, size, size + count, Double.NaN);
+			}
+		}
+		size += count;
+	}
+
+	/**
+	 * Finds the interval containing a time offset by a binary search of the time offsets, which
+	 * must be increasing.
+	 *
+	 * @param t The time offset from the orbit epoch, in seconds.
+	 * @return The index k such that time(k) &lt;= t &lt; time(k + 1), clamped to the first and the
+	 *         last intervals (0 when the buffer holds fewer than two samples).
+	 */
+	public int findInterval(double t) {
+		int low = 0;
+		int high = size - 2;
+		while (low < high) {
+			final int mid = (low + high + 1) >>> 1;
+			if (time[mid] <= t) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns a trimmed, writable copy of this buffer.
+	 *
+	 * @return A new buffer holding the same samples.
+	 */
+	public TrajectoryBuffer copy() {
+		TrajectoryBuffer copy = new TrajectoryBuffer(size);
+		copy.copyFrom(this);
+		return copy;
+	}
+
+	/**
+	 * Freezes the buffer: any later modification throws an {@link IllegalStateException}.
+	 *
+	 * @return This buffer.
+	 */
+	public TrajectoryBuffer markReadOnly() {
+		readOnly = true;
+		return this;
+	}
+
+	/**
+	 * @return true if the buffer has been frozen.
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * Checks that the buffer can be modified, and counts the modification.
+	 */
+	private void checkWritable() {
+		if (readOnly) {
+			throw new IllegalStateException("Trajectory buffer is read-only");
+		}
+		modificationCount++;
+	}
+
+	/**
+	 * Returns the number of modifications of the buffer. Data derived from the samples, such as a
+	 * picking index, is still valid as long as this number did not change.
+	 *
+	 * @return The modification count.
+	 */
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * @return The number of stored samples.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if the samples carry their Cartesian position.
+	 */
+	public boolean hasCartesian() {
+		return x != null;
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The time offset from the orbit epoch, in seconds.
+	 */
+	public double getTime(int k) {
+		return time[checkIndex(k)];
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The geodetic latitude, in radians.
+	 */
+	public double getLatitude(int k) {
+		return latitude[checkIndex(k)];
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The geodetic longitude, in radians.
+	 */
+	public double getLongitude(int k) {
+		return longitude[checkIndex(k)];
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The altitude, in meters.
+	 */
+	public double getAltitude(int k) {
+		return altitude[checkIndex(k)];
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The X coordinate in the propagation frame, in meters, or NaN if unknown.
+	 */
+	public double getX(int k) {
+		return x == null ? Double.NaN : x[checkIndex(k)];
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The Y coordinate in the propagation frame, in meters, or NaN if unknown.
+	 */
+	public double getY(int k) {
+		return y == null ? Double.NaN : y[checkIndex(k)];
+	}
+
+	/**
+	 * @param k The sample index.
+	 * @return The Z coordinate in the propagation frame, in meters, or NaN if unknown.
+	 */
+	public double getZ(int k) {
+		return z == null ? Double.NaN : z[checkIndex(k)];
+	}
+
+	private int checkIndex(int k) {
+		if (k < 0 || k >= size) {
+			throw new IndexOutOfBoundsException("Index: " + k + ", size: " + size);
+		}
+		return k;
+	}
+
+	/**
+	 * Returns a live, read-only list view of the samples as Patrius geodetic points. Points are
+	 * created on access, so this adapter is meant for compatibility rather than hot loops.
+	 *
+	 * @return A list view of the geodetic samples.
+	 */
+	public List<GeodeticPoint> asGeodeticPoints() {
+		return new AbstractList<GeodeticPoint>() {
+			@Override
+			public GeodeticPoint get(int index) {
+				return new GeodeticPoint(getLatitude(index), getLongitude(index), getAltitude(index));
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+}
@@ -0,0 +1,251 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+
+/**
+ * The TrajectoryCache is a bounded, least-recently-used cache of computed trajectories.
+ * Entries are keyed by quantized orbital elements, so the discrete values produced by the
+ * sliders map to a small set of keys and revisiting a value skips the propagation entirely.
+ * Hit, miss and eviction counters are kept to monitor its efficiency.
+ */
+public class TrajectoryCache {
+
+    /** Default maximum number of cached trajectories. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /** Quantum of the semi-major axis, in meters. */
+    private static final double LENGTH_QUANTUM = 1e-3;
+
+    /** Quantum of the eccentricity and of the angles (in radians). */
+    private static final double ANGLE_QUANTUM = 1e-9;
+
+    /** Cache shared by every orbit of the application. */
+    private static final TrajectoryCache SHARED = new TrajectoryCache(DEFAULT_CAPACITY);
+
+    /**
+     * The Key class identifies a trajectory: quantized elements, anomaly type, frame, epoch,
+     * engine, sampling policy and propagation window.
+     */
+    public static final class Key {
+        private final long a;
+        private final long e;
+        private final long i;
+        private final long pa;
+        private final long raan;
+        private final long anomaly;
+        private final long mu;
+        private final PositionAngle type;
+        private final String frameName;
+        private final AbsoluteDate date;
+        private final TrajectoryEngine engine;
+        private final SamplingPolicy sampling;
+        private final PropagationWindow window;
+
+        private Key(OrbitalElements elements, TrajectoryEngine engine, SamplingPolicy sampling,
+                PropagationWindow window) {
+            this.a = Math.round(elements.getA() / LENGTH_QUANTUM);
+            this.e = Math.round(elements.getE() / ANGLE_QUANTUM);
+            this.i = Math.round(elements.getI() / ANGLE_QUANTUM);
+            this.pa = Math.round(elements.getPa() / ANGLE_QUANTUM);
+            this.raan = Math.round(elements.getRaan() / ANGLE_QUANTUM);
+            this.anomaly = Math.round(elements.getAnomaly() / ANGLE_QUANTUM);
+            this.mu = Double.doubleToLongBits(elements.getMu());
+            this.type = elements.getType();
+            this.frameName = elements.getFrame().getName();
+            this.date = elements.getDate();
+            this.engine = engine;
+            this.sampling = sampling;
+            this.window = window;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return a == other.a && e == other.e && i == other.i && pa == other.pa && raan == other.raan
+                    && anomaly == other.anomaly && mu == other.mu && type == other.type
+                    && frameName.equals(other.frameName) && date.equals(other.date) && engine == other.engine
+                    && sampling.equals(other.sampling) && window.equals(other.window);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(a, e, i, pa, raan, anomaly, mu, type, frameName, date,
+                    System.identityHashCode(engine), sampling, window);
+        }
+    }
+
+    /** Maximum number of entries. */
+    private final int capacity;
+
+    /** Entries in access order, the eldest being evicted first. */
+    private final LinkedHashMap<Key, TrajectoryBuffer> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+	/**
+	 * Constructs an empty cache.
+	 *
+	 * @param capacity The maximum number of cached trajectories.
+	 */
+	public TrajectoryCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<Key, TrajectoryBuffer>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, TrajectoryBuffer> eldest) {
+				if (size() > TrajectoryCache.this.capacity) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * @return The cache shared by every orbit of the application.
+	 */
+	public static TrajectoryCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Builds the key of a trajectory spanning one revolution.
+	 *
+	 * @param elements   The orbital elements the trajectory is computed from.
+	 * @param engine     The engine computing the trajectory.
+	 * @param sampling   The sampling policy of the trajectory.
+	 * @return The cache key.
+	 */
+	public static Key key(OrbitalElements elements, TrajectoryEngine engine, SamplingPolicy sampling) {
+		return key(elements, engine, sampling, PropagationWindow.ONE_REVOLUTION);
+	}
+
+	/**
+	 * Builds the key of a trajectory.
+	 *
+	 * @param elements   The orbital elements the trajectory is computed from.
+	 * @param engine     The engine computing the trajectory.
+	 * @param sampling   The sampling policy of the trajectory.
+	 * @param window     The propagation window of the trajectory.
+	 * @return The cache key.
+	 */
+	public static Key key(OrbitalElements elements, TrajectoryEngine engine, SamplingPolicy sampling,
+			PropagationWindow window) {
+		return new Key(elements, engine, sampling, window);
+	}
+
+	/**
+	 * Looks a trajectory up and updates the hit and miss counters.
+	 *
+	 * @param key The trajectory key.
+	 * @return The cached, read-only trajectory, or null if absent.
+	 */
+	public synchronized TrajectoryBuffer get(Key key) {
+		TrajectoryBuffer trajectory = entries.get(key);
+		if (trajectory == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return trajectory;
+	}
+
+	/**
+	 * Stores a trimmed, read-only copy of a trajectory, evicting the least recently used one if
+	 * the cache is full. The given buffer stays owned by the caller and may be recycled.
+	 *
+	 * @param key        The trajectory key.
+	 * @param trajectory The computed trajectory.
+	 */
+	public void put(Key key, TrajectoryBuffer trajectory) {
+		TrajectoryBuffer stored = trajectory.copy().markReadOnly();
+		synchronized (this) {
+			entries.put(key, stored);
+		}
+	}
+
+	/**
+	 * Stores a copy of the trajectory of an ephemeris file under the key of its header, as if it
+	 * had been computed by a given engine, so that a later lookup with the same parameters skips
+	 * the propagation. Nothing is stored unless the file was computed by an engine of the same
+	 * kind and with the same perturbations: a perturbed trajectory never stands for a two-body
+	 * one, nor the reverse.
+	 *
+	 * @param file   The opened ephemeris file.
+	 * @param engine The engine the trajectory stands for.
+	 * @return The key of the loaded trajectory, or null if it was computed by another kind of
+	 *         engine.
+	 * @see EphemerisFile#isComputedBy(TrajectoryEngine)
+	 */
+	public Key load(EphemerisFile file, TrajectoryEngine engine) {
+		if (!file.isComputedBy(engine)) {
+			return null;
+		}
+		final Key key = key(file.getElements(), engine, file.getSamplingPolicy(), file.getPropagationWindow());
+		final TrajectoryBuffer stored = file.toTrajectoryBuffer().markReadOnly();
+		synchronized (this) {
+			entries.put(key, stored);
+		}
+		return key;
+	}
+
+	/**
+	 * Removes every entry. The counters are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+    /**
+     * @return The number of cached trajectories.
+     */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+    /**
+     * @return The maximum number of cached trajectories.
+     */
+	public int getCapacity() {
+		return capacity;
+	}
+
+    /**
+     * @return The number of lookups that found a trajectory.
+     */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+    /**
+     * @return The number of lookups that found nothing.
+     */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+    /**
+     * @return The number of trajectories evicted to respect the capacity.
+     */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+}
@@ -0,0 +1,106 @@
+package fr.isae.mae.ss.y2024;
+
+import fr.cnes.sirius.patrius.orbits.Orbit;
+import fr.cnes.sirius.patrius.propagation.SpacecraftState;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * A TrajectoryEngine computes the ground trace of an orbit as a list of geodetic points.
+ * Implementations differ in how the motion is obtained (closed-form Keplerian motion,
+ * numerical integration, ...), but all of them sample the trajectory at the requested epochs
+ * so that they can be swapped without changing the rendered result.
+ */
+public interface TrajectoryEngine {
+
+	/**
+	 * Propagates the orbit and samples it at the given epochs. Each sample is appended to
+	 * {@code trajectory} with its time offset from the orbit epoch, its geodetic coordinates
+	 * and its Cartesian position in the orbit frame.
+	 *
+	 * @param iniOrbit    The initial orbit to be propagated.
+	 * @param sampleTimes The increasing time offsets from the orbit epoch, in seconds.
+	 * @param trajectory  The buffer receiving the samples; it is cleared first.
+	 * @throws PatriusException If an error occurs during the propagation or coordinate transformation.
+	 */
+	void propagate(Orbit iniOrbit, double[] sampleTimes, TrajectoryBuffer trajectory) throws PatriusException;
+
+	/**
+	 * Propagates from a spacecraft state, samples the motion at the given epochs and returns the
+	 * state at the last one. Passing that state back resumes the propagation where it stopped,
+	 * so that an ephemeris can be extended without propagating again from the orbit epoch.
+	 * <p>
+	 * The default implementation samples the orbit of the state and shifts the state by
+	 * Keplerian motion, which is exact for two-body engines only: engines modelling
+	 * perturbations override it.
+	 *
+	 * @param initialState The state to start from.
+	 * @param sampleTimes  The increasing time offsets from the date of the state, in seconds.
+	 * @param trajectory   The buffer receiving the samples; it is cleared first.
+	 * @return The state at the last sample epoch.
+	 * @throws PatriusException If an error occurs during the propagation or coordinate transformation.
+	 */
+	default SpacecraftState propagateFrom(SpacecraftState initialState, double[] sampleTimes,
+			TrajectoryBuffer trajectory) throws PatriusException {
+		propagate(initialState.getOrbit(), sampleTimes, trajectory);
+		return initialState.shiftedBy(sampleTimes[sampleTimes.length - 1]);
+	}
+
+	/**
+	 * Returns the cost of the last propagation run by this engine, for engines that measure it.
+	 *
+	 * @return The statistics of the last propagation, or null if not available.
+	 */
+	default PropagationStatistics getLastStatistics() {
+		return null;
+	}
+
+	/**
+	 * Returns the kind of motion computed by this engine. It is recorded in ephemeris files, so
+	 * that a saved trajectory is only reused for an engine of the same kind.
+	 *
+	 * @return The kind of the engine, the class name by default.
+	 */
+	default String getKind() {
+		return getClass().getName();
+	}
+
+	/**
+	 * Returns the perturbations modelled by this engine, recorded in ephemeris files along with
+	 * its {@link #getKind() kind}.
+	 *
+	 * @return The perturbations, or an empty string for two-body motion.
+	 */
+	default String getPerturbations() {
+		return "";
+	}
+
+	/**
+	 * Propagates the orbit over the given duration and samples it at a fixed output step.
+	 * The first sample is taken at the orbit epoch, the following ones every
+	 * {@code outputStep} seconds, and a last sample is always taken at the end of the span.
+	 *
+	 * @param iniOrbit   The initial orbit to be propagated.
+	 * @param duration   The propagation duration, in seconds.
+	 * @param outputStep The spacing between two output samples, in seconds.
+	 * @param trajectory The buffer receiving the samples; it is cleared first.
+	 * @throws PatriusException If an error occurs during the propagation or coordinate transformation.
+	 */
+	default void propagate(Orbit iniOrbit, double duration, double outputStep, TrajectoryBuffer trajectory)
+			throws PatriusException {
+		propagate(iniOrbit, SamplingPolicy.fixedStep(outputStep).sampleTimes(iniOrbit, duration), trajectory);
+	}
+
+	/**
+	 * Propagates the orbit over the given duration, sampled according to a policy.
+	 *
+	 * @param iniOrbit   The initial orbit to be propagated.
+	 * @param duration   The propagation duration, in seconds.
+	 * @param policy     The sampling policy.
+	 * @param trajectory The buffer receiving the samples; it is cleared first.
+	 * @throws PatriusException If an error occurs during the propagation or coordinate transformation.
+	 */
+	default void propagate(Orbit iniOrbit, double duration, SamplingPolicy policy, TrajectoryBuffer trajectory)
+			throws PatriusException {
+		propagate(iniOrbit, policy.sampleTimes(iniOrbit, duration), trajectory);
+	}
+}
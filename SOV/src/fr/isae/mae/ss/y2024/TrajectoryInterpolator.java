@@ -0,0 +1,131 @@
+package fr.isae.mae.ss.y2024;
+
+/**
+ * The TrajectoryInterpolator evaluates an already computed trajectory at an arbitrary time
+ * offset, so that a satellite can be moved every frame without running any propagator. The
+ * Cartesian positions of the samples surrounding the requested time are interpolated with a
+ * Lagrange polynomial (cubic by default) and converted to geodetic coordinates; buffers
+ * without Cartesian positions are interpolated linearly in geodetic coordinates.
+ * <p>
+ * The interval found by the last call is kept as a hint: during playback the next time falls
+ * in the same or the following interval, so the lookup usually costs a comparison or two.
+ * Other times, such as the ones given by scrubbing the timeline, are found by a binary search
+ * of the time offsets, so every lookup takes logarithmic time at worst. An interpolator keeps
+ * state and must only be used by one thread.
+ */
+public class TrajectoryInterpolator {
+
+    /** Default number of samples of the interpolation stencil (cubic interpolation). */
+    public static final int DEFAULT_POINTS = 4;
+
+    /** Number of samples used by each interpolation. */
+    private final int points;
+
+    /** Index of the sample starting the interval found by the last lookup. */
+    private int cursor;
+
+	/**
+	 * Constructs a cubic interpolator.
+	 */
+	public TrajectoryInterpolator() {
+		this(DEFAULT_POINTS);
+	}
+
+	/**
+	 * Constructs an interpolator.
+	 *
+	 * @param points The number of samples used by each interpolation (2 for linear interpolation).
+	 */
+	public TrajectoryInterpolator(int points) {
+		if (points < 2) {
+			throw new IllegalArgumentException("Invalid interpolation points: " + points);
+		}
+		this.points = points;
+	}
+
+	/**
+	 * Interpolates a trajectory. Times outside of the sampled span are clamped to its ends.
+	 *
+	 * @param trajectory The trajectory to interpolate, with at least one sample.
+	 * @param t          The time offset from the orbit epoch, in seconds.
+	 * @param lla        The array receiving the latitude and the longitude, in radians, and the
+	 *                   altitude, in meters.
+	 */
+	public void interpolate(TrajectoryBuffer trajectory, double t, double[] lla) {
+		final int size = trajectory.size();
+		if (size == 1 || t <= trajectory.getTime(0)) {
+			copySample(trajectory, 0, lla);
+			return;
+		}
+		if (t >= trajectory.getTime(size - 1)) {
+			copySample(trajectory, size - 1, lla);
+			return;
+		}
+
+		final int k = locate(trajectory, t);
+		final int n = Math.min(points, size);
+		// Center the stencil on the interval [k, k + 1] as far as the ends allow
+		final int first = Math.max(0, Math.min(k - (n - 2) / 2, size - n));
+
+		if (trajectory.hasCartesian() && !Double.isNaN(trajectory.getX(first))
+				&& !Double.isNaN(trajectory.getX(first + n - 1))) {
+			double x = 0;
+			double y = 0;
+			double z = 0;
+			for (int j = first; j < first + n; j++) {
+				double weight = 1;
+				final double tj = trajectory.getTime(j);
+				for (int m = first; m < first + n; m++) {
+					if (m != j) {
+						final double tm = trajectory.getTime(m);
+						weight *= (t - tm) / (tj - tm);
+					}
+				}
+				x += weight * trajectory.getX(j);
+				y += weight * trajectory.getY(j);
+				z += weight * trajectory.getZ(j);
+			}
+			GeodeticConverter.getWgs84().toGeodetic(x, y, z, lla);
+		} else {
+			final double t0 = trajectory.getTime(k);
+			final double ratio = (t - t0) / (trajectory.getTime(k + 1) - t0);
+			final double lat0 = trajectory.getLatitude(k);
+			final double lon0 = trajectory.getLongitude(k);
+			final double alt0 = trajectory.getAltitude(k);
+			final double dLon = Math.IEEEremainder(trajectory.getLongitude(k + 1) - lon0, 2 * Math.PI);
+			lla[0] = lat0 + ratio * (trajectory.getLatitude(k + 1) - lat0);
+			lla[1] = Math.IEEEremainder(lon0 + ratio * dLon, 2 * Math.PI);
+			lla[2] = alt0 + ratio * (trajectory.getAltitude(k + 1) - alt0);
+		}
+	}
+
+	/**
+	 * Returns the index k such that time(k) &lt;= t &lt; time(k + 1). The hinted interval and the
+	 * following one are tried first; any other time, such as a jump of the timeline, is found by
+	 * binary search. The time must be strictly inside the sampled span.
+	 */
+	int locate(TrajectoryBuffer trajectory, double t) {
+		final int last = trajectory.size() - 2;
+		int k = cursor;
+		if (k < 0 || k > last || trajectory.getTime(k) > t) {
+			k = trajectory.findInterval(t);
+		} else if (trajectory.getTime(k + 1) <= t) {
+			k = k < last && trajectory.getTime(k + 2) > t ? k + 1 : trajectory.findInterval(t);
+		}
+		cursor = k;
+		return k;
+	}
+
+	private static void copySample(TrajectoryBuffer trajectory, int k, double[] lla) {
+		lla[0] = trajectory.getLatitude(k);
+		lla[1] = trajectory.getLongitude(k);
+		lla[2] = trajectory.getAltitude(k);
+	}
+
+	/**
+	 * @return The index of the interval found by the last lookup.
+	 */
+	public int getCursor() {
+		return cursor;
+	}
+}
@@ -0,0 +1,72 @@
+package fr.isae.mae.ss.y2024;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import gov.nasa.worldwind.geom.Position;
+
+/**
+ * The TrajectoryPositionView exposes a {@link TrajectoryBuffer} as the {@code Iterable<Position>}
+ * expected by WorldWind shapes without copying it: positions are built while iterating, straight
+ * from the primitive arrays. The view follows the buffer, so a shape must be told to re-read its
+ * positions after the buffer has been refilled.
+ */
+public class TrajectoryPositionView implements Iterable<Position> {
+
+    /** The viewed trajectory. */
+    private final TrajectoryBuffer trajectory;
+
+	/**
+	 * Constructs a view over a trajectory buffer.
+	 *
+	 * @param trajectory The trajectory buffer to expose.
+	 */
+	public TrajectoryPositionView(TrajectoryBuffer trajectory) {
+		this.trajectory = trajectory;
+	}
+
+	/**
+	 * Returns the position of one sample.
+	 *
+	 * @param k The sample index.
+	 * @return The WorldWind position of the sample.
+	 */
+	public Position get(int k) {
+		return Position.fromRadians(trajectory.getLatitude(k), trajectory.getLongitude(k), trajectory.getAltitude(k));
+	}
+
+	/**
+	 * @return The number of positions.
+	 */
+	public int size() {
+		return trajectory.size();
+	}
+
+	/**
+	 * @return The modification count of the viewed buffer.
+	 * @see TrajectoryBuffer#getModificationCount()
+	 */
+	public int getModificationCount() {
+		return trajectory.getModificationCount();
+	}
+
+	@Override
+	public Iterator<Position> iterator() {
+		return new Iterator<Position>() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < trajectory.size();
+			}
+
+			@Override
+			public Position next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return get(next++);
+			}
+		};
+	}
+}
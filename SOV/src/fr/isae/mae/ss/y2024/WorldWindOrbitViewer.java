@@ -32,30 +32,35 @@ import java.awt.Component;
 import java.awt.Point;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.logging.Level;
+
 import javax.swing.AbstractAction;
 import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
 
-import fr.cnes.sirius.patrius.frames.FramesFactory;
 import fr.cnes.sirius.patrius.orbits.PositionAngle;
 import fr.cnes.sirius.patrius.time.AbsoluteDate;
 import fr.cnes.sirius.patrius.utils.Constants;
 import fr.cnes.sirius.patrius.utils.exception.PatriusException;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.event.RenderingEvent;
+import gov.nasa.worldwind.event.RenderingListener;
 import gov.nasa.worldwind.event.SelectEvent;
 import gov.nasa.worldwind.event.SelectListener;
 import gov.nasa.worldwind.geom.Line;
 import gov.nasa.worldwind.geom.Position;
-import gov.nasa.worldwind.geom.Vec4;
-import gov.nasa.worldwind.globes.Globe;
 import gov.nasa.worldwind.layers.RenderableLayer;
 import gov.nasa.worldwind.render.Box;
 import gov.nasa.worldwind.render.Path;
 import gov.nasa.worldwind.view.orbit.BasicOrbitView;
 import gov.nasa.worldwindx.applications.worldwindow.util.Util;
 import gov.nasa.worldwindx.examples.ApplicationTemplate;
+import gov.nasa.worldwindx.examples.util.ToolTipController;
 
 /**
  * This is a satellite orbit viewer that utilizes worldwind and patrius
@@ -64,6 +69,9 @@ import gov.nasa.worldwindx.examples.ApplicationTemplate;
  */
 public class WorldWindOrbitViewer extends ApplicationTemplate {
 
+	/** System property naming a TLE or OMM catalog file loaded into the constellation layer. */
+	public static final String CATALOG_PROPERTY = "sov.catalog";
+
 	/**
 	 * Represents a context menu for interacting with satellite objects.
 	 */
@@ -180,6 +188,9 @@ public class WorldWindOrbitViewer extends ApplicationTemplate {
 	protected static class ContextMenuController implements SelectListener {
 		private final WorldWindow ww;
 
+		/** Finds the position of a path under the cursor, for clicks and hovers alike. */
+		private final PathPickingService pickingService = new PathPickingService();
+
 		public ContextMenuController(WorldWindow ww) {
 			this.ww = ww;
 		}
@@ -190,6 +201,8 @@ public class WorldWindOrbitViewer extends ApplicationTemplate {
 				if (event.getEventAction().equals(SelectEvent.LEFT_CLICK)) // Could do RIGHT_CLICK instead
 				{
 					showContextMenu(event);
+				} else if (event.getEventAction().equals(SelectEvent.ROLLOVER) && event.getTopObject() instanceof Path) {
+					showPathTooltip(event, (Path) event.getTopObject());
 				}
 			} catch (Exception e) {
 				Util.getLogger().warning(e.getMessage() != null ? e.getMessage() : e.toString());
@@ -254,26 +267,73 @@ public class WorldWindOrbitViewer extends ApplicationTemplate {
 			Line pickRay = this.ww.getView().computeRayFromScreenPoint(event.getPickPoint().getX(),
 					event.getPickPoint().getY());
 
-			Globe globe = this.ww.getModel().getGlobe();
-			Iterable<? extends Position> positions = path.getPositions();
+			return pickingService.pick(path, pickRay, this.ww.getModel().getGlobe());
+		}
 
-			Position closestPosition = null;
-			double closestDistance = Double.MAX_VALUE;
+		/**
+		 * Sets the tooltip of a hovered path to the position under the cursor.
+		 *
+		 * @param event the rollover event.
+		 * @param path  the Path under the cursor.
+		 */
+		protected void showPathTooltip(SelectEvent event, Path path) {
+			Position position = getClickedPositionOnPath(event, path);
+			path.setValue(AVKey.ROLLOVER_TEXT, position == null ? null
+					: String.format("%s, %s, %.0f m", position.getLatitude(), position.getLongitude(),
+							position.getAltitude()));
+		}
+	}
 
-			for (Position position : positions) {
-				Vec4 pathPoint = globe.computePointFromPosition(position);
-				Vec4 intersectionPoint = pickRay.nearestPointTo(pathPoint);
+	/**
+	 * The ConstellationSelectController shows or hides the orbit path of the catalog object clicked
+	 * on the globe. Clicks on paths and satellites are left to the {@link ContextMenuController}.
+	 */
+	protected static class ConstellationSelectController implements SelectListener {
+		private final WorldWindow ww;
+		private final ConstellationLayer layer;
 
-				double distance = pathPoint.distanceTo3(intersectionPoint);
+		public ConstellationSelectController(WorldWindow ww, ConstellationLayer layer) {
+			this.ww = ww;
+			this.layer = layer;
+		}
 
-				if (distance < closestDistance) {
-					closestDistance = distance;
-					closestPosition = position;
-				}
+		@Override
+		public void selected(SelectEvent event) {
+			if (!event.getEventAction().equals(SelectEvent.LEFT_CLICK) || event.getPickPoint() == null
+					|| event.getTopObject() instanceof Path || event.getTopObject() instanceof Box) {
+				return;
+			}
+			Line pickRay = this.ww.getView().computeRayFromScreenPoint(event.getPickPoint().getX(),
+					event.getPickPoint().getY());
+			int k = layer.pick(pickRay, this.ww.getModel().getGlobe());
+			if (k < 0) {
+				return;
+			}
+			try {
+				layer.toggleSelection(k);
+			} catch (PatriusException e) {
+				Util.getLogger().warning("Cannot show the orbit of " + layer.getConstellation().getName(k) + ": "
+						+ e.getMessage());
 			}
+			this.ww.redraw();
+		}
+	}
+
+	/**
+	 * Measures every WorldWind frame, from the start of its rendering to the buffer swap, as the
+	 * redraw stage of the {@link OrbitPipelineMetrics}.
+	 */
+	protected static class RedrawTimer implements RenderingListener {
+		private OrbitPipelineMetrics.Measurement frame;
 
-			// Return the closest position if it is within a reasonable threshold
-			return closestDistance < 1e5 ? closestPosition : null;
+		@Override
+		public void stageChanged(RenderingEvent event) {
+			if (RenderingEvent.BEFORE_RENDERING.equals(event.getStage())) {
+				frame = OrbitPipelineMetrics.getShared().start(OrbitPipelineMetrics.Stage.REDRAW, 0, false);
+			} else if (RenderingEvent.AFTER_BUFFER_SWAP.equals(event.getStage()) && frame != null) {
+				frame.stop(0, 0);
+				frame = null;
+			}
 		}
 	}
 
@@ -302,6 +362,10 @@ public class WorldWindOrbitViewer extends ApplicationTemplate {
 
 			// Initialize slider groups and layers
 			OrbitSidePanel orbitSidePanel = new OrbitSidePanel();
+			OrbitUpdateScheduler updateScheduler = new OrbitUpdateScheduler();
+			OrbitalContext context = OrbitalContext.getInstance();
+			SimulationClock clock = new SimulationClock(new AbsoluteDate());
+			SatelliteAnimator animator = new SatelliteAnimator(clock, getWwd());
 
 			this.getWwd().setView(new CustomOrbitView());
 			RenderableLayer issLayer = new RenderableLayer();
@@ -309,7 +373,7 @@ public class WorldWindOrbitViewer extends ApplicationTemplate {
 
 			CustomOrbit ISS = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 415e3, 0.0005931,
 					Math.toRadians(51.6403), Math.toRadians(28.9604), Math.toRadians(57.3420), Math.toRadians(122.7049),
-					PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "ISS");
+					PositionAngle.MEAN, context.getGcrf(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "ISS");
 			this.getWwd().getModel().getLayers().add(issLayer);
 			insertBeforeCompass(getWwd(), issLayer);
 
@@ -318,24 +382,48 @@ public class WorldWindOrbitViewer extends ApplicationTemplate {
 
 			CustomOrbit nileSat = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 35786.5e3, 0.0004911,
 					Math.toRadians(0.0440), Math.toRadians(310.3249), Math.toRadians(359.1397),
-					Math.toRadians(300.3377), PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(),
+					Math.toRadians(300.3377), PositionAngle.MEAN, context.getGcrf(), new AbsoluteDate(),
 					Constants.WGS84_EARTH_MU, "NileSat");
 			this.getWwd().getModel().getLayers().add(nilesatLayer);
 			insertBeforeCompass(getWwd(), nilesatLayer);
 
+			// Catalog objects are drawn as one batch of points, not as CustomOrbit shapes
+			Constellation constellation = new Constellation();
+			ConstellationLayer constellationLayer = new ConstellationLayer(constellation);
+			insertBeforeCompass(getWwd(), constellationLayer);
+			ConstellationAnimator constellationAnimator = new ConstellationAnimator(constellation, clock, getWwd());
+			String catalog = System.getProperty(CATALOG_PROPERTY);
+			if (catalog != null) {
+				loadCatalog(Paths.get(catalog), constellation);
+			}
+
+			// Performance overlay, hidden until toggled from the side panel
+			PerformanceHudLayer hudLayer = new PerformanceHudLayer(animator, updateScheduler, constellation);
+			hudLayer.setEnabled(false);
+			insertBeforeCompass(getWwd(), hudLayer);
+			orbitSidePanel.setHudButtonListener(() -> {
+				hudLayer.setEnabled(true);
+				this.getWwd().redraw();
+			}, () -> {
+				hudLayer.setEnabled(false);
+				this.getWwd().redraw();
+			});
+
 			orbitSidePanel.setIssButtonListener(() -> {
-				issLayer.addRenderable(ISS.getPath());
-				issLayer.addRenderable(ISS.getSatellite());
+				ISS.attachTo(issLayer);
+				animator.track(ISS);
 				this.getWwd().redraw();
 			}, () -> {
+				animator.untrack(ISS);
 				issLayer.removeAllRenderables();
 			});
 
 			orbitSidePanel.setNilesatButtonListener(() -> {
-				nilesatLayer.addRenderable(nileSat.getPath());
-				nilesatLayer.addRenderable(nileSat.getSatellite());
+				nileSat.attachTo(nilesatLayer);
+				animator.track(nileSat);
 				this.getWwd().redraw();
 			}, () -> {
+				animator.untrack(nileSat);
 				nilesatLayer.removeAllRenderables();
 				this.getWwd().redraw();
 			});
@@ -359,15 +447,22 @@ public class WorldWindOrbitViewer extends ApplicationTemplate {
 						newGroup.getSliderEValue(), Math.toRadians(newGroup.getSliderIValue()),
 						Math.toRadians(newGroup.getSliderOmegaValue()),
 						Math.toRadians(newGroup.getSliderUpperOmegaValue()), Math.toRadians(newGroup.getSliderVValue()),
-						PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU,
+						PositionAngle.MEAN, context.getGcrf(), new AbsoluteDate(), Constants.WGS84_EARTH_MU,
 						"Group " + groupId);
 
-				// Create a runnable to update the orbit and link to slider listeners
-				Runnable updateOrbitRunnable = newOrbit.createUpdateRunnable(newGroup, newLayer, getWwd());
+				// Show the orbit right away; updates then only move its renderables
+				newOrbit.attachTo(newLayer);
+				animator.track(newOrbit);
+
+				// Create a runnable to update the orbit in the background and link to slider listeners
+				Runnable updateOrbitRunnable = newOrbit.createScheduledUpdateRunnable(newGroup, newLayer, getWwd(),
+						updateScheduler);
 				addRunnables(newGroup, updateOrbitRunnable);
 
 				// Add delete functionality
 				newGroup.addDeleteButtonListener(event -> {
+					updateScheduler.remove(newOrbit);
+					animator.untrack(newOrbit);
 					orbitSidePanel.removeGroup(newGroup);
 					newLayer.removeAllRenderables();
 					this.getWwd().getModel().getLayers().remove(newLayer);
@@ -378,9 +473,46 @@ public class WorldWindOrbitViewer extends ApplicationTemplate {
 			});
 
 			this.getContentPane().add(orbitSidePanel, BorderLayout.WEST);
+			// Scrubs the visible satellites within their propagated ephemerides
+			this.getContentPane().add(new TimelinePanel(animator), BorderLayout.SOUTH);
 
 			ContextMenuController contextMenuController = new ContextMenuController(this.getWwd());
 			getWwd().addSelectListener(contextMenuController);
+			// Clicking a catalog object shows its orbit, clicking it again hides it
+			getWwd().addSelectListener(new ConstellationSelectController(getWwd(), constellationLayer));
+			// Shows the position under the cursor set by the context menu controller on hovered paths
+			new ToolTipController(getWwd(), AVKey.ROLLOVER_TEXT, null);
+			getWwd().addRenderingListener(new RedrawTimer());
+
+			// Satellites move in real time from the epoch of the orbits
+			clock.play();
+			animator.start();
+			constellationAnimator.start();
+		}
+
+		/**
+		 * Streams a catalog file into the constellation on a background thread. The objects are
+		 * shown by the constellation animator as they are added.
+		 */
+		private void loadCatalog(java.nio.file.Path file, Constellation constellation) {
+			Thread loader = new Thread(() -> {
+				try (CatalogReader reader = CatalogReader.open(file)) {
+					long start = System.nanoTime();
+					int count = reader.readAll(object -> {
+						try {
+							constellation.add(object);
+						} catch (PatriusException ex) {
+							Util.getLogger().warning("Skipping " + object + ": " + ex.getMessage());
+						}
+					});
+					Util.getLogger().info(String.format("Loaded %d catalog objects from %s in %.1f s, skipped %d",
+							count, file, (System.nanoTime() - start) / 1e9, reader.getSkippedCount()));
+				} catch (IOException ex) {
+					Util.getLogger().log(Level.WARNING, "Cannot load catalog " + file, ex);
+				}
+			}, "catalog-loader");
+			loader.setDaemon(true);
+			loader.start();
 		}
 
 		private void addRunnables(SliderGroup group, Runnable runnable) {
@@ -404,6 +536,8 @@ public class WorldWindOrbitViewer extends ApplicationTemplate {
 		System.setProperty("prism.allowhidpi", "false");
 		System.setProperty("jogamp.gluegen.system.dont.use.native.awt", "false");
 		WorldWind.setOfflineMode(true);
+		// Load the Patrius data while WorldWind and JOGL start up
+		OrbitalContext.startWarmUp();
 		ApplicationTemplate.start("Moon Orbit Viewer", AppFrame.class);
 	}
 }
\ No newline at end of file
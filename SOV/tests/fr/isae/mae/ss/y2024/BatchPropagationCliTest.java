@@ -0,0 +1,116 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchPropagationCliTest {
+
+	private static final String CATALOG = "ISS (ZARYA)\n"
+			+ "1 25544U 98067A   08264.51782528 -.00002182  00000-0 -11606-4 0  2927\n"
+			+ "2 25544  51.6416 247.4627 0006703 130.5360 325.0288 15.72125391563537\n";
+
+	private Path directory;
+	private Path catalog;
+	private ByteArrayOutputStream stdout;
+	private ByteArrayOutputStream stderr;
+
+	@Before
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("batch");
+		catalog = directory.resolve("catalog.tle");
+		Files.write(catalog, (CATALOG + CATALOG.replace("ISS (ZARYA)", "ISS, again")).getBytes(StandardCharsets.US_ASCII));
+		stdout = new ByteArrayOutputStream();
+		stderr = new ByteArrayOutputStream();
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	private int run(String... args) {
+		return BatchPropagationCli.run(args, stdout, new PrintStream(stderr, true));
+	}
+
+	@Test
+	public void testCsvToStandardOutput() {
+		// Description: Every sample of every object is written as a CSV row in catalog order,
+		// and the throughput is reported on the standard error.
+		assertEquals(BatchPropagationCli.EXIT_SUCCESS, run("--count", "10", "--threads", "2", catalog.toString()));
+
+		String[] lines = new String(stdout.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals(21, lines.length);
+		assertTrue(lines[0].startsWith("catalog_number,name,time_s"));
+		assertTrue(lines[1].startsWith("25544,ISS (ZARYA),0.0,"));
+		assertTrue(lines[11].startsWith("25544,\"ISS, again\",0.0,"));
+		assertEquals(9, lines[1].split(",").length);
+		assertTrue(new String(stderr.toByteArray(), StandardCharsets.UTF_8).contains("objects/s"));
+	}
+
+	@Test
+	public void testBinaryToDirectory() throws IOException {
+		// Description: In binary format, a directory receives one ephemeris file per object,
+		// spanning the requested window.
+		Path output = Files.createDirectory(directory.resolve("out"));
+		try {
+			assertEquals(BatchPropagationCli.EXIT_SUCCESS, run("--engine", "kepler", "--duration", "600", "--step",
+					"60", "--format", "binary", "--output", output.toString(), catalog.toString()));
+
+			EphemerisFile ephemeris = EphemerisFile.open(output.resolve("25544.sove"));
+			assertEquals(11, ephemeris.size());
+			assertEquals(600, ephemeris.getTime(10), 1e-6);
+			assertEquals(PropagationWindow.duration(600), ephemeris.getPropagationWindow());
+			assertEquals(SamplingPolicy.fixedStep(60.), ephemeris.getSamplingPolicy());
+		} finally {
+			Files.deleteIfExists(output.resolve("25544.sove"));
+			Files.delete(output);
+		}
+	}
+
+	@Test
+	public void testBinaryToStandardOutput() throws IOException {
+		// Description: Binary ephemerides written to the standard output follow each other,
+		// each one being a complete ephemeris file.
+		assertEquals(BatchPropagationCli.EXIT_SUCCESS,
+				run("--count", "10", "--format", "binary", catalog.toString()));
+
+		Path single = directory.resolve("single.sove");
+		assertEquals(BatchPropagationCli.EXIT_SUCCESS, BatchPropagationCli.run(new String[] { "--count", "10",
+				"--format", "binary", "--output", single.toString(), catalog.toString() }, new ByteArrayOutputStream(),
+				new PrintStream(new ByteArrayOutputStream())));
+		byte[] bytes = stdout.toByteArray();
+		byte[] file = Files.readAllBytes(single);
+		assertArrayEquals(file, bytes);
+		assertEquals(0, bytes.length % 2);
+		assertArrayEquals(Arrays.copyOf(bytes, 4), Arrays.copyOfRange(bytes, bytes.length / 2, bytes.length / 2 + 4));
+		assertEquals(10, EphemerisFile.open(single).size());
+	}
+
+	@Test
+	public void testInvalidArguments() {
+		// Description: Invalid arguments print the usage and return the usage status.
+		assertEquals(BatchPropagationCli.EXIT_USAGE, run("--count"));
+		assertEquals(BatchPropagationCli.EXIT_USAGE, run("--threads", "0", catalog.toString()));
+		assertEquals(BatchPropagationCli.EXIT_USAGE, run("--output", directory.toString(), catalog.toString()));
+		assertEquals(BatchPropagationCli.EXIT_USAGE, run("--format", "xml", catalog.toString()));
+		assertTrue(new String(stderr.toByteArray(), StandardCharsets.UTF_8).contains("Usage"));
+		assertEquals(0, stdout.size());
+	}
+}
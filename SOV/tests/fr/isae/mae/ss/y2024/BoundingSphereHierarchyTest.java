@@ -0,0 +1,121 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BoundingSphereHierarchyTest {
+
+	/**
+	 * Finds the vertex closest to a ray by checking all of them.
+	 */
+	private static int bruteForce(double[] x, double[] y, double[] z, int count, double[] ray, double maxDistance) {
+		double norm = Math.sqrt(ray[3] * ray[3] + ray[4] * ray[4] + ray[5] * ray[5]);
+		int best = -1;
+		double bestDistance = maxDistance;
+		for (int k = 0; k < count; k++) {
+			double wx = x[k] - ray[0];
+			double wy = y[k] - ray[1];
+			double wz = z[k] - ray[2];
+			double t = Math.max(0, (wx * ray[3] + wy * ray[4] + wz * ray[5]) / norm);
+			double ex = wx - t * ray[3] / norm;
+			double ey = wy - t * ray[4] / norm;
+			double ez = wz - t * ray[5] / norm;
+			double distance = Math.sqrt(ex * ex + ey * ey + ez * ez);
+			if (distance < bestDistance) {
+				bestDistance = distance;
+				best = k;
+			}
+		}
+		return best;
+	}
+
+	@Test
+	public void testMatchesBruteForceOnOrbit() {
+		// Description: Rays through the vicinity of a circular orbit pick the same vertex as a full scan.
+		Random random = new Random(42);
+		int count = 1000;
+		double[] x = new double[count];
+		double[] y = new double[count];
+		double[] z = new double[count];
+		for (int k = 0; k < count; k++) {
+			double angle = 2 * Math.PI * k / count;
+			x[k] = 7e6 * Math.cos(angle);
+			y[k] = 7e6 * Math.sin(angle) * Math.cos(0.9);
+			z[k] = 7e6 * Math.sin(angle) * Math.sin(0.9);
+		}
+		BoundingSphereHierarchy hierarchy = new BoundingSphereHierarchy(x, y, z, count);
+		assertEquals(count, hierarchy.size());
+
+		for (int i = 0; i < 200; i++) {
+			int target = random.nextInt(count);
+			double tx = x[target] + 5e4 * random.nextGaussian();
+			double ty = y[target] + 5e4 * random.nextGaussian();
+			double tz = z[target] + 5e4 * random.nextGaussian();
+			double[] ray = { 3 * tx, 3 * ty + 1e6, 3 * tz, -2 * tx, -2 * ty - 1e6, -2 * tz };
+
+			assertEquals(bruteForce(x, y, z, count, ray, 1e5),
+					hierarchy.findNearest(ray[0], ray[1], ray[2], ray[3], ray[4], ray[5], 1e5));
+		}
+	}
+
+	@Test
+	public void testMatchesBruteForceOnRandomCloud() {
+		// Description: Scattered vertices, which the tree bounds loosely, are still searched exactly.
+		Random random = new Random(7);
+		int count = 517;
+		double[] x = new double[count];
+		double[] y = new double[count];
+		double[] z = new double[count];
+		for (int k = 0; k < count; k++) {
+			x[k] = random.nextDouble();
+			y[k] = random.nextDouble();
+			z[k] = random.nextDouble();
+		}
+		BoundingSphereHierarchy hierarchy = new BoundingSphereHierarchy(x, y, z, count);
+
+		for (int i = 0; i < 200; i++) {
+			double[] ray = { random.nextDouble(), random.nextDouble(), random.nextDouble(), random.nextGaussian(),
+					random.nextGaussian(), random.nextGaussian() };
+			assertEquals(bruteForce(x, y, z, count, ray, 0.05),
+					hierarchy.findNearest(ray[0], ray[1], ray[2], ray[3], ray[4], ray[5], 0.05));
+		}
+	}
+
+	@Test
+	public void testMaxDistanceAndEmpty() {
+		// Description: Vertices farther than the maximum distance, or behind the ray, are not picked.
+		double[] x = { 0, 10, 20 };
+		double[] y = { 5, 5, 5 };
+		double[] z = { 0, 0, 0 };
+		BoundingSphereHierarchy hierarchy = new BoundingSphereHierarchy(x, y, z, 3);
+
+		assertEquals(1, hierarchy.findNearest(10, 0, 0, 0, 1, 0, 1));
+		assertEquals(-1, hierarchy.findNearest(10, 0, 0, 0, -1, 0, 1));
+		assertEquals(-1, hierarchy.findNearest(15, 0, 0, 0, 1, 0, 4));
+
+		BoundingSphereHierarchy empty = new BoundingSphereHierarchy(x, y, z, 0);
+		assertEquals(0, empty.size());
+		assertEquals(-1, empty.findNearest(0, 0, 0, 0, 1, 0, 100));
+	}
+
+	@Test
+	public void testNodeCount() {
+		// Description: The tree splits long runs of vertices down to small leaves.
+		for (int count = 1; count < 300; count++) {
+			double[] coordinates = new double[count];
+			BoundingSphereHierarchy hierarchy = new BoundingSphereHierarchy(coordinates, coordinates, coordinates,
+					count);
+			assertTrue(hierarchy.getNodeCount() >= 1);
+			assertTrue(hierarchy.getNodeCount() < Math.max(2, count));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsInvalidCount() {
+		// Description: The vertex count cannot exceed the coordinate arrays.
+		new BoundingSphereHierarchy(new double[2], new double[2], new double[2], 3);
+	}
+}
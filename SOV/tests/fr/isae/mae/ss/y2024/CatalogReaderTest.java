@@ -0,0 +1,187 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+public class CatalogReaderTest {
+
+	private static final String ISS_LINE1 = "1 25544U 98067A   08264.51782528 -.00002182  00000-0 -11606-4 0  2927";
+	private static final String ISS_LINE2 = "2 25544  51.6416 247.4627 0006703 130.5360 325.0288 15.72125391563537";
+
+	/** The same element set as an OMM, with the keywords shared by the KVN and XML notations. */
+	private static final String[][] ISS_OMM = { { "OBJECT_NAME", "ISS (ZARYA)" }, { "OBJECT_ID", "1998-067A" },
+			{ "EPOCH", "2008-09-20T12:25:40.104192" }, { "MEAN_MOTION", "15.72125391" },
+			{ "ECCENTRICITY", ".0006703" }, { "INCLINATION", "51.6416" }, { "RA_OF_ASC_NODE", "247.4627" },
+			{ "ARG_OF_PERICENTER", "130.5360" }, { "MEAN_ANOMALY", "325.0288" }, { "EPHEMERIS_TYPE", "0" },
+			{ "CLASSIFICATION_TYPE", "U" }, { "NORAD_CAT_ID", "25544" }, { "ELEMENT_SET_NO", "292" },
+			{ "REV_AT_EPOCH", "56353" }, { "BSTAR", "-.11606E-4" }, { "MEAN_MOTION_DOT", "-.00002182" },
+			{ "MEAN_MOTION_DDOT", "0" } };
+
+	@Test
+	public void testTleFormats() throws IOException, PatriusException {
+		// Description: Reads the same element set in two-line, three-line and Space-Track
+		// three-line format, with blank lines in between.
+		String catalog = ISS_LINE1 + "\n" + ISS_LINE2 + "\n\n"
+				+ "ISS (ZARYA)\n" + ISS_LINE1 + "\n" + ISS_LINE2 + "\n"
+				+ "0 ISS (ZARYA)   \n" + ISS_LINE1 + "\n" + ISS_LINE2 + "\n";
+		List<CatalogObject> objects = readAll(new TleCatalogReader(new StringReader(catalog)));
+
+		assertEquals(3, objects.size());
+		assertEquals("25544", objects.get(0).getName());
+		assertEquals("ISS (ZARYA)", objects.get(1).getName());
+		assertEquals("ISS (ZARYA)", objects.get(2).getName());
+		for (CatalogObject object : objects) {
+			assertEquals(25544, object.getCatalogNumber());
+		}
+	}
+
+	@Test(expected = CatalogReader.MalformedRecordException.class)
+	public void testTruncatedTle() throws IOException, PatriusException {
+		// Description: A name line followed by a single element line is reported by next().
+		try (CatalogReader reader = new TleCatalogReader(new StringReader("ISS (ZARYA)\n" + ISS_LINE1 + "\n"))) {
+			reader.next();
+		}
+	}
+
+	@Test
+	public void testMalformedTleIsSkipped() throws IOException, PatriusException {
+		// Description: Reads a truncated element set followed by two valid ones and checks that
+		// only the truncated one is skipped, the name line after it starting the next object.
+		String catalog = "BROKEN\n" + ISS_LINE1 + "\n"
+				+ "ISS (ZARYA)\n" + ISS_LINE1 + "\n" + ISS_LINE2 + "\n"
+				+ ISS_LINE1 + "\n" + ISS_LINE2 + "\n"
+				+ "1 25544U 98067A   08264.5178252X -.00002182  00000-0 -11606-4 0  2927\n" + ISS_LINE2 + "\n";
+		CatalogReader reader = new TleCatalogReader(new StringReader(catalog));
+		List<CatalogObject> objects = readAll(reader);
+
+		assertEquals(2, objects.size());
+		assertEquals("ISS (ZARYA)", objects.get(0).getName());
+		assertEquals("25544", objects.get(1).getName());
+		assertEquals(2, reader.getSkippedCount());
+	}
+
+	@Test
+	public void testOmmKvnMatchesTle() throws IOException, PatriusException {
+		// Description: Reads two concatenated KVN messages and checks that their elements match
+		// the two-line element set they were written from.
+		String message = kvnMessage(null);
+		List<CatalogObject> objects = readAll(new OmmKvnCatalogReader(new StringReader(message + message)));
+
+		assertEquals(2, objects.size());
+		for (CatalogObject object : objects) {
+			assertEquals("ISS (ZARYA)", object.getName());
+			assertSameElements(new TLE(ISS_LINE1, ISS_LINE2), object.getTle());
+		}
+	}
+
+	@Test
+	public void testMalformedOmmKvnIsSkipped() throws IOException, PatriusException {
+		// Description: Reads a KVN message without mean motion between two valid ones and checks
+		// that only the incomplete one is skipped.
+		CatalogReader reader = new OmmKvnCatalogReader(
+				new StringReader(kvnMessage(null) + kvnMessage("MEAN_MOTION") + kvnMessage(null)));
+		List<CatalogObject> objects = readAll(reader);
+
+		assertEquals(2, objects.size());
+		assertEquals(1, reader.getSkippedCount());
+		for (CatalogObject object : objects) {
+			assertSameElements(new TLE(ISS_LINE1, ISS_LINE2), object.getTle());
+		}
+	}
+
+	@Test
+	public void testOmmXmlMatchesTle() throws IOException, PatriusException {
+		// Description: Streams the messages of an NDM/XML document and checks that their elements
+		// match the two-line element set they were written from.
+		StringBuilder omm = new StringBuilder("<omm id=\"CCSDS_OMM_VERS\" version=\"2.0\"><header/><body><segment>"
+				+ "<metadata><OBJECT_NAME>ISS (ZARYA)</OBJECT_NAME><OBJECT_ID>1998-067A</OBJECT_ID></metadata>"
+				+ "<data><meanElements>\n");
+		for (String[] field : ISS_OMM) {
+			if (!field[0].startsWith("OBJECT_")) {
+				omm.append("  <").append(field[0]).append('>').append(field[1]).append("</").append(field[0])
+						.append(">\n");
+			}
+		}
+		omm.append("</meanElements></data></segment></body></omm>\n");
+		String document = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<ndm>\n" + omm + omm + omm + "</ndm>\n";
+		List<CatalogObject> objects = readAll(
+				new OmmXmlCatalogReader(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8))));
+
+		assertEquals(3, objects.size());
+		for (CatalogObject object : objects) {
+			assertEquals("ISS (ZARYA)", object.getName());
+			assertSameElements(new TLE(ISS_LINE1, ISS_LINE2), object.getTle());
+		}
+	}
+
+	@Test
+	public void testMalformedOmmXmlIsSkipped() throws IOException, PatriusException {
+		// Description: Streams an XML message with a non-numeric eccentricity between two valid
+		// ones and checks that only the malformed one is skipped.
+		String valid = "<omm><NORAD_CAT_ID>25544</NORAD_CAT_ID><EPOCH>2008-09-20T12:25:40.104192</EPOCH>"
+				+ "<MEAN_MOTION>15.72125391</MEAN_MOTION><ECCENTRICITY>.0006703</ECCENTRICITY>"
+				+ "<INCLINATION>51.6416</INCLINATION><RA_OF_ASC_NODE>247.4627</RA_OF_ASC_NODE>"
+				+ "<ARG_OF_PERICENTER>130.5360</ARG_OF_PERICENTER><MEAN_ANOMALY>325.0288</MEAN_ANOMALY></omm>\n";
+		String malformed = valid.replace(".0006703", "small");
+		String document = "<ndm>\n" + valid + malformed + valid + "</ndm>\n";
+		CatalogReader reader = new OmmXmlCatalogReader(
+				new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+		List<CatalogObject> objects = readAll(reader);
+
+		assertEquals(2, objects.size());
+		assertEquals(1, reader.getSkippedCount());
+	}
+
+	/**
+	 * Writes the ISS element set as a KVN message, optionally without one of its fields.
+	 */
+	private static String kvnMessage(String missingKey) {
+		StringBuilder message = new StringBuilder();
+		message.append("CCSDS_OMM_VERS = 2.0\nCOMMENT Generated for the test\nMETA_START\n");
+		for (String[] field : ISS_OMM) {
+			if (field[0].equals(missingKey)) {
+				continue;
+			}
+			message.append(field[0]).append(" = ").append(field[1]);
+			if (field[0].equals("MEAN_MOTION")) {
+				message.append(" [rev/day]");
+			}
+			message.append('\n');
+		}
+		message.append("DATA_STOP\n\n");
+		return message.toString();
+	}
+
+	private static List<CatalogObject> readAll(CatalogReader reader) throws IOException, PatriusException {
+		List<CatalogObject> objects = new ArrayList<>();
+		try {
+			reader.readAll(objects::add);
+		} finally {
+			reader.close();
+		}
+		return objects;
+	}
+
+	private static void assertSameElements(TLE expected, TLE actual) {
+		assertEquals(expected.getSatelliteNumber(), actual.getSatelliteNumber());
+		assertEquals(0.0, actual.getDate().durationFrom(expected.getDate()), 1e-3);
+		assertEquals(expected.getMeanMotion(), actual.getMeanMotion(), 1e-12);
+		assertEquals(expected.getE(), actual.getE(), 1e-12);
+		assertEquals(expected.getI(), actual.getI(), 1e-12);
+		assertEquals(expected.getRaan(), actual.getRaan(), 1e-12);
+		assertEquals(expected.getPerigeeArgument(), actual.getPerigeeArgument(), 1e-12);
+		assertEquals(expected.getMeanAnomaly(), actual.getMeanAnomaly(), 1e-12);
+		assertEquals(expected.getBStar(), actual.getBStar(), 1e-12);
+	}
+}
@@ -0,0 +1,99 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import gov.nasa.worldwind.awt.WorldWindowGLCanvas;
+
+public class ConstellationAnimatorTest {
+
+	/** Wall clock driven by the test, in nanoseconds. */
+	private long now;
+
+	private SimulationClock clock;
+	private Constellation constellation;
+	private ConstellationAnimator animator;
+
+	@Before
+	public void setup() {
+		clock = new SimulationClock(new AbsoluteDate(), () -> now);
+		constellation = new Constellation();
+		animator = new ConstellationAnimator(constellation, clock, new WorldWindowGLCanvas());
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		animator.shutdown(1000);
+	}
+
+	private void addObject(int k) {
+		constellation.add("SAT-" + k, new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500e3, 0.001,
+				Math.toRadians(k % 180), Math.toRadians(k % 360), Math.toRadians((7 * k) % 360),
+				Math.toRadians((13 * k) % 360), PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(),
+				Constants.WGS84_EARTH_MU));
+	}
+
+	/** Ticks on the EDT, as the timer does, then waits for the pass to be published. */
+	private Constellation.Snapshot tickAndWait(double expectedTime, int expectedSize) throws Exception {
+		SwingUtilities.invokeAndWait(animator::tick);
+		long deadline = System.currentTimeMillis() + 30000;
+		Constellation.Snapshot snapshot = constellation.getSnapshot();
+		while ((snapshot.getTime() != expectedTime || snapshot.size() != expectedSize)
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			snapshot = constellation.getSnapshot();
+		}
+		assertEquals(expectedTime, snapshot.getTime(), 0.0);
+		assertEquals(expectedSize, snapshot.size());
+		return snapshot;
+	}
+
+	@Test
+	public void testFollowsTheClock() throws Exception {
+		// Description: Plays the clock and checks that each tick publishes a snapshot of every
+		// object at the clock time, and that the objects move.
+		for (int k = 0; k < 2 * Constellation.BATCH_SIZE; k++) {
+			addObject(k);
+		}
+		clock.setSpeed(60);
+		clock.play();
+
+		Constellation.Snapshot first = tickAndWait(0, 2 * Constellation.BATCH_SIZE);
+		now += 1_000_000_000L;
+		Constellation.Snapshot second = tickAndWait(60, 2 * Constellation.BATCH_SIZE);
+		assertNotSame(first, second);
+		assertTrue(Math.abs(first.getLongitude(5) - second.getLongitude(5)) > 1e-6);
+	}
+
+	@Test
+	public void testSkipsWhenNothingChanged() throws Exception {
+		// Description: Checks that a paused clock does not trigger new passes, but that objects
+		// added while loading a catalog are shown on the next tick.
+		addObject(0);
+		Constellation.Snapshot first = tickAndWait(0, 1);
+		Constellation.Snapshot again = tickAndWait(0, 1);
+		assertSame(first, again);
+
+		addObject(1);
+		Constellation.Snapshot grown = tickAndWait(0, 2);
+		assertNotSame(first, grown);
+	}
+
+	@Test
+	public void testNoPassWithoutObjects() throws Exception {
+		// Description: Checks that an empty constellation is not propagated.
+		Constellation.Snapshot empty = constellation.getSnapshot();
+		SwingUtilities.invokeAndWait(animator::tick);
+		Thread.sleep(50);
+		assertSame(empty, constellation.getSnapshot());
+	}
+}
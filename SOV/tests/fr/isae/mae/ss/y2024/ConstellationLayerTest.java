@@ -0,0 +1,129 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.Angle;
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec4;
+import gov.nasa.worldwind.globes.Earth;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.render.Path;
+
+public class ConstellationLayerTest {
+
+	private static final String ISS_LINE_1 = "1 25544U 98067A   08264.51782528 -.00002182  00000-0 -11606-4 0  2927";
+	private static final String ISS_LINE_2 = "2 25544  51.6416 247.4627 0006703 130.5360 325.0288 15.72125391563537";
+
+	private Constellation constellation;
+	private ConstellationLayer layer;
+	private TLE tle;
+	private OrbitalElements elements;
+
+	@Before
+	public void setup() throws PatriusException {
+		constellation = new Constellation();
+		tle = new TLE(ISS_LINE_1, ISS_LINE_2);
+		constellation.add(new CatalogObject("ISS (ZARYA)", tle));
+		elements = new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 800e3, 0.001, Math.toRadians(98),
+				Math.toRadians(30), Math.toRadians(60), Math.toRadians(90), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+		constellation.add("SSO", elements);
+		layer = new ConstellationLayer(constellation);
+	}
+
+	/** Checks that a path shows exactly the samples of a trajectory. */
+	private static void assertShows(TrajectoryBuffer expected, Path path) {
+		Iterator<? extends Position> positions = path.getPositions().iterator();
+		for (int k = 0; k < expected.size(); k++) {
+			assertTrue(positions.hasNext());
+			Position position = positions.next();
+			assertEquals(expected.getLatitude(k), position.getLatitude().radians, 1e-12);
+			assertEquals(expected.getLongitude(k), position.getLongitude().radians, 1e-12);
+			assertEquals(expected.getAltitude(k), position.getAltitude(), 1e-6);
+		}
+		assertFalse(positions.hasNext());
+	}
+
+	@Test
+	public void testSelectBuildsPathOfCatalogObject() throws PatriusException {
+		// Description: Selecting a TLE object builds its path over one period with SGP4/SDP4.
+		assertNull(layer.getSelectedPath(0));
+		layer.select(0);
+
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		new Sgp4TrajectoryEngine().propagate(tle, Sgp4TrajectoryEngine.getPeriod(tle),
+				CustomOrbit.DEFAULT_SAMPLING_POLICY, expected);
+		assertTrue(expected.size() > 1);
+
+		Path path = layer.getSelectedPath(0);
+		assertNotNull(path);
+		assertEquals("ISS (ZARYA)", path.getValue(AVKey.DISPLAY_NAME));
+		assertShows(expected, path);
+		assertEquals(Arrays.asList(0), layer.getSelection());
+	}
+
+	@Test
+	public void testSelectBuildsPathOfElements() throws PatriusException {
+		// Description: Selecting an object given by its elements builds its path over one period
+		// with the Keplerian engine.
+		layer.select(1);
+
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		KeplerianOrbit orbit = elements.toOrbit();
+		new KeplerianTrajectoryEngine().propagate(orbit, orbit.getKeplerianPeriod(),
+				CustomOrbit.DEFAULT_SAMPLING_POLICY, expected);
+		assertTrue(expected.size() > 1);
+
+		Path path = layer.getSelectedPath(1);
+		assertNotNull(path);
+		assertEquals("SSO", path.getValue(AVKey.DISPLAY_NAME));
+		assertShows(expected, path);
+		assertNull(layer.getSelectedPath(0));
+	}
+
+	@Test
+	public void testToggleSelection() throws PatriusException {
+		// Description: A second click on an object hides the path the first click showed.
+		assertTrue(layer.toggleSelection(1));
+		assertTrue(layer.toggleSelection(0));
+		assertEquals(Arrays.asList(1, 0), layer.getSelection());
+		assertFalse(layer.toggleSelection(1));
+		assertNull(layer.getSelectedPath(1));
+		assertEquals(Arrays.asList(0), layer.getSelection());
+		layer.clearSelection();
+		assertTrue(layer.getSelection().isEmpty());
+	}
+
+	@Test
+	public void testPickFindsVisibleObjects() {
+		// Description: A ray through an object picks it from the visible side of the globe only,
+		// and a ray passing far from every object picks nothing.
+		Constellation.Snapshot snapshot = constellation.propagateTo(0);
+		Globe globe = new Earth();
+		Vec4 point = globe.computePointFromPosition(Angle.fromRadians(snapshot.getLatitude(1)),
+				Angle.fromRadians(snapshot.getLongitude(1)), snapshot.getAltitude(1));
+
+		Vec4 outward = point.normalize3();
+		assertEquals(1, layer.pick(new Line(point.add3(outward.multiply3(1e7)), outward.multiply3(-1)), globe));
+		assertEquals(-1, layer.pick(new Line(point.add3(outward.multiply3(-3e7)), outward), globe));
+
+		Vec4 side = new Vec4(-outward.y, outward.x, 0).normalize3();
+		assertEquals(-1, layer.pick(new Line(point.add3(side.multiply3(5e5)).add3(outward.multiply3(1e7)),
+				outward.multiply3(-1)), globe));
+	}
+}
@@ -0,0 +1,126 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+public class ConstellationTest {
+
+	@Test
+	public void testMatchesKeplerianEngine() throws PatriusException {
+		// Description: Fills a constellation with more objects than one batch and checks that
+		// every published position matches the closed-form Keplerian engine at the same epoch.
+		Constellation constellation = new Constellation();
+		int count = 3 * Constellation.BATCH_SIZE + 17;
+		OrbitalElements[] elements = new OrbitalElements[count];
+		for (int k = 0; k < count; k++) {
+			elements[k] = new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500e3 + 10e3 * (k % 100),
+					0.001 * (k % 50), Math.toRadians(k % 180), Math.toRadians(k % 360), Math.toRadians((7 * k) % 360),
+					Math.toRadians((13 * k) % 360), PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(),
+					Constants.WGS84_EARTH_MU);
+			assertEquals(k, constellation.add("SAT-" + k, elements[k]));
+		}
+		assertEquals(count, constellation.size());
+		assertEquals("SAT-42", constellation.getName(42));
+
+		double time = 1234.5;
+		Constellation.Snapshot snapshot = constellation.propagateTo(time);
+		assertSame(snapshot, constellation.getSnapshot());
+		assertEquals(count, snapshot.size());
+		assertEquals(time, snapshot.getTime(), 0.0);
+
+		KeplerianTrajectoryEngine engine = new KeplerianTrajectoryEngine();
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		for (int k = 0; k < count; k += 97) {
+			engine.propagate(elements[k].toOrbit(), new double[] { time }, expected);
+			assertEquals(expected.getLatitude(0), snapshot.getLatitude(k), 1e-9);
+			assertEquals(0.0, Math.IEEEremainder(expected.getLongitude(0) - snapshot.getLongitude(k), 2 * Math.PI),
+					1e-9);
+			assertEquals(expected.getAltitude(0), snapshot.getAltitude(k), 1e-3);
+		}
+	}
+
+	@Test
+	public void testSnapshotsArePublishedAtomically() {
+		// Description: Checks that a published snapshot is not modified by later passes.
+		Constellation constellation = new Constellation();
+		constellation.add("ISS", new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 415e3, 0.0005931,
+				Math.toRadians(51.6403), Math.toRadians(28.9604), Math.toRadians(57.3420), Math.toRadians(122.7049),
+				PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU));
+
+		Constellation.Snapshot first = constellation.propagateTo(0);
+		double latitude = first.getLatitude(0);
+		Constellation.Snapshot second = constellation.propagateTo(600);
+
+		assertNotSame(first, second);
+		assertEquals(latitude, first.getLatitude(0), 0.0);
+		assertTrue(Math.abs(second.getLatitude(0) - latitude) > 1e-3);
+	}
+
+	@Test
+	public void testObjectsAreMovedToTheConstellationEpoch() {
+		// Description: Adds the same orbit twice, the second time described one hour later, and
+		// checks that both copies are propagated to the same position.
+		AbsoluteDate epoch = new AbsoluteDate();
+		double a = Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 700e3;
+		double n = Math.sqrt(Constants.WGS84_EARTH_MU / (a * a * a));
+		Constellation constellation = new Constellation(epoch);
+		constellation.add("NOW", new OrbitalElements(a, 0.01, 1.0, 0.5, 0.3, 0.2, PositionAngle.MEAN,
+				FramesFactory.getGCRF(), epoch, Constants.WGS84_EARTH_MU));
+		constellation.add("LATER", new OrbitalElements(a, 0.01, 1.0, 0.5, 0.3, 0.2 + 3600 * n, PositionAngle.MEAN,
+				FramesFactory.getGCRF(), epoch.shiftedBy(3600), Constants.WGS84_EARTH_MU));
+
+		Constellation.Snapshot snapshot = constellation.propagateTo(1800);
+		assertSame(epoch, constellation.getEpoch());
+		assertEquals(snapshot.getLatitude(0), snapshot.getLatitude(1), 1e-9);
+		assertEquals(snapshot.getLongitude(0), snapshot.getLongitude(1), 1e-9);
+		assertEquals(snapshot.getAltitude(0), snapshot.getAltitude(1), 1e-3);
+	}
+
+	@Test
+	public void testCatalogObjectsFollowSgp4() throws PatriusException {
+		// Description: Adds two element sets whose epochs are two days apart and checks that both
+		// are propagated with SGP4 to the same instant, from the epoch of the first one.
+		TLE iss = new TLE("1 25544U 98067A   08264.51782528 -.00002182  00000-0 -11606-4 0  2927",
+				"2 25544  51.6416 247.4627 0006703 130.5360 325.0288 15.72125391563537");
+		TLE later = new TLE(99999, 'U', 2008, 1, "A", 0, 999, iss.getDate().shiftedBy(2 * 86400.),
+				iss.getMeanMotion(), 0, 0, 0.001, Math.toRadians(97.5), Math.toRadians(90), Math.toRadians(30),
+				Math.toRadians(10), 0, 0);
+		Constellation constellation = new Constellation();
+		assertEquals(0, constellation.add(new CatalogObject("ISS (ZARYA)", iss)));
+		assertEquals(1, constellation.add(new CatalogObject("LATER", later)));
+		assertSame(iss, constellation.getTle(0));
+		assertEquals(0.0, constellation.getEpoch().durationFrom(iss.getDate()), 0.0);
+
+		double time = 2 * 86400. + 600;
+		Constellation.Snapshot snapshot = constellation.propagateTo(time);
+
+		Sgp4TrajectoryEngine engine = new Sgp4TrajectoryEngine();
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		engine.propagate(iss, new double[] { time }, expected);
+		assertEquals(expected.getLatitude(0), snapshot.getLatitude(0), 1e-9);
+		assertEquals(expected.getLongitude(0), snapshot.getLongitude(0), 1e-9);
+		assertEquals(expected.getAltitude(0), snapshot.getAltitude(0), 1e-3);
+		engine.propagate(later, new double[] { 600 }, expected);
+		assertEquals(expected.getLatitude(0), snapshot.getLatitude(1), 1e-9);
+		assertEquals(expected.getLongitude(0), snapshot.getLongitude(1), 1e-9);
+		assertEquals(expected.getAltitude(0), snapshot.getAltitude(1), 1e-3);
+	}
+
+	@Test
+	public void testObjectsAddedFromElementsHaveNoTle() {
+		// Description: Checks that an object added from orbital elements is not an SGP4 object.
+		Constellation constellation = new Constellation();
+		constellation.add("KEPLER", new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 700e3, 0.01, 1.0,
+				0.5, 0.3, 0.2, PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(),
+				Constants.WGS84_EARTH_MU));
+		assertNull(constellation.getTle(0));
+	}
+}
@@ -2,10 +2,15 @@ package fr.isae.mae.ss.y2024;
 
 import static org.junit.Assert.*;
 
+import java.nio.file.Files;
+
+import javax.swing.SwingUtilities;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.forces.gravity.NewtonianAttraction;
 import fr.cnes.sirius.patrius.frames.FramesFactory;
 import fr.cnes.sirius.patrius.orbits.PositionAngle;
 import fr.cnes.sirius.patrius.time.AbsoluteDate;
@@ -14,6 +19,9 @@ import gov.nasa.worldwind.layers.RenderableLayer;
 import gov.nasa.worldwind.WorldWindow;
 import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.awt.WorldWindowGLCanvas;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.render.Box;
+import gov.nasa.worldwind.render.Path;
 
 public class CustomOrbitTest {
 
@@ -116,4 +124,193 @@ public class CustomOrbitTest {
 
 	}
 
+	@Test
+	public void testPreviewPointBudget() throws Exception {
+		// Description: Checks that a preview trajectory honours the configured point budget and
+		// is coarser than the full trajectory.
+		customOrbit.setPointBudgets(32, 0);
+		OrbitalElements elements = customOrbit.getElements();
+
+		assertEquals(32, customOrbit.computeTrajectory(elements, true).size());
+		assertTrue(customOrbit.computeTrajectory(elements, false).size() > 32);
+	}
+
+	@Test
+	public void testSamplingPolicy() {
+		// Description: The sampling policy drives the number of vertices of the rendered trajectory.
+		customOrbit.setSamplingPolicy(SamplingPolicy.fixedCount(100));
+		assertEquals(100, customOrbit.getTrajectory().size());
+		assertEquals(100, customOrbit.getFullPointBudget());
+
+		customOrbit.setPointBudgets(32, 0);
+		assertEquals(CustomOrbit.DEFAULT_SAMPLING_POLICY, customOrbit.getSamplingPolicy());
+	}
+
+	@Test
+	public void testPropagationWindow() throws Exception {
+		// Description: The trajectory spans the propagation window, in revolutions or as a
+		// duration, and previews keep their density per revolution.
+		OrbitalElements elements = customOrbit.getElements();
+		double period = elements.toOrbit().getKeplerianPeriod();
+		customOrbit.setPointBudgets(32, 0);
+		customOrbit.setPropagationWindow(PropagationWindow.revolutions(3));
+
+		TrajectoryBuffer trajectory = customOrbit.computeTrajectory(elements);
+		assertEquals(3 * period, trajectory.getTime(trajectory.size() - 1), 1e-6);
+		assertEquals(96, customOrbit.computeTrajectory(elements, true).size());
+
+		customOrbit.setPropagationWindow(PropagationWindow.duration(3600));
+		trajectory = customOrbit.computeTrajectory(elements);
+		assertEquals(3600, trajectory.getTime(trajectory.size() - 1), 1e-6);
+		assertEquals(PropagationWindow.duration(3600), customOrbit.getPropagationWindow());
+	}
+
+	@Test
+	public void testEphemerisReloadSkipsPropagation() throws Exception {
+		// Description: A saved ephemeris loaded into another orbit with an empty cache gives
+		// back the same trajectory without propagating.
+		customOrbit.setPropagationWindow(PropagationWindow.revolutions(2));
+		TrajectoryBuffer expected = customOrbit.computeTrajectory(customOrbit.getElements());
+		java.nio.file.Path file = Files.createTempFile("orbit", ".sove");
+		try {
+			customOrbit.saveEphemeris(file);
+
+			CustomOrbit reloaded = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 700000, 0.02,
+					Math.toRadians(30), Math.toRadians(100), Math.toRadians(50), Math.toRadians(20),
+					PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU,
+					"Reloaded");
+			TrajectoryCache cache = new TrajectoryCache(8);
+			reloaded.setTrajectoryCache(cache);
+			reloaded.loadEphemeris(EphemerisFile.open(file));
+
+			assertEquals(PropagationWindow.revolutions(2), reloaded.getPropagationWindow());
+			assertEquals(customOrbit.getElements().getA(), reloaded.getElements().getA(), 0.0);
+			TrajectoryBuffer loaded = reloaded.computeTrajectory(reloaded.getElements());
+			assertEquals(0, cache.getMisses());
+			assertEquals(expected.size(), loaded.size());
+			for (int k = 0; k < expected.size(); k++) {
+				assertEquals(expected.getTime(k), loaded.getTime(k), 0.0);
+				assertEquals(expected.getLatitude(k), loaded.getLatitude(k), 0.0);
+				assertEquals(expected.getLongitude(k), loaded.getLongitude(k), 0.0);
+				assertEquals(expected.getAltitude(k), loaded.getAltitude(k), 0.0);
+			}
+			assertEquals(expected.size(), reloaded.getTrajectory().size());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testPerturbedEphemerisIsNotReusedForTwoBodyOrbit() throws Exception {
+		// Description: The ephemeris of a perturbed orbit loaded into an unperturbed one is not
+		// taken as its Keplerian trajectory, which is propagated again.
+		customOrbit.addPerturbation(new NewtonianAttraction(Constants.WGS84_EARTH_MU));
+		customOrbit.setPointBudgets(customOrbit.getPreviewPointBudget(), 20);
+		java.nio.file.Path file = Files.createTempFile("orbit", ".sove");
+		try {
+			customOrbit.saveEphemeris(file);
+			EphemerisFile ephemeris = EphemerisFile.open(file);
+			assertEquals(NumericalTrajectoryEngine.KIND, ephemeris.getEngineKind());
+			assertEquals(NewtonianAttraction.class.getName(), ephemeris.getPerturbations());
+
+			CustomOrbit reloaded = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 700000, 0.02,
+					Math.toRadians(30), Math.toRadians(100), Math.toRadians(50), Math.toRadians(20),
+					PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU,
+					"Reloaded");
+			TrajectoryCache cache = new TrajectoryCache(8);
+			reloaded.setTrajectoryCache(cache);
+			assertFalse(reloaded.loadEphemeris(ephemeris));
+			assertEquals(0, cache.size());
+			reloaded.computeTrajectory(reloaded.getElements());
+			assertEquals(1, cache.getMisses());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testRenderablesReusedAcrossUpdates() {
+		// Description: Updating the orbit moves the existing path and satellite instead of
+		// allocating new ones, and attaching them twice does not duplicate them in the layer.
+		Path path = customOrbit.getPath();
+		Box satellite = customOrbit.getSatellite();
+		RenderableLayer layer = new RenderableLayer();
+		customOrbit.attachTo(layer);
+
+		customOrbit.updateOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 700000, 0.02, Math.toRadians(30),
+				Math.toRadians(100), Math.toRadians(50), Math.toRadians(20), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "UpdatedOrbit");
+		customOrbit.attachTo(layer);
+
+		assertSame(path, customOrbit.getPath());
+		assertSame(satellite, customOrbit.getSatellite());
+		assertEquals(2, layer.getNumRenderables());
+	}
+
+	@Test
+	public void testAnomalyOnlyChangeMovesSatellite() throws Exception {
+		// Description: Changing only the anomaly moves the satellite to the exact new position
+		// without propagating again or touching the path.
+		TrajectoryCache cache = new TrajectoryCache(8);
+		customOrbit.setTrajectoryCache(cache);
+		customOrbit.updateOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(45),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(40), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+		long misses = cache.getMisses();
+		int size = customOrbit.getTrajectory().size();
+		double firstLatitude = customOrbit.getTrajectory().getLatitude(0);
+
+		customOrbit.updateOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(45),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(200), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+
+		assertEquals(misses, cache.getMisses());
+		assertEquals(size, customOrbit.getTrajectory().size());
+		assertEquals(firstLatitude, customOrbit.getTrajectory().getLatitude(0), 0.0);
+		assertEquals(Math.toRadians(200), customOrbit.getElements().getAnomaly(), 1e-12);
+
+		TrajectoryBuffer expected = customOrbit.computeTrajectory(customOrbit.getElements());
+		Position satellite = customOrbit.getSatellite().getCenterPosition();
+		assertEquals(expected.getLatitude(0), satellite.getLatitude().radians, 1e-9);
+		assertEquals(expected.getLongitude(0), satellite.getLongitude().radians, 1e-9);
+		assertEquals(expected.getAltitude(0), satellite.getAltitude(), 1e-3);
+	}
+
+	@Test
+	public void testTrajectoryComputedOnDemand() {
+		// Description: A new orbit is not propagated until its renderables are requested.
+		assertTrue(customOrbit.isStale());
+		assertNotNull(customOrbit.getPath());
+		assertFalse(customOrbit.isStale());
+		assertTrue(customOrbit.getTrajectory().size() > 0);
+	}
+
+	@Test
+	public void testHiddenLayerDefersPropagation() throws Exception {
+		// Description: Slider edits on a disabled layer are only recorded; the orbit is
+		// propagated and shown once the layer is enabled again.
+		RenderableLayer layer = new RenderableLayer();
+		layer.setEnabled(false);
+		OrbitUpdateScheduler scheduler = new OrbitUpdateScheduler(1);
+		SliderGroup sliderGroup = new SliderGroup("TestGroup", 1.5, 0.01, 30.0, 120.0, 75.0, 30.0);
+		Runnable update = customOrbit.createScheduledUpdateRunnable(sliderGroup, layer, new WorldWindowGLCanvas(),
+				scheduler);
+
+		update.run();
+		assertTrue(customOrbit.isStale());
+		assertEquals(Math.toRadians(30), customOrbit.getElements().getI(), 1e-12);
+		assertEquals(0, scheduler.getPendingCount());
+		assertEquals(0, layer.getNumRenderables());
+
+		SwingUtilities.invokeAndWait(() -> layer.setEnabled(true));
+		long deadline = System.currentTimeMillis() + 30000;
+		while (customOrbit.isStale() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			SwingUtilities.invokeAndWait(() -> { });
+		}
+		assertFalse(customOrbit.isStale());
+		assertEquals(2, layer.getNumRenderables());
+		scheduler.shutdown(1000);
+	}
+
 }
@@ -0,0 +1,158 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+
+public class EphemerisFileTest {
+
+	private Path file;
+
+	private static OrbitalElements elements() {
+		return new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(45),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.TRUE,
+				FramesFactory.getEME2000(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+	}
+
+	private static TrajectoryBuffer trajectory(int size, boolean cartesian) {
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		for (int k = 0; k < size; k++) {
+			if (cartesian) {
+				trajectory.add(10. * k, 0.001 * k, -0.002 * k, 500000 + k, 7e6 + k, -k, 2. * k);
+			} else {
+				trajectory.add(10. * k, 0.001 * k, -0.002 * k, 500000 + k);
+			}
+		}
+		return trajectory;
+	}
+
+	@Before
+	public void setup() throws IOException {
+		file = Files.createTempFile("ephemeris", ".sove");
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void testRoundTripWithCartesianColumns() throws IOException {
+		// Description: Every sample written is read back unchanged through the mapped columns,
+		// more than one write chunk being needed for the columns.
+		TrajectoryBuffer written = trajectory(20000, true);
+		EphemerisFile.write(file, elements(), KeplerianTrajectoryEngine.KIND, "", SamplingPolicy.fixedStep(10.),
+				PropagationWindow.ONE_REVOLUTION, written);
+
+		EphemerisFile ephemeris = EphemerisFile.open(file);
+		assertEquals(written.size(), ephemeris.size());
+		assertTrue(ephemeris.hasCartesian());
+		for (int k = 0; k < written.size(); k++) {
+			assertEquals(written.getTime(k), ephemeris.getTime(k), 0.0);
+			assertEquals(written.getLatitude(k), ephemeris.getLatitude(k), 0.0);
+			assertEquals(written.getLongitude(k), ephemeris.getLongitude(k), 0.0);
+			assertEquals(written.getAltitude(k), ephemeris.getAltitude(k), 0.0);
+			assertEquals(written.getX(k), ephemeris.getX(k), 0.0);
+			assertEquals(written.getY(k), ephemeris.getY(k), 0.0);
+			assertEquals(written.getZ(k), ephemeris.getZ(k), 0.0);
+		}
+
+		TrajectoryBuffer read = ephemeris.toTrajectoryBuffer();
+		assertEquals(written.size(), read.size());
+		assertTrue(read.hasCartesian());
+		assertEquals(written.getZ(written.size() - 1), read.getZ(read.size() - 1), 0.0);
+		read.add(1e6, 0, 0, 0, 0, 0, 0);
+		assertEquals(written.size() + 1, read.size());
+	}
+
+	@Test
+	public void testRoundTripWithoutCartesianColumns() throws IOException {
+		// Description: A trajectory without Cartesian positions is read back without them.
+		TrajectoryBuffer written = trajectory(100, false);
+		EphemerisFile.write(file, elements(), KeplerianTrajectoryEngine.KIND, "", SamplingPolicy.fixedCount(100),
+				PropagationWindow.ONE_REVOLUTION, written);
+
+		EphemerisFile ephemeris = EphemerisFile.open(file);
+		assertFalse(ephemeris.hasCartesian());
+		assertTrue(Double.isNaN(ephemeris.getX(0)));
+		TrajectoryBuffer read = ephemeris.toTrajectoryBuffer();
+		assertFalse(read.hasCartesian());
+		assertEquals(written.size(), read.size());
+		assertEquals(written.getAltitude(99), read.getAltitude(99), 0.0);
+	}
+
+	@Test
+	public void testHeaderKeepsParameters() throws IOException {
+		// Description: The elements, the engine, the sampling policy and the propagation window are
+		// read back.
+		OrbitalElements elements = elements();
+		EphemerisFile.write(file, elements, NumericalTrajectoryEngine.KIND, "a.Drag,b.ThirdBody",
+				SamplingPolicy.fixedStep(30.), PropagationWindow.duration(7200), trajectory(3, false));
+
+		EphemerisFile ephemeris = EphemerisFile.open(file);
+		OrbitalElements read = ephemeris.getElements();
+		assertEquals(elements.getA(), read.getA(), 0.0);
+		assertEquals(elements.getE(), read.getE(), 0.0);
+		assertEquals(elements.getI(), read.getI(), 0.0);
+		assertEquals(elements.getPa(), read.getPa(), 0.0);
+		assertEquals(elements.getRaan(), read.getRaan(), 0.0);
+		assertEquals(elements.getAnomaly(), read.getAnomaly(), 0.0);
+		assertEquals(elements.getMu(), read.getMu(), 0.0);
+		assertEquals(PositionAngle.TRUE, read.getType());
+		assertSame(FramesFactory.getEME2000(), read.getFrame());
+		assertEquals(0, read.getDate().durationFrom(elements.getDate()), 1e-9);
+		assertEquals(SamplingPolicy.fixedStep(30.), ephemeris.getSamplingPolicy());
+		assertEquals(PropagationWindow.duration(7200), ephemeris.getPropagationWindow());
+		assertEquals(NumericalTrajectoryEngine.KIND, ephemeris.getEngineKind());
+		assertEquals("a.Drag,b.ThirdBody", ephemeris.getPerturbations());
+		assertFalse(ephemeris.isComputedBy(new KeplerianTrajectoryEngine()));
+	}
+
+	@Test
+	public void testInvalidFilesRejected() throws IOException {
+		// Description: A file with another magic, a newer version, missing samples or a sample
+		// count overflowing the column offsets is rejected.
+		EphemerisFile.write(file, elements(), KeplerianTrajectoryEngine.KIND, "", SamplingPolicy.fixedCount(10),
+				PropagationWindow.ONE_REVOLUTION, trajectory(10, true));
+		byte[] valid = Files.readAllBytes(file);
+
+		byte[] bytes = valid.clone();
+		bytes[0] = 'X';
+		assertRejected(bytes);
+
+		bytes = valid.clone();
+		ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, EphemerisFile.VERSION + 1);
+		assertRejected(bytes);
+
+		bytes = valid.clone();
+		ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(16, Integer.MAX_VALUE);
+		assertRejected(bytes);
+
+		assertRejected(Arrays.copyOf(valid, valid.length - 8));
+		assertRejected(Arrays.copyOf(valid, 16));
+	}
+
+	private void assertRejected(byte[] bytes) throws IOException {
+		Files.write(file, bytes);
+		try {
+			EphemerisFile.open(file);
+			fail("Invalid file accepted");
+		} catch (IOException expected) {
+			// The file is not a valid ephemeris file
+		}
+	}
+}
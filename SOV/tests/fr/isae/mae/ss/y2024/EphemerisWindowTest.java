@@ -0,0 +1,129 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+public class EphemerisWindowTest {
+
+	private static final SamplingPolicy SAMPLING = SamplingPolicy.fixedCount(50);
+
+	private static KeplerianOrbit lowOrbit() {
+		return new KeplerianOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500e3, 0.01, Math.toRadians(45),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+	}
+
+	/** Checks every sample of a window against the closed-form position at its epoch. */
+	private static void assertMatchesAnalytical(KeplerianOrbit orbit, EphemerisWindow window, double tolerance)
+			throws PatriusException {
+		TrajectoryBuffer samples = new TrajectoryBuffer();
+		window.copyTo(samples);
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		KeplerianTrajectoryEngine engine = new KeplerianTrajectoryEngine();
+		for (int k = 0; k < samples.size(); k++) {
+			if (k > 0) {
+				assertTrue(samples.getTime(k) > samples.getTime(k - 1));
+			}
+			engine.propagate(orbit, new double[] { samples.getTime(k) }, expected);
+			assertEquals(expected.getX(0), samples.getX(k), tolerance);
+			assertEquals(expected.getY(0), samples.getY(k), tolerance);
+			assertEquals(expected.getZ(0), samples.getZ(k), tolerance);
+		}
+	}
+
+	@Test
+	public void testRingStaysBoundedOverLongSessions() throws PatriusException {
+		// Description: Advancing over fifty revolutions propagates one segment per revolution,
+		// always covers the window after the time and never keeps more segments than the ring holds.
+		KeplerianOrbit orbit = lowOrbit();
+		double period = orbit.getKeplerianPeriod();
+		EphemerisWindow window = new EphemerisWindow(orbit, new KeplerianTrajectoryEngine(), SAMPLING,
+				PropagationWindow.revolutions(2));
+		assertEquals(period, window.getSegmentDuration(), 1e-9);
+		assertEquals(3, window.getCapacity());
+
+		int propagated = 0;
+		for (double time = 0; time < 50 * period; time += 0.3 * period) {
+			propagated += window.advanceTo(time);
+			assertTrue(window.getStart() <= time);
+			assertTrue(window.getEnd() >= time + 2 * period - 1e-6);
+			assertTrue(window.getSegmentCount() <= window.getCapacity());
+		}
+		assertEquals(52, propagated);
+		assertEquals(window.getEnd(), window.getLastState().getDate().durationFrom(orbit.getDate()), 1e-6);
+		assertMatchesAnalytical(orbit, window, 1e-2);
+	}
+
+	@Test
+	public void testJumpRestartsAtContainingSegment() throws PatriusException {
+		// Description: A jump far ahead or back discards the segments and restarts the window at
+		// the segment containing the new time instead of propagating every segment in between.
+		KeplerianOrbit orbit = lowOrbit();
+		double period = orbit.getKeplerianPeriod();
+		EphemerisWindow window = new EphemerisWindow(orbit, new KeplerianTrajectoryEngine(), SAMPLING,
+				PropagationWindow.duration(period / 2));
+		assertEquals(period / 2, window.getSegmentDuration(), 1e-9);
+		window.advanceTo(0);
+
+		assertEquals(2, window.advanceTo(1000.25 * period));
+		assertEquals(1000 * period, window.getStart(), 1e-6);
+		assertMatchesAnalytical(orbit, window, 1e-2);
+
+		assertEquals(2, window.advanceTo(-0.1 * period));
+		assertEquals(-0.5 * period, window.getStart(), 1e-6);
+		assertMatchesAnalytical(orbit, window, 1e-2);
+	}
+
+	@Test
+	public void testNumericalExtensionResumesFromLastState() throws PatriusException {
+		// Description: A numerically propagated window extended segment by segment from its last
+		// state matches two-body motion, each extension integrating one segment only.
+		KeplerianOrbit orbit = lowOrbit();
+		double period = orbit.getKeplerianPeriod();
+		NumericalTrajectoryEngine engine = NumericalTrajectoryEngine.adaptive(Collections.emptyList());
+		EphemerisWindow window = new EphemerisWindow(orbit, engine, SAMPLING, PropagationWindow.ONE_REVOLUTION);
+
+		assertEquals(1, window.advanceTo(0));
+		for (int revolution = 1; revolution <= 3; revolution++) {
+			assertEquals(1, window.advanceTo(revolution * period - 100));
+			assertEquals(50, engine.getLastStatistics().getSamples());
+		}
+		assertEquals(2, window.getSegmentCount());
+		assertEquals(4 * period, window.getEnd(), 1e-6);
+		assertMatchesAnalytical(orbit, window, 50.);
+	}
+
+	@Test
+	public void testSeededWindowExtendsFromItsEnd() throws PatriusException {
+		// Description: Seeds a numerical window with a trajectory computed beforehand and checks
+		// that it covers the first revolution without propagating, then that its extension
+		// resumes from the end of the seed.
+		KeplerianOrbit orbit = lowOrbit();
+		double period = orbit.getKeplerianPeriod();
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		new KeplerianTrajectoryEngine().propagate(orbit, period, SAMPLING, trajectory);
+		NumericalTrajectoryEngine engine = NumericalTrajectoryEngine.adaptive(Collections.emptyList());
+		EphemerisWindow window = new EphemerisWindow(orbit, engine, SAMPLING, PropagationWindow.ONE_REVOLUTION);
+
+		window.seed(trajectory);
+		assertEquals(1, window.getSegmentCount());
+		assertEquals(period, window.getEnd(), 1e-6);
+		assertEquals(0, window.advanceTo(0));
+		assertNull(engine.getLastStatistics());
+
+		assertEquals(1, window.advanceTo(0.5 * period));
+		assertEquals(2 * period, window.getEnd(), 1e-6);
+		assertEquals(window.getEnd(), window.getLastState().getDate().durationFrom(orbit.getDate()), 1e-6);
+		assertMatchesAnalytical(orbit, window, 50.);
+	}
+}
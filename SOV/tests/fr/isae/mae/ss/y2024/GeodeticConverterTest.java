@@ -0,0 +1,72 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.bodies.OneAxisEllipsoid;
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+public class GeodeticConverterTest {
+
+	@Test
+	public void testMatchesPatriusEllipsoid() throws PatriusException {
+		// Description: Compares the closed-form conversion with the Patrius ellipsoid from the
+		// ground up to beyond geostationary altitude, including points close to the poles.
+		Frame itrf = FramesFactory.getITRF();
+		OneAxisEllipsoid earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+				Constants.WGS84_EARTH_FLATTENING, itrf);
+		AbsoluteDate date = new AbsoluteDate();
+		double[] lla = new double[3];
+
+		double[] radii = { 6.4e6, 7.0e6, 2.6e7, 4.3e7 };
+		for (double r : radii) {
+			for (double lat = -89.99; lat <= 90; lat += 7.3) {
+				for (double lon = -180; lon < 180; lon += 23.9) {
+					Vector3D position = new Vector3D(Math.toRadians(lon), Math.toRadians(lat)).scalarMultiply(r);
+					GeodeticPoint expected = earth.transform(position, itrf, date);
+					GeodeticConverter.getWgs84().toGeodetic(position.getX(), position.getY(), position.getZ(), lla);
+					assertEquals(expected.getLatitude(), lla[0], 1e-9);
+					assertEquals(0.0, Math.IEEEremainder(expected.getLongitude() - lla[1], 2 * Math.PI), 1e-9);
+					assertEquals(expected.getAltitude(), lla[2], 1e-3);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testConvertAppliesRotation() {
+		// Description: Converts a trajectory once as it is and once rotated by a quarter turn
+		// around the polar axis, and checks that only the longitudes differ, by the quarter turn.
+		TrajectoryBuffer fixed = new TrajectoryBuffer();
+		TrajectoryBuffer rotated = new TrajectoryBuffer();
+		for (double t = 0; t <= 86400.; t += 300.) {
+			fixed.addCartesian(t, 7.0e6 * Math.cos(t / 900.), 5.0e6 * Math.sin(t / 900.), 4.0e6);
+			rotated.addCartesian(t, 7.0e6 * Math.cos(t / 900.), 5.0e6 * Math.sin(t / 900.), 4.0e6);
+		}
+		FrameRotation quarterTurn = (t, matrix) -> {
+			Arrays.fill(matrix, 0.);
+			matrix[1] = -1;
+			matrix[3] = 1;
+			matrix[8] = 1;
+		};
+		GeodeticConverter.getWgs84().convert(fixed, FrameRotation.IDENTITY);
+		GeodeticConverter.getWgs84().convert(rotated, quarterTurn);
+
+		for (int k = 0; k < fixed.size(); k++) {
+			assertEquals(fixed.getLatitude(k), rotated.getLatitude(k), 1e-12);
+			assertEquals(0.0,
+					Math.IEEEremainder(rotated.getLongitude(k) - fixed.getLongitude(k) - Math.PI / 2, 2 * Math.PI),
+					1e-12);
+			assertEquals(fixed.getAltitude(k), rotated.getAltitude(k), 1e-6);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+public class KeplerianTrajectoryEngineTest {
+
+	/** Maximum allowed difference between both engines on latitude and longitude, in degrees. */
+	private static final double TOLERANCE_ANGLE = 1e-4;
+
+	/** Maximum allowed difference between both engines on altitude, in meters. */
+	private static final double TOLERANCE_ALTITUDE = 10.0;
+
+	@Test
+	public void testAnalyticalMatchesNumerical() throws PatriusException {
+		// Description: Verifies that the closed-form Keplerian engine and the Runge-Kutta engine
+		// produce the same samples (within 1e-4 deg and 10 m) on an eccentric LEO orbit.
+		KeplerianOrbit orbit = new KeplerianOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 700000, 0.05,
+				Math.toRadians(51.6), Math.toRadians(28.9), Math.toRadians(57.3), Math.toRadians(122.7),
+				PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+
+		double period = orbit.getKeplerianPeriod();
+		TrajectoryBuffer analytical = new TrajectoryBuffer();
+		TrajectoryBuffer numerical = new TrajectoryBuffer();
+		new KeplerianTrajectoryEngine().propagate(orbit, period, 10., analytical);
+		new NumericalTrajectoryEngine().propagate(orbit, period, 10., numerical);
+
+		assertEquals(numerical.size(), analytical.size());
+		for (int k = 0; k < analytical.size(); k++) {
+			assertEquals(numerical.getTime(k), analytical.getTime(k), 1e-6);
+			assertEquals(Math.toDegrees(numerical.getLatitude(k)), Math.toDegrees(analytical.getLatitude(k)),
+					TOLERANCE_ANGLE);
+			double dLon = Math.IEEEremainder(numerical.getLongitude(k) - analytical.getLongitude(k), 2 * Math.PI);
+			assertEquals(0.0, Math.toDegrees(dLon), TOLERANCE_ANGLE);
+			assertEquals(numerical.getAltitude(k), analytical.getAltitude(k), TOLERANCE_ALTITUDE);
+		}
+	}
+
+	@Test
+	public void testSolveKepler() {
+		// Description: Checks that the eccentric anomaly returned satisfies Kepler's equation.
+		double[] eccentricities = { 0.0, 0.1, 0.5, 0.9, 0.99 };
+		for (double e : eccentricities) {
+			for (double m = -3.0; m <= 3.0; m += 0.25) {
+				double bigE = KeplerianTrajectoryEngine.solveKepler(m, e);
+				assertEquals(m, bigE - e * Math.sin(bigE), 1e-12);
+			}
+		}
+	}
+
+	@Test
+	public void testOrientationChangeReusesPerifocalSamples() throws PatriusException {
+		// Description: Changing only i, RAAN or the argument of perigee reuses the perifocal
+		// samples, and the rotated result is identical to a computation from scratch.
+		KeplerianTrajectoryEngine engine = new KeplerianTrajectoryEngine();
+		KeplerianTrajectoryEngine uncached = new KeplerianTrajectoryEngine(0);
+		SamplingPolicy policy = SamplingPolicy.maxChordError(250.);
+		double a = Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 2000000;
+
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		double[][] orientations = { { 10, 20, 30 }, { 60, 20, 30 }, { 60, 80, 30 }, { 60, 80, 150 } };
+		for (double[] orientation : orientations) {
+			KeplerianOrbit orbit = new KeplerianOrbit(a, 0.3, Math.toRadians(orientation[0]),
+					Math.toRadians(orientation[1]), Math.toRadians(orientation[2]), Math.toRadians(45),
+					PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+			engine.propagate(orbit, orbit.getKeplerianPeriod(), policy, trajectory);
+			uncached.propagate(orbit, orbit.getKeplerianPeriod(), policy, expected);
+
+			assertEquals(expected.size(), trajectory.size());
+			for (int k = 0; k < trajectory.size(); k++) {
+				assertEquals(expected.getX(k), trajectory.getX(k), 0.0);
+				assertEquals(expected.getLatitude(k), trajectory.getLatitude(k), 0.0);
+			}
+		}
+		assertEquals(orientations.length - 1, engine.getShapeCacheHits());
+		assertEquals(0, uncached.getShapeCacheHits());
+	}
+
+	@Test
+	public void testDefaultEngineSelection() {
+		// Description: An orbit without perturbation uses the closed-form engine by default.
+		CustomOrbit orbit = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(45),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+		assertTrue(orbit.getEffectiveEngine() instanceof KeplerianTrajectoryEngine);
+
+		orbit.setTrajectoryEngine(new NumericalTrajectoryEngine());
+		assertTrue(orbit.getEffectiveEngine() instanceof NumericalTrajectoryEngine);
+	}
+}
@@ -0,0 +1,68 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	private static final long SECOND = 1000000000L;
+
+	@Test
+	public void testBins() {
+		// Description: Every duration falls in a bin whose upper bound is within 25% above it.
+		for (long duration = 0; duration < 100000; duration++) {
+			int bin = LatencyHistogram.bin(duration);
+			assertTrue(LatencyHistogram.upperBound(bin) >= duration);
+			assertTrue(bin == 0 || LatencyHistogram.upperBound(bin - 1) < duration);
+			assertTrue(LatencyHistogram.upperBound(bin) <= duration * 1.25);
+		}
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.bin(Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void testQuantiles() {
+		// Description: Quantiles of uniform durations are found within the bin resolution.
+		LatencyHistogram histogram = new LatencyHistogram(60 * SECOND, 6);
+		for (int k = 1; k <= 1000; k++) {
+			histogram.record(k * 1000000L, 10 * SECOND);
+		}
+		LatencySnapshot snapshot = histogram.snapshot(10 * SECOND);
+
+		assertEquals(1000, snapshot.getCount());
+		assertEquals(1000, snapshot.getLastMillis(), 0.0);
+		assertEquals(500.5, snapshot.getMeanMillis(), 1e-9);
+		assertEquals(1000, snapshot.getMaxMillis(), 0.0);
+		assertEquals(500, snapshot.getP50Millis(), 500 * 0.25);
+		assertTrue(snapshot.getP95Millis() >= 950 && snapshot.getP95Millis() <= 1000);
+		assertTrue(snapshot.getP99Millis() >= 990 && snapshot.getP99Millis() <= 1000);
+	}
+
+	@Test
+	public void testRollingWindow() {
+		// Description: Durations leave the summary once they are older than the window.
+		LatencyHistogram histogram = new LatencyHistogram(60 * SECOND, 6);
+		histogram.record(5000000, 0);
+		histogram.record(1000000, 30 * SECOND);
+
+		assertEquals(2, histogram.snapshot(59 * SECOND).getCount());
+		assertEquals(5, histogram.snapshot(59 * SECOND).getMaxMillis(), 0.0);
+
+		LatencySnapshot later = histogram.snapshot(75 * SECOND);
+		assertEquals(1, later.getCount());
+		assertEquals(1, later.getMaxMillis(), 0.0);
+
+		LatencySnapshot expired = histogram.snapshot(200 * SECOND);
+		assertEquals(0, expired.getCount());
+		assertEquals(1, expired.getLastMillis(), 0.0);
+
+		histogram.reset();
+		assertEquals(-1, histogram.snapshot(200 * SECOND).getLastMillis(), 0.0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsEmptyWindow() {
+		// Description: A window needs at least one slice.
+		new LatencyHistogram(SECOND, 0);
+	}
+}
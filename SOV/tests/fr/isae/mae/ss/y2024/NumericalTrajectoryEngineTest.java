@@ -0,0 +1,77 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.forces.gravity.NewtonianAttraction;
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+public class NumericalTrajectoryEngineTest {
+
+	private static KeplerianOrbit geostationary() {
+		return new KeplerianOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 35786e3, 0.0005, Math.toRadians(0.05),
+				Math.toRadians(310), Math.toRadians(359), Math.toRadians(300), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+	}
+
+	@Test
+	public void testAdaptiveMatchesAnalytical() throws PatriusException {
+		// Description: The adaptive integrator reproduces two-body motion over a geostationary
+		// period with a few hundred steps at most, far fewer than the output samples.
+		KeplerianOrbit orbit = geostationary();
+		double period = orbit.getKeplerianPeriod();
+		TrajectoryBuffer analytical = new TrajectoryBuffer();
+		TrajectoryBuffer adaptive = new TrajectoryBuffer();
+		NumericalTrajectoryEngine engine = NumericalTrajectoryEngine.adaptive(Collections.emptyList());
+		new KeplerianTrajectoryEngine().propagate(orbit, period, 10., analytical);
+		engine.propagate(orbit, period, 10., adaptive);
+
+		assertEquals(analytical.size(), adaptive.size());
+		for (int k = 0; k < analytical.size(); k++) {
+			assertEquals(analytical.getTime(k), adaptive.getTime(k), 1e-9);
+			assertEquals(analytical.getX(k), adaptive.getX(k), 10.);
+			assertEquals(analytical.getY(k), adaptive.getY(k), 10.);
+			assertEquals(analytical.getZ(k), adaptive.getZ(k), 10.);
+		}
+
+		PropagationStatistics statistics = engine.getLastStatistics();
+		assertNotNull(statistics);
+		assertEquals(adaptive.size(), statistics.getSamples());
+		assertTrue(statistics.getSteps() > 0);
+		assertTrue(statistics.getSteps() < 1000);
+		assertTrue(statistics.getEvaluations() >= statistics.getSteps());
+		assertTrue(statistics.getWallTimeNanos() > 0);
+	}
+
+	@Test
+	public void testIntegrationModeSelection() {
+		// Description: Perturbed orbits use the adaptive integrator unless the fixed step mode is selected.
+		CustomOrbit orbit = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01,
+				Math.toRadians(45), Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+		orbit.addPerturbation(new NewtonianAttraction(Constants.WGS84_EARTH_MU));
+		assertEquals(NumericalTrajectoryEngine.Mode.ADAPTIVE,
+				((NumericalTrajectoryEngine) orbit.getEffectiveEngine()).getMode());
+
+		orbit.setIntegrationMode(NumericalTrajectoryEngine.Mode.FIXED_STEP);
+		assertEquals(NumericalTrajectoryEngine.Mode.FIXED_STEP,
+				((NumericalTrajectoryEngine) orbit.getEffectiveEngine()).getMode());
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullPerturbationRejected() {
+		// Description: A null force model is rejected when added, not when the orbit is propagated.
+		CustomOrbit orbit = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01,
+				Math.toRadians(45), Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+		orbit.addPerturbation(null);
+	}
+}
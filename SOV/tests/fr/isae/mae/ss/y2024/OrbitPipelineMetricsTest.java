@@ -0,0 +1,132 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.After;
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class OrbitPipelineMetricsTest {
+
+	private Path recordingFile;
+
+	@After
+	public void tearDown() throws Exception {
+		if (recordingFile != null) {
+			Files.deleteIfExists(recordingFile);
+		}
+	}
+
+	private static OrbitalElements elements() {
+		return new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(45),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+	}
+
+	@Test
+	public void testPropagationEmitsFlightRecorderEvents() throws Exception {
+		// Description: A propagation emits a propagation event and a nested geodetic transform
+		// event, both carrying the orbit and the number of points.
+		OrbitPropagation propagation = new OrbitPropagation();
+		propagation.setTrajectoryCache(new TrajectoryCache(4));
+		propagation.setSamplingPolicy(SamplingPolicy.fixedCount(40));
+
+		recordingFile = Files.createTempFile("orbit-pipeline", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(OrbitUpdateEvent.NAME);
+			recording.start();
+			propagation.computeTrajectory(elements(), false);
+			recording.stop();
+			recording.dump(recordingFile);
+		}
+
+		boolean propagated = false;
+		boolean transformed = false;
+		List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+		for (RecordedEvent event : events) {
+			if (event.getLong("orbitId") != propagation.getId()) {
+				continue;
+			}
+			assertEquals(40, event.getInt("points"));
+			assertFalse(event.getBoolean("preview"));
+			propagated |= "PROPAGATION".equals(event.getString("stage"));
+			transformed |= "GEODETIC_TRANSFORM".equals(event.getString("stage"));
+		}
+		assertTrue(propagated);
+		assertTrue(transformed);
+		assertEquals(1, propagation.getPropagationLatency().snapshot().getCount());
+	}
+
+	@Test
+	public void testNestedStagesAttributedToPropagation() throws Exception {
+		// Description: A stage nested in a propagation emits an event carrying the orbit and the
+		// preview flag of the propagation, and a stage started once it is stopped no longer does.
+		OrbitPipelineMetrics metrics = new OrbitPipelineMetrics();
+		recordingFile = Files.createTempFile("orbit-pipeline", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(OrbitUpdateEvent.NAME);
+			recording.start();
+			OrbitPipelineMetrics.Measurement propagation = metrics.start(OrbitPipelineMetrics.Stage.PROPAGATION,
+					42, true);
+			metrics.startNested(OrbitPipelineMetrics.Stage.GEODETIC_TRANSFORM).stop(11, 0);
+			assertTrue(propagation.stop(10, 3) >= 0);
+			metrics.startNested(OrbitPipelineMetrics.Stage.GEODETIC_TRANSFORM).stop(12, 0);
+			recording.stop();
+			recording.dump(recordingFile);
+		}
+
+		RecordedEvent propagated = null;
+		RecordedEvent nested = null;
+		RecordedEvent after = null;
+		for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+			if ("PROPAGATION".equals(event.getString("stage")) && event.getLong("orbitId") == 42) {
+				propagated = event;
+			} else if ("GEODETIC_TRANSFORM".equals(event.getString("stage")) && event.getInt("points") == 11) {
+				nested = event;
+			} else if ("GEODETIC_TRANSFORM".equals(event.getString("stage")) && event.getInt("points") == 12) {
+				after = event;
+			}
+		}
+		assertNotNull(propagated);
+		assertEquals(3, propagated.getInt("steps"));
+		assertNotNull(nested);
+		assertEquals(42, nested.getLong("orbitId"));
+		assertTrue(nested.getBoolean("preview"));
+		assertNotNull(after);
+		assertEquals(0, after.getLong("orbitId"));
+		assertFalse(after.getBoolean("preview"));
+
+		assertEquals(1, metrics.getPropagationLatency().getCount());
+		assertEquals(2, metrics.getGeodeticTransformLatency().getCount());
+		assertEquals(0, metrics.getUpdateLatency().getCount());
+
+		metrics.reset();
+		assertEquals(0, metrics.getPropagationLatency().getCount());
+	}
+
+	@Test
+	public void testExposedThroughJmx() throws Exception {
+		// Description: The shared metrics are readable from the platform MBean server.
+		OrbitPipelineMetrics.getShared().start(OrbitPipelineMetrics.Stage.GLUE, 0, false).stop(1, 0);
+
+		CompositeData glue = (CompositeData) ManagementFactory.getPlatformMBeanServer()
+				.getAttribute(new ObjectName(OrbitPipelineMetrics.OBJECT_NAME), "GlueLatency");
+		assertTrue((Long) glue.get("count") >= 1);
+		assertTrue((Double) glue.get("p95Millis") >= 0);
+	}
+}
@@ -0,0 +1,58 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+
+public class OrbitPropagationTest {
+
+	private static OrbitalElements elements() {
+		return new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(45),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+	}
+
+	@Test
+	public void testPropagateBypassesCache() throws Exception {
+		// Description: A direct propagation fills the caller's buffer without touching the cache,
+		// and gives the same samples as the cached computation.
+		OrbitPropagation propagation = new OrbitPropagation();
+		TrajectoryCache cache = new TrajectoryCache(4);
+		propagation.setTrajectoryCache(cache);
+		propagation.setSamplingPolicy(SamplingPolicy.fixedCount(40));
+
+		TrajectoryBuffer direct = new TrajectoryBuffer();
+		propagation.propagate(elements(), direct);
+		assertEquals(0, cache.getMisses());
+		assertEquals(0, cache.size());
+		assertEquals(40, direct.size());
+
+		TrajectoryBuffer computed = propagation.computeTrajectory(elements(), false);
+		assertEquals(1, cache.getMisses());
+		for (int k = 0; k < direct.size(); k++) {
+			assertEquals(computed.getLatitude(k), direct.getLatitude(k), 0.0);
+			assertEquals(computed.getAltitude(k), direct.getAltitude(k), 0.0);
+		}
+	}
+
+	@Test
+	public void testRecycledBufferReused() throws Exception {
+		// Description: A recycled buffer receives the next computation, a cached one is never reused.
+		OrbitPropagation propagation = new OrbitPropagation();
+		propagation.setTrajectoryCache(new TrajectoryCache(4));
+		TrajectoryBuffer spare = new TrajectoryBuffer();
+		propagation.recycle(spare);
+		TrajectoryBuffer computed = propagation.computeTrajectory(elements(), true);
+		assertSame(spare, computed);
+
+		TrajectoryBuffer cached = propagation.computeTrajectory(elements(), true);
+		assertTrue(cached.isReadOnly());
+		propagation.recycle(cached);
+		assertNotSame(cached, propagation.computeTrajectory(elements(), false));
+	}
+}
@@ -0,0 +1,101 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+
+public class OrbitSetPropagatorTest {
+
+	private OrbitSetPropagator propagator;
+
+	@Before
+	public void setup() {
+		propagator = new OrbitSetPropagator(4, KeplerianTrajectoryEngine::new);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		propagator.shutdown(1000);
+	}
+
+	private static OrbitalElements elements(double altitude, double inclinationDeg) {
+		return new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + altitude, 0.01,
+				Math.toRadians(inclinationDeg), Math.toRadians(120), Math.toRadians(75), Math.toRadians(30),
+				PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+	}
+
+	@Test
+	public void testBatchMatchesSequential() throws Exception {
+		// Description: A parallel batch gives, in order, the same trajectories as sequential propagations.
+		List<OrbitalElements> batch = new ArrayList<>();
+		for (int k = 0; k < 40; k++) {
+			batch.add(elements(400e3 + 50e3 * k, 5 * k));
+		}
+		SamplingPolicy sampling = SamplingPolicy.fixedCount(200);
+		List<TrajectoryBuffer> results = propagator.propagate(batch, sampling);
+
+		assertEquals(batch.size(), results.size());
+		KeplerianTrajectoryEngine engine = new KeplerianTrajectoryEngine();
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		for (int k = 0; k < batch.size(); k++) {
+			engine.propagate(batch.get(k).toOrbit(), batch.get(k).toOrbit().getKeplerianPeriod(), sampling, expected);
+			TrajectoryBuffer result = results.get(k);
+			assertEquals(expected.size(), result.size());
+			for (int j = 0; j < expected.size(); j++) {
+				assertEquals(expected.getLatitude(j), result.getLatitude(j), 0.0);
+				assertEquals(expected.getLongitude(j), result.getLongitude(j), 0.0);
+				assertEquals(expected.getAltitude(j), result.getAltitude(j), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testSubmitIsolatesEngines() throws Exception {
+		// Description: Streamed tasks each get the engine of their worker thread, never shared
+		// between two threads, and their results are awaited in submission order.
+		List<CompletableFuture<TrajectoryEngine>> engines = new ArrayList<>();
+		List<CompletableFuture<String>> threads = new ArrayList<>();
+		for (int k = 0; k < 32; k++) {
+			CompletableFuture<String> thread = new CompletableFuture<>();
+			threads.add(thread);
+			engines.add(propagator.submit(engine -> {
+				thread.complete(Thread.currentThread().getName());
+				return engine;
+			}));
+		}
+		Map<TrajectoryEngine, String> owners = new HashMap<>();
+		for (int k = 0; k < engines.size(); k++) {
+			TrajectoryEngine engine = OrbitSetPropagator.await(engines.get(k));
+			String owner = owners.putIfAbsent(engine, threads.get(k).get());
+			assertTrue(owner == null || owner.equals(threads.get(k).get()));
+		}
+		assertTrue(owners.size() <= propagator.getParallelism());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFailureIsRethrown() throws Exception {
+		// Description: A failing propagation is reported to the caller.
+		OrbitSetPropagator failing = new OrbitSetPropagator(2, () -> (orbit, times, trajectory) -> {
+			throw new IllegalStateException("Propagation failure");
+		});
+		try {
+			failing.propagate(Arrays.asList(elements(500e3, 10)), SamplingPolicy.fixedCount(10));
+		} finally {
+			failing.shutdown(1000);
+		}
+	}
+}
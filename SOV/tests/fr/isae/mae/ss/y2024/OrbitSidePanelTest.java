@@ -63,6 +63,21 @@ public class OrbitSidePanelTest {
         assertFalse(toggled[0]);
     }
 
+    @Test
+    public void testHudButtonToggle() {
+    	// Description: Tests the toggle behavior of the performance HUD button, after the orbit buttons.
+        final boolean[] toggled = {false};
+        orbitSidePanel.setHudButtonListener(() -> toggled[0] = true, () -> toggled[0] = false);
+
+        JPanel quickAddPanel = (JPanel) orbitSidePanel.getComponent(0);
+        JToggleButton hudButton = (JToggleButton) quickAddPanel.getComponent(4);
+        hudButton.doClick();
+        assertTrue(toggled[0]);
+
+        hudButton.doClick();
+        assertFalse(toggled[0]);
+    }
+
     @Test
     public void testAddGroupButtonAction() {
     	// Description: Ensures the "Add Group" button properly adds a new slider group to the panel.
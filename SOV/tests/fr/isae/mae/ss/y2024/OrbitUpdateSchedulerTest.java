@@ -0,0 +1,137 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import gov.nasa.worldwind.WorldWindow;
+import gov.nasa.worldwind.awt.WorldWindowGLCanvas;
+import gov.nasa.worldwind.layers.RenderableLayer;
+
+public class OrbitUpdateSchedulerTest {
+
+	private OrbitUpdateScheduler scheduler;
+	private CustomOrbit customOrbit;
+
+	@Before
+	public void setup() {
+		scheduler = new OrbitUpdateScheduler(2);
+		customOrbit = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(45),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		scheduler.shutdown(1000);
+	}
+
+	private static OrbitalElements elementsWithInclination(double inclinationDeg) {
+		return new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01,
+				Math.toRadians(inclinationDeg), Math.toRadians(120), Math.toRadians(75), Math.toRadians(30),
+				PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+	}
+
+	/** Waits until the scheduler has nothing pending and the EDT has run the queued publications. */
+	private void waitForIdle() throws Exception {
+		long deadline = System.currentTimeMillis() + 30000;
+		while (System.currentTimeMillis() < deadline) {
+			SwingUtilities.invokeAndWait(() -> { });
+			if (scheduler.getPendingCount() == 0
+					&& customOrbit.getElements().getI() == Math.toRadians(60)) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+		fail("The last update was never published.");
+	}
+
+	@Test
+	public void testLatestRequestWins() throws Exception {
+		// Description: Submits a burst of updates, as a slider drag would, and checks that the last
+		// one is published while intermediate ones are coalesced.
+		RenderableLayer layer = new RenderableLayer();
+		WorldWindow wwd = new WorldWindowGLCanvas();
+
+		int submitted = 0;
+		for (int deg = 10; deg <= 60; deg++) {
+			scheduler.submit(customOrbit, elementsWithInclination(deg), layer, wwd);
+			submitted++;
+		}
+
+		waitForIdle();
+
+		assertEquals(Math.toRadians(60), customOrbit.getElements().getI(), 1e-12);
+		assertEquals(2, layer.getNumRenderables());
+		assertTrue(scheduler.getPublishedCount() >= 1);
+		assertEquals(submitted, scheduler.getPublishedCount() + scheduler.getDroppedCount());
+	}
+
+	@Test
+	public void testCancelDropsPendingUpdates() throws Exception {
+		// Description: After a cancel, no stale result is published for the orbit.
+		RenderableLayer layer = new RenderableLayer();
+		WorldWindow wwd = new WorldWindowGLCanvas();
+
+		scheduler.submit(customOrbit, elementsWithInclination(10), layer, wwd);
+		scheduler.cancel(customOrbit);
+		Thread.sleep(200);
+		SwingUtilities.invokeAndWait(() -> { });
+
+		assertEquals(0, scheduler.getPendingCount());
+		assertEquals(Math.toRadians(45), customOrbit.getElements().getI(), 1e-12);
+	}
+
+	@Test
+	public void testCancelDuringPropagationKeepsUpdatesSerial() throws Exception {
+		// Description: Cancels the update of an orbit while its propagation is running, as an
+		// anomaly-only change does, then submits a new one, and checks that the second
+		// propagation waits for the first instead of overlapping it, and that only its result is
+		// published.
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		KeplerianTrajectoryEngine kepler = new KeplerianTrajectoryEngine();
+		customOrbit.setTrajectoryCache(new TrajectoryCache(8));
+		customOrbit.setTrajectoryEngine((iniOrbit, sampleTimes, trajectory) -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				started.countDown();
+				release.await(30, TimeUnit.SECONDS);
+				kepler.propagate(iniOrbit, sampleTimes, trajectory);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			} finally {
+				running.decrementAndGet();
+			}
+		});
+		RenderableLayer layer = new RenderableLayer();
+		WorldWindow wwd = new WorldWindowGLCanvas();
+
+		scheduler.submit(customOrbit, elementsWithInclination(10), layer, wwd);
+		assertTrue(started.await(30, TimeUnit.SECONDS));
+		scheduler.cancel(customOrbit);
+		scheduler.submit(customOrbit, elementsWithInclination(60), layer, wwd);
+		Thread.sleep(200);
+		release.countDown();
+
+		waitForIdle();
+		assertEquals(1, maxRunning.get());
+		assertEquals(Math.toRadians(60), customOrbit.getElements().getI(), 1e-12);
+		assertEquals(1, scheduler.getPublishedCount());
+		assertEquals(1, scheduler.getDroppedCount());
+	}
+}
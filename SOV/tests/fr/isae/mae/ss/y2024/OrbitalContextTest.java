@@ -0,0 +1,30 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+public class OrbitalContextTest {
+
+	@Test
+	public void testSharedInstance() throws PatriusException {
+		// Description: Verifies that the context is a singleton exposing the frame of the orbits and
+		// fresh integrators.
+		OrbitalContext context = OrbitalContext.getInstance();
+		assertSame(context, OrbitalContext.getInstance());
+		assertNotNull(context.getGcrf());
+		assertNotSame(context.createFixedStepIntegrator(1.), context.createFixedStepIntegrator(1.));
+	}
+
+	@Test
+	public void testWarmUpCompletes() throws InterruptedException, PatriusException {
+		// Description: Checks that the background warm-up terminates and leaves the context ready.
+		Thread warmUp = OrbitalContext.startWarmUp();
+		assertTrue(warmUp.isDaemon());
+		warmUp.join(60000);
+		assertFalse(warmUp.isAlive());
+		assertNotNull(OrbitalContext.getInstance().getGcrf());
+	}
+}
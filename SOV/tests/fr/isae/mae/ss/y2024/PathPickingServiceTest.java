@@ -0,0 +1,88 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec4;
+import gov.nasa.worldwind.globes.Earth;
+import gov.nasa.worldwind.globes.EllipsoidalGlobe;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.render.Path;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+
+public class PathPickingServiceTest {
+
+	private final Globe globe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS,
+			Earth.WGS84_ES, new ZeroElevationModel());
+
+	/**
+	 * Builds a ray from far above a position down through it.
+	 */
+	private Line rayThrough(Position position) {
+		Vec4 target = globe.computePointFromPosition(position);
+		Vec4 eye = target.multiply3(4);
+		return new Line(eye, target.subtract3(eye).normalize3());
+	}
+
+	/**
+	 * Builds a track of one position per degree of longitude.
+	 */
+	private static TrajectoryBuffer track(double latitude, double altitude) {
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		for (int k = 0; k < 360; k++) {
+			trajectory.add(k, Math.toRadians(latitude), Math.toRadians(k - 180), altitude);
+		}
+		return trajectory;
+	}
+
+	@Test
+	public void testPickClickedPosition() {
+		// Description: A ray through a position of the path picks it, a ray far from the path picks nothing.
+		TrajectoryPositionView positions = new TrajectoryPositionView(track(0, 400000));
+		Path path = new Path(positions);
+		PathPickingService service = new PathPickingService();
+
+		Position picked = service.pick(path, rayThrough(positions.get(100)), globe);
+		assertNotNull(picked);
+		assertEquals(-80, picked.getLongitude().degrees, 1e-9);
+
+		assertNull(service.pick(path, rayThrough(Position.fromDegrees(45, 0, 400000)), globe));
+	}
+
+	@Test
+	public void testRefilledBufferIsReindexed() {
+		// Description: Refilling the trajectory behind a path rebuilds its index on the next pick.
+		TrajectoryBuffer trajectory = track(0, 400000);
+		TrajectoryPositionView positions = new TrajectoryPositionView(trajectory);
+		Path path = new Path(positions);
+		PathPickingService service = new PathPickingService();
+		Line ray = rayThrough(Position.fromDegrees(45, 20, 20000000));
+		assertNull(service.pick(path, ray, globe));
+
+		trajectory.copyFrom(track(45, 20000000));
+		Position picked = service.pick(path, ray, globe);
+		assertNotNull(picked);
+		assertEquals(20000000, picked.getAltitude(), 1e-6);
+	}
+
+	@Test
+	public void testNewPositionsAreReindexed() {
+		// Description: Giving a path new positions, or invalidating it, rebuilds its index.
+		Position position = Position.fromDegrees(10, 10, 500000);
+		Path path = new Path(Arrays.asList(Position.fromDegrees(-10, -10, 500000)));
+		PathPickingService service = new PathPickingService();
+		assertNull(service.pick(path, rayThrough(position), globe));
+
+		path.setPositions(Arrays.asList(position));
+		assertEquals(position, service.pick(path, rayThrough(position), globe));
+
+		path.setPositions(Arrays.asList(Position.fromDegrees(-10, -10, 500000)));
+		service.invalidate(path);
+		assertNull(service.pick(path, rayThrough(position), globe));
+	}
+}
@@ -0,0 +1,85 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import gov.nasa.worldwind.awt.WorldWindowGLCanvas;
+import gov.nasa.worldwind.layers.RenderableLayer;
+
+public class PerformanceHudLayerTest {
+
+	private static final long MILLISECOND = 1000000L;
+
+	private SatelliteAnimator animator;
+	private OrbitUpdateScheduler scheduler;
+	private PerformanceHudLayer hud;
+
+	@Before
+	public void setup() {
+		animator = new SatelliteAnimator(new SimulationClock(new AbsoluteDate()), new WorldWindowGLCanvas());
+		scheduler = new OrbitUpdateScheduler(1);
+		hud = new PerformanceHudLayer(animator, scheduler, new Constellation(), 500);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		animator.shutdown(1000);
+		scheduler.shutdown(1000);
+	}
+
+	/** Renders frames at 20 Hz from a time, in milliseconds. */
+	private void renderFrames(long fromMillis, int count) {
+		for (int k = 0; k < count; k++) {
+			hud.onFrame((fromMillis + 50 * k) * MILLISECOND);
+		}
+	}
+
+	@Test
+	public void testRefreshIsThrottled() {
+		// Description: The figures are only refreshed once per interval, with the frame rate over it.
+		String initial = hud.getText();
+		renderFrames(1000, 10);
+		assertEquals(initial, hud.getText());
+
+		renderFrames(1500, 1);
+		assertTrue(hud.getText().contains(String.format("FPS      %8.1f", 20.0)));
+		assertTrue(hud.getText().contains("Queued"));
+		assertTrue(hud.getText().contains("Heap"));
+
+		String refreshed = hud.getText();
+		renderFrames(1550, 9);
+		assertSame(refreshed, hud.getText());
+	}
+
+	@Test
+	public void testIdleGapRestartsCount() {
+		// Description: Frames resuming after a long pause do not show a collapsed frame rate.
+		renderFrames(1000, 11);
+		renderFrames(60000, 11);
+		assertTrue(hud.getText().contains(String.format("FPS      %8.1f", 20.0)));
+	}
+
+	@Test
+	public void testShowsTrackedOrbits() {
+		// Description: Every animated orbit is listed with its propagation latency, and its
+		// vertices are counted.
+		CustomOrbit orbit = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01,
+				Math.toRadians(45), Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "HudOrbit");
+		orbit.setTrajectoryCache(new TrajectoryCache(1));
+		orbit.attachTo(new RenderableLayer());
+		animator.track(orbit);
+
+		String text = hud.formatFigures(30);
+		assertTrue(text.contains("HudOrbit"));
+		assertTrue(text.contains(String.format("Vertices %8d", orbit.getRenderedPointCount())));
+		assertTrue(orbit.getRenderedPointCount() > 0);
+	}
+}
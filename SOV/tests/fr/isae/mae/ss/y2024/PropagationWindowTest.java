@@ -0,0 +1,49 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+
+public class PropagationWindowTest {
+
+	@Test
+	public void testDurations() {
+		// Description: A window in revolutions scales with the period of the orbit, a window in
+		// seconds does not.
+		KeplerianOrbit orbit = new KeplerianOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500e3, 0.01,
+				Math.toRadians(45), Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+		assertEquals(orbit.getKeplerianPeriod(), PropagationWindow.ONE_REVOLUTION.getDuration(orbit), 0.0);
+		assertEquals(2.5 * orbit.getKeplerianPeriod(), PropagationWindow.revolutions(2.5).getDuration(orbit), 1e-9);
+		assertEquals(86400, PropagationWindow.duration(86400).getDuration(orbit), 0.0);
+	}
+
+	@Test
+	public void testEqualityAndValidation() {
+		// Description: Windows compare by mode and value, and empty or infinite windows are rejected.
+		assertEquals(PropagationWindow.revolutions(1), PropagationWindow.ONE_REVOLUTION);
+		assertEquals(PropagationWindow.duration(60).hashCode(), PropagationWindow.duration(60).hashCode());
+		assertFalse(PropagationWindow.revolutions(60).equals(PropagationWindow.duration(60)));
+
+		for (double invalid : new double[] { 0, -1, Double.NaN, Double.POSITIVE_INFINITY }) {
+			try {
+				PropagationWindow.revolutions(invalid);
+				fail("Accepted " + invalid + " revolutions");
+			} catch (IllegalArgumentException expected) {
+				// Expected
+			}
+			try {
+				PropagationWindow.duration(invalid);
+				fail("Accepted a duration of " + invalid);
+			} catch (IllegalArgumentException expected) {
+				// Expected
+			}
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+public class SamplingPolicyTest {
+
+	private static KeplerianOrbit orbit(double altitude, double e) {
+		return new KeplerianOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + altitude, e, Math.toRadians(30),
+				Math.toRadians(40), Math.toRadians(50), Math.toRadians(60), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+	}
+
+	private static void assertIncreasingSpan(double[] times, double duration) {
+		assertEquals(0.0, times[0], 0.0);
+		assertEquals(duration, times[times.length - 1], 0.0);
+		for (int k = 1; k < times.length; k++) {
+			assertTrue(times[k] > times[k - 1]);
+		}
+	}
+
+	@Test
+	public void testChordErrorBoundsVertexCount() {
+		// Description: With a chord error bound, low and geostationary orbits get a comparable
+		// number of samples, unlike a fixed time step.
+		KeplerianOrbit leo = orbit(415e3, 0.0006);
+		KeplerianOrbit geo = orbit(35786e3, 0.0005);
+		SamplingPolicy policy = SamplingPolicy.maxChordError(250.);
+
+		double[] leoTimes = policy.sampleTimes(leo, leo.getKeplerianPeriod());
+		double[] geoTimes = policy.sampleTimes(geo, geo.getKeplerianPeriod());
+		assertIncreasingSpan(leoTimes, leo.getKeplerianPeriod());
+		assertIncreasingSpan(geoTimes, geo.getKeplerianPeriod());
+		assertTrue(leoTimes.length < 500);
+		assertTrue(geoTimes.length < 1000);
+		assertTrue(geoTimes.length < SamplingPolicy.fixedStep(10.).sampleTimes(geo, geo.getKeplerianPeriod()).length / 8);
+	}
+
+	@Test
+	public void testChordErrorDensifiesPerigee() {
+		// Description: On an eccentric orbit, samples are closer in time near perigee than near apogee.
+		KeplerianOrbit orbit = new KeplerianOrbit(4 * Constants.WGS84_EARTH_EQUATORIAL_RADIUS, 0.7, 0, 0, 0, 0,
+				PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+		double[] times = SamplingPolicy.maxChordError(250.).sampleTimes(orbit, orbit.getKeplerianPeriod());
+		double perigeeGap = times[1] - times[0];
+		double apogeeGap = Double.NaN;
+		double half = orbit.getKeplerianPeriod() / 2;
+		for (int k = 1; k < times.length; k++) {
+			if (times[k] >= half) {
+				apogeeGap = times[k] - times[k - 1];
+				break;
+			}
+		}
+		assertTrue(apogeeGap > 10 * perigeeGap);
+	}
+
+	@Test
+	public void testFixedAngleStepsTrueAnomaly() {
+		// Description: Consecutive samples of the fixed-angle mode are one angle step apart in true anomaly.
+		KeplerianOrbit orbit = orbit(2000e3, 0.3);
+		double step = Math.toRadians(5);
+		double[] times = SamplingPolicy.fixedAngle(step).sampleTimes(orbit, orbit.getKeplerianPeriod());
+		assertEquals(73, times.length);
+		for (int k = 1; k < times.length - 1; k++) {
+			double dNu = orbit.shiftedBy(times[k]).getTrueAnomaly() - orbit.shiftedBy(times[k - 1]).getTrueAnomaly();
+			assertEquals(step, Math.IEEEremainder(dNu, 2 * Math.PI), 1e-9);
+		}
+	}
+
+	@Test
+	public void testFixedCountAndStep() {
+		// Description: Fixed count and fixed step modes sample the span as requested.
+		KeplerianOrbit orbit = orbit(500e3, 0.01);
+		double period = orbit.getKeplerianPeriod();
+		double[] counted = SamplingPolicy.fixedCount(50).sampleTimes(orbit, period);
+		assertEquals(50, counted.length);
+		assertIncreasingSpan(counted, period);
+
+		double[] stepped = SamplingPolicy.fixedStep(10.).sampleTimes(orbit, period);
+		assertEquals((int) Math.ceil(period / 10.) + 1, stepped.length);
+		assertIncreasingSpan(stepped, period);
+		assertEquals(SamplingPolicy.fixedStep(10.), SamplingPolicy.fixedStep(10.));
+		assertFalse(SamplingPolicy.fixedStep(10.).equals(SamplingPolicy.fixedCount(10)));
+	}
+
+	@Test
+	public void testNumericalEngineFollowsUnevenSamples() throws PatriusException {
+		// Description: Both engines honour non-uniform sample epochs and still agree.
+		KeplerianOrbit orbit = orbit(1000e3, 0.2);
+		SamplingPolicy policy = SamplingPolicy.maxChordError(1000.);
+		TrajectoryBuffer analytical = new TrajectoryBuffer();
+		TrajectoryBuffer numerical = new TrajectoryBuffer();
+		new KeplerianTrajectoryEngine().propagate(orbit, orbit.getKeplerianPeriod(), policy, analytical);
+		new NumericalTrajectoryEngine().propagate(orbit, orbit.getKeplerianPeriod(), policy, numerical);
+
+		assertEquals(analytical.size(), numerical.size());
+		for (int k = 0; k < analytical.size(); k++) {
+			assertEquals(analytical.getTime(k), numerical.getTime(k), 1e-9);
+			assertEquals(analytical.getX(k), numerical.getX(k), 10.);
+			assertEquals(analytical.getY(k), numerical.getY(k), 10.);
+			assertEquals(analytical.getZ(k), numerical.getZ(k), 10.);
+		}
+	}
+
+	@Test
+	public void testAngularPoliciesRejectParabolicOrbit() {
+		// Description: At e = 1, the largest eccentricity Patrius accepts for a Keplerian orbit,
+		// the angular policies fail at once instead of growing the sample array until memory
+		// runs out; the time-based ones still sample the span.
+		double a = 2 * Constants.WGS84_EARTH_EQUATORIAL_RADIUS;
+		for (SamplingPolicy policy : new SamplingPolicy[] { SamplingPolicy.maxChordError(250.),
+				SamplingPolicy.fixedAngle(Math.toRadians(5)) }) {
+			try {
+				policy.sampleTimes(a, 1.0, Constants.WGS84_EARTH_MU, Math.toRadians(60), 5000);
+				fail("Parabolic orbit sampled with " + policy.getMode());
+			} catch (IllegalArgumentException expected) {
+				// The orbit is not elliptic
+			}
+		}
+		assertIncreasingSpan(SamplingPolicy.fixedCount(10).sampleTimes(a, 1.0, Constants.WGS84_EARTH_MU,
+				Math.toRadians(60), 5000), 5000);
+	}
+}
@@ -0,0 +1,257 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import gov.nasa.worldwind.awt.WorldWindowGLCanvas;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.layers.RenderableLayer;
+
+public class SatelliteAnimatorTest {
+
+	/** Wall clock driven by the test, in nanoseconds. */
+	private long now;
+
+	private SimulationClock clock;
+	private SatelliteAnimator animator;
+	private CustomOrbit orbit;
+
+	@Before
+	public void setup() {
+		clock = new SimulationClock(new AbsoluteDate(), () -> now);
+		animator = new SatelliteAnimator(clock, new WorldWindowGLCanvas());
+		orbit = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(45),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+		orbit.setTrajectoryCache(new TrajectoryCache(8));
+		orbit.attachTo(new RenderableLayer());
+		// The windows start empty unless a test caches the trajectory of the orbit
+		orbit.getTrajectoryCache().clear();
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		animator.shutdown(1000);
+	}
+
+	/** Ticks on the EDT, as the frame timer does. */
+	private void tick() throws Exception {
+		SwingUtilities.invokeAndWait(animator::tick);
+	}
+
+	/** Waits until the given number of segments has been computed and installed. */
+	private void waitForSegments(long count) throws Exception {
+		long deadline = System.currentTimeMillis() + 30000;
+		while (animator.getSegmentCount() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, animator.getSegmentCount());
+		// Flush the installation of the segment
+		SwingUtilities.invokeAndWait(() -> { });
+	}
+
+	@Test
+	public void testFramesInterpolateWithoutPropagating() throws Exception {
+		// Description: Plays the clock over most of a revolution and checks that the satellite
+		// moves every frame while a single segment has been propagated, then that nearing the end
+		// of the ephemeris extends it once in the background.
+		animator.track(orbit);
+		double period = orbit.getElements().toOrbit().getKeplerianPeriod();
+		clock.setSpeed(60);
+		clock.play();
+
+		tick();
+		waitForSegments(1);
+
+		Position previous = null;
+		for (int frame = 0; frame < 100; frame++) {
+			// 0.5 s of wall clock per frame at 60x: 30 s of orbit
+			now += 500_000_000L;
+			if (clock.getTime() > (1 - SatelliteAnimator.EXTENSION_MARGIN) * period - 60) {
+				break;
+			}
+			tick();
+			Position current = orbit.getSatellite().getCenterPosition();
+			assertFalse(current.equals(previous));
+			previous = current;
+		}
+		assertEquals(1, animator.getSegmentCount());
+
+		now += 120_000_000_000L / 60;
+		tick();
+		waitForSegments(2);
+		tick();
+		assertEquals(2, animator.getSegmentCount());
+	}
+
+	@Test
+	public void testPausedClockDoesNotMoveSatellites() throws Exception {
+		// Description: Once the satellite is at the clock time, frames of a paused clock leave it
+		// untouched.
+		animator.track(orbit);
+		clock.setTime(600);
+		tick();
+		waitForSegments(1);
+		tick();
+		Position shown = orbit.getSatellite().getCenterPosition();
+
+		now += 10_000_000_000L;
+		tick();
+		assertSame(shown, orbit.getSatellite().getCenterPosition());
+	}
+
+	@Test
+	public void testScrubbingInterpolatesWithinSpan() throws Exception {
+		// Description: Scrubbing back and forth within the propagated span moves the satellite
+		// at once to the interpolated position without propagating any new segment.
+		animator.track(orbit);
+		tick();
+		waitForSegments(1);
+		tick();
+
+		double[] span = animator.getSpan();
+		assertNotNull(span);
+		assertEquals(0.0, span[0], 1e-9);
+		assertEquals(orbit.getElements().toOrbit().getKeplerianPeriod(), span[1], 1e-6);
+
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		for (double fraction : new double[] { 0.6, 0.1, 0.45, 0.05, 0.3 }) {
+			final double time = span[0] + fraction * (span[1] - span[0]);
+			SwingUtilities.invokeAndWait(() -> animator.scrub(time));
+			assertEquals(time, clock.getTime(), 0.0);
+
+			expected.clear();
+			orbit.getEffectiveEngine().propagate(orbit.getElements().toOrbit(), new double[] { time }, expected);
+			Position shown = orbit.getSatellite().getCenterPosition();
+			assertEquals(expected.getLatitude(0), shown.getLatitude().radians, 1e-6);
+			assertEquals(0.0, Math.IEEEremainder(expected.getLongitude(0) - shown.getLongitude().radians,
+					2 * Math.PI), 1e-6);
+		}
+		assertEquals(1, animator.getSegmentCount());
+	}
+
+	@Test
+	public void testWindowSeededFromComputedTrajectory() throws Exception {
+		// Description: Checks that a window is started from the trajectory the orbit has computed
+		// and cached, so that the satellite is shown without propagating, and that it is extended
+		// from the end of that trajectory.
+		orbit.computeTrajectory(orbit.getElements());
+		animator.track(orbit);
+		clock.setTime(600);
+		tick();
+		assertEquals(0, animator.getSegmentCount());
+		assertNotNull(animator.getSpan());
+
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		orbit.getEffectiveEngine().propagate(orbit.getElements().toOrbit(), new double[] { 600 }, expected);
+		Position shown = orbit.getSatellite().getCenterPosition();
+		assertEquals(expected.getLatitude(0), shown.getLatitude().radians, 1e-6);
+
+		double period = orbit.getElements().toOrbit().getKeplerianPeriod();
+		clock.setTime(0.9 * period);
+		tick();
+		waitForSegments(1);
+		tick();
+		double[] span = animator.getSpan();
+		assertEquals(0.0, span[0], 1e-6);
+		assertEquals(2 * period, span[1], 1e-6);
+	}
+
+	@Test
+	public void testAnomalyChangeKeepsWindow() throws Exception {
+		// Description: Moves the satellite along its path by changing the anomaly alone and checks
+		// that the ephemeris is played with a shifted time instead of being propagated again.
+		animator.track(orbit);
+		tick();
+		waitForSegments(1);
+		tick();
+
+		OrbitalElements elements = orbit.getElements();
+		orbit.updateOrbit(elements.getA(), elements.getE(), elements.getI(), elements.getPa(), elements.getRaan(),
+				elements.getAnomaly() + Math.toRadians(40), elements.getType(), elements.getFrame(),
+				elements.getDate(), elements.getMu(), "TestOrbit");
+		assertNotSame(elements, orbit.getElements());
+		SwingUtilities.invokeAndWait(() -> animator.scrub(300));
+
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		orbit.getEffectiveEngine().propagate(orbit.getElements().toOrbit(), new double[] { 300 }, expected);
+		Position shown = orbit.getSatellite().getCenterPosition();
+		assertEquals(expected.getLatitude(0), shown.getLatitude().radians, 1e-6);
+		assertEquals(0.0, Math.IEEEremainder(expected.getLongitude(0) - shown.getLongitude().radians, 2 * Math.PI),
+				1e-6);
+		assertEquals(1, animator.getSegmentCount());
+	}
+
+	@Test
+	public void testFailedWindowIsNotRetried() throws Exception {
+		// Description: Checks that a window whose propagation fails is not propagated again on
+		// every frame, but is replaced once the elements change.
+		AtomicInteger calls = new AtomicInteger();
+		orbit.setTrajectoryEngine((iniOrbit, sampleTimes, trajectory) -> {
+			calls.incrementAndGet();
+			throw new IllegalStateException("Propagation failure for the test");
+		});
+		animator.track(orbit);
+		clock.setSpeed(60);
+		clock.play();
+		for (int frame = 0; frame < 20; frame++) {
+			now += 33_000_000L;
+			tick();
+			Thread.sleep(10);
+		}
+		assertEquals(1, calls.get());
+		assertNull(animator.getSpan());
+
+		orbit.setTrajectoryEngine(null);
+		OrbitalElements elements = orbit.getElements();
+		orbit.updateOrbit(elements.getA() + 10e3, elements.getE(), elements.getI(), elements.getPa(),
+				elements.getRaan(), elements.getAnomaly(), elements.getType(), elements.getFrame(),
+				elements.getDate(), elements.getMu(), "TestOrbit");
+		tick();
+		assertNotNull(animator.getSpan());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void testPreviewsDoNotPropagateWindows() throws Exception {
+		// Description: Applies the coarse previews of a slider drag and checks that no window is
+		// propagated for them, then that the window of the full trajectory applied at the end of
+		// the drag starts from that trajectory.
+		animator.track(orbit);
+		tick();
+		waitForSegments(1);
+		tick();
+
+		OrbitalElements elements = orbit.getElements();
+		for (int step = 1; step <= 5; step++) {
+			OrbitalElements dragged = new OrbitalElements(elements.getA() + step * 10e3, elements.getE(),
+					elements.getI(), elements.getPa(), elements.getRaan(), elements.getAnomaly(), elements.getType(),
+					elements.getFrame(), elements.getDate(), elements.getMu());
+			orbit.applyTrajectory(dragged, orbit.computeTrajectory(dragged, true), true);
+			assertTrue(orbit.isPreviewRendered());
+			tick();
+			Thread.sleep(10);
+		}
+		SwingUtilities.invokeAndWait(() -> { });
+		assertEquals(1, animator.getSegmentCount());
+
+		orbit.updateOrbit(elements.getA() + 50e3, elements.getE(), elements.getI(), elements.getPa(),
+				elements.getRaan(), elements.getAnomaly(), elements.getType(), elements.getFrame(),
+				elements.getDate(), elements.getMu(), "TestOrbit");
+		assertFalse(orbit.isPreviewRendered());
+		tick();
+		assertEquals(1, animator.getSegmentCount());
+		assertNotNull(animator.getSpan());
+	}
+}
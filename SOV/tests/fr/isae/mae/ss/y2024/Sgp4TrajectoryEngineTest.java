@@ -0,0 +1,52 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.propagation.analytical.tle.TLE;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.TimeScalesFactory;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+public class Sgp4TrajectoryEngineTest {
+
+	@Test
+	public void testNearEarthObject() throws PatriusException {
+		// Description: Propagates the ISS over one period with SGP4 and checks the sampling and
+		// that the altitude stays in the band of its 2008 orbit.
+		TLE tle = new TLE("1 25544U 98067A   08264.51782528 -.00002182  00000-0 -11606-4 0  2927",
+				"2 25544  51.6416 247.4627 0006703 130.5360 325.0288 15.72125391563537");
+		double period = Sgp4TrajectoryEngine.getPeriod(tle);
+		assertEquals(86400 / 15.72125391, period, 1e-3);
+
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		new Sgp4TrajectoryEngine().propagate(tle, period, SamplingPolicy.fixedCount(200), trajectory);
+
+		assertEquals(200, trajectory.size());
+		assertEquals(0.0, trajectory.getTime(0), 0.0);
+		assertEquals(period, trajectory.getTime(199), 1e-9);
+		for (int k = 0; k < trajectory.size(); k++) {
+			assertTrue(trajectory.getAltitude(k) > 300e3 && trajectory.getAltitude(k) < 450e3);
+			assertTrue(Math.abs(Math.toDegrees(trajectory.getLatitude(k))) < 52.);
+		}
+	}
+
+	@Test
+	public void testDeepSpaceObject() throws PatriusException {
+		// Description: Propagates a geostationary element set, which goes through SDP4, and checks
+		// that it stays at geostationary altitude over the equator.
+		TLE tle = new TLE(99999, 'U', 2020, 1, "A", 0, 999,
+				new AbsoluteDate("2024-01-01T00:00:00", TimeScalesFactory.getUTC()), 1.0027 * 2 * Math.PI / 86400, 0,
+				0, 0.0002, Math.toRadians(0.05), 0, 0, 0, 0, 0);
+
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		new Sgp4TrajectoryEngine().propagate(tle, Sgp4TrajectoryEngine.getPeriod(tle), SamplingPolicy.fixedStep(600.),
+				trajectory);
+
+		for (int k = 0; k < trajectory.size(); k++) {
+			assertEquals(35786e3, trajectory.getAltitude(k), 100e3);
+			assertEquals(0.0, Math.toDegrees(trajectory.getLatitude(k)), 0.1);
+		}
+	}
+}
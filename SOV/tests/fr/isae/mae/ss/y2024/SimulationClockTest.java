@@ -0,0 +1,47 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+
+public class SimulationClockTest {
+
+	/** Wall clock driven by the test, in nanoseconds. */
+	private long now;
+
+	@Test
+	public void testPlayPauseAndSpeed() {
+		// Description: The simulated time only advances while playing, at the speed multiplier,
+		// and stays continuous across pauses, speed changes and jumps.
+		SimulationClock clock = new SimulationClock(new AbsoluteDate(), () -> now);
+		assertFalse(clock.isPlaying());
+		now += 5_000_000_000L;
+		assertEquals(0.0, clock.getTime(), 0.0);
+
+		clock.play();
+		now += 2_000_000_000L;
+		assertEquals(2.0, clock.getTime(), 1e-9);
+
+		clock.setSpeed(60);
+		now += 1_000_000_000L;
+		assertEquals(62.0, clock.getTime(), 1e-9);
+
+		clock.pause();
+		now += 1_000_000_000L;
+		assertEquals(62.0, clock.getTime(), 1e-9);
+
+		clock.setTime(1000);
+		clock.play();
+		clock.setSpeed(-10);
+		now += 3_000_000_000L;
+		assertEquals(970.0, clock.getTime(), 1e-9);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSpeed() {
+		// Description: A NaN speed is refused.
+		new SimulationClock(new AbsoluteDate()).setSpeed(Double.NaN);
+	}
+}
@@ -0,0 +1,81 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import gov.nasa.worldwind.awt.WorldWindowGLCanvas;
+import gov.nasa.worldwind.layers.RenderableLayer;
+
+public class TimelinePanelTest {
+
+	private SimulationClock clock;
+	private SatelliteAnimator animator;
+	private TimelinePanel timelinePanel;
+
+	@Before
+	public void setUp() {
+		clock = new SimulationClock(new AbsoluteDate());
+		animator = new SatelliteAnimator(clock, new WorldWindowGLCanvas());
+		timelinePanel = new TimelinePanel(animator);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		animator.shutdown(1000);
+	}
+
+	@Test
+	public void testSliderDisabledWithoutEphemeris() {
+		// Description: With no animated orbit there is no span to scrub, so the slider is disabled
+		// and moving it leaves the clock untouched.
+		assertFalse(timelinePanel.getSlider().isEnabled());
+		clock.setTime(42);
+		timelinePanel.getSlider().setValue(TimelinePanel.SLIDER_STEPS / 2);
+		assertEquals(42.0, clock.getTime(), 0.0);
+	}
+
+	@Test
+	public void testFormatTime() {
+		// Description: Clock times are shown as signed offsets from the epoch.
+		assertEquals("T+0d 00:00:00", TimelinePanel.formatTime(0));
+		assertEquals("T+1d 01:01:01", TimelinePanel.formatTime(90061));
+		assertEquals("T-0d 00:01:30", TimelinePanel.formatTime(-89.6));
+	}
+
+	@Test
+	public void testSliderScrubsPropagatedSpan() throws Exception {
+		// Description: Once an orbit has been propagated, the slider spans its ephemeris: moving
+		// it jumps the clock to the matching time, and times outside the span are clamped.
+		CustomOrbit orbit = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01,
+				Math.toRadians(45), Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+		orbit.attachTo(new RenderableLayer());
+		double period = orbit.getElements().toOrbit().getKeplerianPeriod();
+		SwingUtilities.invokeAndWait(() -> {
+			animator.track(orbit);
+			animator.tick();
+		});
+		// Refresh until the first segment has been installed
+		long deadline = System.currentTimeMillis() + 30000;
+		do {
+			Thread.sleep(10);
+			SwingUtilities.invokeAndWait(timelinePanel::refresh);
+		} while (!timelinePanel.getSlider().isEnabled() && System.currentTimeMillis() < deadline);
+		assertTrue(timelinePanel.getSlider().isEnabled());
+
+		SwingUtilities.invokeAndWait(() -> timelinePanel.getSlider().setValue(TimelinePanel.SLIDER_STEPS / 4));
+		assertEquals(period / 4, clock.getTime(), 1e-6);
+		assertEquals(TimelinePanel.SLIDER_STEPS, timelinePanel.toSliderValue(2 * period));
+		assertEquals(0, timelinePanel.toSliderValue(-period));
+		assertEquals(1, animator.getSegmentCount());
+	}
+}
@@ -0,0 +1,133 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import gov.nasa.worldwind.geom.Position;
+
+public class TrajectoryBufferTest {
+
+	@Test
+	public void testGrowAndRead() {
+		// Description: Samples appended beyond the initial capacity are all kept in order.
+		TrajectoryBuffer buffer = new TrajectoryBuffer(2);
+		for (int k = 0; k < 100; k++) {
+			buffer.add(10.0 * k, 0.01 * k, -0.02 * k, 400000 + k, k, 2 * k, 3 * k);
+		}
+
+		assertEquals(100, buffer.size());
+		assertTrue(buffer.hasCartesian());
+		assertEquals(990.0, buffer.getTime(99), 0.0);
+		assertEquals(0.99, buffer.getLatitude(99), 0.0);
+		assertEquals(-1.98, buffer.getLongitude(99), 1e-15);
+		assertEquals(400099, buffer.getAltitude(99), 0.0);
+		assertEquals(297, buffer.getZ(99), 0.0);
+	}
+
+	@Test
+	public void testClearAndCopyReuseStorage() {
+		// Description: A cleared buffer can be refilled from another one.
+		TrajectoryBuffer source = new TrajectoryBuffer();
+		source.add(0, 0.1, 0.2, 300);
+		source.add(10, 0.3, 0.4, 500);
+
+		TrajectoryBuffer target = new TrajectoryBuffer();
+		target.add(5, 1, 1, 1, 1, 1, 1);
+		target.clear();
+		assertEquals(0, target.size());
+
+		target.copyFrom(source);
+		assertEquals(2, target.size());
+		assertFalse(target.hasCartesian());
+		assertEquals(0.3, target.getLatitude(1), 0.0);
+		assertTrue(Double.isNaN(target.getX(1)));
+	}
+
+	@Test
+	public void testModificationCount() {
+		// Description: Every modification is counted, so derived data can tell the samples changed.
+		TrajectoryBuffer buffer = new TrajectoryBuffer();
+		TrajectoryPositionView view = new TrajectoryPositionView(buffer);
+		int initial = buffer.getModificationCount();
+
+		buffer.add(0, 0.1, 0.2, 300);
+		int afterAdd = buffer.getModificationCount();
+		assertTrue(afterAdd != initial);
+		assertEquals(afterAdd, view.getModificationCount());
+
+		buffer.size();
+		buffer.getLatitude(0);
+		assertEquals(afterAdd, buffer.getModificationCount());
+
+		buffer.clear();
+		assertTrue(buffer.getModificationCount() != afterAdd);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReadOnlyRejectsWrites() {
+		// Description: A frozen buffer cannot be modified.
+		TrajectoryBuffer buffer = new TrajectoryBuffer();
+		buffer.markReadOnly();
+		buffer.add(0, 0, 0, 0);
+	}
+
+	@Test
+	public void testViews() {
+		// Description: The geodetic and WorldWind views expose the primitive samples without copies.
+		TrajectoryBuffer buffer = new TrajectoryBuffer();
+		buffer.add(0, Math.toRadians(10), Math.toRadians(20), 1000);
+		buffer.add(10, Math.toRadians(-30), Math.toRadians(40), 2000);
+
+		GeodeticPoint point = buffer.asGeodeticPoints().get(1);
+		assertEquals(Math.toRadians(-30), point.getLatitude(), 1e-15);
+		assertEquals(2, buffer.asGeodeticPoints().size());
+
+		Iterator<Position> positions = new TrajectoryPositionView(buffer).iterator();
+		assertEquals(10.0, positions.next().getLatitude().degrees, 1e-12);
+		assertEquals(40.0, positions.next().getLongitude().degrees, 1e-12);
+		assertFalse(positions.hasNext());
+	}
+
+	@Test
+	public void testAddAllShiftsTimes() {
+		// Description: A range of samples appended from another buffer keeps its coordinates and
+		// gets its time offsets shifted; Cartesian positions missing on one side are NaN.
+		TrajectoryBuffer segment = new TrajectoryBuffer();
+		for (int k = 0; k < 5; k++) {
+			segment.add(10.0 * k, 0.1 * k, 0.2 * k, 1000 * k, k, 2 * k, 3 * k);
+		}
+		TrajectoryBuffer ephemeris = new TrajectoryBuffer(1);
+		ephemeris.add(-5, 0, 0, 0);
+		ephemeris.addAll(segment, 1, 4, 100);
+
+		assertEquals(4, ephemeris.size());
+		assertTrue(Double.isNaN(ephemeris.getX(0)));
+		assertEquals(110.0, ephemeris.getTime(1), 0.0);
+		assertEquals(130.0, ephemeris.getTime(3), 0.0);
+		assertEquals(0.3, ephemeris.getLatitude(3), 1e-15);
+		assertEquals(3000, ephemeris.getAltitude(3), 0.0);
+		assertEquals(9, ephemeris.getZ(3), 0.0);
+	}
+
+	@Test
+	public void testFindIntervalBinarySearch() {
+		// Description: The binary search returns the interval containing a time, including at the
+		// sample times, and clamps times outside the span to the first and last intervals.
+		TrajectoryBuffer buffer = new TrajectoryBuffer();
+		assertEquals(0, buffer.findInterval(3));
+		for (int k = 0; k < 100; k++) {
+			buffer.add(k * k, 0, 0, 0);
+		}
+		assertEquals(0, buffer.findInterval(-1));
+		assertEquals(0, buffer.findInterval(0));
+		assertEquals(3, buffer.findInterval(9));
+		assertEquals(3, buffer.findInterval(15.9));
+		assertEquals(50, buffer.findInterval(2550));
+		assertEquals(98, buffer.findInterval(98 * 98 + 1));
+		assertEquals(98, buffer.findInterval(1e9));
+	}
+}
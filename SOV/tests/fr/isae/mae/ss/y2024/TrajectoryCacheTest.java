@@ -0,0 +1,151 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.forces.gravity.NewtonianAttraction;
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+
+public class TrajectoryCacheTest {
+
+	private static final TrajectoryEngine ENGINE = new KeplerianTrajectoryEngine();
+
+	private static OrbitalElements elements(double inclinationDeg) {
+		return new OrbitalElements(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01,
+				Math.toRadians(inclinationDeg), Math.toRadians(120), Math.toRadians(75), Math.toRadians(30),
+				PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+	}
+
+	@Test
+	public void testHitAndMissCounters() {
+		// Description: A stored trajectory is found again with equal elements, and counters follow.
+		TrajectoryCache cache = new TrajectoryCache(4);
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		trajectory.add(0, 0.1, 0.2, 500000);
+
+		assertNull(cache.get(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.))));
+		cache.put(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.)), trajectory);
+		TrajectoryBuffer cached = cache.get(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.)));
+		assertNotNull(cached);
+		assertNotSame("The cache keeps its own copy.", trajectory, cached);
+		assertTrue(cached.isReadOnly());
+		assertEquals(1, cached.size());
+		assertNull(cache.get(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(20.))));
+
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+		// Description: When full, the least recently used trajectory is evicted first.
+		TrajectoryCache cache = new TrajectoryCache(2);
+		cache.put(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.)), new TrajectoryBuffer());
+		cache.put(TrajectoryCache.key(elements(20), ENGINE, SamplingPolicy.fixedStep(10.)), new TrajectoryBuffer());
+		cache.get(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.)));
+		cache.put(TrajectoryCache.key(elements(30), ENGINE, SamplingPolicy.fixedStep(10.)), new TrajectoryBuffer());
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertNotNull(cache.get(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.))));
+		assertNull(cache.get(TrajectoryCache.key(elements(20), ENGINE, SamplingPolicy.fixedStep(10.))));
+	}
+
+	@Test
+	public void testOrbitRevisitHitsCache() {
+		// Description: Moving an orbit back to previously visited elements reuses the cached trajectory.
+		CustomOrbit orbit = new CustomOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01,
+				Math.toRadians(10), Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+		TrajectoryCache cache = new TrajectoryCache(8);
+		orbit.setTrajectoryCache(cache);
+
+		orbit.updateOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(20),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+		orbit.updateOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(30),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+		orbit.updateOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500000, 0.01, Math.toRadians(20),
+				Math.toRadians(120), Math.toRadians(75), Math.toRadians(30), PositionAngle.MEAN,
+				FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU, "TestOrbit");
+
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void testPropagationWindowIsPartOfKey() {
+		// Description: Trajectories of different propagation windows are cached separately; the
+		// default key spans one revolution.
+		TrajectoryCache cache = new TrajectoryCache(4);
+		cache.put(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.)), new TrajectoryBuffer());
+
+		assertNotNull(cache.get(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.),
+				PropagationWindow.revolutions(1))));
+		assertNull(cache.get(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.),
+				PropagationWindow.revolutions(2))));
+		assertNull(cache.get(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.),
+				PropagationWindow.duration(3600))));
+	}
+
+	@Test
+	public void testLoadFromEphemerisFile() throws Exception {
+		// Description: A trajectory loaded from an ephemeris file is found under the key of its
+		// header, read-only and without counting a miss.
+		Path file = Files.createTempFile("cache", ".sove");
+		try {
+			TrajectoryBuffer trajectory = new TrajectoryBuffer();
+			trajectory.add(0, 0.1, 0.2, 500000);
+			trajectory.add(10, 0.2, 0.3, 500100);
+			EphemerisFile.write(file, elements(10), ENGINE.getKind(), ENGINE.getPerturbations(),
+					SamplingPolicy.fixedStep(10.), PropagationWindow.duration(10), trajectory);
+
+			TrajectoryCache cache = new TrajectoryCache(4);
+			TrajectoryCache.Key key = cache.load(EphemerisFile.open(file), ENGINE);
+			assertEquals(TrajectoryCache.key(elements(10), ENGINE, SamplingPolicy.fixedStep(10.),
+					PropagationWindow.duration(10)), key);
+			TrajectoryBuffer cached = cache.get(key);
+			assertNotNull(cached);
+			assertTrue(cached.isReadOnly());
+			assertEquals(500100, cached.getAltitude(1), 0.0);
+			assertEquals(0, cache.getMisses());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testPerturbedEphemerisNotLoadedAsKeplerian() throws Exception {
+		// Description: A trajectory computed with perturbations is not stored as the one of the
+		// two-body engine, but is for a numerical engine modelling the same perturbations.
+		TrajectoryEngine perturbed = NumericalTrajectoryEngine
+				.adaptive(Collections.singletonList(new NewtonianAttraction(Constants.WGS84_EARTH_MU)));
+		Path file = Files.createTempFile("cache", ".sove");
+		try {
+			TrajectoryBuffer trajectory = new TrajectoryBuffer();
+			trajectory.add(0, 0.1, 0.2, 500000);
+			trajectory.add(10, 0.2, 0.3, 500100);
+			EphemerisFile.write(file, elements(10), perturbed.getKind(), perturbed.getPerturbations(),
+					SamplingPolicy.fixedStep(10.), PropagationWindow.duration(10), trajectory);
+
+			TrajectoryCache cache = new TrajectoryCache(4);
+			assertNull(cache.load(EphemerisFile.open(file), ENGINE));
+			assertEquals(0, cache.size());
+			assertNull(cache.load(EphemerisFile.open(file), new NumericalTrajectoryEngine()));
+
+			TrajectoryCache.Key key = cache.load(EphemerisFile.open(file), perturbed);
+			assertNotNull(cache.get(key));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package fr.isae.mae.ss.y2024;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.orbits.KeplerianOrbit;
+import fr.cnes.sirius.patrius.orbits.PositionAngle;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+public class TrajectoryInterpolatorTest {
+
+	@Test
+	public void testMatchesPropagation() throws PatriusException {
+		// Description: Interpolates a trajectory sampled with the default chord error policy and
+		// compares it with the closed-form position at epochs between the samples.
+		KeplerianOrbit orbit = new KeplerianOrbit(Constants.WGS84_EARTH_EQUATORIAL_RADIUS + 500e3, 0.05,
+				Math.toRadians(51.6), Math.toRadians(28.9), Math.toRadians(57.3), Math.toRadians(122.7),
+				PositionAngle.MEAN, FramesFactory.getGCRF(), new AbsoluteDate(), Constants.WGS84_EARTH_MU);
+		KeplerianTrajectoryEngine engine = new KeplerianTrajectoryEngine();
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		engine.propagate(orbit, orbit.getKeplerianPeriod(), CustomOrbit.DEFAULT_SAMPLING_POLICY, trajectory);
+
+		TrajectoryInterpolator interpolator = new TrajectoryInterpolator();
+		TrajectoryBuffer expected = new TrajectoryBuffer();
+		double[] lla = new double[3];
+		for (double t = 1.5; t < orbit.getKeplerianPeriod(); t += 37.3) {
+			interpolator.interpolate(trajectory, t, lla);
+			engine.propagate(orbit, new double[] { t }, expected);
+
+			// 1e-7 rad is about 60 cm on the ground
+			assertEquals(expected.getLatitude(0), lla[0], 1e-7);
+			assertEquals(0.0, Math.IEEEremainder(expected.getLongitude(0) - lla[1], 2 * Math.PI), 1e-7);
+			assertEquals(expected.getAltitude(0), lla[2], 1.0);
+			assertTrue(trajectory.getTime(interpolator.getCursor()) <= t);
+			assertTrue(trajectory.getTime(interpolator.getCursor() + 1) > t);
+		}
+	}
+
+	@Test
+	public void testClampsAndFindsIntervalsBackwards() {
+		// Description: Times outside the span return the end samples, and the cursor follows the
+		// time backwards as well as forwards.
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		for (int k = 0; k <= 10; k++) {
+			trajectory.add(10.0 * k, 0.01 * k, 0.02 * k, 1000 * k);
+		}
+		TrajectoryInterpolator interpolator = new TrajectoryInterpolator();
+		double[] lla = new double[3];
+
+		interpolator.interpolate(trajectory, -5, lla);
+		assertEquals(0.0, lla[2], 0.0);
+		interpolator.interpolate(trajectory, 500, lla);
+		assertEquals(10000.0, lla[2], 0.0);
+
+		interpolator.interpolate(trajectory, 95, lla);
+		assertEquals(9, interpolator.getCursor());
+		assertEquals(9500.0, lla[2], 1e-9);
+		interpolator.interpolate(trajectory, 12, lla);
+		assertEquals(1, interpolator.getCursor());
+		assertEquals(0.012, lla[0], 1e-12);
+	}
+
+	@Test
+	public void testRandomJumpsMatchSequentialLookup() {
+		// Description: Jumps to arbitrary times, as when scrubbing the timeline, find the same
+		// interval and position as a fresh interpolator.
+		TrajectoryBuffer trajectory = new TrajectoryBuffer();
+		for (int k = 0; k <= 1000; k++) {
+			trajectory.add(10.0 * k, 1e-4 * k, 2e-4 * k, 10.0 * k);
+		}
+		TrajectoryInterpolator scrubbing = new TrajectoryInterpolator(2);
+		double[] lla = new double[3];
+		double[] expected = new double[3];
+		Random random = new Random(18);
+		for (int i = 0; i < 1000; i++) {
+			double t = random.nextDouble() * 10000;
+			scrubbing.interpolate(trajectory, t, lla);
+			new TrajectoryInterpolator(2).interpolate(trajectory, t, expected);
+			assertEquals((int) Math.floor(t / 10), scrubbing.getCursor());
+			assertEquals(expected[2], lla[2], 1e-9);
+			assertEquals(t, lla[2], 1e-9);
+		}
+	}
+}